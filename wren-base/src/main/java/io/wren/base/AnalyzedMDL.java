@@ -15,6 +15,7 @@
 package io.wren.base;
 
 import io.wren.base.sqlrewrite.WrenDataLineage;
+import io.wren.base.sqlrewrite.WrenQueryDescriptors;
 
 import javax.annotation.Nullable;
 
@@ -24,12 +25,14 @@ public class AnalyzedMDL
 {
     private final WrenMDL wrenMDL;
     private final WrenDataLineage wrenDataLineage;
+    private final WrenQueryDescriptors wrenQueryDescriptors;
     private final String version;
 
     public AnalyzedMDL(WrenMDL wrenMDL, @Nullable String version)
     {
         this.wrenMDL = requireNonNull(wrenMDL);
         this.wrenDataLineage = WrenDataLineage.analyze(wrenMDL);
+        this.wrenQueryDescriptors = WrenQueryDescriptors.compile(wrenMDL);
         this.version = version;
     }
 
@@ -37,6 +40,15 @@ public class AnalyzedMDL
     {
         this.wrenMDL = requireNonNull(wrenMDL);
         this.wrenDataLineage = requireNonNull(wrenDataLineage);
+        this.wrenQueryDescriptors = WrenQueryDescriptors.compile(wrenMDL);
+        this.version = version;
+    }
+
+    public AnalyzedMDL(WrenMDL wrenMDL, WrenDataLineage wrenDataLineage, WrenQueryDescriptors wrenQueryDescriptors, @Nullable String version)
+    {
+        this.wrenMDL = requireNonNull(wrenMDL);
+        this.wrenDataLineage = requireNonNull(wrenDataLineage);
+        this.wrenQueryDescriptors = requireNonNull(wrenQueryDescriptors);
         this.version = version;
     }
 
@@ -50,6 +62,11 @@ public class AnalyzedMDL
         return wrenDataLineage;
     }
 
+    public WrenQueryDescriptors getWrenQueryDescriptors()
+    {
+        return wrenQueryDescriptors;
+    }
+
     @Nullable
     public String getVersion()
     {
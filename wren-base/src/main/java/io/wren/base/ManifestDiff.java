@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import com.google.common.collect.ImmutableSet;
+import io.wren.base.dto.CumulativeMetric;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import io.wren.base.dto.View;
+import io.wren.base.sqlrewrite.DateSpineInfo;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.UnaryOperator.identity;
+
+/**
+ * The objects of a mdl affected by redeploying it over the previous one. An object is affected if its definition
+ * changed, a relationship or the date spine it uses changed, or it requires an affected object.
+ */
+public class ManifestDiff
+{
+    private final boolean fullRedeploy;
+    private final Set<String> changedObjects;
+    private final Set<String> affectedObjects;
+    private final Set<String> removedObjects;
+
+    public static ManifestDiff diff(AnalyzedMDL previous, WrenMDL current)
+    {
+        requireNonNull(previous, "previous is null");
+        requireNonNull(current, "current is null");
+        WrenMDL previousMDL = previous.getWrenMDL();
+        // all objects are in another schema
+        if (!previousMDL.getCatalog().equals(current.getCatalog()) || !previousMDL.getSchema().equals(current.getSchema())) {
+            return new ManifestDiff(true, getObjectNames(current), getObjectNames(current), getObjectNames(previousMDL));
+        }
+
+        Set<String> changed = new HashSet<>();
+        collectChanged(previousMDL.listModels(), current.listModels(), Model::getName, changed);
+        collectChanged(previousMDL.listMetrics(), current.listMetrics(), Metric::getName, changed);
+        collectChanged(previousMDL.listCumulativeMetrics(), current.listCumulativeMetrics(), CumulativeMetric::getName, changed);
+        collectChanged(previousMDL.getManifest().getViews(), current.getManifest().getViews(), View::getName, changed);
+        Set<String> changedRelationships = new HashSet<>();
+        collectChanged(previousMDL.listRelationships(), current.listRelationships(), Relationship::getName, changedRelationships);
+        // a relationship is used by the models it connects and the objects requiring them
+        changedRelationships.forEach(name -> {
+            previousMDL.getRelationship(name).ifPresent(relationship -> changed.addAll(relationship.getModels()));
+            current.getRelationship(name).ifPresent(relationship -> changed.addAll(relationship.getModels()));
+        });
+        if (!Objects.equals(previousMDL.getDateSpine(), current.getDateSpine())) {
+            changed.add(DateSpineInfo.NAME);
+        }
+
+        Set<String> currentObjects = getObjectNames(current);
+        return new ManifestDiff(
+                false,
+                changed,
+                previous.getWrenQueryDescriptors().getDependents(changed).stream()
+                        .filter(name -> currentObjects.contains(name) || name.equals(DateSpineInfo.NAME))
+                        .collect(toImmutableSet()),
+                getObjectNames(previousMDL).stream()
+                        .filter(name -> !currentObjects.contains(name))
+                        .collect(toImmutableSet()));
+    }
+
+    private static <T> void collectChanged(List<T> previous, List<T> current, Function<T, String> getName, Set<String> changed)
+    {
+        Map<String, T> previousObjects = previous.stream().collect(toImmutableMap(getName, identity(), (a, b) -> a));
+        Map<String, T> currentObjects = current.stream().collect(toImmutableMap(getName, identity(), (a, b) -> a));
+        previousObjects.forEach((name, object) -> {
+            if (!object.equals(currentObjects.get(name))) {
+                changed.add(name);
+            }
+        });
+        currentObjects.keySet().stream()
+                .filter(name -> !previousObjects.containsKey(name))
+                .forEach(changed::add);
+    }
+
+    private static Set<String> getObjectNames(WrenMDL mdl)
+    {
+        return ImmutableSet.<String>builder()
+                .addAll(mdl.listModels().stream().map(Model::getName).iterator())
+                .addAll(mdl.listMetrics().stream().map(Metric::getName).iterator())
+                .addAll(mdl.listCumulativeMetrics().stream().map(CumulativeMetric::getName).iterator())
+                .addAll(mdl.getManifest().getViews().stream().map(View::getName).iterator())
+                .build();
+    }
+
+    private ManifestDiff(boolean fullRedeploy, Set<String> changedObjects, Set<String> affectedObjects, Set<String> removedObjects)
+    {
+        this.fullRedeploy = fullRedeploy;
+        this.changedObjects = ImmutableSet.copyOf(changedObjects);
+        this.affectedObjects = ImmutableSet.copyOf(affectedObjects);
+        this.removedObjects = ImmutableSet.copyOf(removedObjects);
+    }
+
+    /**
+     * @return true if the catalog or schema changed, so everything in the mdl should be deployed again
+     */
+    public boolean isFullRedeploy()
+    {
+        return fullRedeploy;
+    }
+
+    /**
+     * @return models, metrics, cumulative metrics and views added, removed or modified, and the models connected by
+     * a relationship added, removed or modified
+     */
+    public Set<String> getChangedObjects()
+    {
+        return changedObjects;
+    }
+
+    /**
+     * @return objects of the current mdl which are changed or require a changed object, and the date spine if it changed
+     */
+    public Set<String> getAffectedObjects()
+    {
+        return affectedObjects;
+    }
+
+    /**
+     * @return objects of the previous mdl which are not in the current mdl
+     */
+    public Set<String> getRemovedObjects()
+    {
+        return removedObjects;
+    }
+}
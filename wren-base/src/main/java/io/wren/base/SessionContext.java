@@ -26,12 +26,14 @@ public final class SessionContext
     private final String catalog;
     private final String schema;
     private final boolean enableDynamicField;
+    private final boolean parametersLiftedFromLiterals;
 
-    private SessionContext(String catalog, String schema, boolean enableDynamicField)
+    private SessionContext(String catalog, String schema, boolean enableDynamicField, boolean parametersLiftedFromLiterals)
     {
         this.catalog = catalog;
         this.schema = schema;
         this.enableDynamicField = enableDynamicField;
+        this.parametersLiftedFromLiterals = parametersLiftedFromLiterals;
     }
 
     public Optional<String> getCatalog()
@@ -49,6 +51,21 @@ public final class SessionContext
         return enableDynamicField;
     }
 
+    /**
+     * Whether the parameters of the planned statement are literals lifted by
+     * {@link io.wren.base.sqlrewrite.ParameterizedStatement}. They are bound back by position, so a parameter may be
+     * copied by a rewrite. Client parameters are bound in the order they appear in the sql and must not be copied.
+     */
+    public boolean isParametersLiftedFromLiterals()
+    {
+        return parametersLiftedFromLiterals;
+    }
+
+    public SessionContext withParametersLiftedFromLiterals(boolean parametersLiftedFromLiterals)
+    {
+        return new SessionContext(catalog, schema, enableDynamicField, parametersLiftedFromLiterals);
+    }
+
     public static class Builder
     {
         private String catalog;
@@ -75,7 +92,7 @@ public final class SessionContext
 
         public SessionContext build()
         {
-            return new SessionContext(catalog, schema, enableDynamic);
+            return new SessionContext(catalog, schema, enableDynamic, false);
         }
     }
 }
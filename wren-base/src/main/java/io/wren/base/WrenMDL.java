@@ -16,8 +16,7 @@ package io.wren.base;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.ImmutableMap;
-import com.hubspot.jinjava.Jinjava;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.wren.base.dto.CacheInfo;
 import io.wren.base.dto.Column;
 import io.wren.base.dto.CumulativeMetric;
@@ -28,28 +27,36 @@ import io.wren.base.dto.Metric;
 import io.wren.base.dto.Model;
 import io.wren.base.dto.Relationship;
 import io.wren.base.dto.View;
-import io.wren.base.jinjava.JinjavaExpressionProcessor;
-import io.wren.base.jinjava.JinjavaUtils;
+import io.wren.base.jinjava.MacroRenderer;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
-import static io.wren.base.macro.Parameter.TYPE.MACRO;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.function.UnaryOperator.identity;
-import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 public class WrenMDL
 {
     public static final WrenMDL EMPTY = WrenMDL.fromManifest(Manifest.builder().setCatalog("default").setSchema("default").build());
     private static final ObjectMapper MAPPER = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
-    private static final Jinjava JINJAVA = new Jinjava();
+    private static final int PARALLEL_RENDER_MIN_OBJECTS = 16;
+    // bounded by the cpus, so that the manifests built at the same time don't oversubscribe them
+    private static final ExecutorService RENDER_EXECUTOR = newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder().setNameFormat("wren-mdl-render-%s").setDaemon(true).build());
 
     private final String catalog;
     private final String schema;
@@ -82,35 +89,31 @@ public class WrenMDL
         this.relationships = listRelationships().stream().collect(toImmutableMap(Relationship::getName, identity()));
     }
 
-    private Manifest renderManifest(Manifest original)
+    private static Manifest renderManifest(Manifest original)
     {
-        String macroTags = original.getMacros().stream()
-                .filter(macro -> macro.getParameters().stream().noneMatch(parameter -> parameter.getType() == MACRO))
-                .map(JinjavaUtils::getMacroTag).collect(joining("\n"));
-        List<Model> renderedModels = original.getModels().stream().map(model -> {
-            List<io.wren.base.dto.Column> processed = model.getColumns().stream().map(column -> renderExpression(column, macroTags, original)).collect(toList());
-            return new Model(
-                    model.getName(),
-                    model.getRefSql(),
-                    model.getBaseObject(),
-                    model.getTableReference(),
-                    processed,
-                    model.getPrimaryKey(),
-                    model.isCached(),
-                    model.getRefreshTime(),
-                    model.getProperties());
-        }).collect(toList());
-
-        List<Metric> renderedMetrics = original.getMetrics().stream().map(metric ->
+        MacroRenderer renderer = MacroRenderer.get(original.getMacros());
+        List<Model> renderedModels = renderAll(original.getModels(), model ->
+                new Model(
+                        model.getName(),
+                        model.getRefSql(),
+                        model.getBaseObject(),
+                        model.getTableReference(),
+                        model.getColumns().stream().map(column -> renderExpression(column, renderer)).collect(toList()),
+                        model.getPrimaryKey(),
+                        model.isCached(),
+                        model.getRefreshTime(),
+                        model.getIncrementalRefresh().orElse(null),
+                        model.getProperties()));
+
+        List<Metric> renderedMetrics = renderAll(original.getMetrics(), metric ->
                 new Metric(metric.getName(),
                         metric.getBaseObject(),
-                        metric.getDimension().stream().map(column -> renderExpression(column, macroTags, original)).collect(toList()),
-                        metric.getMeasure().stream().map(column -> renderExpression(column, macroTags, original)).collect(toList()),
+                        metric.getDimension().stream().map(column -> renderExpression(column, renderer)).collect(toList()),
+                        metric.getMeasure().stream().map(column -> renderExpression(column, renderer)).collect(toList()),
                         metric.getTimeGrain(),
                         metric.isCached(),
                         metric.getRefreshTime(),
-                        metric.getProperties())
-        ).collect(toList());
+                        metric.getProperties()));
 
         return Manifest.builder(original)
                 .setModels(renderedModels)
@@ -118,14 +121,41 @@ public class WrenMDL
                 .build();
     }
 
-    private io.wren.base.dto.Column renderExpression(io.wren.base.dto.Column original, String macroTags, Manifest unProcessedManifest)
+    // render the objects of a large manifest in parallel, keeping their order
+    private static <T> List<T> renderAll(List<T> objects, UnaryOperator<T> render)
+    {
+        if (objects.size() < PARALLEL_RENDER_MIN_OBJECTS) {
+            return objects.stream().map(render).collect(toList());
+        }
+        List<Future<T>> futures = objects.stream()
+                .map(object -> RENDER_EXECUTOR.submit(() -> render.apply(object)))
+                .collect(toList());
+        List<T> rendered = new ArrayList<>(objects.size());
+        try {
+            for (Future<T> future : futures) {
+                rendered.add(future.get());
+            }
+            return rendered;
+        }
+        catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static io.wren.base.dto.Column renderExpression(io.wren.base.dto.Column original, MacroRenderer renderer)
     {
         if (original.getExpression().isEmpty()) {
             return original;
         }
 
-        String withTag = macroTags + JinjavaExpressionProcessor.process(original.getSqlExpression(), unProcessedManifest.getMacros());
-        String expression = JINJAVA.render(withTag, ImmutableMap.of());
+        String expression = renderer.render(original.getSqlExpression());
         return new io.wren.base.dto.Column(original.getName(),
                 original.getType(),
                 original.getRelationship().orElse(null),
@@ -53,6 +53,7 @@ public abstract class BaseJdbcRecordIterator<T>
         requireNonNull(client, "client is null");
         connection = client.createConnection();
         try {
+            prepareConnection(connection);
             statement = connection.prepareStatement(sql);
             setParameter(parameters);
             resultSet = statement.executeQuery();
@@ -105,22 +106,26 @@ public abstract class BaseJdbcRecordIterator<T>
             throws Exception
     {
         // use try with resources to close everything properly
-        try (Connection connection = this.connection;
-                Statement statement = this.statement;
-                ResultSet resultSet = this.resultSet) {
-            if (statement != null) {
-                try {
-                    // Trying to cancel running statement as close() may not do it
-                    statement.cancel();
+        try (Connection connection = this.connection) {
+            try (Statement statement = this.statement;
+                    ResultSet resultSet = this.resultSet) {
+                if (statement != null) {
+                    try {
+                        // Trying to cancel running statement as close() may not do it
+                        statement.cancel();
+                    }
+                    catch (SQLException ignored) {
+                        // statement already closed or cancel is not supported
+                    }
                 }
-                catch (SQLException ignored) {
-                    // statement already closed or cancel is not supported
+                if (connection != null && resultSet != null && abortConnectionOnEarlyClose()) {
+                    if (!resultSet.isAfterLast()) {
+                        connection.abort(directExecutor());
+                    }
                 }
             }
-            if (connection != null && resultSet != null) {
-                if (!resultSet.isAfterLast()) {
-                    connection.abort(directExecutor());
-                }
+            if (connection != null) {
+                releaseConnection(connection);
             }
         }
         catch (SQLException | RuntimeException e) {
@@ -128,6 +133,31 @@ public abstract class BaseJdbcRecordIterator<T>
         }
     }
 
+    /**
+     * Prepare the connection before the query is executed, e.g. to open the transaction a cursor needs.
+     */
+    protected void prepareConnection(Connection connection)
+            throws SQLException
+    {
+    }
+
+    /**
+     * Release the state set by {@link #prepareConnection(Connection)} once the result is closed, before the connection is.
+     */
+    protected void releaseConnection(Connection connection)
+            throws SQLException
+    {
+    }
+
+    /**
+     * Whether to abort the connection if the result is closed before it is fully read.
+     * A pooled connection that could be reused should not be aborted.
+     */
+    protected boolean abortConnectionOnEarlyClose()
+    {
+        return true;
+    }
+
     public ResultSetMetaData getResultSetMetaData()
     {
         return resultSetMetaData;
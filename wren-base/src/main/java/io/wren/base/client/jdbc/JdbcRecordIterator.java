@@ -20,7 +20,6 @@ import io.wren.base.client.Client;
 import java.sql.Blob;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Collections.emptyList;
@@ -41,30 +40,36 @@ public class JdbcRecordIterator
         return new JdbcRecordIterator(client, sql, parameters);
     }
 
+    // resolved once instead of looking up the result set metadata for every value
+    private final int[] columnTypes;
+
     private JdbcRecordIterator(Client client, String sql, List<Parameter> parameters)
             throws SQLException
     {
         super(client, sql, parameters);
+        this.columnTypes = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnTypes[i] = getResultSetMetaData().getColumnType(i + 1);
+        }
     }
 
     @Override
     public Object[] getCurrentRecord()
             throws SQLException
     {
-        List<Object> builder = new ArrayList<>(columnCount);
-        for (int i = 1; i <= columnCount; i++) {
-            if (resultSet.getMetaData().getColumnType(i) == Types.BLOB) {
-                Blob blob = resultSet.getBlob(i);
-                byte[] bytes = blob.getBytes(0, (int) blob.length());
-                builder.add(bytes);
+        Object[] record = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            if (columnTypes[i] == Types.BLOB) {
+                Blob blob = resultSet.getBlob(i + 1);
+                record[i] = blob.getBytes(0, (int) blob.length());
             }
-            else if (resultSet.getMetaData().getColumnType(i) == Types.SMALLINT) {
-                builder.add(resultSet.getShort(i));
+            else if (columnTypes[i] == Types.SMALLINT) {
+                record[i] = resultSet.getShort(i + 1);
             }
             else {
-                builder.add(resultSet.getObject(i));
+                record[i] = resultSet.getObject(i + 1);
             }
         }
-        return builder.toArray();
+        return record;
     }
 }
@@ -17,11 +17,15 @@ import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.ConfigSecuritySensitive;
 import io.airlift.configuration.validation.FileExists;
+import io.airlift.units.Duration;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.util.Optional;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
+
 public class BigQueryConfig
 {
     public static final String BIGQUERY_CRENDITALS_KEY = "bigquery.credentials-key";
@@ -30,6 +34,10 @@ public class BigQueryConfig
     public static final String BIGQUERY_LOCATION = "bigquery.location";
     public static final String BIGQUERY_BUCKET_NAME = "bigquery.bucket-name";
     public static final String BIGQUERY_METADATA_SCHEMA_PREFIX = "bigquery.metadata.schema.prefix";
+    public static final String BIGQUERY_PREFETCH_PAGES = "bigquery.prefetch-pages";
+    public static final String BIGQUERY_METADATA_CACHE_TTL = "bigquery.metadata.cache-ttl";
+    public static final String BIGQUERY_METADATA_FETCH_CONCURRENCY = "bigquery.metadata.fetch-concurrency";
+    public static final String BIGQUERY_FETCH_THREADS = "bigquery.fetch-threads";
     private Optional<String> credentialsKey = Optional.empty();
     private Optional<String> credentialsFile = Optional.empty();
     private Optional<String> projectId = Optional.empty();
@@ -38,6 +46,10 @@ public class BigQueryConfig
 
     private Optional<String> bucketName = Optional.empty();
     private String metadataSchemaPrefix = "";
+    private int prefetchPages = 2;
+    private Duration metadataCacheTtl = new Duration(10, MINUTES);
+    private int metadataFetchConcurrency = 8;
+    private int fetchThreads = 16;
 
     public Optional<String> getCredentialsKey()
     {
@@ -118,4 +130,59 @@ public class BigQueryConfig
         this.metadataSchemaPrefix = metadataSchemaPrefix;
         return this;
     }
+
+    @Min(0)
+    public int getPrefetchPages()
+    {
+        return prefetchPages;
+    }
+
+    @Config(BIGQUERY_PREFETCH_PAGES)
+    @ConfigDescription("The number of pages of a query result fetched ahead while the current page is read, 0 to fetch a page when it's read")
+    public BigQueryConfig setPrefetchPages(int prefetchPages)
+    {
+        this.prefetchPages = prefetchPages;
+        return this;
+    }
+
+    public Duration getMetadataCacheTtl()
+    {
+        return metadataCacheTtl;
+    }
+
+    @Config(BIGQUERY_METADATA_CACHE_TTL)
+    @ConfigDescription("How long the schemas of the tables listed from BigQuery are cached")
+    public BigQueryConfig setMetadataCacheTtl(Duration metadataCacheTtl)
+    {
+        this.metadataCacheTtl = metadataCacheTtl;
+        return this;
+    }
+
+    @Min(1)
+    public int getMetadataFetchConcurrency()
+    {
+        return metadataFetchConcurrency;
+    }
+
+    @Config(BIGQUERY_METADATA_FETCH_CONCURRENCY)
+    @ConfigDescription("The number of table schemas fetched from BigQuery at the same time when a dataset is listed")
+    public BigQueryConfig setMetadataFetchConcurrency(int metadataFetchConcurrency)
+    {
+        this.metadataFetchConcurrency = metadataFetchConcurrency;
+        return this;
+    }
+
+    @Min(1)
+    public int getFetchThreads()
+    {
+        return fetchThreads;
+    }
+
+    @Config(BIGQUERY_FETCH_THREADS)
+    @ConfigDescription("The number of threads fetching the pages of query results and the table schemas from BigQuery")
+    public BigQueryConfig setFetchThreads(int fetchThreads)
+    {
+        this.fetchThreads = fetchThreads;
+        return this;
+    }
 }
@@ -18,6 +18,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 import io.wren.base.WrenException;
 import io.wren.base.client.duckdb.CacheStorageConfig;
 import io.wren.base.client.duckdb.DuckDBConfig;
@@ -60,13 +61,21 @@ import static io.wren.base.client.duckdb.DuckdbS3StyleStorageConfig.DUCKDB_STORA
 import static io.wren.base.client.duckdb.DuckdbS3StyleStorageConfig.DUCKDB_STORAGE_SECRET_KEY;
 import static io.wren.base.client.duckdb.DuckdbS3StyleStorageConfig.DUCKDB_STORAGE_URL_STYLE;
 import static io.wren.base.client.duckdb.FileUtil.ARCHIVED;
+import static io.wren.base.config.PostgresConfig.POSTGRES_FETCH_SIZE;
 import static io.wren.base.config.PostgresConfig.POSTGRES_JDBC_URL;
 import static io.wren.base.config.PostgresConfig.POSTGRES_PASSWORD;
+import static io.wren.base.config.PostgresConfig.POSTGRES_POOL_IDLE_TIMEOUT;
+import static io.wren.base.config.PostgresConfig.POSTGRES_POOL_MAX_LIFETIME;
+import static io.wren.base.config.PostgresConfig.POSTGRES_POOL_MAX_SIZE;
 import static io.wren.base.config.PostgresConfig.POSTGRES_USER;
 import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_AUTH_FILE;
 import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_NETTY_THREAD_COUNT;
 import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_PORT;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_QUERY_THREAD_COUNT;
 import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_SSL_ENABLED;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_TIMEOUT;
 import static io.wren.base.metadata.StandardErrorCode.NOT_FOUND;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
@@ -137,6 +146,8 @@ public class ConfigManager
         initConfig(WrenConfig.WREN_DIRECTORY, wrenConfig.getWrenMDLDirectory().getPath(), false, true);
         initConfig(WrenConfig.WREN_DATASOURCE_TYPE, Optional.ofNullable(wrenConfig.getDataSourceType()).map(Enum::name).orElse(null), true, false);
         initConfig(WrenConfig.WREN_ENABLE_DYNAMIC_FIELDS, Boolean.toString(wrenConfig.getEnableDynamicFields()), false, false);
+        initConfig(WrenConfig.WREN_PLAN_CACHE_MAX_ENTRIES, Integer.toString(wrenConfig.getPlanCacheMaxEntries()), false, true);
+        initConfig(WrenConfig.WREN_PLAN_CACHE_MAX_MEMORY, wrenConfig.getPlanCacheMaxMemory().toString(), false, true);
         initConfig(DUCKDB_STORAGE_ENDPOINT, duckdbS3StyleStorageConfig.getEndpoint(), false, true);
         initConfig(DUCKDB_STORAGE_ACCESS_KEY, duckdbS3StyleStorageConfig.getAccessKey().orElse(null), true, false);
         initConfig(DUCKDB_STORAGE_SECRET_KEY, duckdbS3StyleStorageConfig.getSecretKey().orElse(null), true, false);
@@ -153,6 +164,10 @@ public class ConfigManager
         initConfig(PG_WIRE_PROTOCOL_PORT, postgresWireProtocolConfig.getPort(), false, true);
         initConfig(PG_WIRE_PROTOCOL_SSL_ENABLED, Boolean.toString(postgresWireProtocolConfig.isSslEnable()), false, true);
         initConfig(PG_WIRE_PROTOCOL_NETTY_THREAD_COUNT, Integer.toString(postgresWireProtocolConfig.getNettyThreadCount()), false, true);
+        initConfig(PG_WIRE_PROTOCOL_QUERY_THREAD_COUNT, Integer.toString(postgresWireProtocolConfig.getQueryThreadCount()), false, true);
+        initConfig(PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK, postgresWireProtocolConfig.getWriteBufferHighWaterMark().toString(), false, true);
+        initConfig(PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK, postgresWireProtocolConfig.getWriteBufferLowWaterMark().toString(), false, true);
+        initConfig(PG_WIRE_PROTOCOL_WRITE_TIMEOUT, postgresWireProtocolConfig.getWriteTimeout().toString(), false, true);
         initConfig(PG_WIRE_PROTOCOL_AUTH_FILE, postgresWireProtocolConfig.getAuthFile().getPath(), false, true);
         initConfig(BigQueryConfig.BIGQUERY_CRENDITALS_KEY, bigQueryConfig.getCredentialsKey().orElse(null), true, false);
         initConfig(BigQueryConfig.BIGQUERY_CRENDITALS_FILE, bigQueryConfig.getCredentialsFile().orElse(null), true, false);
@@ -160,9 +175,17 @@ public class ConfigManager
         initConfig(BigQueryConfig.BIGQUERY_LOCATION, bigQueryConfig.getLocation().orElse(null), true, false);
         initConfig(BigQueryConfig.BIGQUERY_BUCKET_NAME, bigQueryConfig.getBucketName().orElse(null), true, false);
         initConfig(BigQueryConfig.BIGQUERY_METADATA_SCHEMA_PREFIX, bigQueryConfig.getMetadataSchemaPrefix(), true, false);
+        initConfig(BigQueryConfig.BIGQUERY_PREFETCH_PAGES, Integer.toString(bigQueryConfig.getPrefetchPages()), true, false);
+        initConfig(BigQueryConfig.BIGQUERY_METADATA_CACHE_TTL, bigQueryConfig.getMetadataCacheTtl().toString(), true, false);
+        initConfig(BigQueryConfig.BIGQUERY_METADATA_FETCH_CONCURRENCY, Integer.toString(bigQueryConfig.getMetadataFetchConcurrency()), true, false);
+        initConfig(BigQueryConfig.BIGQUERY_FETCH_THREADS, Integer.toString(bigQueryConfig.getFetchThreads()), true, false);
         initConfig(POSTGRES_JDBC_URL, postgresConfig.getJdbcUrl(), true, false);
         initConfig(POSTGRES_USER, postgresConfig.getUser(), true, false);
         initConfig(POSTGRES_PASSWORD, postgresConfig.getPassword(), true, false);
+        initConfig(POSTGRES_POOL_MAX_SIZE, Integer.toString(postgresConfig.getPoolMaxSize()), true, false);
+        initConfig(POSTGRES_POOL_IDLE_TIMEOUT, postgresConfig.getPoolIdleTimeout().toString(), true, false);
+        initConfig(POSTGRES_POOL_MAX_LIFETIME, postgresConfig.getPoolMaxLifetime().toString(), true, false);
+        initConfig(POSTGRES_FETCH_SIZE, Integer.toString(postgresConfig.getFetchSize()), true, false);
         initConfig(DUCKDB_CONNECTOR_INIT_SQL_PATH, duckDBConnectorConfig.getInitSQLPath(), false, false);
         initConfig(DUCKDB_CONNECTOR_SESSION_SQL_PATH, duckDBConnectorConfig.getSessionSQLPath(), false, false);
     }
@@ -242,6 +265,8 @@ public class ConfigManager
                 .ifPresent(directory -> result.setWrenMDLDirectory(new File(directory)));
         result.setDataSourceType(WrenConfig.DataSourceType.valueOf(configs.get(WrenConfig.WREN_DATASOURCE_TYPE).toUpperCase(Locale.ROOT)));
         result.setEnableDynamicFields(Boolean.parseBoolean(configs.get(WrenConfig.WREN_ENABLE_DYNAMIC_FIELDS)));
+        result.setPlanCacheMaxEntries(Integer.parseInt(configs.get(WrenConfig.WREN_PLAN_CACHE_MAX_ENTRIES)));
+        result.setPlanCacheMaxMemory(DataSize.valueOf(configs.get(WrenConfig.WREN_PLAN_CACHE_MAX_MEMORY)));
         return result;
     }
 
@@ -254,6 +279,10 @@ public class ConfigManager
         result.setLocation(configs.get(BigQueryConfig.BIGQUERY_LOCATION));
         result.setBucketName(configs.get(BigQueryConfig.BIGQUERY_BUCKET_NAME));
         result.setMetadataSchemaPrefix(configs.get(BigQueryConfig.BIGQUERY_METADATA_SCHEMA_PREFIX));
+        result.setPrefetchPages(Integer.parseInt(configs.get(BigQueryConfig.BIGQUERY_PREFETCH_PAGES)));
+        result.setMetadataCacheTtl(Duration.valueOf(configs.get(BigQueryConfig.BIGQUERY_METADATA_CACHE_TTL)));
+        result.setMetadataFetchConcurrency(Integer.parseInt(configs.get(BigQueryConfig.BIGQUERY_METADATA_FETCH_CONCURRENCY)));
+        result.setFetchThreads(Integer.parseInt(configs.get(BigQueryConfig.BIGQUERY_FETCH_THREADS)));
         return result;
     }
 
@@ -263,6 +292,10 @@ public class ConfigManager
         result.setJdbcUrl(configs.get(POSTGRES_JDBC_URL));
         result.setUser(configs.get(POSTGRES_USER));
         result.setPassword(configs.get(POSTGRES_PASSWORD));
+        result.setPoolMaxSize(Integer.parseInt(configs.get(POSTGRES_POOL_MAX_SIZE)));
+        result.setPoolIdleTimeout(Duration.valueOf(configs.get(POSTGRES_POOL_IDLE_TIMEOUT)));
+        result.setPoolMaxLifetime(Duration.valueOf(configs.get(POSTGRES_POOL_MAX_LIFETIME)));
+        result.setFetchSize(Integer.parseInt(configs.get(POSTGRES_FETCH_SIZE)));
         return result;
     }
 
@@ -285,6 +318,10 @@ public class ConfigManager
         result.setPort(configs.get(PG_WIRE_PROTOCOL_PORT));
         result.setSslEnable(Boolean.parseBoolean(configs.get(PG_WIRE_PROTOCOL_SSL_ENABLED)));
         result.setNettyThreadCount(Integer.parseInt(configs.get(PG_WIRE_PROTOCOL_NETTY_THREAD_COUNT)));
+        result.setQueryThreadCount(Integer.parseInt(configs.get(PG_WIRE_PROTOCOL_QUERY_THREAD_COUNT)));
+        result.setWriteBufferHighWaterMark(DataSize.valueOf(configs.get(PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK)));
+        result.setWriteBufferLowWaterMark(DataSize.valueOf(configs.get(PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK)));
+        result.setWriteTimeout(Duration.valueOf(configs.get(PG_WIRE_PROTOCOL_WRITE_TIMEOUT)));
         result.setAuthFile(new File(configs.get(PG_WIRE_PROTOCOL_AUTH_FILE)));
         return result;
     }
@@ -15,15 +15,29 @@
 package io.wren.base.config;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.Duration;
+
+import javax.validation.constraints.Min;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class PostgresConfig
 {
     public static final String POSTGRES_JDBC_URL = "postgres.jdbc.url";
     public static final String POSTGRES_USER = "postgres.user";
     public static final String POSTGRES_PASSWORD = "postgres.password";
+    public static final String POSTGRES_POOL_MAX_SIZE = "postgres.pool.max-size";
+    public static final String POSTGRES_POOL_IDLE_TIMEOUT = "postgres.pool.idle-timeout";
+    public static final String POSTGRES_POOL_MAX_LIFETIME = "postgres.pool.max-lifetime";
+    public static final String POSTGRES_FETCH_SIZE = "postgres.fetch-size";
     private String jdbcUrl;
     private String user;
     private String password;
+    private int poolMaxSize = 10;
+    private Duration poolIdleTimeout = new Duration(10, MINUTES);
+    private Duration poolMaxLifetime = new Duration(30, MINUTES);
+    private int fetchSize = 1000;
 
     public String getJdbcUrl()
     {
@@ -60,4 +74,58 @@ public class PostgresConfig
         this.password = password;
         return this;
     }
+
+    @Min(1)
+    public int getPoolMaxSize()
+    {
+        return poolMaxSize;
+    }
+
+    @Config(POSTGRES_POOL_MAX_SIZE)
+    @ConfigDescription("The maximum number of connections in the pool")
+    public PostgresConfig setPoolMaxSize(int poolMaxSize)
+    {
+        this.poolMaxSize = poolMaxSize;
+        return this;
+    }
+
+    public Duration getPoolIdleTimeout()
+    {
+        return poolIdleTimeout;
+    }
+
+    @Config(POSTGRES_POOL_IDLE_TIMEOUT)
+    @ConfigDescription("How long a connection can stay idle in the pool before it is closed")
+    public PostgresConfig setPoolIdleTimeout(Duration poolIdleTimeout)
+    {
+        this.poolIdleTimeout = poolIdleTimeout;
+        return this;
+    }
+
+    public Duration getPoolMaxLifetime()
+    {
+        return poolMaxLifetime;
+    }
+
+    @Config(POSTGRES_POOL_MAX_LIFETIME)
+    @ConfigDescription("How long a connection can stay in the pool before it is closed and replaced")
+    public PostgresConfig setPoolMaxLifetime(Duration poolMaxLifetime)
+    {
+        this.poolMaxLifetime = poolMaxLifetime;
+        return this;
+    }
+
+    @Min(1)
+    public int getFetchSize()
+    {
+        return fetchSize;
+    }
+
+    @Config(POSTGRES_FETCH_SIZE)
+    @ConfigDescription("The number of rows fetched at a time from the cursor of a query")
+    public PostgresConfig setFetchSize(int fetchSize)
+    {
+        this.fetchSize = fetchSize;
+        return this;
+    }
 }
@@ -14,21 +14,40 @@
 package io.wren.base.config;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.io.File;
 
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
 public class PostgresWireProtocolConfig
 {
     public static final String PG_WIRE_PROTOCOL_SSL_ENABLED = "pg-wire-protocol.ssl.enabled";
     public static final String PG_WIRE_PROTOCOL_NETTY_THREAD_COUNT = "pg-wire-protocol.netty.thread.count";
+    public static final String PG_WIRE_PROTOCOL_QUERY_THREAD_COUNT = "pg-wire-protocol.query.thread.count";
+    public static final String PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK = "pg-wire-protocol.write-buffer.high-water-mark";
+    public static final String PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK = "pg-wire-protocol.write-buffer.low-water-mark";
+    public static final String PG_WIRE_PROTOCOL_WRITE_TIMEOUT = "pg-wire-protocol.write-timeout";
     public static final String PG_WIRE_PROTOCOL_AUTH_FILE = "pg-wire-protocol.auth.file";
     public static final String PG_WIRE_PROTOCOL_PORT = "pg-wire-protocol.port";
 
     private String port = "7432";
     private boolean sslEnable;
     private int nettyThreadCount;
+    private int queryThreadCount = 100;
+    private DataSize writeBufferHighWaterMark = DataSize.of(1, MEGABYTE);
+    private DataSize writeBufferLowWaterMark = DataSize.of(512, KILOBYTE);
+    private Duration writeTimeout = new Duration(5, MINUTES);
     private File authFile = new File("etc/accounts");
 
     @NotNull
@@ -70,6 +89,70 @@ public class PostgresWireProtocolConfig
         return this;
     }
 
+    @Min(1)
+    public int getQueryThreadCount()
+    {
+        return queryThreadCount;
+    }
+
+    @Config(PG_WIRE_PROTOCOL_QUERY_THREAD_COUNT)
+    @ConfigDescription("Number of threads planning and executing queries for all wire protocol connections")
+    public PostgresWireProtocolConfig setQueryThreadCount(int queryThreadCount)
+    {
+        this.queryThreadCount = queryThreadCount;
+        return this;
+    }
+
+    @NotNull
+    @MaxDataSize("1GB")
+    public DataSize getWriteBufferHighWaterMark()
+    {
+        return writeBufferHighWaterMark;
+    }
+
+    @Config(PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK)
+    @ConfigDescription("Result rows are not produced while more than this many bytes are waiting to be sent to the client")
+    public PostgresWireProtocolConfig setWriteBufferHighWaterMark(DataSize writeBufferHighWaterMark)
+    {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getWriteBufferLowWaterMark()
+    {
+        return writeBufferLowWaterMark;
+    }
+
+    @Config(PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK)
+    @ConfigDescription("Result rows are produced again once fewer than this many bytes are waiting to be sent to the client")
+    public PostgresWireProtocolConfig setWriteBufferLowWaterMark(DataSize writeBufferLowWaterMark)
+    {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+        return this;
+    }
+
+    @AssertTrue(message = PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK + " must not be greater than " + PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK)
+    public boolean isWriteBufferWaterMarkValid()
+    {
+        return writeBufferLowWaterMark.compareTo(writeBufferHighWaterMark) <= 0;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getWriteTimeout()
+    {
+        return writeTimeout;
+    }
+
+    @Config(PG_WIRE_PROTOCOL_WRITE_TIMEOUT)
+    @ConfigDescription("A result fails if the client reads none of it for this long, which frees the query thread sending it")
+    public PostgresWireProtocolConfig setWriteTimeout(Duration writeTimeout)
+    {
+        this.writeTimeout = writeTimeout;
+        return this;
+    }
+
     public File getAuthFile()
     {
         return authFile;
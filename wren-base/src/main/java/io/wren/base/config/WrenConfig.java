@@ -15,7 +15,9 @@
 package io.wren.base.config;
 
 import io.airlift.configuration.Config;
+import io.airlift.units.DataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.io.File;
@@ -25,6 +27,8 @@ public class WrenConfig
     public static final String WREN_DIRECTORY = "wren.directory";
     public static final String WREN_DATASOURCE_TYPE = "wren.datasource.type";
     public static final String WREN_ENABLE_DYNAMIC_FIELDS = "wren.experimental-enable-dynamic-fields";
+    public static final String WREN_PLAN_CACHE_MAX_ENTRIES = "wren.plan-cache.max-entries";
+    public static final String WREN_PLAN_CACHE_MAX_MEMORY = "wren.plan-cache.max-memory";
 
     public enum DataSourceType
     {
@@ -36,6 +40,8 @@ public class WrenConfig
     private File wrenMDLDirectory = new File("etc/mdl");
     private DataSourceType dataSourceType = DataSourceType.DUCKDB;
     private boolean enableDynamicFields;
+    private int planCacheMaxEntries = 10000;
+    private DataSize planCacheMaxMemory = DataSize.of(64, DataSize.Unit.MEGABYTE);
 
     @NotNull
     public File getWrenMDLDirectory()
@@ -73,4 +79,30 @@ public class WrenConfig
         this.enableDynamicFields = enableDynamicFields;
         return this;
     }
+
+    @Min(0)
+    public int getPlanCacheMaxEntries()
+    {
+        return planCacheMaxEntries;
+    }
+
+    @Config(WREN_PLAN_CACHE_MAX_ENTRIES)
+    public WrenConfig setPlanCacheMaxEntries(int planCacheMaxEntries)
+    {
+        this.planCacheMaxEntries = planCacheMaxEntries;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getPlanCacheMaxMemory()
+    {
+        return planCacheMaxMemory;
+    }
+
+    @Config(WREN_PLAN_CACHE_MAX_MEMORY)
+    public WrenConfig setPlanCacheMaxMemory(DataSize planCacheMaxMemory)
+    {
+        this.planCacheMaxMemory = planCacheMaxMemory;
+        return this;
+    }
 }
@@ -15,6 +15,8 @@ package io.wren.base.dto;
 
 import io.airlift.units.Duration;
 
+import java.util.Optional;
+
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 public interface CacheInfo
@@ -26,4 +28,12 @@ public interface CacheInfo
     boolean isCached();
 
     Duration getRefreshTime();
+
+    /**
+     * Present if the cache should only fetch the rows past its watermark on refresh.
+     */
+    default Optional<IncrementalRefresh> getIncrementalRefresh()
+    {
+        return Optional.empty();
+    }
 }
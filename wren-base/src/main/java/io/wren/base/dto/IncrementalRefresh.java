@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.Duration;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.wren.base.Utils.requireNonNullEmpty;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Declares that a cached model only grows past its watermark column, e.g. an append-only event table.
+ * A refresh then fetches the rows whose watermark is greater than the cached maximum minus the lookback,
+ * instead of reloading the whole model. The lookback re-fetches late arriving rows and is only allowed
+ * on date and timestamp watermark columns.
+ */
+public class IncrementalRefresh
+{
+    public static IncrementalRefresh incrementalRefresh(String watermarkColumn)
+    {
+        return new IncrementalRefresh(watermarkColumn, null);
+    }
+
+    public static IncrementalRefresh incrementalRefresh(String watermarkColumn, Duration lookback)
+    {
+        return new IncrementalRefresh(watermarkColumn, lookback);
+    }
+
+    private final String watermarkColumn;
+    private final Duration lookback;
+
+    @JsonCreator
+    public IncrementalRefresh(
+            @JsonProperty("watermarkColumn") String watermarkColumn,
+            @JsonProperty("lookback") Duration lookback)
+    {
+        this.watermarkColumn = requireNonNullEmpty(watermarkColumn, "watermarkColumn is null or empty");
+        this.lookback = lookback == null ? new Duration(0, SECONDS) : lookback;
+    }
+
+    @JsonProperty
+    public String getWatermarkColumn()
+    {
+        return watermarkColumn;
+    }
+
+    @JsonProperty
+    public Duration getLookback()
+    {
+        return lookback;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        IncrementalRefresh that = (IncrementalRefresh) o;
+        return Objects.equals(watermarkColumn, that.watermarkColumn) && Objects.equals(lookback, that.lookback);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(watermarkColumn, lookback);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("watermarkColumn", watermarkColumn)
+                .add("lookback", lookback)
+                .toString();
+    }
+}
@@ -22,11 +22,13 @@ import io.airlift.units.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static io.wren.base.Utils.checkArgument;
 import static io.wren.base.Utils.requireNonNullEmpty;
+import static java.lang.String.format;
 
 public class Model
         implements CacheInfo, Relationable
@@ -39,6 +41,7 @@ public class Model
     private final String primaryKey;
     private final boolean cached;
     private final Duration refreshTime;
+    private final IncrementalRefresh incrementalRefresh;
     private final Map<String, String> properties;
 
     public static Model model(String name, String refSql, List<Column> columns)
@@ -48,22 +51,22 @@ public class Model
 
     public static Model model(String name, String refSql, List<Column> columns, boolean cached)
     {
-        return new Model(name, refSql, null, null, columns, null, cached, null, ImmutableMap.of());
+        return new Model(name, refSql, null, null, columns, null, cached, null, null, ImmutableMap.of());
     }
 
     public static Model model(String name, String refSql, List<Column> columns, String primaryKey)
     {
-        return new Model(name, refSql, null, null, columns, primaryKey, false, null, ImmutableMap.of());
+        return new Model(name, refSql, null, null, columns, primaryKey, false, null, null, ImmutableMap.of());
     }
 
     public static Model onBaseObject(String name, String baseObject, List<Column> columns, String primaryKey)
     {
-        return new Model(name, null, baseObject, null, columns, primaryKey, false, null, ImmutableMap.of());
+        return new Model(name, null, baseObject, null, columns, primaryKey, false, null, null, ImmutableMap.of());
     }
 
     public static Model onTableReference(String name, TableReference tableReference, List<Column> columns, String primaryKey)
     {
-        return new Model(name, null, null, tableReference, columns, primaryKey, false, null, ImmutableMap.of());
+        return new Model(name, null, null, tableReference, columns, primaryKey, false, null, null, ImmutableMap.of());
     }
 
     @JsonCreator
@@ -76,6 +79,7 @@ public class Model
             @JsonProperty("primaryKey") String primaryKey,
             @JsonProperty("cached") boolean cached,
             @JsonProperty("refreshTime") Duration refreshTime,
+            @JsonProperty("incrementalRefresh") IncrementalRefresh incrementalRefresh,
             @JsonProperty("properties") Map<String, String> properties)
     {
         this.name = requireNonNullEmpty(name, "name is null or empty");
@@ -88,6 +92,12 @@ public class Model
         this.primaryKey = primaryKey;
         this.cached = cached;
         this.refreshTime = refreshTime == null ? defaultRefreshTime : refreshTime;
+        checkArgument(incrementalRefresh == null || cached, "incrementalRefresh is only allowed on a cached model");
+        if (incrementalRefresh != null) {
+            checkArgument(this.columns.stream().anyMatch(column -> column.getName().equals(incrementalRefresh.getWatermarkColumn())),
+                    format("watermark column %s is not a column of model %s", incrementalRefresh.getWatermarkColumn(), name));
+        }
+        this.incrementalRefresh = incrementalRefresh;
         this.properties = properties == null ? ImmutableMap.of() : properties;
     }
 
@@ -154,6 +164,13 @@ public class Model
         return refreshTime;
     }
 
+    @Override
+    @JsonProperty
+    public Optional<IncrementalRefresh> getIncrementalRefresh()
+    {
+        return Optional.ofNullable(incrementalRefresh);
+    }
+
     @JsonProperty
     public Map<String, String> getProperties()
     {
@@ -178,6 +195,7 @@ public class Model
                 Objects.equals(columns, that.columns) &&
                 Objects.equals(primaryKey, that.primaryKey) &&
                 Objects.equals(refreshTime, that.refreshTime) &&
+                Objects.equals(incrementalRefresh, that.incrementalRefresh) &&
                 Objects.equals(properties, that.properties);
     }
 
@@ -198,6 +216,7 @@ public class Model
                 .add("columns", columns)
                 .add("cached", cached)
                 .add("refreshTime", refreshTime)
+                .add("incrementalRefresh", incrementalRefresh)
                 .add("properties", properties)
                 .toString();
     }
@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.jinjava;
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.RenderResult;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.lib.fn.MacroFunction;
+import io.wren.base.dto.Macro;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.hubspot.jinjava.interpret.TemplateError.ErrorType.FATAL;
+import static io.wren.base.macro.Parameter.TYPE.MACRO;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Render the jinjava expressions of a manifest with its macros. The macro tags are parsed once into macro functions,
+ * instead of being prepended to every expression, and they are shared by the manifests with the same macros. An
+ * expression is rendered in a child of a context holding the macros and the jinjava libraries, rather than a copy of
+ * the libraries made for every render. An expression without any jinjava delimiter isn't rendered at all.
+ * <p>
+ * The output is the same as rendering the macro tags followed by the expression: the macro tags render nothing, and the
+ * last of them strips the whitespace at the start of the expression. The expressions failing to render are rendered
+ * again that way, so that they fail as they did.
+ */
+public final class MacroRenderer
+{
+    private static final Jinjava JINJAVA = new Jinjava();
+    private static final Cache<List<Macro>, MacroRenderer> RENDERERS = CacheBuilder.newBuilder()
+            .maximumSize(16)
+            .build();
+
+    private final List<Macro> macros;
+    private final String macroTags;
+    private final Supplier<List<MacroFunction>> macroFunctions;
+    // a render pushes what it resolves up to the parent context, every thread has its own
+    private final ThreadLocal<Context> macroContexts = ThreadLocal.withInitial(this::createMacroContext);
+
+    public static MacroRenderer get(List<Macro> macros)
+    {
+        requireNonNull(macros, "macros is null");
+        try {
+            return RENDERERS.get(macros, () -> new MacroRenderer(macros));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private MacroRenderer(List<Macro> macros)
+    {
+        this.macros = macros;
+        // the macros taking a macro are expanded by JinjavaExpressionProcessor
+        this.macroTags = macros.stream()
+                .filter(macro -> macro.getParameters().stream().noneMatch(parameter -> parameter.getType() == MACRO))
+                .map(JinjavaUtils::getMacroTag)
+                .collect(joining("\n"));
+        // the macro tags only fail when an expression needs them, as they did when they were rendered with it
+        this.macroFunctions = Suppliers.memoize(this::compileMacros);
+    }
+
+    public String render(String expression)
+    {
+        if (expression.indexOf('{') < 0 && expression.indexOf('}') < 0) {
+            return macroTags.isEmpty() ? expression : expression.stripLeading();
+        }
+        String processed = JinjavaExpressionProcessor.process(expression, macros);
+        // a tag may define or import macros, keep it in the same template as the macro tags
+        if (!processed.contains("{%") && !processed.contains("{#")) {
+            Optional<String> rendered = renderWithMacroContext(macroTags.isEmpty() ? processed : processed.stripLeading());
+            if (rendered.isPresent()) {
+                return rendered.get();
+            }
+        }
+        return JINJAVA.render(macroTags + processed, Map.of());
+    }
+
+    private Optional<String> renderWithMacroContext(String template)
+    {
+        Context macroContext = macroContexts.get();
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(JINJAVA, new Context(macroContext), JINJAVA.getGlobalConfig());
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            String output = interpreter.render(template);
+            if (interpreter.getErrorsCopy().stream().anyMatch(error -> error.getSeverity() == FATAL)) {
+                return Optional.empty();
+            }
+            return Optional.of(output);
+        }
+        catch (RuntimeException e) {
+            return Optional.empty();
+        }
+        finally {
+            JinjavaInterpreter.popCurrent();
+            macroContext.reset();
+        }
+    }
+
+    private Context createMacroContext()
+    {
+        Context context = JINJAVA.getGlobalContextCopy();
+        if (!macroTags.isEmpty()) {
+            macroFunctions.get().forEach(context::addGlobalMacro);
+        }
+        return context;
+    }
+
+    private List<MacroFunction> compileMacros()
+    {
+        RenderResult result = JINJAVA.renderForResult(macroTags, Map.of());
+        List<TemplateError> fatalErrors = result.getErrors().stream()
+                .filter(error -> error.getSeverity() == FATAL)
+                .collect(toImmutableList());
+        if (!fatalErrors.isEmpty()) {
+            throw new FatalTemplateErrorsException(macroTags, fatalErrors);
+        }
+        return ImmutableList.copyOf(result.getContext().getGlobalMacros().values());
+    }
+}
@@ -19,8 +19,10 @@ import io.trino.sql.SqlFormatter;
 import io.trino.sql.parser.ParsingOptions;
 import io.trino.sql.parser.SqlBaseLexer;
 import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.AliasedRelation;
 import io.trino.sql.tree.DereferenceExpression;
 import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.FunctionRelation;
 import io.trino.sql.tree.Identifier;
 import io.trino.sql.tree.Join;
 import io.trino.sql.tree.Node;
@@ -29,13 +31,17 @@ import io.trino.sql.tree.Query;
 import io.trino.sql.tree.QuerySpecification;
 import io.trino.sql.tree.Statement;
 import io.trino.sql.tree.Table;
+import io.trino.sql.tree.TableSubquery;
 import io.trino.sql.tree.With;
 import io.trino.sql.tree.WithQuery;
 import io.wren.base.CatalogSchemaTableName;
 import io.wren.base.SessionContext;
 import io.wren.base.WrenMDL;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.TimeUnit;
 import io.wren.base.sqlrewrite.analyzer.CacheAnalysis;
 import io.wren.base.sqlrewrite.analyzer.Field;
+import io.wren.base.sqlrewrite.analyzer.MetricRollupInfo;
 import io.wren.base.sqlrewrite.analyzer.Scope;
 
 import java.util.HashMap;
@@ -190,6 +196,43 @@ public class CacheRewrite
             return node;
         }
 
+        @Override
+        protected Node visitAliasedRelation(AliasedRelation node, Optional<Scope> scope)
+        {
+            AliasedRelation rewritten = (AliasedRelation) super.visitAliasedRelation(node, scope);
+            // an aliased roll up takes the alias of the query instead of the name of the metric
+            if (node.getRelation() instanceof FunctionRelation && rewritten.getRelation() instanceof AliasedRelation) {
+                return new AliasedRelation(((AliasedRelation) rewritten.getRelation()).getRelation(), node.getAlias(), node.getColumnNames());
+            }
+            return rewritten;
+        }
+
+        @Override
+        protected Node visitFunctionRelation(FunctionRelation node, Optional<Scope> scope)
+        {
+            if (!node.getName().toString().equalsIgnoreCase("roll_up") || node.getArguments().size() != 3) {
+                throw new IllegalArgumentException("FunctionRelation not supported: " + node.getName());
+            }
+            QualifiedName metricName = getQualifiedName(node.getArguments().get(0));
+            if (metricName == null || !(node.getArguments().get(1) instanceof Identifier) || !(node.getArguments().get(2) instanceof Identifier)) {
+                throw new IllegalArgumentException("Invalid roll_up arguments: " + node.getArguments());
+            }
+            CatalogSchemaTableName catalogSchemaTableName = toCatalogSchemaTableName(sessionContext, metricName);
+            Metric metric = wrenMDL.getMetric(catalogSchemaTableName).orElseThrow(() -> new IllegalArgumentException("Metric not found: " + catalogSchemaTableName));
+            String timeColumn = ((Identifier) node.getArguments().get(1)).getValue();
+            MetricRollupInfo metricRollupInfo = new MetricRollupInfo(
+                    metric,
+                    metric.getTimeGrain(timeColumn).orElseThrow(() -> new IllegalArgumentException("Time column not found in metric: " + timeColumn)),
+                    TimeUnit.timeUnit(((Identifier) node.getArguments().get(2)).getValue()));
+            // the roll up is computed from the cache of a metric at a finer time grain if any, or the query can't use the cache
+            Optional<Query> rollup = CachedMetricRollup.rewrite(metricRollupInfo, wrenMDL, table -> convertTable(table).isPresent());
+            if (rollup.isEmpty()) {
+                aggregationAnalysis.addTable(catalogSchemaTableName);
+                return node;
+            }
+            return new AliasedRelation(new TableSubquery(visitAndCast(rollup.get(), scope)), identifier(metric.getName()), List.of());
+        }
+
         private Optional<String> convertTable(CatalogSchemaTableName cachedTable)
         {
             return converter.apply(cachedTable);
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.FunctionCall;
+import io.trino.sql.tree.Query;
+import io.trino.sql.tree.StringLiteral;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.WrenMDL;
+import io.wren.base.dto.CacheInfo;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.TimeUnit;
+import io.wren.base.sqlrewrite.analyzer.MetricRollupInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static io.wren.base.dto.TimeUnit.DAY;
+import static io.wren.base.dto.TimeUnit.WEEK;
+import static io.wren.base.sqlrewrite.Utils.parseExpression;
+import static io.wren.base.sqlrewrite.Utils.parseQuery;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Answer a roll_up of a metric from the cache of a metric on the same base object, which has the dimensions and the
+ * measures of the rolled up metric and a dimension on the time column of the time grain at the same or a finer unit,
+ * e.g. roll_up(Revenue, orderdate, MONTH) from a cached metric grouped by the order date as well. The cached groups are
+ * truncated to the unit of the roll up and aggregated again, which only gives the same result as aggregating the base
+ * object for sum, count, min and max.
+ */
+final class CachedMetricRollup
+{
+    // the aggregation combining the results of an aggregation on finer groups
+    private static final Map<String, String> REAGGREGATIONS = Map.of(
+            "sum", "sum(\"%s\")",
+            "count", "CAST(sum(\"%s\") AS BIGINT)",
+            "min", "min(\"%s\")",
+            "max", "max(\"%s\")");
+
+    private CachedMetricRollup() {}
+
+    /**
+     * @param isCached tells if the cache of an object is ready to be queried
+     */
+    static Optional<Query> rewrite(MetricRollupInfo metricRollupInfo, WrenMDL wrenMDL, Predicate<CatalogSchemaTableName> isCached)
+    {
+        Metric metric = metricRollupInfo.getMetric();
+        if (!metric.getMeasure().stream().allMatch(measure -> getReaggregation(measure).isPresent())) {
+            return Optional.empty();
+        }
+        for (CacheInfo cacheInfo : wrenMDL.listCached()) {
+            if (cacheInfo instanceof Metric
+                    && ((Metric) cacheInfo).getBaseObject().equals(metric.getBaseObject())
+                    && isCached.test(new CatalogSchemaTableName(wrenMDL.getCatalog(), wrenMDL.getSchema(), cacheInfo.getName()))) {
+                Optional<String> sql = getRollupSql(metricRollupInfo, (Metric) cacheInfo, wrenMDL);
+                if (sql.isPresent()) {
+                    return Optional.of(parseQuery(sql.get()));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> getRollupSql(MetricRollupInfo metricRollupInfo, Metric cached, WrenMDL wrenMDL)
+    {
+        Metric metric = metricRollupInfo.getMetric();
+        Expression refColumn = parseExpression(metricRollupInfo.getTimeGrain().getRefColumn());
+        Optional<Column> timeColumn = cached.getDimension().stream()
+                .filter(dimension -> isTimeColumn(parseExpression(dimension.getSqlExpression()), refColumn, metricRollupInfo.getDatePart()))
+                .findFirst();
+        if (timeColumn.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<String> selectItems = ImmutableList.<String>builder()
+                .add(format("DATE_TRUNC('%s', \"%s\") \"%s\"",
+                        metricRollupInfo.getDatePart(),
+                        timeColumn.get().getName(),
+                        metricRollupInfo.getTimeGrain().getName()));
+        for (Column dimension : metric.getDimension()) {
+            Optional<Column> cachedDimension = findColumn(cached.getDimension(), dimension);
+            if (cachedDimension.isEmpty()) {
+                return Optional.empty();
+            }
+            selectItems.add(format("\"%s\" AS \"%s\"", cachedDimension.get().getName(), dimension.getName()));
+        }
+        for (Column measure : metric.getMeasure()) {
+            Optional<Column> cachedMeasure = findColumn(cached.getMeasure(), measure);
+            if (cachedMeasure.isEmpty()) {
+                return Optional.empty();
+            }
+            selectItems.add(format(getReaggregation(measure).orElseThrow() + " AS \"%s\"", cachedMeasure.get().getName(), measure.getName()));
+        }
+
+        List<String> items = selectItems.build();
+        String groupByColumnOrdinals = IntStream.rangeClosed(1, items.size() - metric.getMeasure().size())
+                .mapToObj(String::valueOf)
+                .collect(joining(","));
+        return Optional.of(format("SELECT %s FROM \"%s\".\"%s\".\"%s\" GROUP BY %s",
+                String.join(",", items),
+                wrenMDL.getCatalog(),
+                wrenMDL.getSchema(),
+                cached.getName(),
+                groupByColumnOrdinals));
+    }
+
+    private static Optional<String> getReaggregation(Column measure)
+    {
+        Expression expression = parseExpression(measure.getSqlExpression());
+        if (!(expression instanceof FunctionCall)) {
+            return Optional.empty();
+        }
+        FunctionCall functionCall = (FunctionCall) expression;
+        if (functionCall.isDistinct()
+                || functionCall.getFilter().isPresent()
+                || functionCall.getWindow().isPresent()
+                || functionCall.getOrderBy().isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(REAGGREGATIONS.get(functionCall.getName().toString().toLowerCase(ENGLISH)));
+    }
+
+    private static Optional<Column> findColumn(List<Column> columns, Column column)
+    {
+        Expression expression = parseExpression(column.getSqlExpression());
+        return columns.stream()
+                .filter(candidate -> parseExpression(candidate.getSqlExpression()).equals(expression))
+                .findFirst();
+    }
+
+    // the time column itself, or truncated to a unit whose values are never split by the truncation to the unit of the roll up
+    private static boolean isTimeColumn(Expression expression, Expression refColumn, TimeUnit timeUnit)
+    {
+        if (expression.equals(refColumn)) {
+            return true;
+        }
+        if (!(expression instanceof FunctionCall)) {
+            return false;
+        }
+        FunctionCall functionCall = (FunctionCall) expression;
+        if (!functionCall.getName().toString().equalsIgnoreCase("date_trunc")
+                || functionCall.getArguments().size() != 2
+                || !(functionCall.getArguments().get(0) instanceof StringLiteral)
+                || !functionCall.getArguments().get(1).equals(refColumn)) {
+            return false;
+        }
+        try {
+            return isFinerOrEqual(TimeUnit.timeUnit(((StringLiteral) functionCall.getArguments().get(0)).getValue()), timeUnit);
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // a week may span two months, so only the units up to a day can be rolled up to weeks and weeks to nothing else
+    private static boolean isFinerOrEqual(TimeUnit unit, TimeUnit rollupUnit)
+    {
+        if (unit == rollupUnit) {
+            return true;
+        }
+        if (unit == WEEK) {
+            return false;
+        }
+        if (rollupUnit == WEEK) {
+            return unit.compareTo(DAY) >= 0;
+        }
+        return unit.compareTo(rollupUnit) > 0;
+    }
+}
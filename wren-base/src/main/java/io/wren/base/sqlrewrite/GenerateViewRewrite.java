@@ -50,6 +50,9 @@ public class GenerateViewRewrite
     @Override
     public Statement apply(Statement root, SessionContext sessionContext, Analysis analysis, AnalyzedMDL analyzedMDL)
     {
+        if (analysis.getViews().isEmpty()) {
+            return root;
+        }
         Set<QueryDescriptor> viewDescriptors = analysis.getViews().stream().map(view -> ViewInfo.get(view, analyzedMDL, sessionContext)).collect(toSet());
         DirectedAcyclicGraph<String, Object> graph = new DirectedAcyclicGraph<>(Object.class);
         Set<QueryDescriptor> requiredQueryDescriptors = new HashSet<>();
@@ -60,13 +63,18 @@ public class GenerateViewRewrite
         requiredQueryDescriptors.forEach(queryDescriptor -> descriptorMap.put(queryDescriptor.getName(), queryDescriptor));
 
         List<WithQuery> withQueries = new ArrayList<>();
+        List<Analysis> viewAnalyses = new ArrayList<>();
         graph.iterator().forEachRemaining(objectName -> {
             QueryDescriptor queryDescriptor = descriptorMap.get(objectName);
             Utils.checkArgument(queryDescriptor != null, objectName + " not found in query descriptors");
             withQueries.add(getWithQuery(queryDescriptor));
+            viewAnalyses.add(((ViewInfo) queryDescriptor).getAnalysis());
         });
 
-        return (Statement) new WithRewriter(withQueries).process(root);
+        Statement rewritten = (Statement) new WithRewriter(withQueries).process(root);
+        // WithRewriter only replaces the root query, the analysis of the views is all that's missing
+        analysis.replaceRoot(rewritten, viewAnalyses);
+        return rewritten;
     }
 
     private static void addSqlDescriptorToGraph(
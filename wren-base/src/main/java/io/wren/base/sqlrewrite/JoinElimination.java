@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.tree.AliasedRelation;
+import io.trino.sql.tree.AllColumns;
+import io.trino.sql.tree.DereferenceExpression;
+import io.trino.sql.tree.Identifier;
+import io.trino.sql.tree.Join;
+import io.trino.sql.tree.JoinUsing;
+import io.trino.sql.tree.Node;
+import io.trino.sql.tree.QuerySpecification;
+import io.trino.sql.tree.SingleColumn;
+import io.trino.sql.tree.Table;
+import io.trino.sql.tree.WithQuery;
+import io.wren.base.WrenMDL;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.Model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.wren.base.sqlrewrite.RelationableSqlRender.getRelationableAlias;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Drop the joins of the to-one relationships from the CTE of a model when the statement doesn't use the calculated
+ * fields on them. A to-one relationship is left joined by the primary key of the model, so it never changes the rows
+ * of the model, and can be dropped with its fields.
+ * <p>
+ * A field is considered used if any identifier in the statement or in the CTEs of the other objects has its name,
+ * except the qualifiers referring to relations, and all the fields of the models are used if the statement selects all
+ * columns of a relation.
+ * <p>
+ * The CTE without the unused fields is compiled once per model and set of unused fields, and shared by the later queries
+ * on the same mdl.
+ */
+public final class JoinElimination
+{
+    private JoinElimination() {}
+
+    public static List<QueryDescriptor> eliminate(WrenQueryDescriptors queryDescriptors, Set<String> names, Node statement, WrenMDL mdl)
+    {
+        List<QueryDescriptor> descriptors = queryDescriptors.getRequiredDescriptors(names);
+        Set<String> relations = new HashSet<>();
+        collectRelations(statement, relations);
+        descriptors.forEach(descriptor -> collectRelations(descriptor.getQuery(), relations));
+
+        Set<String> statementIdentifiers = new HashSet<>();
+        if (!collectIdentifiers(statement, relations, statementIdentifiers)) {
+            return descriptors;
+        }
+        Map<String, Set<String>> descriptorIdentifiers = new HashMap<>();
+        for (QueryDescriptor descriptor : descriptors) {
+            Set<String> identifiers = new HashSet<>();
+            collectIdentifiers(descriptor.getQuery(), relations, identifiers);
+            descriptorIdentifiers.put(descriptor.getName(), identifiers);
+        }
+
+        Map<String, QueryDescriptor> eliminated = new HashMap<>();
+        for (QueryDescriptor descriptor : descriptors) {
+            Optional<Model> model = mdl.getModel(descriptor.getName());
+            if (model.isEmpty() || !(descriptor instanceof RelationInfo)) {
+                eliminated.put(descriptor.getName(), descriptor);
+                continue;
+            }
+            Set<String> unused = getToOneRelationshipFields(descriptor).stream()
+                    .filter(field -> !statementIdentifiers.contains(field.toLowerCase(ENGLISH)))
+                    .filter(field -> descriptorIdentifiers.entrySet().stream()
+                            .filter(entry -> !entry.getKey().equals(descriptor.getName()))
+                            .noneMatch(entry -> entry.getValue().contains(field.toLowerCase(ENGLISH))))
+                    .collect(toImmutableSet());
+            if (unused.isEmpty()) {
+                eliminated.put(descriptor.getName(), descriptor);
+                continue;
+            }
+            Set<String> requiredFields = model.get().getColumns().stream()
+                    .map(Column::getName)
+                    .filter(name -> !unused.contains(name))
+                    .collect(toImmutableSet());
+            eliminated.put(descriptor.getName(), queryDescriptors.getWithoutFields(descriptor.getName(), unused, () -> RelationInfo.get(model.get(), mdl, requiredFields)));
+        }
+
+        // the objects only joined by the dropped relationships aren't required anymore
+        Set<String> required = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(names);
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (required.add(name) && eliminated.containsKey(name)) {
+                pending.addAll(eliminated.get(name).getRequiredObjects());
+            }
+        }
+        return descriptors.stream()
+                .map(QueryDescriptor::getName)
+                .filter(required::contains)
+                .map(eliminated::get)
+                .collect(toImmutableList());
+    }
+
+    // the fields selected from the subquery joining the to-one relationships of the model
+    private static List<String> getToOneRelationshipFields(QueryDescriptor descriptor)
+    {
+        if (!(descriptor.getQuery().getQueryBody() instanceof QuerySpecification)) {
+            return List.of();
+        }
+        String relationshipAlias = getRelationableAlias(descriptor.getName());
+        QuerySpecification specification = (QuerySpecification) descriptor.getQuery().getQueryBody();
+        return specification.getSelect().getSelectItems().stream()
+                .filter(SingleColumn.class::isInstance)
+                .map(SingleColumn.class::cast)
+                .filter(column -> column.getAlias().isPresent() && column.getExpression() instanceof DereferenceExpression)
+                .filter(column -> {
+                    Node base = ((DereferenceExpression) column.getExpression()).getBase();
+                    return base instanceof Identifier && ((Identifier) base).getValue().equals(relationshipAlias);
+                })
+                .map(column -> column.getAlias().get().getValue())
+                .collect(toImmutableList());
+    }
+
+    // collect the names of the relations and their aliases in lower case
+    private static void collectRelations(Node node, Set<String> relations)
+    {
+        if (node instanceof Table) {
+            relations.add(((Table) node).getName().getSuffix().toLowerCase(ENGLISH));
+        }
+        else if (node instanceof AliasedRelation) {
+            relations.add(((AliasedRelation) node).getAlias().getValue().toLowerCase(ENGLISH));
+        }
+        else if (node instanceof WithQuery) {
+            relations.add(((WithQuery) node).getName().getValue().toLowerCase(ENGLISH));
+        }
+        node.getChildren().forEach(child -> collectRelations(child, relations));
+    }
+
+    // collect the names of all identifiers in lower case, return false if all columns of a relation are selected
+    private static boolean collectIdentifiers(Node node, Set<String> relations, Set<String> identifiers)
+    {
+        if (node instanceof AllColumns) {
+            return false;
+        }
+        if (node instanceof Identifier) {
+            identifiers.add(((Identifier) node).getValue().toLowerCase(ENGLISH));
+        }
+        if (node instanceof SingleColumn) {
+            ((SingleColumn) node).getAlias().ifPresent(alias -> collectIdentifiers(alias, relations, identifiers));
+        }
+        if (node instanceof Join) {
+            ((Join) node).getCriteria()
+                    .filter(JoinUsing.class::isInstance)
+                    .ifPresent(criteria -> ((JoinUsing) criteria).getColumns().forEach(column -> collectIdentifiers(column, relations, identifiers)));
+        }
+        boolean noAllColumns = true;
+        for (Node child : node.getChildren()) {
+            // the qualifier of a column, e.g. o in o.orderkey
+            if (node instanceof DereferenceExpression
+                    && child == ((DereferenceExpression) node).getBase()
+                    && child instanceof Identifier
+                    && relations.contains(((Identifier) child).getValue().toLowerCase(ENGLISH))) {
+                continue;
+            }
+            noAllColumns &= collectIdentifiers(child, relations, identifiers);
+        }
+        return noAllColumns;
+    }
+}
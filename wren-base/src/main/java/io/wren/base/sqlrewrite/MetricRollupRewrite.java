@@ -48,6 +48,10 @@ public class MetricRollupRewrite
     @Override
     public Statement apply(Statement root, SessionContext sessionContext, Analysis analysis, AnalyzedMDL analyzedMDL)
     {
+        if (analysis.getMetricRollups().isEmpty()) {
+            // nothing to rewrite, keep the statement so that its analysis is still valid
+            return root;
+        }
         return (Statement) new Rewriter(analysis).process(root);
     }
 
@@ -61,6 +65,17 @@ public class MetricRollupRewrite
             this.analysis = analysis;
         }
 
+        @Override
+        protected Node visitAliasedRelation(AliasedRelation node, Void context)
+        {
+            // an aliased roll up takes the alias of the query instead of the name of the metric
+            if (node.getRelation() instanceof FunctionRelation) {
+                AliasedRelation rollup = (AliasedRelation) process(node.getRelation(), context);
+                return new AliasedRelation(rollup.getRelation(), node.getAlias(), node.getColumnNames());
+            }
+            return super.visitAliasedRelation(node, context);
+        }
+
         @Override
         protected Node visitFunctionRelation(FunctionRelation node, Void context)
         {
@@ -0,0 +1,234 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.BinaryLiteral;
+import io.trino.sql.tree.CharLiteral;
+import io.trino.sql.tree.DecimalLiteral;
+import io.trino.sql.tree.DefaultTraversalVisitor;
+import io.trino.sql.tree.DoubleLiteral;
+import io.trino.sql.tree.FunctionRelation;
+import io.trino.sql.tree.GenericLiteral;
+import io.trino.sql.tree.GroupBy;
+import io.trino.sql.tree.IntervalLiteral;
+import io.trino.sql.tree.Literal;
+import io.trino.sql.tree.LongLiteral;
+import io.trino.sql.tree.Node;
+import io.trino.sql.tree.OrderBy;
+import io.trino.sql.tree.Parameter;
+import io.trino.sql.tree.Query;
+import io.trino.sql.tree.Statement;
+import io.trino.sql.tree.StringLiteral;
+import io.trino.sql.tree.TimeLiteral;
+import io.trino.sql.tree.TimestampLiteral;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.wren.base.Utils.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A statement whose literals are lifted into positional parameters, so that queries of the same shape with different
+ * literals share one fingerprint and can reuse one planned statement.
+ * <p>
+ * Literals whose values affect how a statement is planned stay inline: LIMIT, OFFSET and FETCH counts, GROUP BY and
+ * ORDER BY (which may use ordinals), the arguments of table functions like roll_up, and boolean and null literals.
+ * Enum references are dereference expressions rather than literals, so they are never lifted.
+ * Statements that already have parameters and statements that aren't queries are kept as they are.
+ */
+public class ParameterizedStatement
+{
+    private final Statement statement;
+    private final List<Literal> literals;
+    private final String fingerprint;
+
+    public static ParameterizedStatement parameterize(Statement statement)
+    {
+        requireNonNull(statement, "statement is null");
+        if (!(statement instanceof Query) || hasParameter(statement)) {
+            return new ParameterizedStatement(statement, ImmutableList.of());
+        }
+        LiteralLifter lifter = new LiteralLifter();
+        Statement parameterized = (Statement) lifter.process(statement);
+        return new ParameterizedStatement(parameterized, lifter.literals.build());
+    }
+
+    private ParameterizedStatement(Statement statement, List<Literal> literals)
+    {
+        this.statement = statement;
+        this.literals = literals;
+        this.fingerprint = formatSql(statement);
+    }
+
+    /**
+     * The statement with its literals replaced by parameters, the i-th literal is replaced by the parameter at position i.
+     */
+    public Statement getStatement()
+    {
+        return statement;
+    }
+
+    /**
+     * The canonical sql of {@link #getStatement()}. Statements that only differ in lifted literals, whitespace or
+     * keyword case have the same fingerprint.
+     */
+    public String getFingerprint()
+    {
+        return fingerprint;
+    }
+
+    public List<Literal> getLiterals()
+    {
+        return literals;
+    }
+
+    /**
+     * Substitute the literals of this statement back into a statement planned from another statement with the same fingerprint.
+     */
+    public Statement bind(Statement planned)
+    {
+        if (literals.isEmpty()) {
+            return planned;
+        }
+        return (Statement) new LiteralBinder(literals).process(planned);
+    }
+
+    private static boolean hasParameter(Statement statement)
+    {
+        AtomicBoolean found = new AtomicBoolean();
+        new DefaultTraversalVisitor<Void>()
+        {
+            @Override
+            protected Void visitParameter(Parameter node, Void context)
+            {
+                found.set(true);
+                return null;
+            }
+        }.process(statement, null);
+        return found.get();
+    }
+
+    private static class LiteralLifter
+            extends BaseRewriter<Void>
+    {
+        private final ImmutableList.Builder<Literal> literals = ImmutableList.builder();
+        private int position;
+
+        private Node lift(Literal literal)
+        {
+            literals.add(literal);
+            return new Parameter(position++);
+        }
+
+        @Override
+        protected Node visitGroupBy(GroupBy node, Void context)
+        {
+            return node;
+        }
+
+        @Override
+        protected Node visitOrderBy(OrderBy node, Void context)
+        {
+            return node;
+        }
+
+        @Override
+        protected Node visitFunctionRelation(FunctionRelation node, Void context)
+        {
+            return node;
+        }
+
+        @Override
+        protected Node visitStringLiteral(StringLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitCharLiteral(CharLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitBinaryLiteral(BinaryLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitLongLiteral(LongLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitDoubleLiteral(DoubleLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitDecimalLiteral(DecimalLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitGenericLiteral(GenericLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitTimeLiteral(TimeLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitTimestampLiteral(TimestampLiteral node, Void context)
+        {
+            return lift(node);
+        }
+
+        @Override
+        protected Node visitIntervalLiteral(IntervalLiteral node, Void context)
+        {
+            return lift(node);
+        }
+    }
+
+    private static class LiteralBinder
+            extends BaseRewriter<Void>
+    {
+        private final List<Literal> literals;
+
+        private LiteralBinder(List<Literal> literals)
+        {
+            this.literals = literals;
+        }
+
+        @Override
+        protected Node visitParameter(Parameter node, Void context)
+        {
+            checkArgument(node.getPosition() < literals.size(), "parameter position out of range: " + node.getPosition());
+            return literals.get(node.getPosition());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.AliasedRelation;
+import io.trino.sql.tree.DereferenceExpression;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.ExpressionRewriter;
+import io.trino.sql.tree.ExpressionTreeRewriter;
+import io.trino.sql.tree.Identifier;
+import io.trino.sql.tree.Join;
+import io.trino.sql.tree.LogicalExpression;
+import io.trino.sql.tree.Node;
+import io.trino.sql.tree.OrderBy;
+import io.trino.sql.tree.Query;
+import io.trino.sql.tree.QueryBody;
+import io.trino.sql.tree.QuerySpecification;
+import io.trino.sql.tree.Relation;
+import io.trino.sql.tree.SelectItem;
+import io.trino.sql.tree.SingleColumn;
+import io.trino.sql.tree.SortItem;
+import io.trino.sql.tree.TableSubquery;
+import io.wren.base.WrenMDL;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.Metric;
+import io.wren.base.sqlrewrite.analyzer.Analysis;
+import io.wren.base.sqlrewrite.analyzer.Analysis.PushdownLimit;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.trino.sql.tree.LogicalExpression.Operator.AND;
+import static io.wren.base.sqlrewrite.analyzer.PredicatePushdownAnalyzer.isDeterministic;
+
+/**
+ * Push the predicates of a statement on the columns of a model or the dimensions of a metric down into the CTE of the
+ * object, so that the source is filtered before the CTE joins the relationships of the model or aggregates the metric.
+ * The predicates are kept in the statement as well.
+ * <p>
+ * The predicates on a model are applied in the subquery selecting its columns from the ref sql, with each column
+ * replaced by its expression. The predicates on a metric are applied before it's grouped by its dimensions, which
+ * doesn't change the result since all rows of a group have the same dimensions.
+ * <p>
+ * The limit of a query on a single model, with its ORDER BY if any, is applied in the same subquery once all the
+ * predicates of the query are. The relationships are joined to the subquery by the primary key of the model, so
+ * they don't change the number of its rows.
+ */
+public final class PredicatePushdown
+{
+    private PredicatePushdown() {}
+
+    public static List<QueryDescriptor> pushdown(List<QueryDescriptor> descriptors, Analysis analysis, WrenMDL mdl)
+    {
+        Map<String, List<Expression>> predicates = analysis.getPushdownPredicates();
+        Map<String, PushdownLimit> limits = analysis.getPushdownLimits();
+        if (predicates.isEmpty() && limits.isEmpty()) {
+            return descriptors;
+        }
+        // the CTE of an object used by another CTE is shared with it
+        Set<String> sharedObjects = descriptors.stream()
+                .map(QueryDescriptor::getRequiredObjects)
+                .flatMap(Set::stream)
+                .collect(toImmutableSet());
+        return descriptors.stream()
+                .map(descriptor -> {
+                    List<Expression> objectPredicates = predicates.getOrDefault(descriptor.getName(), List.of());
+                    Optional<PushdownLimit> limit = Optional.ofNullable(limits.get(descriptor.getName()));
+                    if ((objectPredicates.isEmpty() && limit.isEmpty()) || sharedObjects.contains(descriptor.getName()) || !(descriptor instanceof RelationInfo)) {
+                        return descriptor;
+                    }
+                    return pushdown((RelationInfo) descriptor, objectPredicates, limit, mdl);
+                })
+                .collect(toImmutableList());
+    }
+
+    private static QueryDescriptor pushdown(RelationInfo relationInfo, List<Expression> predicates, Optional<PushdownLimit> limit, WrenMDL mdl)
+    {
+        Query query = relationInfo.getQuery();
+        if (!(query.getQueryBody() instanceof QuerySpecification)) {
+            return relationInfo;
+        }
+        QuerySpecification body = (QuerySpecification) query.getQueryBody();
+        Optional<Metric> metric = mdl.getMetric(relationInfo.getName());
+        if (metric.isPresent()) {
+            Set<String> dimensions = metric.get().getDimension().stream().map(Column::getName).collect(toImmutableSet());
+            return relationInfo.withQuery(withQueryBody(query, filter(body, predicates, dimensions::contains, Optional.empty())));
+        }
+        if (mdl.getModel(relationInfo.getName()).isEmpty()) {
+            return relationInfo;
+        }
+        // SELECT ... FROM (SELECT <columns> FROM <ref sql> AS "model") AS "model" LEFT JOIN <relationship subqueries>
+        return body.getFrom()
+                .flatMap(from -> filterModelSubquery(from, relationInfo.getName(), predicates, limit))
+                .map(from -> (QueryDescriptor) relationInfo.withQuery(withQueryBody(query, new QuerySpecification(
+                        body.getSelect(),
+                        Optional.of(from),
+                        body.getWhere(),
+                        body.getGroupBy(),
+                        body.getHaving(),
+                        body.getWindows(),
+                        body.getOrderBy(),
+                        body.getOffset(),
+                        body.getLimit()))))
+                .orElse(relationInfo);
+    }
+
+    private static Optional<Relation> filterModelSubquery(Relation relation, String modelName, List<Expression> predicates, Optional<PushdownLimit> limit)
+    {
+        if (relation instanceof Join) {
+            Join join = (Join) relation;
+            return filterModelSubquery(join.getLeft(), modelName, predicates, limit)
+                    .map(left -> new Join(join.getType(), left, join.getRight(), join.getCriteria()));
+        }
+        if (relation instanceof AliasedRelation) {
+            AliasedRelation aliasedRelation = (AliasedRelation) relation;
+            if (!aliasedRelation.getAlias().getValue().equals(modelName) || !(aliasedRelation.getRelation() instanceof TableSubquery)) {
+                return Optional.empty();
+            }
+            Query subquery = ((TableSubquery) aliasedRelation.getRelation()).getQuery();
+            if (!(subquery.getQueryBody() instanceof QuerySpecification)) {
+                return Optional.empty();
+            }
+            QuerySpecification specification = (QuerySpecification) subquery.getQueryBody();
+            if (specification.getGroupBy().isPresent()) {
+                return Optional.empty();
+            }
+            return Optional.of(new AliasedRelation(
+                    new TableSubquery(withQueryBody(subquery, filter(specification, predicates, column -> true, limit))),
+                    aliasedRelation.getAlias(),
+                    aliasedRelation.getColumnNames()));
+        }
+        return Optional.empty();
+    }
+
+    private static QuerySpecification filter(QuerySpecification specification, List<Expression> predicates, Predicate<String> isFilterable, Optional<PushdownLimit> limit)
+    {
+        // a limit is applied after the filter
+        if (specification.getLimit().isPresent() || specification.getOffset().isPresent() || specification.getOrderBy().isPresent()) {
+            return specification;
+        }
+        Map<String, Expression> columns = new HashMap<>();
+        for (SelectItem selectItem : specification.getSelect().getSelectItems()) {
+            if (selectItem instanceof SingleColumn) {
+                SingleColumn column = (SingleColumn) selectItem;
+                column.getAlias()
+                        .map(Identifier::getValue)
+                        .filter(isFilterable)
+                        .filter(name -> isDeterministic(column.getExpression()))
+                        .ifPresent(name -> columns.put(name, column.getExpression()));
+            }
+        }
+
+        List<Expression> pushed = predicates.stream()
+                .map(predicate -> replaceColumns(predicate, columns))
+                .flatMap(Optional::stream)
+                .collect(toImmutableList());
+        // the rows can only be limited once all of them are filtered
+        Optional<OrderBy> orderBy = Optional.empty();
+        Optional<Node> pushedLimit = Optional.empty();
+        if (limit.isPresent() && pushed.size() == predicates.size()) {
+            orderBy = limit.get().getOrderBy().flatMap(value -> replaceColumns(value, columns));
+            if (limit.get().getOrderBy().isEmpty() || orderBy.isPresent()) {
+                pushedLimit = Optional.of(limit.get().getLimit());
+            }
+        }
+        if (pushed.isEmpty() && pushedLimit.isEmpty()) {
+            return specification;
+        }
+        Optional<Expression> where = specification.getWhere();
+        if (!pushed.isEmpty()) {
+            List<Expression> filters = ImmutableList.<Expression>builder()
+                    .addAll(specification.getWhere().stream().iterator())
+                    .addAll(pushed)
+                    .build();
+            where = Optional.of(filters.size() == 1 ? filters.get(0) : new LogicalExpression(AND, filters));
+        }
+        return new QuerySpecification(
+                specification.getSelect(),
+                specification.getFrom(),
+                where,
+                specification.getGroupBy(),
+                specification.getHaving(),
+                specification.getWindows(),
+                pushedLimit.isPresent() ? orderBy : Optional.empty(),
+                specification.getOffset(),
+                pushedLimit);
+    }
+
+    private static Optional<OrderBy> replaceColumns(OrderBy orderBy, Map<String, Expression> columns)
+    {
+        ImmutableList.Builder<SortItem> sortItems = ImmutableList.builder();
+        for (SortItem sortItem : orderBy.getSortItems()) {
+            Optional<Expression> sortKey = replaceColumns(sortItem.getSortKey(), columns);
+            if (sortKey.isEmpty()) {
+                return Optional.empty();
+            }
+            sortItems.add(new SortItem(sortKey.get(), sortItem.getOrdering(), sortItem.getNullOrdering()));
+        }
+        return Optional.of(new OrderBy(sortItems.build()));
+    }
+
+    // replace the column names with the expressions selecting them, the predicate can't be pushed down if one is missing
+    private static Optional<Expression> replaceColumns(Expression predicate, Map<String, Expression> columns)
+    {
+        AtomicBoolean missing = new AtomicBoolean();
+        Expression replaced = ExpressionTreeRewriter.rewriteWith(new ExpressionRewriter<Void>()
+        {
+            @Override
+            public Expression rewriteIdentifier(Identifier node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
+            {
+                Expression column = columns.get(node.getValue());
+                if (column == null) {
+                    missing.set(true);
+                    return node;
+                }
+                return column;
+            }
+
+            @Override
+            public Expression rewriteDereferenceExpression(DereferenceExpression node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
+            {
+                // only enum values are left in the predicate
+                return node;
+            }
+        }, predicate);
+        return missing.get() ? Optional.empty() : Optional.of(replaced);
+    }
+
+    private static Query withQueryBody(Query query, QueryBody queryBody)
+    {
+        return new Query(query.getWith(), queryBody, query.getOrderBy(), query.getOffset(), query.getLimit());
+    }
+}
@@ -17,10 +17,6 @@ package io.wren.base.sqlrewrite;
 import io.trino.sql.tree.Query;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.SessionContext;
-import io.wren.base.WrenMDL;
-import io.wren.base.dto.CumulativeMetric;
-import io.wren.base.dto.Metric;
-import io.wren.base.dto.Model;
 import io.wren.base.dto.View;
 
 import java.util.Optional;
@@ -36,26 +32,14 @@ public interface QueryDescriptor
 
     static QueryDescriptor of(String name, AnalyzedMDL analyzedMDL, SessionContext sessionContext)
     {
-        WrenMDL mdl = analyzedMDL.getWrenMDL();
-        Optional<Model> model = mdl.getModel(name);
-        if (model.isPresent()) {
-            return RelationInfo.get(model.get(), mdl);
+        WrenQueryDescriptors descriptors = analyzedMDL.getWrenQueryDescriptors();
+        if (descriptors.contains(name)) {
+            return descriptors.get(name);
         }
-        Optional<Metric> metric = mdl.getMetric(name);
-        if (metric.isPresent()) {
-            return RelationInfo.get(metric.get(), mdl);
-        }
-        Optional<CumulativeMetric> cumulativeMetric = mdl.getCumulativeMetric(name);
-        if (cumulativeMetric.isPresent()) {
-            return CumulativeMetricInfo.get(cumulativeMetric.get(), mdl);
-        }
-        Optional<View> view = mdl.getView(name);
+        Optional<View> view = analyzedMDL.getWrenMDL().getView(name);
         if (view.isPresent()) {
             return ViewInfo.get(view.get(), analyzedMDL, sessionContext);
         }
-        if (name.equals(DateSpineInfo.NAME)) {
-            return DateSpineInfo.get(mdl.getDateSpine());
-        }
         throw new IllegalArgumentException(name + " not found in wren mdl");
     }
 }
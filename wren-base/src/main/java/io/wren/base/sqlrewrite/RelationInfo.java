@@ -69,6 +69,11 @@ public class RelationInfo
         this.query = requireNonNull(query);
     }
 
+    RelationInfo withQuery(Query query)
+    {
+        return new RelationInfo(relationable, requiredObjects, query);
+    }
+
     public Set<String> getRequiredObjects()
     {
         return requiredObjects;
@@ -32,6 +32,7 @@ public class ViewInfo
     private final String name;
     private final Set<String> requiredObjects;
     private final Query query;
+    private final Analysis analysis;
 
     public static ViewInfo get(View view, AnalyzedMDL analyzedMDL, SessionContext sessionContext)
     {
@@ -39,15 +40,22 @@ public class ViewInfo
         Analysis analysis = new Analysis(query);
         StatementAnalyzer.analyze(analysis, query, sessionContext, analyzedMDL.getWrenMDL());
         // sql in view can use metric rollup syntax
-        query = (Query) MetricRollupRewrite.METRIC_ROLLUP_REWRITE.apply(query, sessionContext, analysis, analyzedMDL);
-        return new ViewInfo(view.getName(), analysis.getWrenObjectNames(), query);
+        Query rewritten = (Query) MetricRollupRewrite.METRIC_ROLLUP_REWRITE.apply(query, sessionContext, analysis, analyzedMDL);
+        if (rewritten != query) {
+            Set<String> requiredObjects = analysis.getWrenObjectNames();
+            analysis = new Analysis(rewritten);
+            StatementAnalyzer.analyze(analysis, rewritten, sessionContext, analyzedMDL.getWrenMDL());
+            return new ViewInfo(view.getName(), requiredObjects, rewritten, analysis);
+        }
+        return new ViewInfo(view.getName(), analysis.getWrenObjectNames(), query, analysis);
     }
 
-    private ViewInfo(String name, Set<String> requiredObjects, Query query)
+    private ViewInfo(String name, Set<String> requiredObjects, Query query, Analysis analysis)
     {
         this.name = requireNonNull(name);
         this.requiredObjects = requireNonNull(requiredObjects);
         this.query = requireNonNull(query);
+        this.analysis = requireNonNull(analysis);
     }
 
     @Override
@@ -67,4 +75,12 @@ public class ViewInfo
     {
         return query;
     }
+
+    /**
+     * The analysis of {@link #getQuery()}, used to keep the analysis of a statement up to date when the view is added to it.
+     */
+    public Analysis getAnalysis()
+    {
+        return analysis;
+    }
 }
@@ -17,8 +17,11 @@ package io.wren.base.sqlrewrite;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.primitives.Ints;
 import io.trino.sql.tree.DefaultTraversalVisitor;
 import io.trino.sql.tree.DereferenceExpression;
 import io.trino.sql.tree.Expression;
@@ -37,6 +40,8 @@ import io.wren.base.sqlrewrite.analyzer.RelationshipColumnInfo;
 import org.jgrapht.graph.DirectedAcyclicGraph;
 import org.jgrapht.graph.GraphCycleProhibitedException;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -46,6 +51,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.trino.sql.tree.DereferenceExpression.getQualifiedName;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -56,22 +62,47 @@ import static java.util.stream.Collectors.toSet;
 // TODO: take care view
 public class WrenDataLineage
 {
-    public static final WrenDataLineage EMPTY = new WrenDataLineage(WrenMDL.EMPTY);
+    public static final WrenDataLineage EMPTY = analyze(WrenMDL.EMPTY);
     private final WrenMDL mdl;
     // key: column name, value: source columns name. format in QualifiedName is modelName.columnName
     private final Map<QualifiedName, Set<QualifiedName>> sourceColumnsMap;
-    private final Map<QualifiedName, List<Vertex>> requiredFields;
+    // the lineage is compiled into dense ids, column id is the index of columnNames/columnTables,
+    // table id is the index of tableNames.
+    private final Map<QualifiedName, Integer> columnIds = new HashMap<>();
+    private final List<String> columnNames = new ArrayList<>();
+    private final List<Integer> columnTables = new ArrayList<>();
+    private final Map<String, Integer> tableIds = new HashMap<>();
+    private final List<String> tableNames = new ArrayList<>();
+    // index by column id, the required columns of the column, including the transitive ones
+    private final List<BitSet> requiredColumns = new ArrayList<>();
+    // index by column id, the index in tableOrders of the column, or -1 if the column requires no other table
+    private final List<Integer> columnTableOrders = new ArrayList<>();
+    // distinct table ids in the order of CTE generation
+    private final List<int[]> tableOrders = new ArrayList<>();
 
     public static WrenDataLineage analyze(WrenMDL mdl)
     {
-        return new WrenDataLineage(mdl);
+        return new WrenDataLineage(mdl, ImmutableMap.of());
     }
 
-    private WrenDataLineage(WrenMDL mdl)
+    /**
+     * Analyze a redeployed mdl. The source columns of the objects not affected by the redeployment are taken
+     * from the previous lineage instead of being analyzed again.
+     *
+     * @param affectedObjects the objects changed by the redeployment and all objects requiring them
+     */
+    public static WrenDataLineage analyze(WrenMDL mdl, WrenDataLineage previous, Set<String> affectedObjects)
+    {
+        requireNonNull(previous, "previous is null");
+        requireNonNull(affectedObjects, "affectedObjects is null");
+        return new WrenDataLineage(mdl, Maps.filterKeys(previous.sourceColumnsMap, column -> !affectedObjects.contains(getTable(column))));
+    }
+
+    private WrenDataLineage(WrenMDL mdl, Map<QualifiedName, Set<QualifiedName>> analyzedSourceColumns)
     {
         this.mdl = requireNonNull(mdl);
-        this.sourceColumnsMap = collectSourceColumns();
-        this.requiredFields = collectRequiredFieldsByColumn();
+        this.sourceColumnsMap = collectSourceColumns(analyzedSourceColumns);
+        collectRequiredFieldsByColumn();
     }
 
     /**
@@ -104,33 +135,35 @@ public class WrenDataLineage
      */
     public LinkedHashMap<String, Set<String>> getRequiredFields(List<QualifiedName> columnNames)
     {
-        // make sure there is no model dependency cycle in given columnNames.
-        DirectedAcyclicGraph<Vertex, Object> graph = new DirectedAcyclicGraph<>(Object.class);
-        Map<String, Vertex> vertexes = new HashMap<>();
-        requiredFields.entrySet().stream()
-                .filter(e -> columnNames.contains(e.getKey()))
-                .forEach(e -> {
-                    List<Vertex> nodes = ImmutableList.copyOf(e.getValue());
-                    for (int i = 1; i < nodes.size(); i++) {
-                        String from = nodes.get(i - 1).getName();
-                        String to = nodes.get(i).getName();
-                        Vertex vertexFrom = vertexes.computeIfAbsent(from, (ignored) -> new Vertex(from));
-                        Vertex vertexTo = vertexes.computeIfAbsent(to, (ignored) -> new Vertex(to));
-                        graph.addVertex(vertexFrom);
-                        graph.addVertex(vertexTo);
-                        try {
-                            graph.addEdge(vertexFrom, vertexTo);
-                        }
-                        catch (GraphCycleProhibitedException ex) {
-                            throw new IllegalArgumentException("found cycle in " + e.getKey());
-                        }
-                        vertexFrom.columnNames.addAll(nodes.get(i - 1).getColumnNames());
-                        vertexTo.columnNames.addAll(nodes.get(i).getColumnNames());
-                    }
-                });
+        BitSet requested = new BitSet(this.columnNames.size());
+        for (QualifiedName columnName : columnNames) {
+            Integer columnId = columnIds.get(columnName);
+            if (columnId != null) {
+                requested.set(columnId);
+            }
+        }
+
+        BitSet required = new BitSet(this.columnNames.size());
+        BitSet visitedOrders = new BitSet(tableOrders.size());
+        // key: index in tableOrders, value: the first requested column using it
+        Map<Integer, Integer> orders = new LinkedHashMap<>();
+        requested.stream().forEach(columnId -> {
+            int order = columnTableOrders.get(columnId);
+            if (order < 0) {
+                return;
+            }
+            required.or(requiredColumns.get(columnId));
+            if (!visitedOrders.get(order)) {
+                visitedOrders.set(order);
+                orders.put(order, columnId);
+            }
+        });
 
         LinkedHashMap<String, Set<String>> result = new LinkedHashMap<>();
-        graph.iterator().forEachRemaining(vertex -> result.put(vertex.getName(), vertex.getColumnNames()));
+        for (int tableId : mergeTableOrders(orders)) {
+            result.put(tableNames.get(tableId), new HashSet<>());
+        }
+        required.stream().forEach(columnId -> result.get(tableNames.get(columnTables.get(columnId))).add(this.columnNames.get(columnId)));
         // add back column names to requiredFields
         columnNames.forEach(fullColumnName -> {
             Set<String> names = Optional.ofNullable(result.get(getTable(fullColumnName))).orElseGet(HashSet::new);
@@ -140,37 +173,51 @@ public class WrenDataLineage
         return result;
     }
 
-    private Map<QualifiedName, Set<QualifiedName>> collectSourceColumns()
+    private List<Integer> mergeTableOrders(Map<Integer, Integer> orders)
+    {
+        if (orders.isEmpty()) {
+            return ImmutableList.of();
+        }
+        if (orders.size() == 1) {
+            return Ints.asList(tableOrders.get(getOnlyElement(orders.keySet())));
+        }
+        // make sure there is no model dependency cycle in given columnNames.
+        DirectedAcyclicGraph<Integer, Object> graph = new DirectedAcyclicGraph<>(Object.class);
+        orders.forEach((order, columnId) -> {
+            int[] tableOrder = tableOrders.get(order);
+            for (int i = 1; i < tableOrder.length; i++) {
+                graph.addVertex(tableOrder[i - 1]);
+                graph.addVertex(tableOrder[i]);
+                try {
+                    graph.addEdge(tableOrder[i - 1], tableOrder[i]);
+                }
+                catch (GraphCycleProhibitedException ex) {
+                    throw new IllegalArgumentException("found cycle in " + QualifiedName.of(tableNames.get(columnTables.get(columnId)), columnNames.get(columnId)));
+                }
+            }
+        });
+        return ImmutableList.copyOf(graph.iterator());
+    }
+
+    private Map<QualifiedName, Set<QualifiedName>> collectSourceColumns(Map<QualifiedName, Set<QualifiedName>> analyzedSourceColumns)
     {
         Map<QualifiedName, Set<QualifiedName>> sourceColumnsMap = new HashMap<>();
         for (Model model : mdl.listModels()) {
             for (Column column : model.getColumns()) {
-                SetMultimap<String, String> sourceColumns = getSourceColumns(mdl, model, column);
+                QualifiedName columnName = QualifiedName.of(model.getName(), column.getName());
                 sourceColumnsMap.put(
-                        QualifiedName.of(model.getName(), column.getName()),
-                        // TODO: maybe we can make getSourceColumns return Set<QualifiedName>
-                        sourceColumns.asMap().entrySet().stream()
-                                .map(e ->
-                                        e.getValue().stream()
-                                                .map(name -> QualifiedName.of(e.getKey(), name))
-                                                .collect(toImmutableSet()))
-                                .flatMap(Set::stream)
-                                .collect(toImmutableSet()));
+                        columnName,
+                        Optional.ofNullable(analyzedSourceColumns.get(columnName))
+                                .orElseGet(() -> toQualifiedNames(getSourceColumns(mdl, model, column))));
             }
         }
         for (Metric metric : mdl.listMetrics()) {
             for (Column column : metric.getColumns()) {
-                SetMultimap<String, String> sourceColumns = getSourceColumns(mdl, metric, column);
+                QualifiedName columnName = QualifiedName.of(metric.getName(), column.getName());
                 sourceColumnsMap.put(
-                        QualifiedName.of(metric.getName(), column.getName()),
-                        // TODO: maybe we can make getSourceColumns return Set<QualifiedName>
-                        sourceColumns.asMap().entrySet().stream()
-                                .map(e ->
-                                        e.getValue().stream()
-                                                .map(name -> QualifiedName.of(e.getKey(), name))
-                                                .collect(toImmutableSet()))
-                                .flatMap(Set::stream)
-                                .collect(toImmutableSet()));
+                        columnName,
+                        Optional.ofNullable(analyzedSourceColumns.get(columnName))
+                                .orElseGet(() -> toQualifiedNames(getSourceColumns(mdl, metric, column))));
             }
         }
         for (CumulativeMetric cumulativeMetric : mdl.listCumulativeMetrics()) {
@@ -187,17 +234,61 @@ public class WrenDataLineage
         return sourceColumnsMap;
     }
 
-    private Map<QualifiedName, List<Vertex>> collectRequiredFieldsByColumn()
+    // TODO: maybe we can make getSourceColumns return Set<QualifiedName>
+    private static Set<QualifiedName> toQualifiedNames(SetMultimap<String, String> sourceColumns)
+    {
+        return sourceColumns.asMap().entrySet().stream()
+                .map(e ->
+                        e.getValue().stream()
+                                .map(name -> QualifiedName.of(e.getKey(), name))
+                                .collect(toImmutableSet()))
+                .flatMap(Set::stream)
+                .collect(toImmutableSet());
+    }
+
+    private void collectRequiredFieldsByColumn()
     {
-        Map<QualifiedName, List<Vertex>> columnLineages = new HashMap<>();
-        sourceColumnsMap.forEach(((column, sourceColumns) -> {
+        sourceColumnsMap.keySet().forEach(this::getColumnId);
+        Map<List<Integer>, Integer> distinctTableOrders = new HashMap<>();
+        sourceColumnsMap.keySet().forEach(column -> {
             DirectedAcyclicGraph<Vertex, Object> graph = new DirectedAcyclicGraph<>(Object.class);
             Map<String, Vertex> vertexes = new HashMap<>();
             collectRequiredFields(column, graph, vertexes);
-            columnLineages.put(column, ImmutableList.copyOf(graph.iterator()));
-        }));
+            List<Vertex> lineage = ImmutableList.copyOf(graph.iterator());
+            int columnId = getColumnId(column);
+            // a column whose lineage has only one table requires no other fields
+            if (lineage.size() > 1) {
+                BitSet required = requiredColumns.get(columnId);
+                List<Integer> tableOrder = new ArrayList<>();
+                for (Vertex vertex : lineage) {
+                    tableOrder.add(getTableId(vertex.getName()));
+                    vertex.getColumnNames().forEach(name -> required.set(getColumnId(QualifiedName.of(vertex.getName(), name))));
+                }
+                columnTableOrders.set(columnId, distinctTableOrders.computeIfAbsent(tableOrder, ignored -> {
+                    tableOrders.add(Ints.toArray(tableOrder));
+                    return tableOrders.size() - 1;
+                }));
+            }
+        });
+    }
+
+    private int getColumnId(QualifiedName column)
+    {
+        return columnIds.computeIfAbsent(column, ignored -> {
+            columnNames.add(getColumn(column));
+            columnTables.add(getTableId(getTable(column)));
+            requiredColumns.add(new BitSet());
+            columnTableOrders.add(-1);
+            return columnNames.size() - 1;
+        });
+    }
 
-        return columnLineages;
+    private int getTableId(String table)
+    {
+        return tableIds.computeIfAbsent(table, ignored -> {
+            tableNames.add(table);
+            return tableNames.size() - 1;
+        });
     }
 
     private void collectRequiredFields(
@@ -20,6 +20,8 @@ import io.trino.sql.parser.SqlParser;
 import io.trino.sql.tree.Statement;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.SessionContext;
+import io.wren.base.sqlrewrite.analyzer.Analysis;
+import io.wren.base.sqlrewrite.analyzer.StatementAnalyzer;
 
 import java.util.List;
 
@@ -47,10 +49,25 @@ public class WrenPlanner
     public static String rewrite(String sql, SessionContext sessionContext, AnalyzedMDL analyzedMDL, List<WrenRule> rules)
     {
         Statement statement = SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL));
+        return SqlFormatter.formatSql(plan(statement, sessionContext, analyzedMDL, rules));
+    }
+
+    public static Statement plan(Statement statement, SessionContext sessionContext, AnalyzedMDL analyzedMDL)
+    {
+        return plan(statement, sessionContext, analyzedMDL, ALL_RULES);
+    }
+
+    public static Statement plan(Statement statement, SessionContext sessionContext, AnalyzedMDL analyzedMDL, List<WrenRule> rules)
+    {
+        Analysis analysis = null;
         for (WrenRule rule : rules) {
-            // we will replace or rewrite sql node in sql rewrite, to avoid rewrite rules affect each other, format and parse sql before each rewrite
-            statement = rule.apply(SQL_PARSER.createStatement(SqlFormatter.formatSql(statement), new ParsingOptions(AS_DECIMAL)), sessionContext, analyzedMDL);
+            // the analysis is shared by the rules until one of them rewrites the statement without updating it
+            if (rule.requiresAnalysis() && (analysis == null || analysis.getRoot() != statement)) {
+                analysis = new Analysis(statement);
+                StatementAnalyzer.analyze(analysis, statement, sessionContext, analyzedMDL.getWrenMDL());
+            }
+            statement = rule.apply(statement, sessionContext, analysis, analyzedMDL);
         }
-        return SqlFormatter.formatSql(statement);
+        return statement;
     }
 }
@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.wren.base.WrenMDL;
+import org.jgrapht.graph.DirectedAcyclicGraph;
+import org.jgrapht.graph.GraphCycleProhibitedException;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Query descriptors of all models, metrics, cumulative metrics and the date spine in a mdl, compiled once
+ * when the mdl is deployed. The descriptors and their parsed queries are read-only and shared by all queries.
+ */
+public class WrenQueryDescriptors
+{
+    private final Map<String, QueryDescriptor> descriptors = new HashMap<>();
+    // the reason why a descriptor can't be used, thrown when a query requires it
+    private final Map<String, RuntimeException> failures = new HashMap<>();
+    // position of each descriptor in the order of CTE generation
+    private final Map<String, Integer> order;
+    // the descriptors of models without some of their fields, see JoinElimination
+    private final Cache<Map.Entry<String, Set<String>>, QueryDescriptor> variants = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .build();
+
+    public static WrenQueryDescriptors compile(WrenMDL mdl)
+    {
+        return new WrenQueryDescriptors(mdl, name -> Optional.empty());
+    }
+
+    /**
+     * Compile the descriptors of a redeployed mdl. The descriptors of the objects not affected by the redeployment
+     * are taken from the previous mdl instead of being compiled again.
+     *
+     * @param affectedObjects the objects changed by the redeployment and all objects requiring them, see {@link #getDependents(Collection)}
+     */
+    public static WrenQueryDescriptors compile(WrenMDL mdl, WrenQueryDescriptors previous, Set<String> affectedObjects)
+    {
+        requireNonNull(previous, "previous is null");
+        requireNonNull(affectedObjects, "affectedObjects is null");
+        return new WrenQueryDescriptors(mdl, name -> affectedObjects.contains(name) ? Optional.empty() : Optional.ofNullable(previous.descriptors.get(name)));
+    }
+
+    private WrenQueryDescriptors(WrenMDL mdl, Function<String, Optional<QueryDescriptor>> compiled)
+    {
+        requireNonNull(mdl);
+        mdl.listModels().forEach(model -> add(model.getName(), compiled, () -> RelationInfo.get(model, mdl)));
+        mdl.listMetrics().forEach(metric -> add(metric.getName(), compiled, () -> RelationInfo.get(metric, mdl)));
+        mdl.listCumulativeMetrics().forEach(metric -> add(metric.getName(), compiled, () -> CumulativeMetricInfo.get(metric, mdl)));
+        add(DateSpineInfo.NAME, compiled, () -> DateSpineInfo.get(mdl.getDateSpine()));
+        this.order = collectOrder();
+    }
+
+    private void add(String name, Function<String, Optional<QueryDescriptor>> compiled, Supplier<QueryDescriptor> descriptor)
+    {
+        if (contains(name)) {
+            // models take precedence over metrics, and metrics over cumulative metrics
+            return;
+        }
+        try {
+            descriptors.put(name, compiled.apply(name).orElseGet(descriptor));
+        }
+        catch (RuntimeException e) {
+            // an invalid object shouldn't fail the deployment, only the queries using it
+            failures.put(name, e);
+        }
+    }
+
+    private Map<String, Integer> collectOrder()
+    {
+        DirectedAcyclicGraph<String, Object> graph = new DirectedAcyclicGraph<>(Object.class);
+        descriptors.values().forEach(descriptor -> {
+            graph.addVertex(descriptor.getName());
+            descriptor.getRequiredObjects().forEach(requiredObject -> {
+                graph.addVertex(requiredObject);
+                try {
+                    graph.addEdge(requiredObject, descriptor.getName());
+                }
+                catch (GraphCycleProhibitedException ex) {
+                    failures.put(descriptor.getName(), new IllegalArgumentException("found cycle in models", ex));
+                }
+            });
+        });
+
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        int position = 0;
+        for (String name : graph) {
+            builder.put(name, position++);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the compiled descriptor of a model, metric, cumulative metric or the date spine.
+     *
+     * @throws IllegalArgumentException if the object isn't in the mdl
+     * @throws RuntimeException the failure of compiling the object if it is invalid
+     */
+    public QueryDescriptor get(String name)
+    {
+        RuntimeException failure = failures.get(name);
+        if (failure != null) {
+            throw failure;
+        }
+        QueryDescriptor descriptor = descriptors.get(name);
+        if (descriptor == null) {
+            throw new IllegalArgumentException(name + " not found in wren mdl");
+        }
+        return descriptor;
+    }
+
+    /**
+     * Get the descriptor of an object without the given fields. It is compiled by the given supplier when first required,
+     * and shared by the later queries.
+     */
+    public QueryDescriptor getWithoutFields(String name, Set<String> removedFields, Supplier<QueryDescriptor> descriptor)
+    {
+        requireNonNull(descriptor, "descriptor is null");
+        try {
+            return variants.get(Map.entry(name, ImmutableSet.copyOf(removedFields)), descriptor::get);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public boolean contains(String name)
+    {
+        return descriptors.containsKey(name) || failures.containsKey(name);
+    }
+
+    /**
+     * Get the given objects and all objects requiring any of them directly or transitively. The objects failed to compile
+     * are always included, since what they require is unknown.
+     */
+    public Set<String> getDependents(Collection<String> names)
+    {
+        Map<String, Set<String>> dependents = new HashMap<>();
+        descriptors.values().forEach(descriptor ->
+                descriptor.getRequiredObjects().forEach(requiredObject ->
+                        dependents.computeIfAbsent(requiredObject, ignored -> new HashSet<>()).add(descriptor.getName())));
+
+        Set<String> result = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(names);
+        pending.addAll(failures.keySet());
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (result.add(name)) {
+                pending.addAll(dependents.getOrDefault(name, Set.of()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the descriptors of the given objects and all objects they require, in the order of CTE generation.
+     */
+    public List<QueryDescriptor> getRequiredDescriptors(Collection<String> names)
+    {
+        Set<String> required = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(names);
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (required.add(name)) {
+                pending.addAll(get(name).getRequiredObjects());
+            }
+        }
+        return required.stream()
+                .sorted(Comparator.comparing(order::get))
+                .map(descriptors::get)
+                .collect(toImmutableList());
+    }
+}
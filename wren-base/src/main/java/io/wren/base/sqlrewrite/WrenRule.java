@@ -23,5 +23,17 @@ public interface WrenRule
 {
     Statement apply(Statement root, SessionContext sessionContext, AnalyzedMDL analyzedMDL);
 
+    /**
+     * Apply the rule to an analyzed statement. A rule that returns a new statement either updates the given analysis
+     * to describe it (see {@link Analysis#replaceRoot}) or leaves it to be analyzed again by the next rule.
+     */
     Statement apply(Statement root, SessionContext sessionContext, Analysis analysis, AnalyzedMDL analyzedMDL);
+
+    /**
+     * Whether the rule reads the analysis of the statement. The planner doesn't analyze the statement for rules that don't.
+     */
+    default boolean requiresAnalysis()
+    {
+        return true;
+    }
 }
@@ -26,19 +26,15 @@ import io.trino.sql.tree.WithQuery;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.CatalogSchemaTableName;
 import io.wren.base.SessionContext;
-import io.wren.base.Utils;
 import io.wren.base.WrenMDL;
+import io.wren.base.dto.Column;
 import io.wren.base.dto.CumulativeMetric;
 import io.wren.base.dto.Metric;
 import io.wren.base.dto.Model;
 import io.wren.base.sqlrewrite.analyzer.Analysis;
 import io.wren.base.sqlrewrite.analyzer.StatementAnalyzer;
-import org.jgrapht.graph.DirectedAcyclicGraph;
-import org.jgrapht.graph.GraphCycleProhibitedException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -83,7 +79,6 @@ public class WrenSqlRewrite
     public Statement apply(Statement root, SessionContext sessionContext, Analysis analysis, AnalyzedMDL analyzedMDL)
     {
         WrenMDL wrenMDL = analyzedMDL.getWrenMDL();
-        Set<QueryDescriptor> allDescriptors;
         // TODO: Currently DynamicCalculatedField is a experimental feature, and buggy. After all issues are solved,
         //  we should always enable this setting.
         if (sessionContext.isEnableDynamicField()) {
@@ -94,14 +89,14 @@ public class WrenSqlRewrite
 
             ImmutableList.Builder<QueryDescriptor> descriptorsBuilder = ImmutableList.builder();
             tableRequiredFields.forEach((name, value) -> {
-                addDescriptor(name, value, wrenMDL, descriptorsBuilder);
+                addDescriptor(name, value, wrenMDL, analyzedMDL.getWrenQueryDescriptors(), descriptorsBuilder);
                 visitedTables.remove(toCatalogSchemaTableName(sessionContext, QualifiedName.of(name)));
             });
 
             // Some node be applied `count(*)` which won't be collected but its source is required.
             analysis.getRequiredSourceNodes().forEach(node ->
                     analysis.getSourceNodeNames(node).map(QualifiedName::toString).ifPresent(name -> {
-                        addDescriptor(name, wrenMDL, descriptorsBuilder);
+                        descriptorsBuilder.add(analyzedMDL.getWrenQueryDescriptors().get(name));
                         visitedTables.remove(toCatalogSchemaTableName(sessionContext, QualifiedName.of(name)));
                     }));
 
@@ -110,9 +105,10 @@ public class WrenSqlRewrite
             if (tableRequiredFields.keySet().stream()
                     .map(wrenMDL::getCumulativeMetric)
                     .anyMatch(Optional::isPresent)) {
-                withQueries.add(WithRewriter.getWithQuery(DateSpineInfo.get(wrenMDL.getDateSpine())));
+                withQueries.add(WithRewriter.getWithQuery(analyzedMDL.getWrenQueryDescriptors().get(DateSpineInfo.NAME)));
             }
-            descriptorsBuilder.build().forEach(queryDescriptor -> withQueries.add(WithRewriter.getWithQuery(queryDescriptor)));
+            PredicatePushdown.pushdown(descriptorsBuilder.build(), analysis, wrenMDL)
+                    .forEach(queryDescriptor -> withQueries.add(WithRewriter.getWithQuery(queryDescriptor)));
 
             // If a selected table lacks any required fields, create a dummy with query for it.
             visitedTables.stream().filter(table -> wrenMDL.isObjectExist(table.getSchemaTableName().getTableName()))
@@ -122,22 +118,29 @@ public class WrenSqlRewrite
             return (Statement) new Rewriter(wrenMDL, analysis).process(rewriteWith);
         }
         else {
-            Set<QueryDescriptor> modelDescriptors = analysis.getModels().stream().map(model -> RelationInfo.get(model, wrenMDL)).collect(toSet());
-            Set<QueryDescriptor> metricDescriptors = analysis.getMetrics().stream().map(metric -> RelationInfo.get(metric, wrenMDL)).collect(toSet());
-            Set<QueryDescriptor> cumulativeMetricDescriptors = analysis.getCumulativeMetrics().stream().map(metric -> CumulativeMetricInfo.get(metric, wrenMDL)).collect(toSet());
-            allDescriptors = ImmutableSet.<QueryDescriptor>builder()
-                    .addAll(modelDescriptors)
-                    .addAll(metricDescriptors)
-                    .addAll(cumulativeMetricDescriptors)
+            Set<String> names = ImmutableSet.<String>builder()
+                    .addAll(analysis.getModels().stream().map(Model::getName).iterator())
+                    .addAll(analysis.getMetrics().stream().map(Metric::getName).iterator())
+                    .addAll(analysis.getCumulativeMetrics().stream().map(CumulativeMetric::getName).iterator())
                     .build();
-            return apply(root, sessionContext, analysis, analyzedMDL, allDescriptors);
+            List<QueryDescriptor> descriptors = JoinElimination.eliminate(analyzedMDL.getWrenQueryDescriptors(), names, root, wrenMDL);
+            List<WithQuery> withQueries = PredicatePushdown.pushdown(descriptors, analysis, wrenMDL).stream()
+                    .map(WithRewriter::getWithQuery)
+                    .collect(toImmutableList());
+            Node rewriteWith = new WithRewriter(withQueries).process(root);
+            return (Statement) new Rewriter(wrenMDL, analysis).process(rewriteWith);
         }
     }
 
-    private void addDescriptor(String name, Set<String> requiredFields, WrenMDL wrenMDL, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
+    private void addDescriptor(String name, Set<String> requiredFields, WrenMDL wrenMDL, WrenQueryDescriptors queryDescriptors, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
     {
         if (wrenMDL.getModel(name).isPresent()) {
             Model model = wrenMDL.getModel(name).get();
+            // all fields are required, the compiled descriptor is the same
+            if (requiredFields.containsAll(model.getColumns().stream().map(Column::getName).collect(toSet()))) {
+                descriptorsBuilder.add(queryDescriptors.get(name));
+                return;
+            }
             descriptorsBuilder.add(RelationInfo.get(model, wrenMDL, requiredFields));
         }
         else if (wrenMDL.getMetric(name).isPresent()) {
@@ -145,88 +148,13 @@ public class WrenSqlRewrite
             descriptorsBuilder.add(RelationInfo.get(metric, wrenMDL, requiredFields));
         }
         else if (wrenMDL.getCumulativeMetric(name).isPresent()) {
-            CumulativeMetric cumulativeMetric = wrenMDL.getCumulativeMetric(name).get();
-            descriptorsBuilder.add(CumulativeMetricInfo.get(cumulativeMetric, wrenMDL));
+            descriptorsBuilder.add(queryDescriptors.get(name));
         }
         else {
             throw new IllegalArgumentException(name + " not found in mdl");
         }
     }
 
-    private void addDescriptor(String name, WrenMDL wrenMDL, ImmutableList.Builder<QueryDescriptor> descriptorsBuilder)
-    {
-        if (wrenMDL.getModel(name).isPresent()) {
-            Model model = wrenMDL.getModel(name).get();
-            descriptorsBuilder.add(RelationInfo.get(model, wrenMDL));
-        }
-        else if (wrenMDL.getMetric(name).isPresent()) {
-            Metric metric = wrenMDL.getMetric(name).get();
-            descriptorsBuilder.add(RelationInfo.get(metric, wrenMDL));
-        }
-        else if (wrenMDL.getCumulativeMetric(name).isPresent()) {
-            CumulativeMetric cumulativeMetric = wrenMDL.getCumulativeMetric(name).get();
-            descriptorsBuilder.add(CumulativeMetricInfo.get(cumulativeMetric, wrenMDL));
-        }
-        else {
-            throw new IllegalArgumentException(name + " not found in mdl");
-        }
-    }
-
-    private Statement apply(
-            Statement root,
-            SessionContext sessionContext,
-            Analysis analysis,
-            AnalyzedMDL analyzedMDL,
-            Set<QueryDescriptor> allDescriptors)
-    {
-        DirectedAcyclicGraph<String, Object> graph = new DirectedAcyclicGraph<>(Object.class);
-        Set<QueryDescriptor> requiredQueryDescriptors = new HashSet<>();
-        // add to graph
-        allDescriptors.forEach(queryDescriptor -> addSqlDescriptorToGraph(queryDescriptor, graph, analyzedMDL, requiredQueryDescriptors, sessionContext));
-
-        Map<String, QueryDescriptor> descriptorMap = new HashMap<>();
-        allDescriptors.forEach(queryDescriptor -> descriptorMap.put(queryDescriptor.getName(), queryDescriptor));
-        requiredQueryDescriptors.forEach(queryDescriptor -> descriptorMap.put(queryDescriptor.getName(), queryDescriptor));
-
-        List<WithQuery> withQueries = new ArrayList<>();
-        graph.iterator().forEachRemaining(objectName -> {
-            QueryDescriptor queryDescriptor = descriptorMap.get(objectName);
-            Utils.checkArgument(queryDescriptor != null, objectName + " not found in query descriptors");
-            withQueries.add(WithRewriter.getWithQuery(queryDescriptor));
-        });
-
-        Node rewriteWith = new WithRewriter(withQueries).process(root);
-        return (Statement) new Rewriter(analyzedMDL.getWrenMDL(), analysis).process(rewriteWith);
-    }
-
-    private static void addSqlDescriptorToGraph(
-            QueryDescriptor queryDescriptor,
-            DirectedAcyclicGraph<String, Object> graph,
-            AnalyzedMDL analyzedMDL,
-            Set<QueryDescriptor> queryDescriptors,
-            SessionContext sessionContext)
-    {
-        // add vertex
-        graph.addVertex(queryDescriptor.getName());
-        queryDescriptor.getRequiredObjects().forEach(graph::addVertex);
-
-        //add edge
-        try {
-            queryDescriptor.getRequiredObjects().forEach(modelName ->
-                    graph.addEdge(modelName, queryDescriptor.getName()));
-        }
-        catch (GraphCycleProhibitedException ex) {
-            throw new IllegalArgumentException("found cycle in models", ex);
-        }
-
-        // add required models to graph
-        for (String objectName : queryDescriptor.getRequiredObjects()) {
-            QueryDescriptor descriptor = QueryDescriptor.of(objectName, analyzedMDL, sessionContext);
-            queryDescriptors.add(descriptor);
-            addSqlDescriptorToGraph(descriptor, graph, analyzedMDL, queryDescriptors, sessionContext);
-        }
-    }
-
     private static class Rewriter
             extends BaseRewriter<Void>
     {
@@ -21,8 +21,10 @@ import io.trino.sql.tree.Expression;
 import io.trino.sql.tree.FunctionRelation;
 import io.trino.sql.tree.Node;
 import io.trino.sql.tree.NodeRef;
+import io.trino.sql.tree.OrderBy;
 import io.trino.sql.tree.QualifiedName;
 import io.trino.sql.tree.Statement;
+import io.trino.sql.tree.Table;
 import io.wren.base.CatalogSchemaTableName;
 import io.wren.base.dto.CumulativeMetric;
 import io.wren.base.dto.Metric;
@@ -41,14 +43,17 @@ import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static io.trino.sql.tree.ComparisonExpression.Operator;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toSet;
 
 public class Analysis
 {
-    private final Statement root;
+    private Statement root;
     private final Map<NodeRef<Node>, Scope> scopes = new LinkedHashMap<>();
 
     private final Set<CatalogSchemaTableName> tables = new HashSet<>();
@@ -62,6 +67,8 @@ public class Analysis
     private final Multimap<CatalogSchemaTableName, String> collectedColumns = HashMultimap.create();
     private final Map<NodeRef<Expression>, Field> referenceFields = new HashMap<>();
     private final List<SimplePredicate> simplePredicates = new ArrayList<>();
+    private final Map<NodeRef<Node>, List<Expression>> pushdownPredicates = new HashMap<>();
+    private final Map<NodeRef<Node>, PushdownLimit> pushdownLimits = new HashMap<>();
 
     private final Set<Node> requiredSourceNodes = new HashSet<>();
 
@@ -170,6 +177,50 @@ public class Analysis
         return simplePredicates;
     }
 
+    void addPushdownPredicate(Table table, Expression predicate)
+    {
+        pushdownPredicates.computeIfAbsent(NodeRef.of(table), key -> new ArrayList<>()).add(predicate);
+    }
+
+    /**
+     * The predicates which can be pushed down into the CTE of each model or metric, with the columns referred by their
+     * names in the object. An object referred by more than one table in the statement has none, since its CTE is
+     * shared by all of them.
+     */
+    public Map<String, List<Expression>> getPushdownPredicates()
+    {
+        return referencedOnce(pushdownPredicates);
+    }
+
+    List<Expression> getPushdownPredicates(Table table)
+    {
+        return pushdownPredicates.getOrDefault(NodeRef.of(table), List.of());
+    }
+
+    void addPushdownLimit(Table table, PushdownLimit limit)
+    {
+        pushdownLimits.put(NodeRef.of(table), limit);
+    }
+
+    /**
+     * The limits which can be pushed down into the CTE of each model, along with its pushdown predicates.
+     * Like the predicates, an object referred by more than one table in the statement has none.
+     */
+    public Map<String, PushdownLimit> getPushdownLimits()
+    {
+        return referencedOnce(pushdownLimits);
+    }
+
+    private <T> Map<String, T> referencedOnce(Map<NodeRef<Node>, T> values)
+    {
+        Map<String, Long> references = sourceNodeNames.values().stream()
+                .collect(groupingBy(QualifiedName::toString, counting()));
+        return values.entrySet().stream()
+                .filter(entry -> sourceNodeNames.containsKey(entry.getKey()))
+                .filter(entry -> references.get(sourceNodeNames.get(entry.getKey()).toString()) == 1)
+                .collect(toImmutableMap(entry -> sourceNodeNames.get(entry.getKey()).toString(), Map.Entry::getValue));
+    }
+
     public Multimap<CatalogSchemaTableName, String> getCollectedColumns()
     {
         return collectedColumns;
@@ -255,6 +306,43 @@ public class Analysis
         requiredSourceNodes.add(node);
     }
 
+    /**
+     * Make this analysis describe a rewritten root without analyzing it again. The rewrite must keep all nodes
+     * of the previous root except the root itself, and every subtree it added must be described by one of the
+     * given analyses.
+     *
+     * @param root the rewritten root
+     * @param addedSubtrees the analyses of the subtrees added by the rewrite
+     */
+    public void replaceRoot(Statement root, List<Analysis> addedSubtrees)
+    {
+        requireNonNull(root, "root is null");
+        tryGetScope(this.root).ifPresent(scope -> setScope(root, scope));
+        this.root = root;
+        for (Analysis added : addedSubtrees) {
+            scopes.putAll(added.scopes);
+            tables.addAll(added.tables);
+            relationships.addAll(added.relationships);
+            models.addAll(added.models);
+            metrics.addAll(added.metrics);
+            metricRollups.putAll(added.metricRollups);
+            cumulativeMetrics.addAll(added.cumulativeMetrics);
+            views.addAll(added.views);
+            collectedColumns.putAll(added.collectedColumns);
+            referenceFields.putAll(added.referenceFields);
+            simplePredicates.addAll(added.simplePredicates);
+            pushdownPredicates.putAll(added.pushdownPredicates);
+            pushdownLimits.putAll(added.pushdownLimits);
+            requiredSourceNodes.addAll(added.requiredSourceNodes);
+            sourceNodeNames.putAll(added.sourceNodeNames);
+            typeCoercionMap.putAll(added.typeCoercionMap);
+            sortItems.addAll(added.sortItems);
+            if (limit == null) {
+                limit = added.limit;
+            }
+        }
+    }
+
     public Optional<QualifiedName> getSourceNodeNames(Node node)
     {
         return Optional.ofNullable(sourceNodeNames.get(NodeRef.of(node)));
@@ -341,6 +429,41 @@ public class Analysis
         }
     }
 
+    /**
+     * The limit of a query on a single model, optionally with the order of the rows, with the sort keys referring to
+     * the columns by their names in the model.
+     */
+    public static class PushdownLimit
+    {
+        private final Optional<OrderBy> orderBy;
+        private final Node limit;
+
+        public PushdownLimit(Optional<OrderBy> orderBy, Node limit)
+        {
+            this.orderBy = requireNonNull(orderBy, "orderBy is null");
+            this.limit = requireNonNull(limit, "limit is null");
+        }
+
+        public Optional<OrderBy> getOrderBy()
+        {
+            return orderBy;
+        }
+
+        public Node getLimit()
+        {
+            return limit;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("orderBy", orderBy)
+                    .add("limit", limit)
+                    .toString();
+        }
+    }
+
     public static class SortItemAnalysis
     {
         private QualifiedName sortKey;
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite.analyzer;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.AliasedRelation;
+import io.trino.sql.tree.AllRows;
+import io.trino.sql.tree.DefaultTraversalVisitor;
+import io.trino.sql.tree.DereferenceExpression;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.FunctionCall;
+import io.trino.sql.tree.Identifier;
+import io.trino.sql.tree.Limit;
+import io.trino.sql.tree.OrderBy;
+import io.trino.sql.tree.Parameter;
+import io.trino.sql.tree.QualifiedName;
+import io.trino.sql.tree.QuerySpecification;
+import io.trino.sql.tree.Relation;
+import io.trino.sql.tree.SelectItem;
+import io.trino.sql.tree.SingleColumn;
+import io.trino.sql.tree.SortItem;
+import io.trino.sql.tree.SubqueryExpression;
+import io.trino.sql.tree.Table;
+import io.wren.base.WrenMDL;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.wren.base.sqlrewrite.analyzer.PredicatePushdownAnalyzer.extractConjuncts;
+
+/**
+ * Collect the LIMIT of a query, and its ORDER BY if any, which can be pushed down into the CTE of the model in its FROM
+ * clause. The rows of the model are one-to-one with the rows of the query only if the model is the only relation, the
+ * query has no aggregation, DISTINCT or window, and the whole WHERE clause can be pushed down into the CTE too.
+ */
+final class LimitPushdownAnalyzer
+{
+    private LimitPushdownAnalyzer() {}
+
+    static void analyze(QuerySpecification node, Analysis analysis, WrenMDL wrenMDL)
+    {
+        if (node.getLimit().isEmpty()
+                || !(node.getLimit().get() instanceof Limit)
+                || ((Limit) node.getLimit().get()).getRowCount() instanceof AllRows
+                // a client parameter copied into the CTE would be one more parameter to bind
+                || ((Limit) node.getLimit().get()).getRowCount() instanceof Parameter
+                || node.getOffset().isPresent()
+                || node.getGroupBy().isPresent()
+                || node.getHaving().isPresent()
+                || node.getSelect().isDistinct()
+                || !node.getWindows().isEmpty()
+                || node.getFrom().isEmpty()) {
+            return;
+        }
+
+        Relation from = node.getFrom().get();
+        Optional<Identifier> alias = Optional.empty();
+        if (from instanceof AliasedRelation) {
+            AliasedRelation aliasedRelation = (AliasedRelation) from;
+            // the columns of the model are renamed, skip it
+            if (aliasedRelation.getColumnNames() != null && !aliasedRelation.getColumnNames().isEmpty()) {
+                return;
+            }
+            alias = Optional.of(aliasedRelation.getAlias());
+            from = aliasedRelation.getRelation();
+        }
+        if (!(from instanceof Table)) {
+            return;
+        }
+        Table table = (Table) from;
+        Optional<QualifiedName> name = analysis.getSourceNodeNames(table);
+        if (name.isEmpty() || wrenMDL.getModel(name.get().toString()).isEmpty()) {
+            return;
+        }
+
+        // an aggregation can't be told apart from a scalar function
+        for (SelectItem item : node.getSelect().getSelectItems()) {
+            if (item instanceof SingleColumn && !isColumnExpression(((SingleColumn) item).getExpression())) {
+                return;
+            }
+        }
+        if (node.getWhere().isPresent() && extractConjuncts(node.getWhere().get()).size() != analysis.getPushdownPredicates(table).size()) {
+            return;
+        }
+
+        Optional<OrderBy> orderBy = Optional.empty();
+        if (node.getOrderBy().isPresent()) {
+            Set<String> outputNames = node.getSelect().getSelectItems().stream()
+                    .filter(SingleColumn.class::isInstance)
+                    .map(item -> ((SingleColumn) item).getAlias())
+                    .flatMap(Optional::stream)
+                    .map(Identifier::getValue)
+                    .collect(toImmutableSet());
+            String relationName = alias.orElse(new Identifier(table.getName().getSuffix())).getValue();
+            ImmutableList.Builder<SortItem> sortItems = ImmutableList.builder();
+            for (SortItem item : node.getOrderBy().get().getSortItems()) {
+                // only column references are pushed down, a sort key with a client parameter never is
+                Optional<String> column = getColumnName(item.getSortKey(), relationName);
+                // a sort key referring to an output column may not be the column of the model with the same name
+                if (column.isEmpty() || outputNames.contains(column.get())) {
+                    return;
+                }
+                sortItems.add(new SortItem(new Identifier(column.get(), true), item.getOrdering(), item.getNullOrdering()));
+            }
+            orderBy = Optional.of(new OrderBy(sortItems.build()));
+        }
+        analysis.addPushdownLimit(table, new Analysis.PushdownLimit(orderBy, node.getLimit().get()));
+    }
+
+    private static Optional<String> getColumnName(Expression sortKey, String relationName)
+    {
+        if (sortKey instanceof Identifier) {
+            return Optional.of(((Identifier) sortKey).getValue());
+        }
+        if (sortKey instanceof DereferenceExpression) {
+            DereferenceExpression dereference = (DereferenceExpression) sortKey;
+            // anything else may be a column of a relationship
+            if (dereference.getBase() instanceof Identifier && ((Identifier) dereference.getBase()).getValue().equalsIgnoreCase(relationName)) {
+                return dereference.getField().map(Identifier::getValue);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isColumnExpression(Expression expression)
+    {
+        ColumnExpressionVisitor visitor = new ColumnExpressionVisitor();
+        visitor.process(expression);
+        return visitor.columnExpression;
+    }
+
+    private static class ColumnExpressionVisitor
+            extends DefaultTraversalVisitor<Void>
+    {
+        private boolean columnExpression = true;
+
+        @Override
+        protected Void visitFunctionCall(FunctionCall node, Void context)
+        {
+            columnExpression = false;
+            return null;
+        }
+
+        @Override
+        protected Void visitSubqueryExpression(SubqueryExpression node, Void context)
+        {
+            columnExpression = false;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite.analyzer;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.AliasedRelation;
+import io.trino.sql.tree.DefaultTraversalVisitor;
+import io.trino.sql.tree.DereferenceExpression;
+import io.trino.sql.tree.Expression;
+import io.trino.sql.tree.ExpressionRewriter;
+import io.trino.sql.tree.ExpressionTreeRewriter;
+import io.trino.sql.tree.FunctionCall;
+import io.trino.sql.tree.Identifier;
+import io.trino.sql.tree.Join;
+import io.trino.sql.tree.LambdaExpression;
+import io.trino.sql.tree.LogicalExpression;
+import io.trino.sql.tree.NodeRef;
+import io.trino.sql.tree.Parameter;
+import io.trino.sql.tree.QualifiedName;
+import io.trino.sql.tree.Relation;
+import io.trino.sql.tree.SubqueryExpression;
+import io.trino.sql.tree.Table;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.trino.sql.tree.LogicalExpression.Operator.AND;
+import static io.wren.base.sqlrewrite.Utils.toCatalogSchemaTableName;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Collect the conjuncts of a WHERE clause which can be pushed down into the CTE of a model or metric in its FROM clause.
+ * A conjunct can be pushed down if it's deterministic, has no subquery, and only refers to the columns of one model or
+ * metric which isn't null-extended by an outer join. A conjunct with a client parameter isn't pushed down, since the
+ * copy in the CTE would add a parameter to bind.
+ */
+public final class PredicatePushdownAnalyzer
+{
+    private static final Set<String> NONDETERMINISTIC_FUNCTIONS = Set.of("rand", "random", "uuid", "gen_random_uuid", "random_uuid", "nextval", "setseed");
+
+    private PredicatePushdownAnalyzer() {}
+
+    static void analyze(Relation from, Expression where, Analysis analysis, SessionContext sessionContext, WrenMDL wrenMDL)
+    {
+        Map<CatalogSchemaTableName, Table> tables = new HashMap<>();
+        Set<CatalogSchemaTableName> duplicates = new HashSet<>();
+        collectFilterableTables(from, analysis, sessionContext, wrenMDL, tables, duplicates);
+        duplicates.forEach(tables::remove);
+        if (tables.isEmpty()) {
+            return;
+        }
+
+        Map<NodeRef<Expression>, Field> fields = analysis.getReferenceFields();
+        for (Expression conjunct : extractConjuncts(where)) {
+            ConjunctVisitor visitor = new ConjunctVisitor(fields, wrenMDL, sessionContext.isParametersLiftedFromLiterals());
+            visitor.process(conjunct);
+            if (visitor.pushable && visitor.tables.size() == 1) {
+                Table table = tables.get(visitor.tables.iterator().next());
+                if (table != null) {
+                    analysis.addPushdownPredicate(table, toColumnReferences(conjunct, fields));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if the expression may return different results when it's evaluated twice, or can't be evaluated
+     * per row
+     */
+    public static boolean isDeterministic(Expression expression)
+    {
+        DeterministicVisitor visitor = new DeterministicVisitor();
+        visitor.process(expression);
+        return visitor.pushable;
+    }
+
+    // the tables whose rows are filtered by the WHERE clause as they are, rather than padded with nulls by an outer join
+    private static void collectFilterableTables(
+            Relation relation,
+            Analysis analysis,
+            SessionContext sessionContext,
+            WrenMDL wrenMDL,
+            Map<CatalogSchemaTableName, Table> tables,
+            Set<CatalogSchemaTableName> duplicates)
+    {
+        if (relation instanceof AliasedRelation) {
+            AliasedRelation aliasedRelation = (AliasedRelation) relation;
+            // the columns of the object are renamed, skip it
+            if (aliasedRelation.getColumnNames() == null || aliasedRelation.getColumnNames().isEmpty()) {
+                collectFilterableTables(aliasedRelation.getRelation(), analysis, sessionContext, wrenMDL, tables, duplicates);
+            }
+        }
+        else if (relation instanceof Table) {
+            Table table = (Table) relation;
+            Optional<QualifiedName> name = analysis.getSourceNodeNames(table);
+            if (name.isEmpty() || (wrenMDL.getModel(name.get().toString()).isEmpty() && wrenMDL.getMetric(name.get().toString()).isEmpty())) {
+                return;
+            }
+            CatalogSchemaTableName tableName = toCatalogSchemaTableName(sessionContext, table.getName());
+            if (tables.put(tableName, table) != null) {
+                duplicates.add(tableName);
+            }
+        }
+        else if (relation instanceof Join) {
+            Join join = (Join) relation;
+            switch (join.getType()) {
+                case CROSS:
+                case INNER:
+                case IMPLICIT:
+                    collectFilterableTables(join.getLeft(), analysis, sessionContext, wrenMDL, tables, duplicates);
+                    collectFilterableTables(join.getRight(), analysis, sessionContext, wrenMDL, tables, duplicates);
+                    break;
+                case LEFT:
+                    collectFilterableTables(join.getLeft(), analysis, sessionContext, wrenMDL, tables, duplicates);
+                    break;
+                case RIGHT:
+                    collectFilterableTables(join.getRight(), analysis, sessionContext, wrenMDL, tables, duplicates);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    static List<Expression> extractConjuncts(Expression expression)
+    {
+        if (expression instanceof LogicalExpression && ((LogicalExpression) expression).getOperator() == AND) {
+            ImmutableList.Builder<Expression> conjuncts = ImmutableList.builder();
+            ((LogicalExpression) expression).getTerms().forEach(term -> conjuncts.addAll(extractConjuncts(term)));
+            return conjuncts.build();
+        }
+        return ImmutableList.of(expression);
+    }
+
+    // refer to the columns by their names in the object, e.g. o.orderkey -> "orderkey"
+    private static Expression toColumnReferences(Expression conjunct, Map<NodeRef<Expression>, Field> fields)
+    {
+        return ExpressionTreeRewriter.rewriteWith(new ExpressionRewriter<Void>()
+        {
+            @Override
+            public Expression rewriteIdentifier(Identifier node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
+            {
+                return new Identifier(fields.get(NodeRef.<Expression>of(node)).getColumnName(), true);
+            }
+
+            @Override
+            public Expression rewriteDereferenceExpression(DereferenceExpression node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
+            {
+                // enum values are kept as they are
+                return Optional.ofNullable(fields.get(NodeRef.<Expression>of(node)))
+                        .map(field -> (Expression) new Identifier(field.getColumnName(), true))
+                        .orElse(node);
+            }
+        }, conjunct);
+    }
+
+    private static class DeterministicVisitor
+            extends DefaultTraversalVisitor<Void>
+    {
+        protected boolean pushable = true;
+
+        @Override
+        protected Void visitFunctionCall(FunctionCall node, Void context)
+        {
+            if (node.getWindow().isPresent() || NONDETERMINISTIC_FUNCTIONS.contains(node.getName().getSuffix().toLowerCase(ENGLISH))) {
+                pushable = false;
+                return null;
+            }
+            return super.visitFunctionCall(node, context);
+        }
+
+        @Override
+        protected Void visitSubqueryExpression(SubqueryExpression node, Void context)
+        {
+            pushable = false;
+            return null;
+        }
+
+        @Override
+        protected Void visitLambdaExpression(LambdaExpression node, Void context)
+        {
+            pushable = false;
+            return null;
+        }
+    }
+
+    private static class ConjunctVisitor
+            extends DeterministicVisitor
+    {
+        private final Map<NodeRef<Expression>, Field> fields;
+        private final WrenMDL wrenMDL;
+        private final boolean parametersLiftedFromLiterals;
+        private final Set<CatalogSchemaTableName> tables = new HashSet<>();
+
+        private ConjunctVisitor(Map<NodeRef<Expression>, Field> fields, WrenMDL wrenMDL, boolean parametersLiftedFromLiterals)
+        {
+            this.fields = fields;
+            this.wrenMDL = wrenMDL;
+            this.parametersLiftedFromLiterals = parametersLiftedFromLiterals;
+        }
+
+        @Override
+        protected Void visitParameter(Parameter node, Void context)
+        {
+            if (!parametersLiftedFromLiterals) {
+                pushable = false;
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visitIdentifier(Identifier node, Void context)
+        {
+            Field field = fields.get(NodeRef.<Expression>of(node));
+            if (field == null) {
+                pushable = false;
+            }
+            else {
+                tables.add(field.getTableName());
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visitDereferenceExpression(DereferenceExpression node, Void context)
+        {
+            Field field = fields.get(NodeRef.<Expression>of(node));
+            if (field != null) {
+                tables.add(field.getTableName());
+            }
+            else if (!isEnumValue(node)) {
+                pushable = false;
+            }
+            return null;
+        }
+
+        private boolean isEnumValue(DereferenceExpression node)
+        {
+            QualifiedName name = DereferenceExpression.getQualifiedName(node);
+            return name != null && name.getParts().size() == 2 && wrenMDL.getEnum(name.getParts().get(0)).isPresent();
+        }
+    }
+}
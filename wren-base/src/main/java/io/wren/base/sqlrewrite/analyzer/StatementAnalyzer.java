@@ -316,8 +316,12 @@ public final class StatementAnalyzer
         {
             Scope sourceScope = analyzeFrom(node, scope);
             List<Expression> outputExpressions = analyzeSelect(node, sourceScope);
-            node.getWhere().ifPresent(where -> analyzeWhere(where, sourceScope));
+            node.getWhere().ifPresent(where -> {
+                analyzeWhere(where, sourceScope);
+                node.getFrom().ifPresent(from -> PredicatePushdownAnalyzer.analyze(from, where, analysis, sessionContext, wrenMDL));
+            });
             node.getHaving().ifPresent(having -> analyzeExpression(having, sourceScope));
+            LimitPushdownAnalyzer.analyze(node, analysis, wrenMDL);
             node.getLimit().ifPresent(limit -> analysis.setLimit(((Limit) limit).getRowCount()));
             node.getOrderBy().ifPresent(orderBy -> orderBy.getSortItems()
                     .forEach(item -> {
@@ -63,6 +63,12 @@ public class BigIntType
         return Type.BASE.code();
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Long value)
+    {
+        return writeLongAsText(buffer, value);
+    }
+
     @Override
     public byte[] encodeAsUTF8Text(@Nonnull Long value)
     {
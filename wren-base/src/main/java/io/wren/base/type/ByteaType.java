@@ -57,7 +57,7 @@ public class ByteaType
     @Override
     public int writeAsBinary(ByteBuf buffer, Object value)
     {
-        byte[] bytes = encodeHexString((byte[]) value).getBytes(UTF_8);
+        byte[] bytes = (byte[]) value;
         buffer.writeInt(bytes.length);
         buffer.writeBytes(bytes);
         return INT32_BYTE_SIZE + bytes.length;
@@ -66,7 +66,10 @@ public class ByteaType
     @Override
     public int writeAsText(ByteBuf buffer, @Nonnull Object value)
     {
-        return writeAsBinary(buffer, value);
+        byte[] bytes = encodeHexString((byte[]) value).getBytes(UTF_8);
+        buffer.writeInt(bytes.length);
+        buffer.writeBytes(bytes);
+        return INT32_BYTE_SIZE + bytes.length;
     }
 
     @Override
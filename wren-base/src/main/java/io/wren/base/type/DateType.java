@@ -24,6 +24,9 @@ import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.ResolverStyle;
 import java.util.Locale;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 
@@ -71,6 +74,29 @@ public class DateType
         return PGArray.DATE_ARRAY.oid();
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull LocalDate value)
+    {
+        int year = value.getYear();
+        if (year < 1000 || year > 9999) {
+            return super.writeAsText(buffer, value);
+        }
+        // yyyy-MM-dd
+        buffer.writeInt(10);
+        writeDigits(buffer, year);
+        buffer.writeByte('-');
+        writeTwoDigits(buffer, value.getMonthValue());
+        buffer.writeByte('-');
+        writeTwoDigits(buffer, value.getDayOfMonth());
+        return INT32_BYTE_SIZE + 10;
+    }
+
+    private static void writeTwoDigits(ByteBuf buffer, int value)
+    {
+        buffer.writeByte('0' + value / 10);
+        buffer.writeByte('0' + value % 10);
+    }
+
     @Override
     public byte[] encodeAsUTF8Text(@Nonnull LocalDate value)
     {
@@ -87,13 +113,16 @@ public class DateType
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull LocalDate value)
     {
-        throw new UnsupportedOperationException();
+        buffer.writeInt(TYPE_LEN);
+        buffer.writeInt(PgDatetimeUtils.toPgDate(toIntExact(value.toEpochDay())));
+        return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
     @Override
     public LocalDate readBinaryValue(ByteBuf buffer, int valueLength)
     {
-        throw new UnsupportedOperationException();
+        checkArgument(valueLength == TYPE_LEN, format("valueLength must be %s because date is a 32 bit int. Actual length is %s", TYPE_LEN, valueLength));
+        return LocalDate.ofEpochDay(PgDatetimeUtils.toTrinoDate(buffer.readInt()));
     }
 
     @Override
@@ -63,6 +63,12 @@ public class DoubleType
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Double value)
+    {
+        return writeAsciiAsText(buffer, Double.toString(value));
+    }
+
     @Override
     public byte[] encodeAsUTF8Text(@Nonnull Double value)
     {
@@ -14,10 +14,14 @@
 
 package io.wren.base.type;
 
+import com.google.common.net.InetAddresses;
 import io.netty.buffer.ByteBuf;
 
 import javax.annotation.Nonnull;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class InetType
@@ -27,6 +31,9 @@ public class InetType
     static final int OID = 869;
 
     private static final int TYPE_LEN = -1;
+    // address families as defined in postgres utils/inet.h
+    private static final int PGSQL_AF_INET = 2;
+    private static final int PGSQL_AF_INET6 = 3;
     private static final int TYPE_MOD = -1;
 
     private InetType()
@@ -55,7 +62,17 @@ public class InetType
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull String value)
     {
-        throw new UnsupportedOperationException("InetType doesn't support binary format.");
+        // https://github.com/postgres/postgres/blob/master/src/backend/utils/adt/network.c (inet_send)
+        int slash = value.indexOf('/');
+        byte[] address = InetAddresses.forString(slash < 0 ? value : value.substring(0, slash)).getAddress();
+        int bits = slash < 0 ? address.length * 8 : Integer.parseInt(value.substring(slash + 1));
+        buffer.writeInt(4 + address.length);
+        buffer.writeByte(address.length == 4 ? PGSQL_AF_INET : PGSQL_AF_INET6);
+        buffer.writeByte(bits);
+        buffer.writeByte(0); // is_cidr
+        buffer.writeByte(address.length);
+        buffer.writeBytes(address);
+        return INT32_BYTE_SIZE + 4 + address.length;
     }
 
     @Override
@@ -67,7 +84,18 @@ public class InetType
     @Override
     public String readBinaryValue(ByteBuf buffer, int valueLength)
     {
-        throw new UnsupportedOperationException("InetType doesn't support binary format.");
+        buffer.readByte(); // family, implied by the address length
+        int bits = buffer.readUnsignedByte();
+        buffer.readByte(); // is_cidr
+        byte[] address = new byte[buffer.readUnsignedByte()];
+        buffer.readBytes(address);
+        try {
+            String host = InetAddresses.toAddrString(InetAddress.getByAddress(address));
+            return bits == address.length * 8 ? host : host + "/" + bits;
+        }
+        catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid inet address length: " + address.length, e);
+        }
     }
 
     @Override
@@ -64,6 +64,12 @@ public class IntegerType
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Integer value)
+    {
+        return writeLongAsText(buffer, value);
+    }
+
     @Override
     public byte[] encodeAsUTF8Text(@Nonnull Integer value)
     {
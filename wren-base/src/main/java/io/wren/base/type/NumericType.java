@@ -19,6 +19,7 @@ import io.netty.buffer.ByteBuf;
 import javax.annotation.Nonnull;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.MathContext;
 import java.nio.charset.StandardCharsets;
 
@@ -31,6 +32,7 @@ public class NumericType
     private static final int TYPE_MOD = -1;
 
     private static final short DEC_DIGITS = 4;
+    private static final BigInteger NBASE = BigInteger.valueOf(10000);
     private static final short NUMERIC_POS = 0x0000;
     private static final short NUMERIC_NEG = 0x4000;
     private static final short NUMERIC_NAN = (short) 0xC000;
@@ -73,6 +75,10 @@ public class NumericType
         //  * 1234567.12  -> [0123, 4567, 1200], scale 1
         //  * 1234.0      -> [1234], scale 1
         //  * 0123.45     -> [0123, 4500], scale 2
+        if (value.scale() < 0) {
+            // dscale can't be negative, e.g. 1E+3 is sent as 1000
+            value = value.setScale(0);
+        }
         char[] digits = value.unscaledValue().toString().toCharArray();
         int start = 0;
         int end = digits.length;
@@ -103,19 +109,7 @@ public class NumericType
         buffer.writeInt(typeLen);
         buffer.writeShort(nDigits);
         buffer.writeShort(weight);
-        switch (value.signum()) {
-            case -1:
-                buffer.writeShort(NUMERIC_NEG);
-                break;
-            case 0:
-                buffer.writeShort(NUMERIC_NAN);
-                break;
-            case 1:
-                buffer.writeShort(NUMERIC_POS);
-                break;
-            default:
-                buffer.writeShort(NUMERIC_POS);
-        }
+        buffer.writeShort(value.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS);
         buffer.writeShort(value.scale());
 
         int digitIdx = -offset + start;
@@ -148,27 +142,12 @@ public class NumericType
             throw new IllegalArgumentException("Infinite or NaN values are not supported");
         }
 
-        boolean hasDp = scale > 0;
-        int sizeOfBytes = (nDigits * DEC_DIGITS) + (hasDp ? 1 : 0);
-        char[] decDigits = new char[sizeOfBytes];
-
-        int decDigitsIdx = 0;
+        // Every block is a base 10000 digit, the first one is worth 10000^weight.
+        BigInteger unscaled = BigInteger.ZERO;
         for (int i = 0; i < nDigits; i++) {
-            int decDigit = buffer.readShort();
-            if (decDigit > 0) {
-                // Decode 4 digits from a 16 bit short
-                for (int j = 1000; j > 0 && decDigitsIdx < sizeOfBytes; j /= 10) {
-                    int d1 = (decDigit / j);
-                    decDigit -= d1 * j;
-                    decDigits[decDigitsIdx++] = (char) (d1 + '0');
-                }
-            }
-            if (hasDp && i == weight) {
-                decDigits[decDigitsIdx++] = '.';
-            }
+            unscaled = unscaled.multiply(NBASE).add(BigInteger.valueOf(buffer.readShort()));
         }
-
-        BigDecimal bd = new BigDecimal(decDigits)
+        BigDecimal bd = new BigDecimal(unscaled, (nDigits - 1 - weight) * DEC_DIGITS)
                 .setScale(scale, MathContext.UNLIMITED.getRoundingMode());
         return sign == NUMERIC_NEG ? bd.negate() : bd;
     }
@@ -146,6 +146,14 @@ public class PGArray
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull List<Object> value)
     {
+        if (value.isEmpty()) {
+            // postgres sends an empty array as a zero dimension array
+            buffer.writeInt(12);
+            buffer.writeInt(0);
+            buffer.writeInt(0);
+            buffer.writeInt(typElem());
+            return INT32_BYTE_SIZE + 12;
+        }
         int dimensions = getDimensions(value);
 
         List<Integer> dimensionsList = new ArrayList<>();
@@ -159,8 +167,8 @@ public class PGArray
         buffer.writeInt(typElem());
 
         for (Integer dim : dimensionsList) {
-            buffer.writeInt(dim); // upper bound
-            buffer.writeInt(dim); // lower bound
+            buffer.writeInt(dim); // dimension size
+            buffer.writeInt(1); // lower bound
             bytesWritten += 8;
         }
         int len = bytesWritten + writeArrayAsBinary(buffer, value, dimensionsList, 1);
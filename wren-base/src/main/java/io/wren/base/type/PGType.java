@@ -169,6 +169,60 @@ public abstract class PGType<T>
         return INT32_BYTE_SIZE + bytes.length;
     }
 
+    /**
+     * Write the decimal representation of the value as text into the buffer without an intermediate String or byte array.
+     *
+     * @return the number of bytes written. (4 (int32)  + N)
+     */
+    protected static int writeLongAsText(ByteBuf buffer, long value)
+    {
+        int lengthIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        int length = writeDigits(buffer, value);
+        buffer.setInt(lengthIndex, length);
+        return INT32_BYTE_SIZE + length;
+    }
+
+    /**
+     * Write the ascii text as text into the buffer without an intermediate byte array.
+     *
+     * @return the number of bytes written. (4 (int32)  + N)
+     */
+    protected static int writeAsciiAsText(ByteBuf buffer, CharSequence text)
+    {
+        buffer.writeInt(text.length());
+        buffer.writeCharSequence(text, StandardCharsets.US_ASCII);
+        return INT32_BYTE_SIZE + text.length();
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    protected static int writeDigits(ByteBuf buffer, long value)
+    {
+        if (value == Long.MIN_VALUE) {
+            return buffer.writeCharSequence(Long.toString(value), StandardCharsets.US_ASCII);
+        }
+        int length = 0;
+        if (value < 0) {
+            buffer.writeByte('-');
+            value = -value;
+            length++;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        buffer.ensureWritable(digits);
+        int end = buffer.writerIndex() + digits;
+        for (int index = end - 1; index >= buffer.writerIndex(); index--) {
+            buffer.setByte(index, '0' + (int) (value % 10));
+            value /= 10;
+        }
+        buffer.writerIndex(end);
+        return length + digits;
+    }
+
     public T readTextValue(ByteBuf buffer, int valueLength)
     {
         byte[] bytes = new byte[valueLength];
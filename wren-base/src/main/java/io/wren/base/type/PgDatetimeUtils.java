@@ -14,6 +14,11 @@
 
 package io.wren.base.type;
 
+import java.time.Instant;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+
 public final class PgDatetimeUtils
 {
     private PgDatetimeUtils() {}
@@ -59,4 +64,23 @@ public final class PgDatetimeUtils
     {
         return (microSecondsSince2k / 1000) + EPOCH_DIFF_IN_MS;
     }
+
+    /**
+     * Convert a unix timestamp in seconds plus the nanoseconds of that second into a postgres timestamp
+     * (long microseconds since 2000-01-01). Precision below a microsecond is truncated.
+     */
+    public static long toPgTimestamp(long unixTsInSec, int nanoOfSecond)
+    {
+        return (unixTsInSec - EPOCH_DIFF_IN_SEC) * 1_000_000 + nanoOfSecond / 1000;
+    }
+
+    /**
+     * Convert a postgres timestamp (long microseconds since 2000-01-01) into an instant.
+     */
+    public static Instant toInstant(long microSecondsSince2k)
+    {
+        return Instant.ofEpochSecond(
+                floorDiv(microSecondsSince2k, 1_000_000) + EPOCH_DIFF_IN_SEC,
+                floorMod(microSecondsSince2k, 1_000_000) * 1000);
+    }
 }
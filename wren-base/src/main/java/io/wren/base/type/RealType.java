@@ -63,6 +63,12 @@ public class RealType
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Float value)
+    {
+        return writeAsciiAsText(buffer, Float.toString(value));
+    }
+
     @Override
     public byte[] encodeAsUTF8Text(@Nonnull Float value)
     {
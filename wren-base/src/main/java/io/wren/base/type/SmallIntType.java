@@ -63,6 +63,12 @@ public class SmallIntType
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Short value)
+    {
+        return writeLongAsText(buffer, value);
+    }
+
     @Override
     public byte[] encodeAsUTF8Text(@Nonnull Short value)
     {
@@ -24,7 +24,10 @@ import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.ResolverStyle;
 import java.util.Locale;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_TIME;
 import static java.util.Locale.ENGLISH;
@@ -87,7 +90,22 @@ public class TimestampType
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull Object value)
     {
-        throw new UnsupportedOperationException();
+        if (!(value instanceof LocalDateTime)) {
+            return super.writeAsBinary(buffer, value);
+        }
+        // timestamp without time zone is sent as the microseconds since 2000-01-01 00:00:00 of its local date time
+        LocalDateTime dt = (LocalDateTime) value;
+        buffer.writeInt(TYPE_LEN);
+        buffer.writeLong(PgDatetimeUtils.toPgTimestamp(dt.toEpochSecond(UTC), dt.getNano()));
+        return INT32_BYTE_SIZE + TYPE_LEN;
+    }
+
+    @Override
+    public Object readBinaryValue(ByteBuf buffer, int valueLength)
+    {
+        checkArgument(valueLength == TYPE_LEN, format("valueLength must be %s because timestamp is a 64 bit long. Actual length is %s", TYPE_LEN, valueLength));
+        LocalDateTime dt = LocalDateTime.ofInstant(PgDatetimeUtils.toInstant(buffer.readLong()), UTC);
+        return PG_TIMESTAMP.format(dt);
     }
 
     @Override
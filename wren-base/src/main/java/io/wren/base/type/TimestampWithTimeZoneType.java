@@ -28,10 +28,11 @@ import java.time.format.ResolverStyle;
 import java.time.temporal.TemporalAccessor;
 import java.util.Locale;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_TIME;
-import static java.time.temporal.ChronoField.MILLI_OF_SECOND;
 
 public class TimestampWithTimeZoneType
         extends BaseTimestampType
@@ -73,7 +74,7 @@ public class TimestampWithTimeZoneType
         if (value instanceof String) {
             return ((String) value).getBytes(UTF_8);
         }
-        return ISO_FORMATTER.print(Instant.from((TemporalAccessor) value).getLong(MILLI_OF_SECOND))
+        return ISO_FORMATTER.print(Instant.from((TemporalAccessor) value).toEpochMilli())
                 .getBytes(UTF_8);
     }
 
@@ -95,7 +96,17 @@ public class TimestampWithTimeZoneType
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull Object value)
     {
-        throw new UnsupportedOperationException("Not implemented yet");
+        Instant instant = value instanceof String ? Instant.from(tryParse((String) value)) : Instant.from((TemporalAccessor) value);
+        buffer.writeInt(TYPE_LEN);
+        buffer.writeLong(PgDatetimeUtils.toPgTimestamp(instant.getEpochSecond(), instant.getNano()));
+        return INT32_BYTE_SIZE + TYPE_LEN;
+    }
+
+    @Override
+    public Object readBinaryValue(ByteBuf buffer, int valueLength)
+    {
+        checkArgument(valueLength == TYPE_LEN, format("valueLength must be %s because timestamptz is a 64 bit long. Actual length is %s", TYPE_LEN, valueLength));
+        return ISO_FORMATTER.print(PgDatetimeUtils.toInstant(buffer.readLong()).toEpochMilli());
     }
 
     @Override
@@ -67,6 +67,12 @@ public class TinyIntType
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Byte value)
+    {
+        return writeLongAsText(buffer, value);
+    }
+
     @Override
     public byte[] encodeAsUTF8Text(@Nonnull Byte value)
     {
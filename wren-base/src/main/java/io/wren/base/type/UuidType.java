@@ -18,7 +18,12 @@ import io.netty.buffer.ByteBuf;
 
 import javax.annotation.Nonnull;
 
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.UUID.fromString;
 
 public class UuidType
         extends PGType<String>
@@ -27,6 +32,8 @@ public class UuidType
     static final int OID = 2950;
 
     private static final int TYPE_LEN = -1;
+    // the binary format is the 16 bytes of the uuid
+    private static final int BINARY_LEN = 16;
     private static final int TYPE_MOD = -1;
 
     private UuidType()
@@ -55,10 +62,11 @@ public class UuidType
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull String value)
     {
-        byte[] bytes = encodeAsUTF8Text(value);
-        buffer.writeInt(bytes.length);
-        buffer.writeBytes(bytes);
-        return INT32_BYTE_SIZE + bytes.length;
+        UUID uuid = fromString(value);
+        buffer.writeInt(BINARY_LEN);
+        buffer.writeLong(uuid.getMostSignificantBits());
+        buffer.writeLong(uuid.getLeastSignificantBits());
+        return INT32_BYTE_SIZE + BINARY_LEN;
     }
 
     @Override
@@ -70,9 +78,8 @@ public class UuidType
     @Override
     public String readBinaryValue(ByteBuf buffer, int valueLength)
     {
-        byte[] bytes = new byte[valueLength];
-        buffer.readBytes(bytes);
-        return decodeUTF8Text(bytes);
+        checkArgument(valueLength == BINARY_LEN, format("valueLength must be %s because uuid is 128 bits. Actual length is %s", BINARY_LEN, valueLength));
+        return new UUID(buffer.readLong(), buffer.readLong()).toString();
     }
 
     @Override
@@ -65,10 +65,11 @@ public class VarcharType
     @Override
     public int writeAsBinary(ByteBuf buffer, @Nonnull String value)
     {
-        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
-        buffer.writeInt(bytes.length);
-        buffer.writeBytes(bytes);
-        return INT32_BYTE_SIZE + bytes.length;
+        int lengthIndex = buffer.writerIndex();
+        buffer.writeInt(0);
+        int length = buffer.writeCharSequence(value, StandardCharsets.UTF_8);
+        buffer.setInt(lengthIndex, length);
+        return INT32_BYTE_SIZE + length;
     }
 
     @Override
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import com.google.common.collect.ImmutableList;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.Macro;
+import io.wren.base.dto.Manifest;
+import io.wren.base.dto.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.wren.base.sqlrewrite.AbstractTestFramework.withDefaultCatalogSchema;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkWrenMDL
+{
+    // deploying a manifest of 1,000 models, every model has columns calling macros and calculated fields without any
+    private static final int MODELS = 1000;
+    private static final int COLUMNS = 20;
+    private static final int MACRO_COLUMNS = 5;
+    private static final int CALCULATED_COLUMNS = 5;
+
+    private Manifest manifest;
+
+    @Setup
+    public void setup()
+    {
+        ImmutableList.Builder<Model> models = ImmutableList.builder();
+        for (int i = 0; i < MODELS; i++) {
+            ImmutableList.Builder<Column> columns = ImmutableList.builder();
+            for (int j = 0; j < COLUMNS; j++) {
+                columns.add(Column.column("c" + j, WrenTypes.INTEGER, null, true));
+            }
+            for (int j = 0; j < MACRO_COLUMNS; j++) {
+                columns.add(Column.column("macro" + j, WrenTypes.INTEGER, null, true, "{{ addTax('c" + j + "') }}"));
+            }
+            for (int j = 0; j < CALCULATED_COLUMNS; j++) {
+                columns.add(Column.column("calc" + j, WrenTypes.INTEGER, null, true, "c" + j + " * 2"));
+            }
+            models.add(Model.model("Model_" + i, "select * from main.table_" + i, columns.build(), "c0"));
+        }
+        manifest = withDefaultCatalogSchema()
+                .setModels(models.build())
+                .setMacros(List.of(
+                        Macro.macro("addOne", "(a: Expression) => {{ a }} + 1"),
+                        Macro.macro("addTax", "(a: Expression) => {{ addOne(a) }} * 1.1"),
+                        Macro.macro("applyRule", "(a: Expression, rule: Macro) => {{ rule(a) }}")))
+                .build();
+    }
+
+    @Benchmark
+    public WrenMDL deploy()
+    {
+        return WrenMDL.fromManifest(manifest);
+    }
+
+    @Test
+    public void testDeploy()
+    {
+        BenchmarkWrenMDL benchmark = new BenchmarkWrenMDL();
+        benchmark.setup();
+        WrenMDL mdl = benchmark.deploy();
+        assertThat(mdl.listModels()).hasSize(MODELS);
+        Model last = mdl.getModel("Model_" + (MODELS - 1)).orElseThrow();
+        assertThat(last.getColumns().get(COLUMNS).getExpression()).hasValue("c0 + 1 * 1.1");
+        assertThat(last.getColumns().get(COLUMNS + MACRO_COLUMNS).getExpression()).hasValue("c0 * 2");
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkWrenMDL.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
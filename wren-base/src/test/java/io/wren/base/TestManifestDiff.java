@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.QualifiedName;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.CumulativeMetric;
+import io.wren.base.dto.DateSpine;
+import io.wren.base.dto.JoinType;
+import io.wren.base.dto.Manifest;
+import io.wren.base.dto.Measure;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import io.wren.base.dto.TimeUnit;
+import io.wren.base.dto.View;
+import io.wren.base.dto.Window;
+import io.wren.base.sqlrewrite.DateSpineInfo;
+import io.wren.base.sqlrewrite.WrenDataLineage;
+import io.wren.base.sqlrewrite.WrenQueryDescriptors;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.wren.base.sqlrewrite.AbstractTestFramework.withDefaultCatalogSchema;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestManifestDiff
+{
+    private static final int MODELS = 500;
+    private static final Relationship MODEL_1_MODEL_0 = Relationship.relationship("Model_1_Model_0", List.of("Model_1", "Model_0"), JoinType.MANY_TO_ONE, "Model_1.custkey = Model_0.orderkey");
+    private static final Metric REVENUE = Metric.metric("Revenue", "Model_0",
+            List.of(Column.column("orderkey", WrenTypes.INTEGER, null, true)),
+            List.of(Column.column("revenue", WrenTypes.INTEGER, null, true, "sum(totalprice)")));
+    private static final CumulativeMetric DAILY_REVENUE = CumulativeMetric.cumulativeMetric("DailyRevenue", "Model_2",
+            Measure.measure("totalprice", WrenTypes.INTEGER, "sum", "totalprice"),
+            Window.window("orderdate", "orderdate", TimeUnit.DAY, "1994-01-01", "1994-12-31"));
+
+    private final AnalyzedMDL previous = new AnalyzedMDL(WrenMDL.fromManifest(manifest(models()).build()), null);
+
+    @Test
+    public void testModifyColumn()
+    {
+        List<Model> models = models();
+        models.set(0, model("Model_0", Column.column("totalprice", WrenTypes.BIGINT, null, true)));
+        ManifestDiff diff = ManifestDiff.diff(previous, WrenMDL.fromManifest(manifest(models).build()));
+        assertThat(diff.isFullRedeploy()).isFalse();
+        assertThat(diff.getChangedObjects()).containsExactly("Model_0");
+        // Model_1 uses Model_0 in a calculated field, and Revenue is on Model_0
+        assertThat(diff.getAffectedObjects()).containsExactlyInAnyOrder("Model_0", "Model_1", "Revenue");
+        assertThat(diff.getRemovedObjects()).isEmpty();
+    }
+
+    @Test
+    public void testModifyColumnDescription()
+    {
+        List<Model> models = models();
+        models.set(300, model("Model_300", new Column("totalprice", WrenTypes.INTEGER, null, false, true, null, Map.of("description", "total price"))));
+        ManifestDiff diff = ManifestDiff.diff(previous, WrenMDL.fromManifest(manifest(models).build()));
+        assertThat(diff.getAffectedObjects()).containsExactly("Model_300");
+    }
+
+    @Test
+    public void testModifyRelationship()
+    {
+        Relationship relationship = Relationship.relationship("Model_1_Model_0", List.of("Model_1", "Model_0"), JoinType.MANY_TO_ONE, "Model_1.orderkey = Model_0.orderkey");
+        ManifestDiff diff = ManifestDiff.diff(previous, WrenMDL.fromManifest(manifest(models()).setRelationships(List.of(relationship)).build()));
+        assertThat(diff.getChangedObjects()).containsExactlyInAnyOrder("Model_0", "Model_1");
+        assertThat(diff.getAffectedObjects()).containsExactlyInAnyOrder("Model_0", "Model_1", "Revenue");
+    }
+
+    @Test
+    public void testModifyDateSpine()
+    {
+        ManifestDiff diff = ManifestDiff.diff(previous, WrenMDL.fromManifest(manifest(models())
+                .setDateSpine(new DateSpine(TimeUnit.DAY, "1990-01-01", "2030-12-31", null))
+                .build()));
+        assertThat(diff.getAffectedObjects()).containsExactlyInAnyOrder(DateSpineInfo.NAME, "DailyRevenue");
+    }
+
+    @Test
+    public void testAddAndRemove()
+    {
+        List<Model> models = models();
+        models.remove(MODELS - 1);
+        ManifestDiff diff = ManifestDiff.diff(previous, WrenMDL.fromManifest(manifest(models)
+                .setViews(List.of(View.view("View_0", "select * from Model_0")))
+                .build()));
+        assertThat(diff.getChangedObjects()).containsExactlyInAnyOrder("Model_499", "View_0");
+        assertThat(diff.getAffectedObjects()).containsExactly("View_0");
+        assertThat(diff.getRemovedObjects()).containsExactly("Model_499");
+    }
+
+    @Test
+    public void testModifySchema()
+    {
+        ManifestDiff diff = ManifestDiff.diff(previous, WrenMDL.fromManifest(manifest(models()).setSchema("another").build()));
+        assertThat(diff.isFullRedeploy()).isTrue();
+        assertThat(diff.getAffectedObjects()).hasSize(MODELS + 2);
+        assertThat(diff.getRemovedObjects()).hasSize(MODELS + 2);
+    }
+
+    @Test
+    public void testAnalyzeAffectedObjects()
+    {
+        List<Model> models = models();
+        models.set(0, model("Model_0", Column.column("totalprice", WrenTypes.BIGINT, null, true)));
+        WrenMDL current = WrenMDL.fromManifest(manifest(models).build());
+        ManifestDiff diff = ManifestDiff.diff(previous, current);
+
+        WrenQueryDescriptors descriptors = WrenQueryDescriptors.compile(current, previous.getWrenQueryDescriptors(), diff.getAffectedObjects());
+        WrenQueryDescriptors expected = WrenQueryDescriptors.compile(current);
+        for (String name : List.of("Model_0", "Model_1", "Model_2", "Model_300", "Revenue", "DailyRevenue", DateSpineInfo.NAME)) {
+            assertThat(descriptors.get(name).getQuery()).isEqualTo(expected.get(name).getQuery());
+            if (!diff.getAffectedObjects().contains(name)) {
+                assertThat(descriptors.get(name)).isSameAs(previous.getWrenQueryDescriptors().get(name));
+            }
+        }
+
+        WrenDataLineage lineage = WrenDataLineage.analyze(current, previous.getWrenDataLineage(), diff.getAffectedObjects());
+        WrenDataLineage expectedLineage = WrenDataLineage.analyze(current);
+        List<QualifiedName> columns = List.of(QualifiedName.of("Model_1", "parent_price"), QualifiedName.of("Revenue", "revenue"), QualifiedName.of("Model_300", "totalprice"));
+        assertThat(lineage.getRequiredFields(columns)).isEqualTo(expectedLineage.getRequiredFields(columns));
+        assertThat(lineage.getSourceColumns(QualifiedName.of("Model_1", "parent_price"))).isEqualTo(Map.of("Model_0", Set.of("totalprice"), "Model_1", Set.of("parent")));
+    }
+
+    private static Manifest.Builder manifest(List<Model> models)
+    {
+        return withDefaultCatalogSchema()
+                .setModels(models)
+                .setRelationships(List.of(MODEL_1_MODEL_0))
+                .setMetrics(List.of(REVENUE))
+                .setCumulativeMetrics(List.of(DAILY_REVENUE))
+                .setDateSpine(DateSpine.DEFAULT);
+    }
+
+    private static List<Model> models()
+    {
+        List<Model> models = new ArrayList<>();
+        for (int i = 0; i < MODELS; i++) {
+            models.add(model("Model_" + i, Column.column("totalprice", WrenTypes.INTEGER, null, true)));
+        }
+        return models;
+    }
+
+    private static Model model(String name, Column totalprice)
+    {
+        ImmutableList.Builder<Column> columns = ImmutableList.<Column>builder()
+                .add(Column.column("orderkey", WrenTypes.INTEGER, null, true))
+                .add(Column.column("custkey", WrenTypes.INTEGER, null, true))
+                .add(Column.column("orderdate", WrenTypes.DATE, null, true))
+                .add(totalprice);
+        if (name.equals("Model_1")) {
+            columns.add(Column.relationshipColumn("parent", "Model_0", "Model_1_Model_0"))
+                    .add(Column.caluclatedColumn("parent_price", WrenTypes.INTEGER, "parent.totalprice"));
+        }
+        return Model.model(name, "select * from main.orders", columns.build(), "orderkey");
+    }
+}
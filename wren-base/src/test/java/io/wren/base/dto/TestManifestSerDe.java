@@ -16,12 +16,14 @@ package io.wren.base.dto;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.json.JsonCodec;
+import io.airlift.units.Duration;
 import io.wren.base.WrenTypes;
 import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Map;
 
+import static java.util.concurrent.TimeUnit.DAYS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -61,8 +63,9 @@ public class TestManifestSerDe
                                         new Column("comment", "string", null, false, true, null, null),
                                         new Column("customer", "CustomerModel", "OrdersCustomer", false, true, null, null)),
                                 "orderkey",
-                                false,
+                                true,
                                 null,
+                                new IncrementalRefresh("orderdate", new Duration(1, DAYS)),
                                 ImmutableMap.of("description", "tpch tiny orders table")),
                         new Model("LineitemModel",
                                 "select * from lineitem",
@@ -75,6 +78,7 @@ public class TestManifestSerDe
                                 null,
                                 false,
                                 null,
+                                null,
                                 null),
                         new Model("CustomerModel",
                                 null,
@@ -95,6 +99,7 @@ public class TestManifestSerDe
                                 "custkey",
                                 false,
                                 null,
+                                null,
                                 null)))
                 .setRelationships(List.of(
                         new Relationship("OrdersCustomer",
@@ -178,5 +183,19 @@ public class TestManifestSerDe
                     List.of(Map.of("name", "")));
             Manifest.MANIFEST_JSON_CODEC.fromJson(STRING_TO_STRING_MAP_CODEC.toJson(json));
         }).getCause().hasMessageFindingMatch("name is null or empty");
+
+        assertThatThrownBy(() -> {
+            Map<String, Object> json = Map.of("catalog", "test", "schema", "test", "models",
+                    List.of(Map.of("name", "test", "refSql", "select 1", "columns", List.of(Map.of("name", "c1", "type", "date")),
+                            "incrementalRefresh", Map.of("watermarkColumn", "c1"))));
+            Manifest.MANIFEST_JSON_CODEC.fromJson(STRING_TO_STRING_MAP_CODEC.toJson(json));
+        }).getCause().hasMessageFindingMatch("incrementalRefresh is only allowed on a cached model");
+
+        assertThatThrownBy(() -> {
+            Map<String, Object> json = Map.of("catalog", "test", "schema", "test", "models",
+                    List.of(Map.of("name", "test", "refSql", "select 1", "columns", List.of(Map.of("name", "c1", "type", "date")),
+                            "cached", true, "incrementalRefresh", Map.of("watermarkColumn", "c2"))));
+            Manifest.MANIFEST_JSON_CODEC.fromJson(STRING_TO_STRING_MAP_CODEC.toJson(json));
+        }).getCause().hasMessageFindingMatch("watermark column c2 is not a column of model test");
     }
 }
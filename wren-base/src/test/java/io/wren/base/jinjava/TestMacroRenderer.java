@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.jinjava;
+
+import com.hubspot.jinjava.Jinjava;
+import io.wren.base.dto.Macro;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static io.wren.base.macro.Parameter.TYPE.MACRO;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestMacroRenderer
+{
+    private static final List<Macro> MACROS = List.of(
+            Macro.macro("standardTime", "() => standardTime"),
+            Macro.macro("addOne", "(a: Expression) => {{ a }} + 1"),
+            Macro.macro("callAddOne", "(a: Expression) => {{ addOne(a) }} + 3"),
+            Macro.macro("passMacro", "(a: Expression, f: Macro) => {{ f(a) }} + 4"));
+
+    @DataProvider
+    public Object[][] expressions()
+    {
+        return new Object[][] {
+                {"custkey + 1"},
+                {"  custkey\n"},
+                {"concat(name, '}')"},
+                {"{{ standardTime() }}"},
+                {" {{ addOne('custkey') }} * 2"},
+                {"{{ callAddOne('custkey') }}"},
+                {"{{ passMacro('custkey', addOne) }}"},
+                {"{% if true %}custkey{% endif %}"},
+                {"{# comment #} custkey"},
+        };
+    }
+
+    @Test(dataProvider = "expressions")
+    public void testRender(String expression)
+    {
+        assertThat(MacroRenderer.get(MACROS).render(expression)).isEqualTo(renderWithMacroTags(expression, MACROS));
+        if (!expression.contains("{{")) {
+            assertThat(MacroRenderer.get(List.of()).render(expression)).isEqualTo(renderWithMacroTags(expression, List.of()));
+        }
+    }
+
+    @Test
+    public void testConcurrentRender()
+    {
+        List<String> expressions = IntStream.range(0, 1000)
+                .mapToObj(i -> "{{ callAddOne('c" + i + "') }}")
+                .collect(toList());
+        List<String> rendered = expressions.parallelStream()
+                .map(MacroRenderer.get(MACROS)::render)
+                .collect(toList());
+        assertThat(rendered).isEqualTo(expressions.stream().map(expression -> renderWithMacroTags(expression, MACROS)).collect(toList()));
+        assertThat(MacroRenderer.get(List.copyOf(MACROS))).isSameAs(MacroRenderer.get(MACROS));
+    }
+
+    // how the expressions were rendered, with the macro tags before every expression
+    private static String renderWithMacroTags(String expression, List<Macro> macros)
+    {
+        String macroTags = macros.stream()
+                .filter(macro -> macro.getParameters().stream().noneMatch(parameter -> parameter.getType() == MACRO))
+                .map(JinjavaUtils::getMacroTag)
+                .collect(joining("\n"));
+        return new Jinjava().render(macroTags + JinjavaExpressionProcessor.process(expression, macros), Map.of());
+    }
+}
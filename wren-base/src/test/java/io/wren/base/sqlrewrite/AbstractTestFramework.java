@@ -65,6 +65,7 @@ public abstract class AbstractTestFramework
                 model.getPrimaryKey(),
                 model.isCached(),
                 model.getRefreshTime(),
+                model.getIncrementalRefresh().orElse(null),
                 model.getProperties());
     }
 
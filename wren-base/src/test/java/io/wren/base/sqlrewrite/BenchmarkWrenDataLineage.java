@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.tree.QualifiedName;
+import io.wren.base.WrenMDL;
+import io.wren.base.WrenTypes;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.JoinType;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static io.wren.base.sqlrewrite.AbstractTestFramework.withDefaultCatalogSchema;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkWrenDataLineage
+{
+    // Model_0 -> Model_1 -> ... -> Model_{DEPTH - 1}, every calculated field of a model uses the same field of the next model.
+    private static final int DEPTH = 10;
+    private static final int COLUMNS = 400;
+    private static final int CALCULATED_COLUMNS = 100;
+
+    @Param({"10", "200"})
+    private int requiredColumns = 200;
+
+    private WrenDataLineage dataLineage;
+    private List<QualifiedName> columnNames;
+
+    @Setup
+    public void setup()
+    {
+        ImmutableList.Builder<Model> models = ImmutableList.builder();
+        ImmutableList.Builder<Relationship> relationships = ImmutableList.builder();
+        for (int i = 0; i < DEPTH; i++) {
+            ImmutableList.Builder<Column> columns = ImmutableList.builder();
+            columns.add(Column.column("id", WrenTypes.INTEGER, null, true));
+            columns.add(Column.column("next_id", WrenTypes.INTEGER, null, true));
+            for (int j = 0; j < COLUMNS; j++) {
+                columns.add(Column.column("c" + j, WrenTypes.INTEGER, null, true));
+            }
+            boolean last = i == DEPTH - 1;
+            if (!last) {
+                columns.add(Column.column("next", modelName(i + 1), relationshipName(i), true));
+                relationships.add(Relationship.relationship(relationshipName(i), List.of(modelName(i), modelName(i + 1)), JoinType.MANY_TO_ONE,
+                        String.format("%s.next_id = %s.id", modelName(i), modelName(i + 1))));
+            }
+            for (int j = 0; j < CALCULATED_COLUMNS; j++) {
+                columns.add(Column.caluclatedColumn("calc" + j, WrenTypes.BIGINT, last ? "c" + j + " + 1" : "next.calc" + j));
+            }
+            models.add(Model.model(modelName(i), "select * from main.table_" + i, columns.build(), "id"));
+        }
+        WrenMDL mdl = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(models.build())
+                .setRelationships(relationships.build())
+                .build());
+        dataLineage = WrenDataLineage.analyze(mdl);
+
+        // half of the required columns are calculated fields
+        ImmutableList.Builder<QualifiedName> columnNames = ImmutableList.builder();
+        for (int j = 0; j < requiredColumns / 2; j++) {
+            columnNames.add(QualifiedName.of(modelName(0), "c" + j));
+            columnNames.add(QualifiedName.of(modelName(0), "calc" + j));
+        }
+        this.columnNames = columnNames.build();
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, Set<String>> getRequiredFields()
+    {
+        return dataLineage.getRequiredFields(columnNames);
+    }
+
+    private static String modelName(int i)
+    {
+        return "Model_" + i;
+    }
+
+    private static String relationshipName(int i)
+    {
+        return "Model_" + i + "_Model_" + (i + 1);
+    }
+
+    @Test
+    public void testGetRequiredFields()
+    {
+        BenchmarkWrenDataLineage benchmark = new BenchmarkWrenDataLineage();
+        benchmark.setup();
+        LinkedHashMap<String, Set<String>> requiredFields = benchmark.getRequiredFields();
+        // the deepest model is generated first
+        assertThat(requiredFields.keySet()).hasSize(DEPTH).first().isEqualTo(modelName(DEPTH - 1));
+        assertThat(requiredFields.get(modelName(DEPTH - 1))).hasSize(benchmark.requiredColumns)
+                .contains("c0", "calc0");
+        assertThat(requiredFields.get(modelName(1))).hasSize(benchmark.requiredColumns / 2 + 1)
+                .contains("calc0", "next");
+        assertThat(requiredFields.get(modelName(0))).hasSize(benchmark.requiredColumns + 1)
+                .contains("c0", "calc0", "next");
+        assertThat(benchmark.getRequiredFields()).isEqualTo(requiredFields);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkWrenDataLineage.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.base.sqlrewrite;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.sql.SqlFormatter;
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkWrenPlanner
+{
+    private static final List<String> QUERIES = ImmutableList.of(
+            "SELECT * FROM Orders",
+            "SELECT orderkey, totalprice FROM Orders WHERE orderdate > DATE '1995-01-01'",
+            "SELECT o.orderkey, c.name FROM Orders o JOIN Customer c ON o.custkey = c.custkey",
+            "SELECT l.orderkey, sum(l.extendedprice * (1 - l.discount)) FROM Lineitem l JOIN Part p ON l.partkey = p.partkey GROUP BY 1",
+            "SELECT n.name, count(*) FROM Customer c JOIN Nation n ON c.nationkey = n.nationkey JOIN Region r ON n.regionkey = r.regionkey GROUP BY 1",
+            "SELECT * FROM Revenue",
+            "SELECT * FROM NumberCustomerByDate",
+            "SELECT * FROM WeeklyRevenue",
+            "SELECT * FROM roll_up(Revenue, orderdate, YEAR)",
+            "SELECT * FROM useUseMetric",
+            "SELECT r.name, p.name, sum(l.extendedprice) FROM Lineitem l " +
+                    "JOIN Orders o ON l.orderkey = o.orderkey " +
+                    "JOIN Customer c ON o.custkey = c.custkey " +
+                    "JOIN Nation n ON c.nationkey = n.nationkey " +
+                    "JOIN Region r ON n.regionkey = r.regionkey " +
+                    "JOIN Part p ON l.partkey = p.partkey " +
+                    "JOIN useModel u ON u.orderkey = o.orderkey " +
+                    "WHERE o.orderdate > DATE '1995-01-01' GROUP BY 1, 2");
+    private static final SqlParser SQL_PARSER = new SqlParser();
+
+    @Param({"false", "true"})
+    private boolean enableDynamicField;
+
+    // PER_RULE analyzes the statement in every rule like the planner used to, SHARED lets the planner share the analysis
+    @Param({"PER_RULE", "SHARED"})
+    private String analysis = "SHARED";
+
+    private AnalyzedMDL analyzedMDL;
+    private SessionContext sessionContext;
+
+    @Setup
+    public void setup()
+            throws IOException
+    {
+        WrenMDL mdl = WrenMDL.fromJson(Files.readString(Path.of(getClass().getClassLoader().getResource("tpch_mdl.json").getPath())));
+        analyzedMDL = new AnalyzedMDL(mdl, null);
+        sessionContext = SessionContext.builder()
+                .setCatalog("canner-cml")
+                .setSchema("tpch_tiny")
+                .setEnableDynamic(enableDynamicField)
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(11)
+    public void plan(Blackhole blackhole)
+    {
+        for (String query : QUERIES) {
+            blackhole.consume(plan(query));
+        }
+    }
+
+    private String plan(String query)
+    {
+        if (analysis.equals("SHARED")) {
+            return WrenPlanner.rewrite(query, sessionContext, analyzedMDL);
+        }
+        Statement statement = SQL_PARSER.createStatement(query, new ParsingOptions(AS_DECIMAL));
+        for (WrenRule rule : WrenPlanner.ALL_RULES) {
+            statement = rule.apply(statement, sessionContext, analyzedMDL);
+        }
+        return SqlFormatter.formatSql(statement);
+    }
+
+    @Test
+    public void testPlan()
+            throws IOException
+    {
+        for (boolean enableDynamicField : List.of(false, true)) {
+            BenchmarkWrenPlanner benchmark = new BenchmarkWrenPlanner();
+            benchmark.enableDynamicField = enableDynamicField;
+            benchmark.setup();
+            for (String query : QUERIES) {
+                benchmark.analysis = "SHARED";
+                String planned = benchmark.plan(query);
+                // descriptors are shared by queries, planning again should give the same result
+                assertThat(benchmark.plan(query)).isEqualTo(planned);
+                benchmark.analysis = "PER_RULE";
+                assertThat(benchmark.plan(query)).isEqualTo(planned);
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkWrenPlanner.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -160,6 +160,27 @@ public class TestAllRulesRewrite
         assertThat(rewrite(original)).isEqualTo(formatSql(expectedState));
     }
 
+    @DataProvider
+    public Object[][] pipelineCases()
+    {
+        return new Object[][] {
+                {"select name, price from Album"},
+                {"SELECT name, price FROM wren.test.Album"},
+                {"select band, cast(price as integer) from useMetric order by band"},
+                {"select * from UseModel where status = Inventory.IN_STOCK"},
+                {"select bandName, count(*) from Album group by 1"},
+                {"select name, price from Album where id in (select albumId from \"Order\")"},
+                {"with cte as (select band, price from Collection) select * from cte join Band on cte.band = Band.name"},
+                {"select * from (select name ,price from Album where bandId = 1 union select name, price from Album where bandId = 2) order by price"},
+        };
+    }
+
+    @Test(dataProvider = "pipelineCases")
+    public void testSingleParsePipeline(String original)
+    {
+        assertThat(rewrite(original)).isEqualTo(rewriteWithReparse(original));
+    }
+
     // TODO: The scope of QuerySpecification is wrong. Enable it after fixing the scope.
     @Test(enabled = false)
     public void testSetOperationColumnNoMatch()
@@ -172,4 +193,15 @@ public class TestAllRulesRewrite
     {
         return WrenPlanner.rewrite(sql, DEFAULT_SESSION_CONTEXT, new AnalyzedMDL(wrenMDL, null));
     }
+
+    // the former pipeline which formatted and re-parsed the statement before every rule
+    private String rewriteWithReparse(String sql)
+    {
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(wrenMDL, null);
+        Statement statement = SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL));
+        for (WrenRule rule : WrenPlanner.ALL_RULES) {
+            statement = rule.apply(SQL_PARSER.createStatement(formatSql(statement), new ParsingOptions(AS_DECIMAL)), DEFAULT_SESSION_CONTEXT, analyzedMDL);
+        }
+        return formatSql(statement);
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.base.sqlrewrite;
+
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.WrenMDL;
+import io.wren.base.WrenTypes;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.TimeGrain;
+import io.wren.base.dto.TimeUnit;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestCachedMetricRollup
+        extends AbstractTestFramework
+{
+    private static final List<TimeGrain> TIME_GRAINS = List.of(
+            TimeGrain.timeGrain("order_date", "orderdate", List.of(TimeUnit.YEAR, TimeUnit.QUARTER, TimeUnit.MONTH, TimeUnit.WEEK, TimeUnit.DAY)));
+    private static final Map<CatalogSchemaTableName, String> CACHED_TABLES = Map.of(
+            new CatalogSchemaTableName("wren", "test", "DailyStats"), "cached_daily_stats",
+            new CatalogSchemaTableName("wren", "test", "MonthlyRevenue"), "cached_monthly_revenue");
+
+    private final WrenMDL wrenMDL;
+
+    public TestCachedMetricRollup()
+    {
+        wrenMDL = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(
+                        Model.model("Orders",
+                                "select * from main.orders",
+                                List.of(
+                                        Column.column("orderkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("orderstatus", WrenTypes.VARCHAR, null, true),
+                                        Column.column("totalprice", WrenTypes.DOUBLE, null, true),
+                                        Column.column("orderdate", WrenTypes.DATE, null, true)),
+                                "orderkey")))
+                .setMetrics(List.of(
+                        Metric.metric("Revenue", "Orders",
+                                List.of(Column.column("status", WrenTypes.VARCHAR, null, true, "orderstatus")),
+                                List.of(Column.column("revenue", WrenTypes.DOUBLE, null, true, "sum(totalprice)")),
+                                TIME_GRAINS),
+                        Metric.metric("Stats", "Orders",
+                                List.of(Column.column("custkey", WrenTypes.INTEGER, null, true)),
+                                List.of(
+                                        Column.column("orders", WrenTypes.BIGINT, null, true, "count(orderkey)"),
+                                        Column.column("min_price", WrenTypes.DOUBLE, null, true, "min(totalprice)"),
+                                        Column.column("max_price", WrenTypes.DOUBLE, null, true, "max(totalprice)")),
+                                TIME_GRAINS),
+                        Metric.metric("AvgPrice", "Orders",
+                                List.of(Column.column("custkey", WrenTypes.INTEGER, null, true)),
+                                List.of(Column.column("avg_price", WrenTypes.DOUBLE, null, true, "avg(totalprice)")),
+                                TIME_GRAINS),
+                        Metric.metric("DailyStats", "Orders",
+                                List.of(
+                                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("orderdate", WrenTypes.DATE, null, true)),
+                                List.of(
+                                        Column.column("order_count", WrenTypes.BIGINT, null, true, "count(orderkey)"),
+                                        Column.column("min_price", WrenTypes.DOUBLE, null, true, "min(totalprice)"),
+                                        Column.column("max_price", WrenTypes.DOUBLE, null, true, "max(totalprice)"),
+                                        Column.column("avg_price", WrenTypes.DOUBLE, null, true, "avg(totalprice)")),
+                                List.of(),
+                                true),
+                        Metric.metric("MonthlyRevenue", "Orders",
+                                List.of(
+                                        Column.column("order_month", WrenTypes.DATE, null, true, "date_trunc('month', orderdate)"),
+                                        Column.column("orderstatus", WrenTypes.VARCHAR, null, true)),
+                                List.of(Column.column("revenue", WrenTypes.DOUBLE, null, true, "sum(totalprice)")),
+                                List.of(),
+                                true)))
+                .build());
+    }
+
+    @Override
+    protected void prepareData()
+    {
+        String orders = requireNonNull(getClass().getClassLoader().getResource("tiny-orders.parquet")).getPath();
+        exec("create table orders as select * from '" + orders + "'");
+        exec("create table cached_daily_stats as " + rewrite("SELECT * FROM DailyStats"));
+        // the dimension calling a function isn't supported by the planner, the cache is created as it would be
+        exec("create table cached_monthly_revenue as select date_trunc('month', orderdate) order_month, orderstatus, sum(totalprice) revenue from orders group by 1, 2");
+    }
+
+    @Test
+    public void testRollupFromFinerTimeGrain()
+    {
+        // count, min and max are aggregated again from the daily cache
+        for (String unit : List.of("DAY", "WEEK", "MONTH", "QUARTER", "YEAR")) {
+            assertCachedRollup("SELECT order_date, custkey, orders, min_price, max_price FROM roll_up(Stats, order_date, " + unit + ")", "cached_daily_stats");
+        }
+        // sum is aggregated again from the monthly cache, the dimensions and measures are matched by their expressions
+        for (String unit : List.of("MONTH", "QUARTER", "YEAR")) {
+            assertCachedRollup("SELECT order_date, status, round(revenue, 2) FROM roll_up(Revenue, order_date, " + unit + ")", "cached_monthly_revenue");
+        }
+        assertCachedRollup("SELECT r.status, round(r.revenue, 2) FROM roll_up(Revenue, order_date, YEAR) r WHERE r.status = 'F'", "cached_monthly_revenue");
+    }
+
+    @Test
+    public void testRollupNotFromCache()
+    {
+        // the monthly cache is coarser than a day, and its months can't be split into weeks
+        assertThat(rewriteCached("SELECT * FROM roll_up(Revenue, order_date, DAY)", CACHED_TABLES)).isEmpty();
+        assertThat(rewriteCached("SELECT * FROM roll_up(Revenue, order_date, WEEK)", CACHED_TABLES)).isEmpty();
+        // an average can't be computed from the averages of the days
+        assertThat(rewriteCached("SELECT * FROM roll_up(AvgPrice, order_date, YEAR)", CACHED_TABLES)).isEmpty();
+        // the cache of the finer metric isn't ready
+        assertThat(rewriteCached("SELECT * FROM roll_up(Stats, order_date, YEAR)", Map.of())).isEmpty();
+        // the roll up isn't in the cache even if the other tables of the query are
+        assertThat(rewriteCached("SELECT * FROM roll_up(AvgPrice, order_date, YEAR) a JOIN DailyStats d ON a.custkey = d.custkey", CACHED_TABLES)).isEmpty();
+    }
+
+    private void assertCachedRollup(@Language("SQL") String sql, String cachedTable)
+    {
+        String cached = rewriteCached(sql, CACHED_TABLES).orElseThrow(() -> new AssertionError("No cache rewrite for " + sql));
+        assertThat(cached).contains(cachedTable);
+        assertThat(query(cached)).containsExactlyInAnyOrderElementsOf(query(rewrite(sql)));
+    }
+
+    private Optional<String> rewriteCached(@Language("SQL") String sql, Map<CatalogSchemaTableName, String> cachedTables)
+    {
+        return CacheRewrite.rewrite(DEFAULT_SESSION_CONTEXT, sql, table -> Optional.ofNullable(cachedTables.get(table)), wrenMDL);
+    }
+
+    private String rewrite(@Language("SQL") String sql)
+    {
+        return WrenPlanner.rewrite(sql, DEFAULT_SESSION_CONTEXT, new AnalyzedMDL(wrenMDL, null));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Query;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+import io.wren.base.WrenTypes;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.JoinType;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static io.wren.base.sqlrewrite.EnumRewrite.ENUM_REWRITE;
+import static io.wren.base.sqlrewrite.WrenSqlRewrite.WREN_SQL_REWRITE;
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestJoinElimination
+        extends AbstractTestFramework
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+    private static final Pattern JOIN = Pattern.compile("\\bJOIN\\b");
+
+    private final WrenMDL wrenMDL;
+
+    public TestJoinElimination()
+    {
+        wrenMDL = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(
+                        Model.model("Orders",
+                                "select * from main.orders",
+                                List.of(
+                                        Column.column("orderkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("totalprice", WrenTypes.INTEGER, null, true),
+                                        Column.caluclatedColumn("customer_name", WrenTypes.VARCHAR, "customer.name"),
+                                        Column.caluclatedColumn("customer_key", WrenTypes.INTEGER, "customer.custkey"),
+                                        Column.caluclatedColumn("nation", WrenTypes.INTEGER, "customer.nation.name"),
+                                        Column.column("customer", "Customer", "OrdersCustomer", true)),
+                                "orderkey"),
+                        Model.model("Customer",
+                                "select * from main.customer",
+                                List.of(
+                                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("name", WrenTypes.VARCHAR, null, true),
+                                        Column.column("nationkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("nation", "Nation", "CustomerNation", true)),
+                                "custkey"),
+                        Model.model("Nation",
+                                "select * from main.nation",
+                                List.of(
+                                        Column.column("nationkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("name", WrenTypes.VARCHAR, null, true),
+                                        Column.column("regionkey", WrenTypes.INTEGER, null, true),
+                                        Column.caluclatedColumn("customers", WrenTypes.BIGINT, "count(customer.custkey)"),
+                                        Column.caluclatedColumn("region_name", WrenTypes.VARCHAR, "region.name"),
+                                        Column.column("customer", "Customer", "CustomerNation", true),
+                                        Column.column("region", "Region", "NationRegion", true)),
+                                "nationkey"),
+                        Model.model("Region",
+                                "select * from main.region",
+                                List.of(
+                                        Column.column("regionkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("name", WrenTypes.VARCHAR, null, true)),
+                                "regionkey")))
+                .setRelationships(List.of(
+                        Relationship.relationship("OrdersCustomer", List.of("Orders", "Customer"), JoinType.MANY_TO_ONE, "Orders.custkey = Customer.custkey"),
+                        Relationship.relationship("CustomerNation", List.of("Customer", "Nation"), JoinType.MANY_TO_ONE, "Customer.nationkey = Nation.nationkey"),
+                        Relationship.relationship("NationRegion", List.of("Nation", "Region"), JoinType.MANY_TO_ONE, "Nation.regionkey = Region.regionkey")))
+                .build());
+    }
+
+    @Override
+    protected void prepareData()
+    {
+        String orders = requireNonNull(getClass().getClassLoader().getResource("tiny-orders.parquet")).getPath();
+        exec("create table orders as select * from '" + orders + "'");
+        String customer = requireNonNull(getClass().getClassLoader().getResource("tiny-customer.parquet")).getPath();
+        exec("create table customer as select * from '" + customer + "'");
+        exec("create table nation as select range as nationkey, 'NATION_' || range as name, range % 5 as regionkey from range(25)");
+        exec("create table region as select range as regionkey, 'REGION_' || range as name from range(5)");
+    }
+
+    @DataProvider
+    public Object[][] enableDynamicField()
+    {
+        return new Object[][] {{false}, {true}};
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testUnusedRelationship(boolean enableDynamicField)
+    {
+        int allJoins = countJoins(rewrite("SELECT * FROM Orders", enableDynamicField), "Orders");
+        assertJoins(enableDynamicField,
+                "Orders",
+                "SELECT orderkey, totalprice FROM Orders",
+                "SELECT orderkey, totalprice FROM orders",
+                0);
+        // Customer was only required by the dropped relationship
+        assertThat(rewrite("SELECT orderkey, totalprice FROM Orders", enableDynamicField)).doesNotContain("\"Customer\" AS");
+        assertJoins(enableDynamicField,
+                "Orders",
+                "SELECT o.orderkey, o.customer_name FROM Orders o WHERE o.totalprice > 100000",
+                "SELECT o.orderkey, c.name FROM orders o LEFT JOIN customer c ON o.custkey = c.custkey WHERE o.totalprice > 100000",
+                2);
+        assertThat(allJoins).isGreaterThan(2);
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testForeignKey(boolean enableDynamicField)
+    {
+        // the key of the related model is read through the join, which returns null for a dangling foreign key
+        assertJoins(enableDynamicField,
+                "Orders",
+                "SELECT orderkey, customer_key FROM Orders",
+                "SELECT o.orderkey, c.custkey FROM orders o LEFT JOIN customer c ON o.custkey = c.custkey",
+                2);
+    }
+
+    @Test
+    public void testCompiledOnce()
+    {
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(wrenMDL, null);
+        String rewritten = rewrite("SELECT orderkey, totalprice FROM Orders", false, analyzedMDL);
+        assertThat(rewrite("SELECT orderkey, totalprice FROM Orders", false, analyzedMDL)).isEqualTo(rewritten);
+        // the CTE without the unused fields is compiled by the first query only
+        QueryDescriptor descriptor = analyzedMDL.getWrenQueryDescriptors().getWithoutFields("Orders", Set.of("customer_name", "customer_key", "nation"), () -> {
+            throw new AssertionError("Orders compiled again");
+        });
+        assertThat(descriptor.getRequiredObjects()).doesNotContain("Customer");
+    }
+
+    @Test
+    public void testToManyRelationship()
+    {
+        // the to-many relationship is kept while the unused to-one relationship is dropped
+        int allJoins = countJoins(rewrite("SELECT * FROM Nation", false), "Nation");
+        assertJoins(false,
+                "Nation",
+                "SELECT nationkey, customers FROM Nation",
+                "SELECT n.nationkey, count(c.custkey) FROM nation n LEFT JOIN customer c ON n.nationkey = c.nationkey GROUP BY 1",
+                2);
+        assertThat(allJoins).isGreaterThan(2);
+    }
+
+    private void assertJoins(boolean enableDynamicField, String model, @Language("SQL") String sql, @Language("SQL") String expected, int joins)
+    {
+        String rewritten = rewrite(sql, enableDynamicField);
+        assertThat(countJoins(rewritten, model)).as(rewritten).isEqualTo(joins);
+        assertThat(query(rewritten)).containsExactlyInAnyOrderElementsOf(query(expected));
+    }
+
+    // the joins in the CTE of the model
+    private static int countJoins(String sql, String model)
+    {
+        Query query = (Query) SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL));
+        String withQuery = query.getWith().orElseThrow().getQueries().stream()
+                .filter(with -> with.getName().getValue().equals(model))
+                .map(with -> formatSql(with.getQuery()))
+                .findAny()
+                .orElseThrow(() -> new AssertionError(model + " not found in " + sql));
+        Matcher matcher = JOIN.matcher(withQuery);
+        int joins = 0;
+        while (matcher.find()) {
+            joins++;
+        }
+        return joins;
+    }
+
+    private String rewrite(String sql, boolean enableDynamicField)
+    {
+        return rewrite(sql, enableDynamicField, new AnalyzedMDL(wrenMDL, null));
+    }
+
+    private String rewrite(String sql, boolean enableDynamicField, AnalyzedMDL analyzedMDL)
+    {
+        SessionContext sessionContext = SessionContext.builder()
+                .setCatalog("wren")
+                .setSchema("test")
+                .setEnableDynamic(enableDynamicField)
+                .build();
+        return WrenPlanner.rewrite(sql, sessionContext, analyzedMDL, List.of(WREN_SQL_REWRITE, ENUM_REWRITE));
+    }
+}
@@ -184,6 +184,12 @@ public class TestModelSqlRewrite
             "   )  \"Book_relationsub\" ON (\"Book\".\"bookId\" = \"Book_relationsub\".\"bookId\"))\n" +
             ")\n";
 
+    // the filter on People is pushed down into the subquery of its columns
+    @Language("SQL")
+    private static final String WITH_PEOPLE_QUERY_FILTERED_BY_ID = WITH_PEOPLE_QUERY.replace(
+            "      )  \"People\"\n   )  \"People\"\n   LEFT JOIN",
+            "      )  \"People\"\n      WHERE (\"People\".\"id\" = 'SN1001')\n   )  \"People\"\n   LEFT JOIN");
+
     @Override
     protected void prepareData()
     {
@@ -217,12 +223,12 @@ public class TestModelSqlRewrite
     public void testModelRewrite()
     {
         assertSqlEqualsAndValid(rewrite("SELECT * FROM People"), "WITH " + WITH_PEOPLE_QUERY + "SELECT * FROM People");
-        assertSqlEqualsAndValid(rewrite("SELECT * FROM People WHERE id = 'SN1001'"), "WITH " + WITH_PEOPLE_QUERY + "SELECT * FROM People WHERE id = 'SN1001'");
+        assertSqlEqualsAndValid(rewrite("SELECT * FROM People WHERE id = 'SN1001'"), "WITH " + WITH_PEOPLE_QUERY_FILTERED_BY_ID + "SELECT * FROM People WHERE id = 'SN1001'");
         assertSqlEqualsAndValid(rewrite("SELECT * FROM Book"), "WITH " + WITH_BOOK_QUERY + "SELECT * FROM Book");
         assertSqlEqualsAndValid(rewrite("SELECT * FROM People a join Book b ON a.id = b.authorId WHERE a.id = 'SN1001'"),
                 "WITH " + WITH_BOOK_QUERY + "SELECT * FROM People a join Book b ON a.id = b.authorId WHERE a.id = 'SN1001'");
         assertSqlEqualsAndValid(rewrite("SELECT * FROM People a join WishList b ON a.id = b.id WHERE a.id = 'SN1001'"),
-                "WITH " + WITH_PEOPLE_QUERY + "SELECT * FROM People a join WishList b ON a.id = b.id WHERE a.id = 'SN1001'");
+                "WITH " + WITH_PEOPLE_QUERY_FILTERED_BY_ID + "SELECT * FROM People a join WishList b ON a.id = b.id WHERE a.id = 'SN1001'");
 
         assertSqlEqualsAndValid(rewrite("WITH a AS (SELECT * FROM WishList) SELECT * FROM a JOIN People ON a.id = People.id"),
                 "WITH" + WITH_PEOPLE_QUERY + ", a AS (SELECT * FROM WishList) SELECT * FROM a JOIN People ON a.id = People.id");
@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.GenericLiteral;
+import io.trino.sql.tree.LongLiteral;
+import io.trino.sql.tree.Statement;
+import io.trino.sql.tree.StringLiteral;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestParameterizedStatement
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+
+    private AnalyzedMDL analyzedMDL;
+    private SessionContext sessionContext;
+
+    @BeforeClass
+    public void init()
+            throws IOException
+    {
+        WrenMDL mdl = WrenMDL.fromJson(Files.readString(Path.of(getClass().getClassLoader().getResource("tpch_mdl.json").getPath())));
+        analyzedMDL = new AnalyzedMDL(mdl, null);
+        sessionContext = SessionContext.builder()
+                .setCatalog("canner-cml")
+                .setSchema("tpch_tiny")
+                .build();
+    }
+
+    @DataProvider
+    public Object[][] sameShape()
+    {
+        return new Object[][] {
+                {"SELECT * FROM Orders WHERE orderdate > DATE '1995-01-01' AND custkey = 10",
+                        "select *   from Orders\nwhere orderdate > DATE '1996-03-01' and custkey = 42"},
+                {"SELECT orderkey FROM Orders WHERE orderstatus IN ('F', 'O') AND totalprice BETWEEN 1.5 AND 100",
+                        "SELECT orderkey FROM Orders WHERE orderstatus IN ('P', 'O') AND totalprice BETWEEN 3.5 AND 200"},
+                {"SELECT o.orderkey, c.name FROM Orders o JOIN Customer c ON o.custkey = c.custkey WHERE c.name LIKE 'Customer#%'",
+                        "SELECT o.orderkey, c.name FROM Orders o JOIN Customer c ON o.custkey = c.custkey WHERE c.name LIKE 'foo%'"},
+                {"WITH recent AS (SELECT * FROM Orders WHERE orderdate > DATE '1998-01-01') SELECT count(*) FROM recent WHERE totalprice > 1000",
+                        "WITH recent AS (SELECT * FROM Orders WHERE orderdate > DATE '1997-06-01') SELECT count(*) FROM recent WHERE totalprice > 5"},
+                {"SELECT * FROM Revenue WHERE custkey = 1 LIMIT 10", "SELECT * FROM Revenue WHERE custkey = 2 LIMIT 10"},
+                {"SELECT custkey, sum(totalprice) FROM Orders WHERE orderkey > 100 GROUP BY 1 ORDER BY 2 DESC",
+                        "SELECT custkey, sum(totalprice) FROM Orders WHERE orderkey > 999 GROUP BY 1 ORDER BY 2 DESC"},
+                {"SELECT * FROM roll_up(Revenue, orderdate, YEAR) WHERE totalprice > 10",
+                        "SELECT * FROM roll_up(Revenue, orderdate, YEAR) WHERE totalprice > 20"},
+        };
+    }
+
+    @Test(dataProvider = "sameShape")
+    public void testSameFingerprint(String sql, String other)
+    {
+        ParameterizedStatement parameterized = parameterize(sql);
+        ParameterizedStatement otherParameterized = parameterize(other);
+        assertThat(parameterized.getFingerprint()).isEqualTo(otherParameterized.getFingerprint());
+        assertThat(parameterized.getLiterals()).isNotEqualTo(otherParameterized.getLiterals());
+
+        // the statement planned for one query serves the other one as well
+        Statement planned = WrenPlanner.plan(parameterized.getStatement(), sessionContext.withParametersLiftedFromLiterals(true), analyzedMDL);
+        assertThat(formatSql(parameterized.bind(planned))).isEqualTo(WrenPlanner.rewrite(sql, sessionContext, analyzedMDL));
+        assertThat(formatSql(otherParameterized.bind(planned))).isEqualTo(WrenPlanner.rewrite(other, sessionContext, analyzedMDL));
+    }
+
+    @DataProvider
+    public Object[][] differentShape()
+    {
+        return new Object[][] {
+                {"SELECT * FROM Orders LIMIT 10", "SELECT * FROM Orders LIMIT 20"},
+                {"SELECT * FROM Orders OFFSET 10", "SELECT * FROM Orders OFFSET 20"},
+                {"SELECT custkey, orderkey, count(*) FROM Orders GROUP BY 1, 2", "SELECT custkey, orderkey, count(*) FROM Orders GROUP BY 2, 1"},
+                {"SELECT * FROM Orders ORDER BY 1", "SELECT * FROM Orders ORDER BY 2"},
+                {"SELECT * FROM roll_up(Revenue, orderdate, YEAR)", "SELECT * FROM roll_up(Revenue, orderdate, MONTH)"},
+                {"SELECT * FROM Orders WHERE orderstatus = Status.F", "SELECT * FROM Orders WHERE orderstatus = Status.O"},
+                {"SELECT * FROM Orders WHERE orderkey = 1", "SELECT * FROM Orders WHERE custkey = 1"},
+                {"SELECT * FROM Orders WHERE orderkey IS NULL", "SELECT * FROM Orders WHERE orderkey IS NOT NULL"},
+        };
+    }
+
+    @Test(dataProvider = "differentShape")
+    public void testDifferentFingerprint(String sql, String other)
+    {
+        assertThat(parameterize(sql).getFingerprint()).isNotEqualTo(parameterize(other).getFingerprint());
+    }
+
+    @Test
+    public void testLiterals()
+    {
+        ParameterizedStatement parameterized = parameterize("SELECT * FROM Orders WHERE orderdate > DATE '1995-01-01' AND orderstatus = 'F' AND custkey = 1 LIMIT 5");
+        assertThat(parameterized.getLiterals()).containsExactly(new GenericLiteral("DATE", "1995-01-01"), new StringLiteral("F"), new LongLiteral("1"));
+        assertThat(parameterized.getFingerprint()).isEqualTo(formatSql(SQL_PARSER.createStatement(
+                "SELECT * FROM Orders WHERE orderdate > ? AND orderstatus = ? AND custkey = ? LIMIT 5", new ParsingOptions(AS_DECIMAL))));
+    }
+
+    @Test
+    public void testKeepStatementWithParameters()
+    {
+        String sql = "SELECT * FROM Orders WHERE orderkey = ? AND custkey = 1";
+        ParameterizedStatement parameterized = parameterize(sql);
+        assertThat(parameterized.getLiterals()).isEmpty();
+        assertThat(parameterized.getFingerprint()).isEqualTo(formatSql(SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL))));
+    }
+
+    private static ParameterizedStatement parameterize(String sql)
+    {
+        return ParameterizedStatement.parameterize(SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL)));
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.sqlrewrite;
+
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Query;
+import io.trino.sql.tree.WithQuery;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+import io.wren.base.WrenTypes;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.EnumDefinition;
+import io.wren.base.dto.EnumValue;
+import io.wren.base.dto.JoinType;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.Model;
+import io.wren.base.dto.Relationship;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static io.wren.base.sqlrewrite.EnumRewrite.ENUM_REWRITE;
+import static io.wren.base.sqlrewrite.WrenSqlRewrite.WREN_SQL_REWRITE;
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPredicatePushdown
+        extends AbstractTestFramework
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+
+    private final WrenMDL wrenMDL;
+
+    public TestPredicatePushdown()
+    {
+        wrenMDL = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(
+                        Model.model("Orders",
+                                "select * from main.orders",
+                                List.of(
+                                        Column.column("orderkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("orderstatus", WrenTypes.VARCHAR, null, true),
+                                        Column.column("totalprice", WrenTypes.INTEGER, null, true),
+                                        Column.column("orderdate", WrenTypes.DATE, null, true),
+                                        Column.column("orderyear", WrenTypes.DATE, null, true, "date_trunc('year', orderdate)"),
+                                        Column.caluclatedColumn("customer_name", WrenTypes.VARCHAR, "customer.name"),
+                                        Column.column("customer", "Customer", "OrdersCustomer", true)),
+                                "orderkey"),
+                        Model.model("Customer",
+                                "select * from main.customer",
+                                List.of(
+                                        Column.column("custkey", WrenTypes.INTEGER, null, true),
+                                        Column.column("name", WrenTypes.VARCHAR, null, true),
+                                        Column.column("nationkey", WrenTypes.INTEGER, null, true)),
+                                "custkey")))
+                .setRelationships(List.of(
+                        Relationship.relationship("OrdersCustomer", List.of("Orders", "Customer"), JoinType.MANY_TO_ONE, "Orders.custkey = Customer.custkey")))
+                .setMetrics(List.of(
+                        Metric.metric("TotalpriceByStatus", "Orders",
+                                List.of(
+                                        Column.column("orderstatus", WrenTypes.VARCHAR, null, true),
+                                        Column.column("orderyear", WrenTypes.DATE, null, true)),
+                                List.of(Column.column("totalprice", WrenTypes.INTEGER, null, true, "sum(totalprice)")),
+                                List.of()),
+                        Metric.metric("TotalpriceByCustomer", "Orders",
+                                List.of(Column.column("name", WrenTypes.VARCHAR, null, true, "customer.name")),
+                                List.of(Column.column("totalprice", WrenTypes.INTEGER, null, true, "sum(totalprice)")),
+                                List.of())))
+                .setEnumDefinitions(List.of(
+                        EnumDefinition.enumDefinition("OrderStatus", List.of(EnumValue.enumValue("OPEN", "O"), EnumValue.enumValue("FINISHED", "F")))))
+                .build());
+    }
+
+    @Override
+    protected void prepareData()
+    {
+        String orders = requireNonNull(getClass().getClassLoader().getResource("tiny-orders.parquet")).getPath();
+        exec("create table orders as select * from '" + orders + "'");
+        String customer = requireNonNull(getClass().getClassLoader().getResource("tiny-customer.parquet")).getPath();
+        exec("create table customer as select * from '" + customer + "'");
+    }
+
+    @DataProvider
+    public Object[][] enableDynamicField()
+    {
+        return new Object[][] {{false}, {true}};
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testModel(boolean enableDynamicField)
+    {
+        assertPushdown(enableDynamicField,
+                "SELECT orderkey, customer_name FROM Orders WHERE orderstatus = 'O' AND totalprice > 100000 ORDER BY orderkey",
+                "SELECT o.orderkey, c.name FROM orders o LEFT JOIN customer c ON o.custkey = c.custkey WHERE o.orderstatus = 'O' AND o.totalprice > 100000 ORDER BY 1",
+                "Orders",
+                "WHERE ((\"Orders\".\"orderstatus\" = 'O') AND (\"Orders\".\"totalprice\" > 100000))");
+        // a column with expression is replaced by its expression
+        assertPushdown(enableDynamicField,
+                "SELECT o.orderkey FROM Orders o WHERE o.orderyear = DATE '1995-01-01' OR o.orderkey < 10 ORDER BY 1",
+                "SELECT orderkey FROM orders WHERE date_trunc('year', orderdate) = DATE '1995-01-01' OR orderkey < 10 ORDER BY 1",
+                "Orders",
+                "WHERE ((date_trunc('year', orderdate) = DATE '1995-01-01') OR (\"Orders\".\"orderkey\" < 10))");
+        assertPushdown(enableDynamicField,
+                "SELECT orderkey FROM Orders WHERE orderstatus = OrderStatus.FINISHED ORDER BY 1",
+                "SELECT orderkey FROM orders WHERE orderstatus = 'F' ORDER BY 1",
+                "Orders",
+                "WHERE (\"Orders\".\"orderstatus\" = 'F')");
+        // only the conjuncts on the columns from the ref sql are pushed down
+        assertPushdown(enableDynamicField,
+                "SELECT orderkey FROM Orders WHERE customer_name = 'Customer#000000001' AND orderstatus = 'O' ORDER BY 1",
+                "SELECT o.orderkey FROM orders o JOIN customer c ON o.custkey = c.custkey WHERE c.name = 'Customer#000000001' AND o.orderstatus = 'O' ORDER BY 1",
+                "Orders",
+                "WHERE (\"Orders\".\"orderstatus\" = 'O')");
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testModelNotPushedDown(boolean enableDynamicField)
+    {
+        assertNotPushedDown(enableDynamicField,
+                "SELECT orderkey FROM Orders WHERE customer_name = 'Customer#000000001'",
+                "SELECT o.orderkey FROM orders o JOIN customer c ON o.custkey = c.custkey WHERE c.name = 'Customer#000000001'",
+                "Orders");
+        assertNotPushedDown(enableDynamicField,
+                "SELECT count(*) FROM Orders WHERE random() < 2",
+                "SELECT count(*) FROM orders",
+                "Orders");
+        assertNotPushedDown(enableDynamicField,
+                "SELECT orderkey FROM Orders WHERE orderkey IN (SELECT custkey FROM Customer)",
+                "SELECT orderkey FROM orders WHERE orderkey IN (SELECT custkey FROM customer)",
+                "Orders");
+        // the CTE is shared by both references
+        assertNotPushedDown(enableDynamicField,
+                "SELECT count(*) FROM Orders a JOIN Orders b ON a.custkey = b.custkey WHERE a.orderkey = 1",
+                "SELECT count(*) FROM orders a JOIN orders b ON a.custkey = b.custkey WHERE a.orderkey = 1",
+                "Orders");
+        // rows of Orders are padded with nulls
+        assertNotPushedDown(enableDynamicField,
+                "SELECT count(*) FROM Customer c LEFT JOIN Orders o ON c.custkey = o.custkey WHERE o.orderstatus IS NULL",
+                "SELECT count(*) FROM customer c LEFT JOIN orders o ON c.custkey = o.custkey WHERE o.orderstatus IS NULL",
+                "Orders");
+        // Customer is used by the CTE of Orders
+        assertNotPushedDown(enableDynamicField,
+                "SELECT count(*) FROM Orders o JOIN Customer c ON o.custkey = c.custkey WHERE c.name = 'Customer#000000001' AND o.customer_name IS NOT NULL",
+                "SELECT count(*) FROM orders o JOIN customer c ON o.custkey = c.custkey WHERE c.name = 'Customer#000000001'",
+                "Customer");
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testParameter(boolean enableDynamicField)
+    {
+        // the client parameters are bound in order, a copy in the CTE would add a parameter to bind
+        String rewritten = rewrite("SELECT orderkey FROM Orders WHERE orderkey = ? AND orderstatus = 'O'", enableDynamicField);
+        assertThat(getWithQuery(rewritten, "Orders"))
+                .contains("WHERE (\"Orders\".\"orderstatus\" = 'O')")
+                .doesNotContain("?");
+        assertThat(rewritten.chars().filter(c -> c == '?').count()).isEqualTo(1);
+
+        // the literals lifted into parameters are bound by position, so they can be copied
+        ParameterizedStatement parameterized = ParameterizedStatement.parameterize(
+                SQL_PARSER.createStatement("SELECT orderkey FROM Orders WHERE orderkey = 1 AND orderstatus = 'O'", new ParsingOptions(AS_DECIMAL)));
+        SessionContext sessionContext = sessionContext(enableDynamicField).withParametersLiftedFromLiterals(true);
+        String bound = formatSql(parameterized.bind(WrenPlanner.plan(parameterized.getStatement(), sessionContext, new AnalyzedMDL(wrenMDL, null), List.of(WREN_SQL_REWRITE, ENUM_REWRITE))));
+        assertThat(getWithQuery(bound, "Orders")).contains("WHERE ((\"Orders\".\"orderkey\" = 1) AND (\"Orders\".\"orderstatus\" = 'O'))");
+        assertThat(query(bound)).containsExactlyInAnyOrderElementsOf(query("SELECT orderkey FROM orders WHERE orderkey = 1 AND orderstatus = 'O'"));
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testMetric(boolean enableDynamicField)
+    {
+        assertPushdown(enableDynamicField,
+                "SELECT orderstatus, orderyear, round(totalprice, 2) FROM TotalpriceByStatus WHERE orderstatus = 'F' AND orderyear >= DATE '1994-01-01' ORDER BY 2",
+                "SELECT orderstatus, date_trunc('year', orderdate), round(sum(totalprice), 2) FROM orders " +
+                        "WHERE orderstatus = 'F' AND date_trunc('year', orderdate) >= DATE '1994-01-01' GROUP BY 1, 2 ORDER BY 2",
+                "TotalpriceByStatus",
+                "WHERE ((\"Orders\".\"orderstatus\" = 'F') AND (\"Orders\".\"orderyear\" >= DATE '1994-01-01'))");
+        // the dimension is from a relationship
+        assertPushdown(enableDynamicField,
+                "SELECT name, round(totalprice, 2) FROM TotalpriceByCustomer WHERE name = 'Customer#000000001'",
+                "SELECT c.name, round(sum(o.totalprice), 2) FROM orders o JOIN customer c ON o.custkey = c.custkey WHERE c.name = 'Customer#000000001' GROUP BY 1",
+                "TotalpriceByCustomer",
+                "WHERE (\"Orders_relationsub\".\"name\" = 'Customer#000000001')");
+        // a filter on a measure is applied after the aggregation
+        assertNotPushedDown(enableDynamicField,
+                "SELECT orderstatus, orderyear, round(totalprice, 2) FROM TotalpriceByStatus WHERE totalprice > 1000000",
+                "SELECT orderstatus, date_trunc('year', orderdate), round(sum(totalprice), 2) FROM orders GROUP BY 1, 2 HAVING sum(totalprice) > 1000000",
+                "TotalpriceByStatus");
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testLimit(boolean enableDynamicField)
+    {
+        assertPushdown(enableDynamicField,
+                "SELECT orderkey, customer_name FROM Orders ORDER BY orderkey DESC LIMIT 5",
+                "SELECT o.orderkey, c.name FROM orders o LEFT JOIN customer c ON o.custkey = c.custkey ORDER BY 1 DESC LIMIT 5",
+                "Orders",
+                "ORDER BY \"Orders\".\"orderkey\" DESC\n   LIMIT 5");
+        assertPushdown(enableDynamicField,
+                "SELECT o.orderkey, o.orderyear FROM Orders o WHERE o.orderstatus = 'O' ORDER BY o.orderyear, totalprice DESC LIMIT 5",
+                "SELECT orderkey, date_trunc('year', orderdate) FROM orders WHERE orderstatus = 'O' ORDER BY 2, totalprice DESC LIMIT 5",
+                "Orders",
+                "WHERE (\"Orders\".\"orderstatus\" = 'O')\n   ORDER BY date_trunc('year', orderdate) ASC, \"Orders\".\"totalprice\" DESC\n   LIMIT 5");
+        assertThat(getWithQuery(rewrite("SELECT * FROM Orders LIMIT 5", enableDynamicField), "Orders")).contains("LIMIT 5");
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testLimitNotPushedDown(boolean enableDynamicField)
+    {
+        // the order is on a calculated field
+        assertLimitNotPushedDown(enableDynamicField, "SELECT orderkey, customer_name FROM Orders ORDER BY customer_name, orderkey LIMIT 5");
+        // the filter on a calculated field isn't pushed down
+        assertLimitNotPushedDown(enableDynamicField, "SELECT orderkey FROM Orders WHERE customer_name = 'Customer#000000001' ORDER BY orderkey LIMIT 5");
+        // the sort key is the output column
+        assertLimitNotPushedDown(enableDynamicField, "SELECT totalprice AS orderkey FROM Orders ORDER BY orderkey LIMIT 5");
+        assertLimitNotPushedDown(enableDynamicField, "SELECT orderstatus FROM Orders GROUP BY orderstatus LIMIT 2");
+        assertLimitNotPushedDown(enableDynamicField, "SELECT DISTINCT orderstatus FROM Orders LIMIT 2");
+        assertLimitNotPushedDown(enableDynamicField, "SELECT max(orderkey) FROM Orders LIMIT 2");
+        assertLimitNotPushedDown(enableDynamicField, "SELECT o.orderkey FROM Orders o JOIN Customer c ON o.custkey = c.custkey ORDER BY 1 LIMIT 5");
+        assertLimitNotPushedDown(enableDynamicField, "SELECT orderkey FROM Orders ORDER BY orderkey LIMIT 5 OFFSET 5");
+    }
+
+    @Test(dataProvider = "enableDynamicField")
+    public void testLimitWithParameter(boolean enableDynamicField)
+    {
+        // the client parameters are bound in order, a copy in the CTE would add a parameter to bind
+        assertParameterNotCopied(enableDynamicField, "SELECT orderkey FROM Orders ORDER BY orderkey LIMIT ?", 1);
+        assertParameterNotCopied(enableDynamicField, "SELECT orderkey FROM Orders WHERE orderkey = ? LIMIT ?", 2);
+        assertParameterNotCopied(enableDynamicField, "SELECT orderkey FROM Orders WHERE orderkey = ? ORDER BY orderkey LIMIT 5", 1);
+        assertParameterNotCopied(enableDynamicField, "SELECT orderkey, totalprice FROM Orders ORDER BY ? LIMIT 5", 1);
+    }
+
+    private void assertParameterNotCopied(boolean enableDynamicField, @Language("SQL") String sql, int parameters)
+    {
+        String rewritten = rewrite(sql, enableDynamicField);
+        assertThat(getWithQuery(rewritten, "Orders")).doesNotContain("LIMIT");
+        assertThat(rewritten.chars().filter(c -> c == '?').count()).isEqualTo(parameters);
+    }
+
+    private void assertLimitNotPushedDown(boolean enableDynamicField, @Language("SQL") String sql)
+    {
+        assertThat(getWithQuery(rewrite(sql, enableDynamicField), "Orders")).doesNotContain("LIMIT");
+    }
+
+    private void assertPushdown(boolean enableDynamicField, @Language("SQL") String sql, @Language("SQL") String expected, String name, String filter)
+    {
+        String rewritten = rewrite(sql, enableDynamicField);
+        assertThat(getWithQuery(rewritten, name)).contains(filter);
+        assertThat(query(rewritten)).containsExactlyInAnyOrderElementsOf(query(expected));
+    }
+
+    private void assertNotPushedDown(boolean enableDynamicField, @Language("SQL") String sql, @Language("SQL") String expected, String name)
+    {
+        String rewritten = rewrite(sql, enableDynamicField);
+        assertThat(getWithQuery(rewritten, name)).doesNotContain("WHERE");
+        assertThat(query(rewritten)).containsExactlyInAnyOrderElementsOf(query(expected));
+    }
+
+    private static String getWithQuery(String sql, String name)
+    {
+        Query query = (Query) SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL));
+        return query.getWith().orElseThrow().getQueries().stream()
+                .filter(withQuery -> withQuery.getName().getValue().equals(name))
+                .map(WithQuery::getQuery)
+                .map(withQuery -> formatSql(withQuery))
+                .findAny()
+                .orElseThrow(() -> new AssertionError(name + " not found in " + sql));
+    }
+
+    private String rewrite(String sql, boolean enableDynamicField)
+    {
+        return WrenPlanner.rewrite(sql, sessionContext(enableDynamicField), new AnalyzedMDL(wrenMDL, null), List.of(WREN_SQL_REWRITE, ENUM_REWRITE));
+    }
+
+    private static SessionContext sessionContext(boolean enableDynamicField)
+    {
+        return SessionContext.builder()
+                .setCatalog("wren")
+                .setSchema("test")
+                .setEnableDynamic(enableDynamicField)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.base.sqlrewrite;
+
+import io.wren.base.WrenMDL;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.Model;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.wren.base.sqlrewrite.AbstractTestFramework.withDefaultCatalogSchema;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestWrenQueryDescriptors
+{
+    private WrenMDL mdl;
+    private WrenQueryDescriptors descriptors;
+
+    @BeforeClass
+    public void init()
+            throws IOException
+    {
+        mdl = WrenMDL.fromJson(Files.readString(Path.of(getClass().getClassLoader().getResource("tpch_mdl.json").getPath())));
+        descriptors = WrenQueryDescriptors.compile(mdl);
+    }
+
+    @Test
+    public void testCompiledDescriptors()
+    {
+        mdl.listModels().forEach(model ->
+                assertThat(descriptors.get(model.getName()).getQuery()).isEqualTo(RelationInfo.get(model, mdl).getQuery()));
+        mdl.listMetrics().forEach(metric ->
+                assertThat(descriptors.get(metric.getName()).getQuery()).isEqualTo(RelationInfo.get(metric, mdl).getQuery()));
+        mdl.listCumulativeMetrics().forEach(metric ->
+                assertThat(descriptors.get(metric.getName()).getQuery()).isEqualTo(CumulativeMetricInfo.get(metric, mdl).getQuery()));
+        assertThat(descriptors.get(DateSpineInfo.NAME).getQuery()).isEqualTo(DateSpineInfo.get(mdl.getDateSpine()).getQuery());
+    }
+
+    @Test
+    public void testRequiredDescriptors()
+    {
+        assertThat(names(descriptors.getRequiredDescriptors(List.of("Orders")))).containsExactly("Orders");
+        List<String> names = names(descriptors.getRequiredDescriptors(List.of("WeeklyRevenue", "Customer")));
+        assertThat(names).containsExactlyInAnyOrder("WeeklyRevenue", "Orders", DateSpineInfo.NAME, "Customer");
+        assertThat(names.indexOf("Orders")).isLessThan(names.indexOf("WeeklyRevenue"));
+        assertThat(names.indexOf(DateSpineInfo.NAME)).isLessThan(names.indexOf("WeeklyRevenue"));
+
+        assertThatThrownBy(() -> descriptors.getRequiredDescriptors(List.of("Orders", "notfound")))
+                .hasMessage("notfound not found in wren mdl");
+    }
+
+    @Test
+    public void testInvalidModel()
+    {
+        WrenMDL invalid = WrenMDL.fromManifest(withDefaultCatalogSchema()
+                .setModels(List.of(
+                        Model.model("Valid", "SELECT * FROM foo", List.of(Column.column("id", "INTEGER", null, false))),
+                        Model.model("Invalid", "SELECT * FROM", List.of(Column.column("id", "INTEGER", null, false)))))
+                .build());
+        WrenQueryDescriptors compiled = WrenQueryDescriptors.compile(invalid);
+
+        assertThat(names(compiled.getRequiredDescriptors(List.of("Valid")))).containsExactly("Valid");
+        assertThat(compiled.contains("Invalid")).isTrue();
+        assertThatThrownBy(() -> compiled.getRequiredDescriptors(List.of("Valid", "Invalid")))
+                .hasMessageStartingWith("Failed to parse query");
+    }
+
+    private static List<String> names(List<QueryDescriptor> descriptors)
+    {
+        return descriptors.stream().map(QueryDescriptor::getName).collect(toImmutableList());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.type;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.joda.time.Period;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static io.wren.base.type.BooleanType.BOOLEAN;
+import static io.wren.base.type.ByteaType.BYTEA;
+import static io.wren.base.type.DateType.DATE;
+import static io.wren.base.type.InetType.INET;
+import static io.wren.base.type.IntervalType.INTERVAL;
+import static io.wren.base.type.JsonType.JSON;
+import static io.wren.base.type.NumericType.NUMERIC;
+import static io.wren.base.type.PGArray.DATE_ARRAY;
+import static io.wren.base.type.PGArray.INT4_ARRAY;
+import static io.wren.base.type.PGArray.NUMERIC_ARRAY;
+import static io.wren.base.type.PGArray.VARCHAR_ARRAY;
+import static io.wren.base.type.TimestampType.TIMESTAMP;
+import static io.wren.base.type.TimestampWithTimeZoneType.TIMESTAMP_WITH_TIMEZONE;
+import static io.wren.base.type.UuidType.UUID;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPGTypeBinaryEncoding
+{
+    @DataProvider
+    public Object[][] roundTrips()
+    {
+        return new Object[][] {
+                {BOOLEAN, true, true},
+                {DATE, LocalDate.of(2000, 1, 1), LocalDate.of(2000, 1, 1)},
+                {DATE, LocalDate.of(1952, 4, 3), LocalDate.of(1952, 4, 3)},
+                {DATE, LocalDate.of(2023, 12, 31), LocalDate.of(2023, 12, 31)},
+                {TIMESTAMP, LocalDateTime.of(2023, 4, 24, 17, 43, 3, 123_456_000), "2023-04-24 17:43:03.123456"},
+                {TIMESTAMP, LocalDateTime.of(1958, 1, 1, 13, 18, 3, 123_000_000), "1958-01-01 13:18:03.123000"},
+                {NUMERIC, new BigDecimal("0"), new BigDecimal("0")},
+                {NUMERIC, new BigDecimal("0.00"), new BigDecimal("0.00")},
+                {NUMERIC, new BigDecimal("10.1"), new BigDecimal("10.1")},
+                {NUMERIC, new BigDecimal("-193"), new BigDecimal("-193")},
+                {NUMERIC, new BigDecimal("0.0001"), new BigDecimal("0.0001")},
+                {NUMERIC, new BigDecimal("100000001"), new BigDecimal("100000001")},
+                {NUMERIC, new BigDecimal("1E+5"), new BigDecimal("100000")},
+                {NUMERIC, new BigDecimal("-3141592653589793238462643.38327"), new BigDecimal("-3141592653589793238462643.38327")},
+                {UUID, "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11", "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11"},
+                {JSON, "{\"a\":1}", "{\"a\":1}"},
+                {INET, "192.168.0.1", "192.168.0.1"},
+                {INET, "10.0.0.0/8", "10.0.0.0/8"},
+                {INET, "2001:db8::1", "2001:db8::1"},
+                {INTERVAL, new Period(1, 2, 0, 3, 4, 5, 6, 7), new Period(1, 2, 0, 3, 4, 5, 6, 7)},
+                {INT4_ARRAY, ImmutableList.of(1, 2, 3), ImmutableList.of(1, 2, 3)},
+                {INT4_ARRAY, ImmutableList.of(), ImmutableList.of()},
+                {INT4_ARRAY, Arrays.asList(1, null), Arrays.asList(1, null)},
+                {VARCHAR_ARRAY, ImmutableList.of("hello", "world"), ImmutableList.of("hello", "world")},
+                {NUMERIC_ARRAY, ImmutableList.of(new BigDecimal("1.1"), new BigDecimal("0")), ImmutableList.of(new BigDecimal("1.1"), new BigDecimal("0"))},
+                {DATE_ARRAY, ImmutableList.of(LocalDate.of(2019, 1, 1)), ImmutableList.of(LocalDate.of(2019, 1, 1))},
+        };
+    }
+
+    @Test(dataProvider = "roundTrips")
+    public <T> void testRoundTrip(PGType<T> type, T value, Object expected)
+    {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            int written = type.writeAsBinary(buffer, value);
+            assertThat(written).isEqualTo(buffer.readableBytes());
+            int length = buffer.readInt();
+            assertThat(length).isEqualTo(written - 4);
+            assertThat(type.readBinaryValue(buffer, length)).isEqualTo(expected);
+            assertThat(buffer.readableBytes()).isEqualTo(0);
+        }
+        finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void testWireFormat()
+    {
+        // days and microseconds since 2000-01-01
+        assertThat(binary(DATE, LocalDate.of(2000, 1, 2))).containsExactly(0, 0, 0, 1);
+        assertThat(binary(TIMESTAMP, LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999_999_000))).containsExactly(-1, -1, -1, -1, -1, -1, -1, -1);
+        assertThat(binary(TIMESTAMP_WITH_TIMEZONE, OffsetDateTime.of(2000, 1, 1, 8, 0, 0, 1000, ZoneOffset.ofHours(8)))).containsExactly(0, 0, 0, 0, 0, 0, 0, 1);
+        // ndigits, weight, sign, dscale: zero is positive, not NaN
+        assertThat(binary(NUMERIC, BigDecimal.ZERO)).containsExactly(0, 0, 0, 0, 0, 0, 0, 0);
+        assertThat(binary(NUMERIC, new BigDecimal("-12345.6"))).containsExactly(0, 3, 0, 1, 0x40, 0, 0, 1, 0, 1, 0x09, 0x29, 0x17, 0x70);
+        // raw bytes, not the hex text representation
+        assertThat(binary(BYTEA, "hello".getBytes(UTF_8))).isEqualTo("hello".getBytes(UTF_8));
+        assertThat(binary(INET, "10.0.0.0/8")).containsExactly(2, 8, 0, 4, 10, 0, 0, 0);
+        // ndim, has null, element oid, then size and lower bound of every dimension
+        assertThat(binary(INT4_ARRAY, ImmutableList.of(7))).containsExactly(
+                0, 0, 0, 1,
+                0, 0, 0, 1,
+                0, 0, 0, 23,
+                0, 0, 0, 1,
+                0, 0, 0, 1,
+                0, 0, 0, 4,
+                0, 0, 0, 7);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static byte[] binary(PGType type, Object value)
+    {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            type.writeAsBinary(buffer, value);
+            byte[] bytes = new byte[buffer.readInt()];
+            buffer.readBytes(bytes);
+            return bytes;
+        }
+        finally {
+            buffer.release();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.base.type;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+
+import static io.wren.base.type.BigIntType.BIGINT;
+import static io.wren.base.type.DateType.DATE;
+import static io.wren.base.type.DoubleType.DOUBLE;
+import static io.wren.base.type.IntegerType.INTEGER;
+import static io.wren.base.type.RealType.REAL;
+import static io.wren.base.type.SmallIntType.SMALLINT;
+import static io.wren.base.type.TinyIntType.TINYINT;
+import static io.wren.base.type.VarcharType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPGTypeTextEncoding
+{
+    @DataProvider
+    public Object[][] values()
+    {
+        return new Object[][] {
+                {TINYINT, (byte) -128},
+                {TINYINT, (byte) 7},
+                {SMALLINT, (short) 0},
+                {SMALLINT, Short.MIN_VALUE},
+                {INTEGER, 0},
+                {INTEGER, -10},
+                {INTEGER, 1234567890},
+                {INTEGER, Integer.MIN_VALUE},
+                {BIGINT, Long.MAX_VALUE},
+                {BIGINT, Long.MIN_VALUE},
+                {BIGINT, -9L},
+                {REAL, 1.5f},
+                {DOUBLE, -0.0},
+                {DOUBLE, 1.0E-10},
+                {DOUBLE, Double.NaN},
+                {DATE, LocalDate.of(2020, 1, 1)},
+                {DATE, LocalDate.of(1999, 12, 31)},
+                {DATE, LocalDate.of(12, 3, 4)},
+                {DATE, LocalDate.of(10000, 3, 4)},
+                {VARCHAR, ""},
+                {VARCHAR, "ascii"},
+                {VARCHAR, "中文 and emoji 😀"},
+        };
+    }
+
+    @Test(dataProvider = "values")
+    public <T> void testWriteAsTextMatchesEncodeAsUTF8Text(PGType<T> type, T value)
+    {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            buffer.writeByte(42);
+            int written = type.writeAsText(buffer, value);
+
+            byte[] expected = type.encodeAsUTF8Text(value);
+            assertThat(written).isEqualTo(4 + expected.length);
+            assertThat(buffer.readByte()).isEqualTo((byte) 42);
+            assertThat(buffer.readInt()).isEqualTo(expected.length);
+            byte[] actual = new byte[buffer.readableBytes()];
+            buffer.readBytes(actual);
+            assertThat(actual).isEqualTo(expected);
+        }
+        finally {
+            buffer.release();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.cache;
+
+import io.airlift.log.Logger;
+import io.wren.base.client.AutoCloseableIterator;
+import org.apache.arrow.c.jni.JniLoader;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.LargeVarBinaryVector;
+import org.apache.arrow.vector.LargeVarCharVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.duckdb.DuckDBColumnType;
+import org.duckdb.DuckDBResultSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static org.duckdb.DuckDBColumnType.BIGINT;
+import static org.duckdb.DuckDBColumnType.BLOB;
+import static org.duckdb.DuckDBColumnType.BOOLEAN;
+import static org.duckdb.DuckDBColumnType.DATE;
+import static org.duckdb.DuckDBColumnType.DECIMAL;
+import static org.duckdb.DuckDBColumnType.DOUBLE;
+import static org.duckdb.DuckDBColumnType.FLOAT;
+import static org.duckdb.DuckDBColumnType.INTEGER;
+import static org.duckdb.DuckDBColumnType.SMALLINT;
+import static org.duckdb.DuckDBColumnType.TIMESTAMP;
+import static org.duckdb.DuckDBColumnType.TINYINT;
+import static org.duckdb.DuckDBColumnType.VARCHAR;
+import static org.duckdb.DuckDBResultSetMetaData.TypeNameToType;
+
+/**
+ * Reads a DuckDB result in Arrow record batches, each converted column by column into the same values
+ * {@link DuckdbRecordIterator} reads through JDBC.
+ */
+final class ArrowRecordReader
+        implements AutoCloseableIterator<Object[]>
+{
+    private static final Logger LOG = Logger.get(ArrowRecordReader.class);
+    private static final long BATCH_SIZE = 8192;
+    private static final Set<DuckDBColumnType> SUPPORTED_TYPES = EnumSet.of(BOOLEAN, TINYINT, SMALLINT, INTEGER, BIGINT, FLOAT, DOUBLE, DECIMAL, VARCHAR, BLOB, DATE, TIMESTAMP);
+    // DuckDB stores the infinite dates as the greatest and least 32-bit day numbers
+    private static final int INFINITY_DAYS = Integer.MAX_VALUE;
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final Optional<BufferAllocator> ROOT_ALLOCATOR = createRootAllocator();
+
+    private final BufferAllocator allocator;
+    private final ArrowReader reader;
+    private final VectorReader[] vectorReaders;
+    private Object[][] batch = new Object[0][];
+    private int position;
+    private boolean finished;
+
+    /**
+     * @return true if the result can be read in Arrow record batches, the other results are read through JDBC
+     */
+    static boolean isSupported(ResultSetMetaData metaData)
+            throws SQLException
+    {
+        if (ROOT_ALLOCATOR.isEmpty()) {
+            return false;
+        }
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (!SUPPORTED_TYPES.contains(TypeNameToType(metaData.getColumnTypeName(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    ArrowRecordReader(DuckDBResultSet resultSet)
+            throws SQLException
+    {
+        this.allocator = ROOT_ALLOCATOR.orElseThrow().newChildAllocator("duckdb-result", 0, Long.MAX_VALUE);
+        try {
+            this.reader = (ArrowReader) resultSet.arrowExportStream(allocator, BATCH_SIZE);
+            List<FieldVector> vectors = reader.getVectorSchemaRoot().getFieldVectors();
+            this.vectorReaders = new VectorReader[vectors.size()];
+            for (int i = 0; i < vectors.size(); i++) {
+                vectorReaders[i] = vectorReader(vectors.get(i));
+            }
+        }
+        catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+        catch (SQLException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        try {
+            while (position == batch.length && !finished) {
+                if (reader.loadNextBatch()) {
+                    batch = readBatch(reader.getVectorSchemaRoot());
+                    position = 0;
+                }
+                else {
+                    finished = true;
+                }
+            }
+            return position < batch.length;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Object[] next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object[] record = batch[position];
+        // the rows already returned aren't kept until the whole batch is read
+        batch[position++] = null;
+        return record;
+    }
+
+    private Object[][] readBatch(VectorSchemaRoot root)
+    {
+        int rowCount = root.getRowCount();
+        Object[][] records = new Object[rowCount][vectorReaders.length];
+        for (int column = 0; column < vectorReaders.length; column++) {
+            FieldVector vector = root.getVector(column);
+            VectorReader vectorReader = vectorReaders[column];
+            for (int row = 0; row < rowCount; row++) {
+                if (!vector.isNull(row)) {
+                    records[row][column] = vectorReader.read(row);
+                }
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void close()
+    {
+        // the reader releases the batches and the DuckDB result before the allocator checks nothing is left
+        try (BufferAllocator allocator = this.allocator;
+                ArrowReader reader = this.reader) {
+            batch = new Object[0][];
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static VectorReader vectorReader(FieldVector vector)
+    {
+        if (vector instanceof BitVector) {
+            BitVector bits = (BitVector) vector;
+            return row -> bits.get(row) != 0;
+        }
+        if (vector instanceof TinyIntVector) {
+            TinyIntVector tinyInts = (TinyIntVector) vector;
+            return tinyInts::get;
+        }
+        if (vector instanceof SmallIntVector) {
+            SmallIntVector smallInts = (SmallIntVector) vector;
+            return smallInts::get;
+        }
+        if (vector instanceof IntVector) {
+            IntVector ints = (IntVector) vector;
+            return ints::get;
+        }
+        if (vector instanceof BigIntVector) {
+            BigIntVector bigInts = (BigIntVector) vector;
+            return bigInts::get;
+        }
+        if (vector instanceof Float4Vector) {
+            Float4Vector floats = (Float4Vector) vector;
+            return floats::get;
+        }
+        if (vector instanceof Float8Vector) {
+            Float8Vector doubles = (Float8Vector) vector;
+            return doubles::get;
+        }
+        if (vector instanceof DecimalVector) {
+            DecimalVector decimals = (DecimalVector) vector;
+            return decimals::getObject;
+        }
+        if (vector instanceof VarCharVector) {
+            VarCharVector varchars = (VarCharVector) vector;
+            return row -> new String(varchars.get(row), UTF_8);
+        }
+        if (vector instanceof LargeVarCharVector) {
+            LargeVarCharVector varchars = (LargeVarCharVector) vector;
+            return row -> new String(varchars.get(row), UTF_8);
+        }
+        if (vector instanceof VarBinaryVector) {
+            VarBinaryVector binaries = (VarBinaryVector) vector;
+            return binaries::get;
+        }
+        if (vector instanceof LargeVarBinaryVector) {
+            LargeVarBinaryVector binaries = (LargeVarBinaryVector) vector;
+            return binaries::get;
+        }
+        if (vector instanceof DateDayVector) {
+            DateDayVector dates = (DateDayVector) vector;
+            return row -> toLocalDate(dates.get(row));
+        }
+        if (vector instanceof TimeStampMicroVector) {
+            TimeStampMicroVector timestamps = (TimeStampMicroVector) vector;
+            return row -> toLocalDateTime(timestamps.get(row));
+        }
+        throw new IllegalArgumentException("Unsupported arrow vector: " + vector.getField());
+    }
+
+    private static LocalDate toLocalDate(int days)
+    {
+        if (days == INFINITY_DAYS) {
+            return LocalDate.MAX;
+        }
+        if (days == -INFINITY_DAYS) {
+            return LocalDate.MIN;
+        }
+        return LocalDate.ofEpochDay(days);
+    }
+
+    private static LocalDateTime toLocalDateTime(long micros)
+    {
+        return LocalDateTime.ofEpochSecond(floorDiv(micros, MICROS_PER_SECOND), (int) floorMod(micros, MICROS_PER_SECOND) * 1000, UTC);
+    }
+
+    /**
+     * @return empty if Arrow can't be used in this JVM, e.g. it needs --add-opens=java.base/java.nio=ALL-UNNAMED
+     * since Java 16 and its C data interface has no native library for every platform
+     */
+    private static Optional<BufferAllocator> createRootAllocator()
+    {
+        try {
+            JniLoader.get().ensureLoaded();
+            BufferAllocator allocator = new RootAllocator();
+            allocator.buffer(1).close();
+            return Optional.of(allocator);
+        }
+        catch (RuntimeException | LinkageError e) {
+            LOG.warn(e, "Arrow is unavailable, DuckDB results are read through JDBC");
+            return Optional.empty();
+        }
+    }
+
+    private interface VectorReader
+    {
+        Object read(int row);
+    }
+}
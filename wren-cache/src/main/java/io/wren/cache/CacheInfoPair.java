@@ -26,18 +26,30 @@ public class CacheInfoPair
     private final CacheInfo cacheInfo;
     private final Optional<String> tableName;
     private final Optional<String> errorMessage;
+    private final Optional<Watermark> watermark;
     private final long createTime;
 
     protected CacheInfoPair(CacheInfo cacheInfo, String tableName, long createTime)
     {
-        this(cacheInfo, Optional.of(tableName), Optional.empty(), createTime);
+        this(cacheInfo, Optional.of(tableName), Optional.empty(), Optional.empty(), createTime);
+    }
+
+    protected CacheInfoPair(CacheInfo cacheInfo, String tableName, Optional<Watermark> watermark, long createTime)
+    {
+        this(cacheInfo, Optional.of(tableName), Optional.empty(), watermark, createTime);
     }
 
     protected CacheInfoPair(CacheInfo cacheInfo, Optional<String> tableName, Optional<String> errorMessage, long createTime)
+    {
+        this(cacheInfo, tableName, errorMessage, Optional.empty(), createTime);
+    }
+
+    private CacheInfoPair(CacheInfo cacheInfo, Optional<String> tableName, Optional<String> errorMessage, Optional<Watermark> watermark, long createTime)
     {
         this.cacheInfo = requireNonNull(cacheInfo, "cacheInfo is null");
         this.tableName = requireNonNull(tableName, "tableName is null");
         this.errorMessage = requireNonNull(errorMessage, "errorMessage is null");
+        this.watermark = requireNonNull(watermark, "watermark is null");
         this.createTime = createTime;
     }
 
@@ -61,6 +73,14 @@ public class CacheInfoPair
         return errorMessage;
     }
 
+    /**
+     * The greatest watermark column value in the cached table, present only for incrementally refreshed caches
+     */
+    public Optional<Watermark> getWatermark()
+    {
+        return watermark;
+    }
+
     public long getCreateTime()
     {
         return createTime;
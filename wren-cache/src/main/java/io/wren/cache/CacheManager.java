@@ -22,6 +22,7 @@ import io.trino.sql.parser.SqlParser;
 import io.trino.sql.tree.Statement;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.Column;
 import io.wren.base.ConnectorRecordIterator;
 import io.wren.base.Parameter;
 import io.wren.base.SessionContext;
@@ -31,6 +32,7 @@ import io.wren.base.client.duckdb.CacheStorageConfig;
 import io.wren.base.client.duckdb.DuckDBConfig;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.dto.CacheInfo;
+import io.wren.base.dto.IncrementalRefresh;
 import io.wren.base.sql.SqlConverter;
 import io.wren.base.sqlrewrite.WrenPlanner;
 import io.wren.base.wireprotocol.PgMetastore;
@@ -41,6 +43,7 @@ import javax.inject.Inject;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -126,30 +129,47 @@ public class CacheManager
         if (taskOptional.isPresent() && taskOptional.get().getTaskInfo().inProgress()) {
             throw new WrenException(GENERIC_USER_ERROR, format("cache is already running; catalogName: %s, schemaName: %s, tableName: %s", mdl.getCatalog(), mdl.getSchema(), cacheInfo.getName()));
         }
-        removeCacheIfExist(catalogSchemaTableName);
+        Optional<CacheInfoPair> previous = getRefreshableCache(catalogSchemaTableName, cacheInfo);
+        if (previous.isEmpty()) {
+            removeCacheIfExist(catalogSchemaTableName);
+            return doCache(analyzedMDL, cacheInfo, taskInfo);
+        }
+        cancelScheduledFutures(catalogSchemaTableName);
+        if (cacheInfo.getIncrementalRefresh().isPresent() && previous.get().getWatermark().isPresent()) {
+            return doIncrementalCache(analyzedMDL, cacheInfo, taskInfo, previous.get());
+        }
+        // keep serving the previous table until the new one is swapped in
         return doCache(analyzedMDL, cacheInfo, taskInfo);
     }
 
-    private CompletableFuture<Void> handleCache(AnalyzedMDL analyzedMDL, CacheInfo cacheInfo, TaskInfo taskInfo)
+    /**
+     * The previous cached table keeps serving queries during a refresh, or is appended to by an
+     * incremental refresh, only if it was cached from the same definition.
+     */
+    private Optional<CacheInfoPair> getRefreshableCache(CatalogSchemaTableName catalogSchemaTableName, CacheInfo cacheInfo)
+    {
+        return Optional.ofNullable(cachedTableMapping.get(catalogSchemaTableName))
+                .filter(cacheInfoPair -> cacheInfoPair.getCacheInfo().equals(cacheInfo))
+                .filter(cacheInfoPair -> cacheInfoPair.getTableName().isPresent());
+    }
+
+    /**
+     * @return the error of a failed refresh which kept the previous cached table, the error of a failed cache without
+     * a previous table is recorded in its {@link CacheInfoPair} instead
+     */
+    private CompletableFuture<Optional<String>> handleCache(AnalyzedMDL analyzedMDL, CacheInfo cacheInfo, TaskInfo taskInfo)
     {
         WrenMDL mdl = analyzedMDL.getWrenMDL();
         CatalogSchemaTableName catalogSchemaTableName = new CatalogSchemaTableName(mdl.getCatalog(), mdl.getSchema(), cacheInfo.getName());
-        String duckdbTableName = format("%s_%s", cacheInfo.getName(), randomUUID().toString().replace("-", ""));
         long createTime = currentTimeMillis();
         return refreshCache(analyzedMDL, cacheInfo, taskInfo)
-                .thenRun(() -> {
-                    if (cacheInfo.getRefreshTime().toMillis() > 0) {
-                        cacheScheduledFutures.put(
-                                catalogSchemaTableName,
-                                refreshExecutor.scheduleWithFixedDelay(
-                                        () -> createTask(analyzedMDL, cacheInfo).join(),
-                                        cacheInfo.getRefreshTime().toMillis(),
-                                        cacheInfo.getRefreshTime().toMillis(),
-                                        MILLISECONDS));
-                    }
+                .thenApply(ignored -> {
+                    scheduleRefresh(analyzedMDL, cacheInfo);
+                    return Optional.<String>empty();
                 })
                 .exceptionally(e -> {
                     String errMsg = format("Failed to do cache for cacheInfo %s; caused by %s", cacheInfo.getName(), e.getMessage());
+                    boolean retry = false;
                     // If the cache fails because DuckDB doesn't have sufficient memory, we'll attempt to retry it later.
                     if (e.getCause() instanceof WrenException && EXCEEDED_GLOBAL_MEMORY_LIMIT.toErrorCode().equals(((WrenException) e.getCause()).getErrorCode())) {
                         long delay = configManager.getConfig(DuckDBConfig.class).getCacheTaskRetryDelay();
@@ -160,19 +180,61 @@ public class CacheManager
                                         delay,
                                         SECONDS));
                         errMsg += "; will retry after " + delay + " seconds";
+                        retry = true;
                     }
-                    pgMetastore.dropTableIfExists(duckdbTableName);
                     LOG.error(e, errMsg);
+                    if (getRefreshableCache(catalogSchemaTableName, cacheInfo).isPresent()) {
+                        // a failed refresh leaves the previous table in place, which keeps serving queries and is
+                        // refreshed again on schedule
+                        if (!retry) {
+                            scheduleRefresh(analyzedMDL, cacheInfo);
+                        }
+                        return Optional.of(errMsg);
+                    }
                     cachedTableMapping.putCachedTableMapping(catalogSchemaTableName, new CacheInfoPair(cacheInfo, Optional.empty(), Optional.of(errMsg), createTime));
-                    return null;
+                    return Optional.empty();
                 });
     }
 
+    private void scheduleRefresh(AnalyzedMDL analyzedMDL, CacheInfo cacheInfo)
+    {
+        if (cacheInfo.getRefreshTime().toMillis() > 0) {
+            WrenMDL mdl = analyzedMDL.getWrenMDL();
+            cacheScheduledFutures.put(
+                    new CatalogSchemaTableName(mdl.getCatalog(), mdl.getSchema(), cacheInfo.getName()),
+                    refreshExecutor.scheduleWithFixedDelay(
+                            () -> createTask(analyzedMDL, cacheInfo).join(),
+                            cacheInfo.getRefreshTime().toMillis(),
+                            cacheInfo.getRefreshTime().toMillis(),
+                            MILLISECONDS));
+        }
+    }
+
     public ConnectorRecordIterator query(String sql, List<Parameter> parameters)
     {
         return cacheTaskManager.addCacheQueryTask(() -> DuckdbRecordIterator.of(pgMetastore.getClient(), sql, parameters.stream().collect(toImmutableList())));
     }
 
+    /**
+     * Query the cached tables, which are kept until the returned iterator is closed even if a refresh replaces them.
+     *
+     * @return empty if any of the cached tables was already replaced, so the query should be rewritten against the current ones
+     */
+    public Optional<ConnectorRecordIterator> query(String sql, List<String> cachedTableNames, List<Parameter> parameters)
+    {
+        Optional<CachedTableLease> lease = cachedTableMapping.lease(cachedTableNames);
+        if (lease.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new LeasedRecordIterator(query(sql, parameters), lease.get()));
+        }
+        catch (RuntimeException e) {
+            lease.get().close();
+            throw e;
+        }
+    }
+
     private CompletableFuture<Void> doCache(AnalyzedMDL analyzedMDL, CacheInfo cacheInfo, TaskInfo taskInfo)
     {
         WrenMDL mdl = analyzedMDL.getWrenMDL();
@@ -186,39 +248,114 @@ public class CacheManager
                     .setCatalog(mdl.getCatalog())
                     .setSchema(mdl.getSchema())
                     .build();
-            String wrenRewritten = WrenPlanner.rewrite(
-                    format("select * from %s", cacheInfo.getName()),
+            Statement rewrittenStatement = rewrite(format("select * from %s", cacheInfo.getName()), sessionContext, analyzedMDL);
+
+            try {
+                boolean loaded = createCache(mdl, cacheInfo, sessionContext, rewrittenStatement, duckdbTableName);
+                Optional<Watermark> watermark = Optional.empty();
+                if (loaded && cacheInfo.getIncrementalRefresh().isPresent()) {
+                    watermark = queryWatermark(duckdbTableName, cacheInfo.getIncrementalRefresh().get().getWatermarkColumn());
+                }
+                cachedTableMapping.putCachedTableMapping(catalogSchemaTableName, new CacheInfoPair(cacheInfo, duckdbTableName, watermark, createTime));
+            }
+            catch (RuntimeException e) {
+                // the table may be partly loaded, and is never mapped
+                pgMetastore.dropTableIfExists(duckdbTableName);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Fetch the rows past the watermark of the previous refresh and append them to its cached table.
+     * The rows within the lookback window are fetched again and replace the cached ones.
+     */
+    private CompletableFuture<Void> doIncrementalCache(AnalyzedMDL analyzedMDL, CacheInfo cacheInfo, TaskInfo taskInfo, CacheInfoPair previous)
+    {
+        WrenMDL mdl = analyzedMDL.getWrenMDL();
+        CatalogSchemaTableName catalogSchemaTableName = new CatalogSchemaTableName(mdl.getCatalog(), mdl.getSchema(), cacheInfo.getName());
+        IncrementalRefresh incrementalRefresh = cacheInfo.getIncrementalRefresh().orElseThrow();
+        String duckdbTableName = previous.getRequiredTableName();
+        String stagingTableName = format("%s_%s", cacheInfo.getName(), randomUUID().toString().replace("-", ""));
+        return cacheTaskManager.addCacheTask(() -> {
+            cacheTaskManager.checkCacheMemoryLimit();
+            taskInfo.setTaskStatus(RUNNING);
+            SessionContext sessionContext = SessionContext.builder()
+                    .setCatalog(mdl.getCatalog())
+                    .setSchema(mdl.getSchema())
+                    .build();
+            String watermarkColumn = incrementalRefresh.getWatermarkColumn();
+            String lowerBound = previous.getWatermark().orElseThrow().toLowerBoundLiteral(incrementalRefresh.getLookback());
+            Statement rewrittenStatement = rewrite(
+                    format("select * from \"%s\" where \"%s\" > %s", cacheInfo.getName(), watermarkColumn, lowerBound),
                     sessionContext,
                     analyzedMDL);
-            Statement parsedStatement = sqlParser.createStatement(wrenRewritten, PARSE_AS_DECIMAL);
-            Statement rewrittenStatement = extraRewriter.rewrite(parsedStatement);
 
-            createCache(mdl, cacheInfo, sessionContext, rewrittenStatement, duckdbTableName);
-            cachedTableMapping.putCachedTableMapping(catalogSchemaTableName, new CacheInfoPair(cacheInfo, duckdbTableName, createTime));
+            Optional<Watermark> watermark = previous.getWatermark();
+            try {
+                if (createCache(mdl, cacheInfo, sessionContext, rewrittenStatement, stagingTableName)) {
+                    pgMetastore.directDDL(format("BEGIN TRANSACTION;\n" +
+                                    "DELETE FROM \"%1$s\" WHERE \"%2$s\" > %3$s;\n" +
+                                    "INSERT INTO \"%1$s\" SELECT * FROM \"%4$s\";\n" +
+                                    "COMMIT;\n",
+                            duckdbTableName, watermarkColumn, lowerBound, stagingTableName));
+                    watermark = queryWatermark(duckdbTableName, watermarkColumn).or(previous::getWatermark);
+                }
+            }
+            finally {
+                pgMetastore.dropTableIfExists(stagingTableName);
+            }
+            LOG.info("Incremental refresh of %s after %s, watermark is %s", catalogSchemaTableName, lowerBound, watermark.map(Watermark::toString).orElse("empty"));
+            cachedTableMapping.putCachedTableMapping(catalogSchemaTableName, new CacheInfoPair(cacheInfo, duckdbTableName, watermark, currentTimeMillis()));
         });
     }
 
-    private void createCache(
+    private Statement rewrite(String sql, SessionContext sessionContext, AnalyzedMDL analyzedMDL)
+    {
+        String wrenRewritten = WrenPlanner.rewrite(sql, sessionContext, analyzedMDL);
+        Statement parsedStatement = sqlParser.createStatement(wrenRewritten, PARSE_AS_DECIMAL);
+        return extraRewriter.rewrite(parsedStatement);
+    }
+
+    /**
+     * @return true if the result of the statement was loaded into the duckdb table
+     */
+    private boolean createCache(
             WrenMDL mdl,
             CacheInfo cacheInfo,
             SessionContext sessionContext,
             Statement rewrittenStatement,
             String duckdbTableName)
     {
-        cacheService.createCache(
-                        mdl.getCatalog(),
-                        mdl.getSchema(),
-                        cacheInfo.getName(),
-                        sqlConverter.convert(getFormattedSql(rewrittenStatement, sqlParser), sessionContext))
-                .ifPresent(pathInfo -> {
-                    try {
-                        tempFileLocations.add(pathInfo);
-                        refreshCacheInDuckDB(pathInfo.getPath() + "/" + pathInfo.getFilePattern(), duckdbTableName);
-                    }
-                    finally {
-                        removeTempFile(pathInfo);
-                    }
-                });
+        Optional<PathInfo> pathInfo = cacheService.createCache(
+                mdl.getCatalog(),
+                mdl.getSchema(),
+                cacheInfo.getName(),
+                sqlConverter.convert(getFormattedSql(rewrittenStatement, sqlParser), sessionContext));
+        if (pathInfo.isEmpty()) {
+            return false;
+        }
+        try {
+            tempFileLocations.add(pathInfo.get());
+            refreshCacheInDuckDB(pathInfo.get().getPath() + "/" + pathInfo.get().getFilePattern(), duckdbTableName);
+            return true;
+        }
+        finally {
+            removeTempFile(pathInfo.get());
+        }
+    }
+
+    private Optional<Watermark> queryWatermark(String duckdbTableName, String watermarkColumn)
+    {
+        try (ConnectorRecordIterator iterator = pgMetastore.directQuery(format("SELECT max(\"%s\") FROM \"%s\"", watermarkColumn, duckdbTableName), List.of())) {
+            return Watermark.of(iterator.next()[0]);
+        }
+        catch (WrenException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new WrenException(GENERIC_INTERNAL_ERROR, format("Failed to get the watermark of %s", duckdbTableName), e);
+        }
     }
 
     private void refreshCacheInDuckDB(String path, String tableName)
@@ -250,10 +387,9 @@ public class CacheManager
         cachedTableMapping.entrySet().stream()
                 .filter(entry -> entry.getKey().getCatalogName().equals(catalogName)
                         && entry.getKey().getSchemaTableName().getSchemaName().equals(schemaName))
-                .forEach(entry -> {
-                    entry.getValue().getTableName().ifPresent(pgMetastore::dropTableIfExists);
-                    cachedTableMapping.remove(entry.getKey());
-                });
+                .map(Map.Entry::getKey)
+                .collect(toImmutableList())
+                .forEach(cachedTableMapping::remove);
 
         tasks.keySet().stream()
                 .filter(catalogSchemaTableName -> catalogSchemaTableName.getCatalogName().equals(catalogName)
@@ -261,7 +397,49 @@ public class CacheManager
                 .forEach(tasks::remove);
     }
 
+    /**
+     * Keep the cached table of an object not affected by a redeployment. Its next refreshes use the redeployed mdl,
+     * still at the time they were scheduled.
+     */
+    public void retainCache(AnalyzedMDL analyzedMDL, CacheInfo cacheInfo)
+    {
+        WrenMDL mdl = analyzedMDL.getWrenMDL();
+        CatalogSchemaTableName catalogSchemaTableName = new CatalogSchemaTableName(mdl.getCatalog(), mdl.getSchema(), cacheInfo.getName());
+        ScheduledFuture<?> scheduledFuture = cacheScheduledFutures.get(catalogSchemaTableName);
+        if (scheduledFuture == null) {
+            return;
+        }
+        long delay = scheduledFuture.getDelay(MILLISECONDS);
+        if (delay <= 0) {
+            // the refresh is due or running, the next one of the new schedule comes a full refresh time later
+            delay = cacheInfo.getRefreshTime().toMillis();
+        }
+        // cancel(false) lets a running refresh finish but stops the schedule of the previous mdl. It fails only if
+        // the schedule already ended, e.g. a refresh failed, and then there is no schedule to carry over.
+        if (scheduledFuture.cancel(false)) {
+            cacheScheduledFutures.put(
+                    catalogSchemaTableName,
+                    refreshExecutor.scheduleWithFixedDelay(
+                            () -> createTask(analyzedMDL, cacheInfo).join(),
+                            delay,
+                            cacheInfo.getRefreshTime().toMillis(),
+                            MILLISECONDS));
+        }
+    }
+
     public void removeCacheIfExist(CatalogSchemaTableName catalogSchemaTableName)
+    {
+        cancelScheduledFutures(catalogSchemaTableName);
+
+        cachedTableMapping.remove(catalogSchemaTableName);
+
+        Task task = tasks.remove(catalogSchemaTableName);
+        if (task != null) {
+            eventLogger.logEvent(INFO, "REMOVE_TASK", "Remove cache: " + catalogSchemaTableName);
+        }
+    }
+
+    private void cancelScheduledFutures(CatalogSchemaTableName catalogSchemaTableName)
     {
         if (cacheScheduledFutures.containsKey(catalogSchemaTableName)) {
             cacheScheduledFutures.get(catalogSchemaTableName).cancel(true);
@@ -272,16 +450,6 @@ public class CacheManager
             retryScheduledFutures.get(catalogSchemaTableName).cancel(true);
             retryScheduledFutures.remove(catalogSchemaTableName);
         }
-
-        Optional.ofNullable(cachedTableMapping.get(catalogSchemaTableName)).ifPresent(cacheInfoPair -> {
-            cacheInfoPair.getTableName().ifPresent(pgMetastore::dropTableIfExists);
-            cachedTableMapping.remove(catalogSchemaTableName);
-        });
-
-        Task task = tasks.remove(catalogSchemaTableName);
-        if (task != null) {
-            eventLogger.logEvent(INFO, "REMOVE_TASK", "Remove cache: " + catalogSchemaTableName);
-        }
     }
 
     public boolean cacheScheduledFutureExists(CatalogSchemaTableName catalogSchemaTableName)
@@ -399,6 +567,46 @@ public class CacheManager
         }
     }
 
+    private static class LeasedRecordIterator
+            implements ConnectorRecordIterator
+    {
+        private final ConnectorRecordIterator delegate;
+        private final CachedTableLease lease;
+
+        private LeasedRecordIterator(ConnectorRecordIterator delegate, CachedTableLease lease)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.lease = requireNonNull(lease, "lease is null");
+        }
+
+        @Override
+        public List<Column> getColumns()
+        {
+            return delegate.getColumns();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Object[] next()
+        {
+            return delegate.next();
+        }
+
+        @Override
+        public void close()
+                throws Exception
+        {
+            try (lease) {
+                delegate.close();
+            }
+        }
+    }
+
     private class Task
     {
         private final TaskInfo taskInfo;
@@ -408,17 +616,19 @@ public class CacheManager
         {
             this.taskInfo = taskInfo;
             this.completableFuture = handleCache(analyzedMDL, cacheInfo, taskInfo)
-                    .thenRun(() -> {
+                    .thenAccept(refreshError -> {
                         CacheInfoPair cacheInfoPair = cachedTableMapping.getCacheInfoPair(
                                 taskInfo.getCatalogName(),
                                 taskInfo.getSchemaName(), taskInfo.getTableName());
+                        Optional<String> errorMessage = refreshError.or(cacheInfoPair::getErrorMessage);
                         taskInfo.setCachedTable(new CachedTable(
                                 cacheInfoPair.getCacheInfo().getName(),
-                                cacheInfoPair.getErrorMessage(),
+                                errorMessage,
                                 cacheInfoPair.getCacheInfo().getRefreshTime(),
-                                Instant.ofEpochMilli(cacheInfoPair.getCreateTime())));
+                                Instant.ofEpochMilli(cacheInfoPair.getCreateTime()),
+                                cacheInfoPair.getWatermark().map(Watermark::toString)));
                         taskInfo.setTaskStatus(DONE);
-                        if (cacheInfoPair.getErrorMessage().isPresent()) {
+                        if (errorMessage.isPresent()) {
                             eventLogger.logEvent(ERROR, "CREATE_TASK", taskInfo);
                         }
                         else {
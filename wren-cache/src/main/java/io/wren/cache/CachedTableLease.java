@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.cache;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps the leased cached tables from being dropped until it is closed.
+ */
+public final class CachedTableLease
+        implements AutoCloseable
+{
+    private final Runnable release;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    CachedTableLease(Runnable release)
+    {
+        this.release = requireNonNull(release, "release is null");
+    }
+
+    @Override
+    public void close()
+    {
+        // record iterators could be closed more than once
+        if (closed.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+}
@@ -15,6 +15,7 @@ package io.wren.cache;
 
 import io.wren.base.CatalogSchemaTableName;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,4 +36,12 @@ public interface CachedTableMapping
     Set<Map.Entry<CatalogSchemaTableName, CacheInfoPair>> entrySet();
 
     List<CacheInfoPair> getCacheInfoPairs(String catalogName, String schemaName);
+
+    /**
+     * Lease the cached tables read by a query, so they are not dropped while the query is running,
+     * even if a refresh replaces them in the meantime.
+     *
+     * @return empty if any of the tables is no longer mapped
+     */
+    Optional<CachedTableLease> lease(Collection<String> tableNames);
 }
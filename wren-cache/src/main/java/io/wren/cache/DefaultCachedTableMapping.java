@@ -13,11 +13,15 @@
  */
 package io.wren.cache;
 
+import com.google.common.collect.ImmutableList;
 import io.wren.base.CatalogSchemaTableName;
 import io.wren.base.wireprotocol.PgMetastore;
 
 import javax.inject.Inject;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +30,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.util.Objects.requireNonNull;
 
 public class DefaultCachedTableMapping
@@ -33,6 +38,10 @@ public class DefaultCachedTableMapping
 {
     private final PgMetastore pgMetastore;
     private final ConcurrentMap<CatalogSchemaTableName, CacheInfoPair> cachedTableMapping = new ConcurrentHashMap<>();
+    // the tables below are guarded by cachedTableMapping
+    private final Map<String, Integer> leaseCounts = new HashMap<>();
+    // the replaced tables waiting for their leases to be closed before being dropped
+    private final Set<String> retiredTables = new HashSet<>();
 
     @Inject
     public DefaultCachedTableMapping(PgMetastore pgMetastore)
@@ -46,11 +55,20 @@ public class DefaultCachedTableMapping
         synchronized (cachedTableMapping) {
             if (cachedTableMapping.containsKey(catalogSchemaTableName)) {
                 CacheInfoPair existedCacheInfoPair = cachedTableMapping.get(catalogSchemaTableName);
+                // an incremental refresh keeps appending to the same table
+                boolean sameTable = existedCacheInfoPair.getTableName().isPresent() && existedCacheInfoPair.getTableName().equals(cacheInfoPair.getTableName());
                 if (existedCacheInfoPair.getCreateTime() > cacheInfoPair.getCreateTime()) {
-                    cacheInfoPair.getTableName().ifPresent(pgMetastore::dropTableIfExists);
+                    if (!sameTable) {
+                        cacheInfoPair.getTableName().ifPresent(this::retire);
+                    }
                     return;
                 }
-                existedCacheInfoPair.getTableName().ifPresent(pgMetastore::dropTableIfExists);
+                // swap in the new table first, so no query could lease the replaced one after it is retired
+                cachedTableMapping.put(catalogSchemaTableName, cacheInfoPair);
+                if (!sameTable) {
+                    existedCacheInfoPair.getTableName().ifPresent(this::retire);
+                }
+                return;
             }
             cachedTableMapping.put(catalogSchemaTableName, cacheInfoPair);
         }
@@ -65,7 +83,11 @@ public class DefaultCachedTableMapping
     @Override
     public void remove(CatalogSchemaTableName cachedTable)
     {
-        cachedTableMapping.remove(cachedTable);
+        synchronized (cachedTableMapping) {
+            Optional.ofNullable(cachedTableMapping.remove(cachedTable))
+                    .flatMap(CacheInfoPair::getTableName)
+                    .ifPresent(this::retire);
+        }
     }
 
     @Override
@@ -100,4 +122,51 @@ public class DefaultCachedTableMapping
                 .map(Map.Entry::getValue)
                 .collect(toImmutableList());
     }
+
+    @Override
+    public Optional<CachedTableLease> lease(Collection<String> tableNames)
+    {
+        List<String> leased = ImmutableList.copyOf(tableNames);
+        synchronized (cachedTableMapping) {
+            Set<String> mappedTables = cachedTableMapping.values().stream()
+                    .map(CacheInfoPair::getTableName)
+                    .flatMap(Optional::stream)
+                    .collect(toImmutableSet());
+            if (!mappedTables.containsAll(leased)) {
+                return Optional.empty();
+            }
+            leased.forEach(tableName -> leaseCounts.merge(tableName, 1, Integer::sum));
+        }
+        return Optional.of(new CachedTableLease(() -> release(leased)));
+    }
+
+    private void release(List<String> tableNames)
+    {
+        synchronized (cachedTableMapping) {
+            for (String tableName : tableNames) {
+                int count = leaseCounts.get(tableName) - 1;
+                if (count > 0) {
+                    leaseCounts.put(tableName, count);
+                    continue;
+                }
+                leaseCounts.remove(tableName);
+                if (retiredTables.remove(tableName)) {
+                    pgMetastore.dropTableIfExists(tableName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop a table no longer mapped, or defer it until the queries still reading it are done.
+     */
+    private void retire(String tableName)
+    {
+        if (leaseCounts.containsKey(tableName)) {
+            retiredTables.add(tableName);
+        }
+        else {
+            pgMetastore.dropTableIfExists(tableName);
+        }
+    }
 }
@@ -13,13 +13,13 @@
  */
 package io.wren.cache;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.wren.base.Column;
 import io.wren.base.ConnectorRecordIterator;
 import io.wren.base.Parameter;
 import io.wren.base.client.AutoCloseableIterator;
 import io.wren.base.client.Client;
-import io.wren.base.client.jdbc.JdbcRecordIterator;
 import io.wren.base.type.ByteaType;
 import io.wren.base.type.JsonType;
 import io.wren.base.type.PGArray;
@@ -28,45 +28,88 @@ import io.wren.base.type.TimestampType;
 import org.duckdb.DuckDBArray;
 import org.duckdb.DuckDBResultSet;
 
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
-import java.util.Arrays;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.NoSuchElementException;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.wren.base.client.duckdb.DuckdbTypes.toPGType;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
 
+/**
+ * Reads a DuckDB result into the values of the wire protocol. A result of the types {@link ArrowRecordReader}
+ * supports is read in Arrow record batches, converted column by column. The others are read through JDBC,
+ * where how to read and convert each column is resolved once from the result metadata, so a row is read
+ * without checking the type of every value.
+ */
 public class DuckdbRecordIterator
         implements ConnectorRecordIterator
 {
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
     private final List<Column> columns;
-    private final AutoCloseableIterator<Object[]> recordIterator;
+    private final AutoCloseableIterator<Object[]> records;
 
     public static DuckdbRecordIterator of(Client client, String sql, List<Parameter> parameters)
             throws SQLException
     {
-        return new DuckdbRecordIterator(client, sql, parameters);
+        return of(client, sql, parameters, true);
     }
 
-    private DuckdbRecordIterator(Client client, String sql, List<Parameter> parameters)
+    @VisibleForTesting
+    static DuckdbRecordIterator of(Client client, String sql, List<Parameter> parameters, boolean readArrow)
             throws SQLException
     {
         requireNonNull(client, "client is null");
         requireNonNull(sql, "sql is null");
         requireNonNull(parameters, "parameters is null");
-        JdbcRecordIterator jdbcRecordIterator = JdbcRecordIterator.of(client, sql, parameters);
-        this.recordIterator = jdbcRecordIterator;
+        return new DuckdbRecordIterator(client, sql, parameters, readArrow);
+    }
 
-        ResultSetMetaData resultSetMetaData = jdbcRecordIterator.getResultSetMetaData();
-        ImmutableList.Builder<Column> columnBuilder = ImmutableList.builder();
-        for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
-            PGType<?> pgType = toPGType(resultSetMetaData, i);
-            columnBuilder.add(new Column(resultSetMetaData.getColumnName(i), pgType));
+    private DuckdbRecordIterator(Client client, String sql, List<Parameter> parameters, boolean readArrow)
+            throws SQLException
+    {
+        Connection connection = client.createConnection();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(sql);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i).getValue());
+            }
+            resultSet = statement.executeQuery();
+            ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+            int columnCount = resultSetMetaData.getColumnCount();
+            ImmutableList.Builder<Column> columnBuilder = ImmutableList.builder();
+            ColumnReader[] columnReaders = new ColumnReader[columnCount];
+            for (int i = 1; i <= columnCount; i++) {
+                PGType<?> pgType = toPGType(resultSetMetaData, i);
+                columnBuilder.add(new Column(resultSetMetaData.getColumnName(i), pgType));
+                columnReaders[i - 1] = columnReader(resultSetMetaData.getColumnType(i), pgType);
+            }
+            this.columns = columnBuilder.build();
+            // the arrow export takes over the result, so which way it is read is decided before any row is
+            this.records = readArrow && ArrowRecordReader.isSupported(resultSetMetaData)
+                    ? new ArrowRecordReader(resultSet.unwrap(DuckDBResultSet.class))
+                    : new JdbcRecordReader(resultSet, columnReaders);
         }
-        this.columns = columnBuilder.build();
+        catch (SQLException | RuntimeException e) {
+            closeQuietly(connection, statement, resultSet, null);
+            throw e;
+        }
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
     }
 
     @Override
@@ -75,53 +118,181 @@ public class DuckdbRecordIterator
         return columns;
     }
 
-    @Override
-    public void close()
-            throws Exception
-    {
-        recordIterator.close();
-    }
-
     @Override
     public boolean hasNext()
     {
-        return recordIterator.hasNext();
+        return records.hasNext();
     }
 
     @Override
     public Object[] next()
     {
-        Object[] record = recordIterator.next();
-        return IntStream.range(0, record.length)
-                .mapToObj(index -> convertValue(columns.get(index).getType(), record[index]))
-                .toArray();
+        return records.next();
     }
 
-    private Object convertValue(PGType<?> pgType, Object value)
+    @Override
+    public void close()
     {
+        boolean finished = true;
         try {
-            if (pgType instanceof TimestampType) {
-                return ((Timestamp) value).toLocalDateTime();
+            finished = !records.hasNext();
+        }
+        catch (RuntimeException ignored) {
+        }
+        try {
+            // Trying to cancel running statement as close() may not do it
+            statement.cancel();
+        }
+        catch (SQLException ignored) {
+            // statement already closed or cancel is not supported
+        }
+        if (!finished) {
+            // the result closed before it is fully read is not left running on the connection
+            try {
+                connection.abort(directExecutor());
+            }
+            catch (SQLException ignored) {
             }
-            if (pgType instanceof ByteaType) {
+        }
+        closeQuietly(connection, statement, resultSet, records);
+    }
+
+    private static void closeQuietly(Connection connection, Statement statement, ResultSet resultSet, AutoCloseable records)
+    {
+        // use try with resources to close everything properly, the records before the result they are read from
+        try (connection; statement; resultSet; records) {
+            // only closes
+        }
+        catch (Exception ignored) {
+            // ignore exception from close
+        }
+    }
+
+    private static ColumnReader columnReader(int jdbcType, PGType<?> pgType)
+    {
+        if (jdbcType == Types.BLOB) {
+            return (resultSet, index) -> {
+                Blob blob = resultSet.getBlob(index);
+                return blob == null ? null : blob.getBytes(0, (int) blob.length());
+            };
+        }
+        if (jdbcType == Types.SMALLINT) {
+            return (resultSet, index) -> {
+                short value = resultSet.getShort(index);
+                return resultSet.wasNull() ? null : value;
+            };
+        }
+        ValueConverter converter = valueConverter(pgType);
+        if (converter == null) {
+            return ResultSet::getObject;
+        }
+        return (resultSet, index) -> convert(converter, resultSet.getObject(index));
+    }
+
+    /**
+     * @return null if the JDBC value is already the value of the wire protocol
+     */
+    private static ValueConverter valueConverter(PGType<?> pgType)
+    {
+        if (pgType instanceof TimestampType) {
+            return value -> ((Timestamp) value).toLocalDateTime();
+        }
+        if (pgType instanceof ByteaType) {
+            return value -> {
                 if (value instanceof DuckDBResultSet.DuckDBBlobResult) {
                     DuckDBResultSet.DuckDBBlobResult blob = (DuckDBResultSet.DuckDBBlobResult) value;
                     return blob.getBytes(0, (int) blob.length());
                 }
+                return value;
+            };
+        }
+        if (pgType instanceof JsonType) {
+            return Object::toString;
+        }
+        if (pgType instanceof PGArray) {
+            ValueConverter innerConverter = valueConverter(((PGArray) pgType).getInnerType());
+            return value -> {
+                Object[] elements = (Object[]) ((DuckDBArray) value).getArray();
+                List<Object> converted = new ArrayList<>(elements.length);
+                for (Object element : elements) {
+                    converted.add(innerConverter == null ? element : convert(innerConverter, element));
+                }
+                return converted;
+            };
+        }
+        return null;
+    }
+
+    private static Object convert(ValueConverter converter, Object value)
+    {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return converter.convert(value);
+        }
+        catch (SQLException | RuntimeException e) {
+            throw new IllegalArgumentException("Unsupported value: " + value, e);
+        }
+    }
+
+    private static final class JdbcRecordReader
+            implements AutoCloseableIterator<Object[]>
+    {
+        private final ResultSet resultSet;
+        private final ColumnReader[] columnReaders;
+        private boolean hasNext;
+
+        private JdbcRecordReader(ResultSet resultSet, ColumnReader[] columnReaders)
+                throws SQLException
+        {
+            this.resultSet = resultSet;
+            this.columnReaders = columnReaders;
+            this.hasNext = resultSet.next();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return hasNext;
+        }
+
+        @Override
+        public Object[] next()
+        {
+            if (!hasNext) {
+                throw new NoSuchElementException();
             }
-            if (pgType instanceof JsonType) {
-                return value.toString();
+            try {
+                Object[] record = new Object[columnReaders.length];
+                for (int i = 0; i < columnReaders.length; i++) {
+                    record[i] = columnReaders[i].read(resultSet, i + 1);
+                }
+                // move to next row
+                hasNext = resultSet.next();
+                return record;
             }
-            if (pgType instanceof PGArray) {
-                DuckDBArray duckDBArray = (DuckDBArray) value;
-                return Arrays.stream((Object[]) (duckDBArray).getArray())
-                        .map(innerVal -> convertValue(((PGArray) pgType).getInnerType(), innerVal))
-                        .collect(toList());
+            catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-            return value;
         }
-        catch (Exception e) {
-            throw new IllegalArgumentException("Unsupported value: " + value, e);
+
+        @Override
+        public void close()
+        {
+            // the result is closed with the statement
         }
     }
+
+    private interface ColumnReader
+    {
+        Object read(ResultSet resultSet, int index)
+                throws SQLException;
+    }
+
+    private interface ValueConverter
+    {
+        Object convert(Object value)
+                throws SQLException;
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.cache;
+
+import io.airlift.units.Duration;
+import io.wren.base.WrenException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import static io.wren.base.metadata.StandardErrorCode.GENERIC_USER_ERROR;
+import static java.lang.String.format;
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * The greatest watermark column value loaded into an incrementally refreshed cache.
+ */
+public final class Watermark
+{
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSS");
+    private static final DateTimeFormatter TIMESTAMP_WITH_TIME_ZONE_FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSSxxx");
+    private static final long MILLIS_PER_DAY = DAYS.toMillis(1);
+
+    private final Object value;
+
+    /**
+     * @return empty if there is no watermark yet, i.e. the cached table has no rows.
+     */
+    public static Optional<Watermark> of(Object value)
+    {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof java.sql.Date) {
+            return Optional.of(new Watermark(((java.sql.Date) value).toLocalDate()));
+        }
+        if (value instanceof Timestamp) {
+            return Optional.of(new Watermark(((Timestamp) value).toLocalDateTime()));
+        }
+        if (value instanceof ZonedDateTime) {
+            return Optional.of(new Watermark(((ZonedDateTime) value).toOffsetDateTime()));
+        }
+        if (value instanceof LocalDate || value instanceof LocalDateTime || value instanceof OffsetDateTime
+                || value instanceof Number || value instanceof String) {
+            return Optional.of(new Watermark(value));
+        }
+        throw new WrenException(GENERIC_USER_ERROR, format("Unsupported watermark value %s of type %s", value, value.getClass().getSimpleName()));
+    }
+
+    private Watermark(Object value)
+    {
+        this.value = requireNonNull(value, "value is null");
+    }
+
+    /**
+     * The exclusive lower bound of the rows fetched by the next refresh, as a sql literal.
+     * Dates move back by the lookback rounded up to whole days.
+     */
+    public String toLowerBoundLiteral(Duration lookback)
+    {
+        long lookbackMillis = lookback.toMillis();
+        if (value instanceof LocalDateTime) {
+            return format("TIMESTAMP '%s'", TIMESTAMP_FORMATTER.format(((LocalDateTime) value).minus(lookbackMillis, MILLIS)));
+        }
+        if (value instanceof OffsetDateTime) {
+            OffsetDateTime lowerBound = ((OffsetDateTime) value).withOffsetSameInstant(UTC).minus(lookbackMillis, MILLIS);
+            return format("TIMESTAMP '%s'", TIMESTAMP_WITH_TIME_ZONE_FORMATTER.format(lowerBound));
+        }
+        if (value instanceof LocalDate) {
+            long lookbackDays = (lookbackMillis + MILLIS_PER_DAY - 1) / MILLIS_PER_DAY;
+            return format("DATE '%s'", ((LocalDate) value).minusDays(lookbackDays));
+        }
+        if (lookbackMillis > 0) {
+            throw new WrenException(GENERIC_USER_ERROR, "lookback is only supported on date and timestamp watermark columns");
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        return format("'%s'", value.toString().replace("'", "''"));
+    }
+
+    @Override
+    public String toString()
+    {
+        return value.toString();
+    }
+}
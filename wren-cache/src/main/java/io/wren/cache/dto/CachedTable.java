@@ -30,18 +30,21 @@ public class CachedTable
     private final Optional<String> errorMessage;
     private final Duration refreshTime;
     private final Instant createDate;
+    private final Optional<String> watermark;
 
     @JsonCreator
     public CachedTable(
             @JsonProperty("name") String name,
             @JsonProperty("errorMessage") Optional<String> errorMessage,
             @JsonProperty("refreshTime") Duration refreshTime,
-            @JsonProperty("createDate") Instant createDate)
+            @JsonProperty("createDate") Instant createDate,
+            @JsonProperty("watermark") Optional<String> watermark)
     {
         this.name = requireNonNull(name, "name is null");
         this.errorMessage = requireNonNull(errorMessage, "errorMessage is null");
         this.refreshTime = requireNonNull(refreshTime, "refreshTime is null");
         this.createDate = requireNonNull(createDate, "createDate is null");
+        this.watermark = requireNonNull(watermark, "watermark is null");
     }
 
     @JsonProperty
@@ -67,4 +70,10 @@ public class CachedTable
     {
         return createDate;
     }
+
+    @JsonProperty
+    public Optional<String> getWatermark()
+    {
+        return watermark;
+    }
 }
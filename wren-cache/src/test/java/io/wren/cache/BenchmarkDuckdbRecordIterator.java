@@ -0,0 +1,228 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.wren.base.Column;
+import io.wren.base.ConnectorRecordIterator;
+import io.wren.base.client.AutoCloseableIterator;
+import io.wren.base.client.duckdb.DuckDBConfig;
+import io.wren.base.client.duckdb.DuckdbClient;
+import io.wren.base.client.jdbc.JdbcRecordIterator;
+import io.wren.base.type.ByteaType;
+import io.wren.base.type.JsonType;
+import io.wren.base.type.PGArray;
+import io.wren.base.type.PGType;
+import io.wren.base.type.TimestampType;
+import org.duckdb.DuckDBArray;
+import org.duckdb.DuckDBResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static io.wren.base.client.duckdb.DuckdbTypes.toPGType;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares reading a DuckDB result by checking the type of every value, as it used to be done,
+ * against {@link DuckdbRecordIterator} reading it through JDBC and in Arrow record batches,
+ * over a table shaped like TPC-H lineitem at scale factor 1.
+ * Run main() to see rows/sec and, from the gc profiler, the allocation rate.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkDuckdbRecordIterator
+{
+    private static final int ROWS = 6_000_000;
+    private static final String QUERY = "SELECT * FROM lineitem";
+
+    @Param({"PER_VALUE", "JDBC", "ARROW"})
+    private String reader = "ARROW";
+
+    private DuckdbClient client;
+
+    @Setup
+    public void setup()
+    {
+        setup(ROWS);
+    }
+
+    private void setup(int rows)
+    {
+        client = DuckdbClient.builder()
+                .setDuckDBConfig(new DuckDBConfig())
+                .build();
+        client.executeDDL(format("CREATE TABLE lineitem AS SELECT " +
+                "i AS l_orderkey, " +
+                "i %% 200000 AS l_partkey, " +
+                "CAST(i %% 50 + 1 AS DECIMAL(15, 2)) AS l_quantity, " +
+                "CAST(i * 1.7 AS DECIMAL(15, 2)) AS l_extendedprice, " +
+                "CAST(i %% 11 AS SMALLINT) AS l_linenumber, " +
+                "CASE WHEN i %% 3 = 0 THEN 'R' ELSE 'N' END AS l_returnflag, " +
+                "DATE '1992-01-01' + CAST(i %% 2500 AS INTEGER) AS l_shipdate, " +
+                "TIMESTAMP '1992-01-01 00:00:00' + to_seconds(i) AS l_shiptime, " +
+                "'comment of line ' || i AS l_comment " +
+                "FROM range(%s) t(i)", rows));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        client.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void readRows(Blackhole blackhole)
+            throws Exception
+    {
+        readRows(client, reader, blackhole::consume);
+    }
+
+    private static void readRows(DuckdbClient client, String reader, Consumer<Object[]> consumer)
+            throws Exception
+    {
+        switch (reader) {
+            case "PER_VALUE":
+                try (JdbcRecordIterator iterator = JdbcRecordIterator.of(client, QUERY)) {
+                    ImmutableList.Builder<Column> columns = ImmutableList.builder();
+                    for (int i = 1; i <= iterator.getResultSetMetaData().getColumnCount(); i++) {
+                        columns.add(new Column(iterator.getResultSetMetaData().getColumnName(i), toPGType(iterator.getResultSetMetaData(), i)));
+                    }
+                    readPerValue(columns.build(), iterator, consumer);
+                }
+                break;
+            case "JDBC":
+                try (ConnectorRecordIterator iterator = DuckdbRecordIterator.of(client, QUERY, List.of(), false)) {
+                    iterator.forEachRemaining(consumer);
+                }
+                break;
+            case "ARROW":
+                try (ConnectorRecordIterator iterator = DuckdbRecordIterator.of(client, QUERY, List.of(), true)) {
+                    iterator.forEachRemaining(consumer);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown reader: " + reader);
+        }
+    }
+
+    /**
+     * The conversion used before the column readers of DuckdbRecordIterator
+     */
+    private static void readPerValue(List<Column> columns, AutoCloseableIterator<Object[]> iterator, Consumer<Object[]> consumer)
+    {
+        while (iterator.hasNext()) {
+            Object[] record = iterator.next();
+            consumer.accept(IntStream.range(0, record.length)
+                    .mapToObj(index -> convertValue(columns.get(index).getType(), record[index]))
+                    .toArray());
+        }
+    }
+
+    private static Object convertValue(PGType<?> pgType, Object value)
+    {
+        try {
+            if (pgType instanceof TimestampType) {
+                return ((Timestamp) value).toLocalDateTime();
+            }
+            if (pgType instanceof ByteaType) {
+                if (value instanceof DuckDBResultSet.DuckDBBlobResult) {
+                    DuckDBResultSet.DuckDBBlobResult blob = (DuckDBResultSet.DuckDBBlobResult) value;
+                    return blob.getBytes(0, (int) blob.length());
+                }
+            }
+            if (pgType instanceof JsonType) {
+                return value.toString();
+            }
+            if (pgType instanceof PGArray) {
+                DuckDBArray duckDBArray = (DuckDBArray) value;
+                return Arrays.stream((Object[]) (duckDBArray).getArray())
+                        .map(innerVal -> convertValue(((PGArray) pgType).getInnerType(), innerVal))
+                        .collect(toList());
+            }
+            return value;
+        }
+        catch (Exception e) {
+            throw new IllegalArgumentException("Unsupported value: " + value, e);
+        }
+    }
+
+    @Test
+    public void testSameOutput()
+            throws Exception
+    {
+        BenchmarkDuckdbRecordIterator benchmark = new BenchmarkDuckdbRecordIterator();
+        benchmark.setup(10_000);
+        try {
+            List<Object[]> expected = read(benchmark.client, "PER_VALUE");
+            assertThat(read(benchmark.client, "JDBC")).containsExactlyElementsOf(expected);
+            assertThat(read(benchmark.client, "ARROW")).containsExactlyElementsOf(expected);
+        }
+        finally {
+            benchmark.tearDown();
+        }
+    }
+
+    private static List<Object[]> read(DuckdbClient client, String reader)
+            throws Exception
+    {
+        ImmutableList.Builder<Object[]> rows = ImmutableList.builder();
+        readRows(client, reader, rows::add);
+        List<Object[]> result = rows.build();
+        assertThat(result).hasSize(10_000);
+        return result;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkDuckdbRecordIterator.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("--add-opens=java.base/java.nio=ALL-UNNAMED")
+                .build();
+        new Runner(options).run();
+    }
+}
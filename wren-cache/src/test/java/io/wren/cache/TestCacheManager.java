@@ -0,0 +1,315 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.ConnectorRecordIterator;
+import io.wren.base.WrenException;
+import io.wren.base.WrenMDL;
+import io.wren.base.client.duckdb.CacheStorageConfig;
+import io.wren.base.client.duckdb.DuckDBConfig;
+import io.wren.base.client.duckdb.DuckDBConnectorConfig;
+import io.wren.base.client.duckdb.DuckdbS3StyleStorageConfig;
+import io.wren.base.config.BigQueryConfig;
+import io.wren.base.config.ConfigManager;
+import io.wren.base.config.PostgresConfig;
+import io.wren.base.config.PostgresWireProtocolConfig;
+import io.wren.base.config.WrenConfig;
+import io.wren.base.dto.Manifest;
+import io.wren.base.dto.Model;
+import io.wren.base.wireprotocol.PgMetastore;
+import io.wren.cache.dto.CachedTable;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.wren.base.CatalogSchemaTableName.catalogSchemaTableName;
+import static io.wren.base.WrenTypes.BIGINT;
+import static io.wren.base.WrenTypes.TIMESTAMP;
+import static io.wren.base.WrenTypes.VARCHAR;
+import static io.wren.base.dto.Column.column;
+import static io.wren.base.dto.IncrementalRefresh.incrementalRefresh;
+import static io.wren.base.metadata.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.lang.String.format;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(singleThreaded = true)
+public class TestCacheManager
+{
+    private static final String CATALOG = "wren";
+    private static final String SCHEMA = "test";
+
+    private TestingPgMetastore pgMetastore;
+    private TestingCacheService cacheService;
+    private CachedTableMapping cachedTableMapping;
+    private CacheTaskManager cacheTaskManager;
+    private CacheManager cacheManager;
+
+    @BeforeClass
+    public void setup()
+            throws IOException
+    {
+        Path config = Files.createTempDirectory("mock").resolve("config.properties");
+        Files.writeString(config, "node.environment=test");
+        System.setProperty("config", config.toString());
+
+        DuckDBConfig duckDBConfig = new DuckDBConfig();
+        pgMetastore = new TestingPgMetastore(duckDBConfig);
+        cacheService = new TestingCacheService(pgMetastore, Files.createTempDirectory("cache"));
+        cachedTableMapping = new DefaultCachedTableMapping(pgMetastore);
+        cacheTaskManager = new CacheTaskManager(duckDBConfig, pgMetastore);
+        cacheManager = new CacheManager(
+                (sql, sessionContext) -> sql,
+                cacheService,
+                new NoOpExtraRewriter(),
+                pgMetastore,
+                cachedTableMapping,
+                new NoOpEventLogger(),
+                cacheTaskManager,
+                new TestingConfigManager(duckDBConfig));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void close()
+            throws IOException
+    {
+        cacheManager.stop();
+        cacheTaskManager.close();
+    }
+
+    @Test
+    public void testFailedRefreshKeepsCachedTable()
+            throws Exception
+    {
+        pgMetastore.directDDL("CREATE TABLE refreshed_source AS SELECT range AS id FROM range(10)");
+        AnalyzedMDL mdl = analyzedMDL(new Model(
+                "Refreshed",
+                "SELECT * FROM refreshed_source",
+                null,
+                null,
+                List.of(column("id", BIGINT, null, false)),
+                null,
+                true,
+                new Duration(1, HOURS),
+                null,
+                null));
+        CatalogSchemaTableName name = catalogSchemaTableName(CATALOG, SCHEMA, "Refreshed");
+
+        CachedTable cached = refresh(mdl, name);
+        assertThat(cached.getErrorMessage()).isEmpty();
+        String tableName = cachedTableMapping.get(name).getRequiredTableName();
+        assertThat(query("SELECT count(*) FROM \"%s\"", tableName)).containsExactly(List.of(10L));
+
+        pgMetastore.directDDL("INSERT INTO refreshed_source SELECT range AS id FROM range(10, 20)");
+        cacheService.failNextCache();
+        CachedTable failed = refresh(mdl, name);
+        assertThat(failed.getErrorMessage()).hasValueSatisfying(message -> assertThat(message).contains("source is unavailable"));
+        // the previous table keeps serving queries and is refreshed again later
+        CacheInfoPair pair = cachedTableMapping.get(name);
+        assertThat(pair.getRequiredTableName()).isEqualTo(tableName);
+        assertThat(pair.getErrorMessage()).isEmpty();
+        assertThat(query("SELECT count(*) FROM \"%s\"", tableName)).containsExactly(List.of(10L));
+        assertThat(cacheManager.cacheScheduledFutureExists(name)).isTrue();
+
+        assertThat(refresh(mdl, name).getErrorMessage()).isEmpty();
+        String refreshedTableName = cachedTableMapping.get(name).getRequiredTableName();
+        assertThat(refreshedTableName).isNotEqualTo(tableName);
+        assertThat(query("SELECT count(*) FROM \"%s\"", refreshedTableName)).containsExactly(List.of(20L));
+
+        cacheManager.removeCacheIfExist(name);
+    }
+
+    @Test
+    public void testIncrementalRefresh()
+            throws Exception
+    {
+        pgMetastore.directDDL("CREATE TABLE events_source (id BIGINT, value VARCHAR, updated_at TIMESTAMP)");
+        pgMetastore.directDDL("INSERT INTO events_source VALUES " +
+                "(1, 'a', TIMESTAMP '2024-03-10 00:00:00'), " +
+                "(2, 'b', TIMESTAMP '2024-03-10 01:00:00'), " +
+                "(3, 'c', TIMESTAMP '2024-03-10 02:00:00')");
+        AnalyzedMDL mdl = analyzedMDL(new Model(
+                "Events",
+                "SELECT * FROM events_source",
+                null,
+                null,
+                List.of(column("id", BIGINT, null, false), column("value", VARCHAR, null, false), column("updated_at", TIMESTAMP, null, false)),
+                null,
+                true,
+                new Duration(1, HOURS),
+                incrementalRefresh("updated_at", new Duration(1, HOURS)),
+                null));
+        CatalogSchemaTableName name = catalogSchemaTableName(CATALOG, SCHEMA, "Events");
+
+        CachedTable cached = refresh(mdl, name);
+        assertThat(cached.getErrorMessage()).isEmpty();
+        assertThat(cached.getWatermark()).hasValue("2024-03-10T02:00");
+        String tableName = cachedTableMapping.get(name).getRequiredTableName();
+
+        // row 1 is older than the lookback window so its change isn't fetched, row 3 is within it and replaced
+        pgMetastore.directDDL("UPDATE events_source SET value = 'a2' WHERE id = 1");
+        pgMetastore.directDDL("UPDATE events_source SET value = 'c2' WHERE id = 3");
+        pgMetastore.directDDL("INSERT INTO events_source VALUES (4, 'd', TIMESTAMP '2024-03-10 03:00:00')");
+        CachedTable refreshed = refresh(mdl, name);
+        assertThat(refreshed.getErrorMessage()).isEmpty();
+        assertThat(refreshed.getWatermark()).hasValue("2024-03-10T03:00");
+        assertThat(cachedTableMapping.get(name).getRequiredTableName()).isEqualTo(tableName);
+        assertThat(query("SELECT id, value FROM \"%s\" ORDER BY id", tableName)).containsExactly(
+                List.of(1L, "a"),
+                List.of(2L, "b"),
+                List.of(3L, "c2"),
+                List.of(4L, "d"));
+
+        // no new rows leaves the watermark where it was
+        CachedTable unchanged = refresh(mdl, name);
+        assertThat(unchanged.getWatermark()).hasValue("2024-03-10T03:00");
+        assertThat(query("SELECT count(*) FROM \"%s\"", tableName)).containsExactly(List.of(4L));
+
+        cacheManager.removeCacheIfExist(name);
+    }
+
+    private CachedTable refresh(AnalyzedMDL mdl, CatalogSchemaTableName name)
+    {
+        cacheManager.createTask(mdl, mdl.getWrenMDL().getModel(name.getSchemaTableName().getTableName()).orElseThrow()).join();
+        cacheManager.untilTaskDone(name);
+        return cacheManager.getTaskInfo(name).join().orElseThrow().getCachedTable();
+    }
+
+    private List<List<Object>> query(String sql, String tableName)
+            throws Exception
+    {
+        Optional<ConnectorRecordIterator> result = cacheManager.query(format(sql, tableName), List.of(tableName), List.of());
+        assertThat(result).isPresent();
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        try (ConnectorRecordIterator iterator = result.get()) {
+            while (iterator.hasNext()) {
+                rows.add(List.of(iterator.next()));
+            }
+        }
+        return rows.build();
+    }
+
+    private static AnalyzedMDL analyzedMDL(Model model)
+    {
+        return new AnalyzedMDL(
+                WrenMDL.fromManifest(Manifest.builder()
+                        .setCatalog(CATALOG)
+                        .setSchema(SCHEMA)
+                        .setModels(List.of(model))
+                        .build()),
+                null);
+    }
+
+    /**
+     * Exports the result of the statement run in DuckDB to a local parquet file.
+     */
+    private static class TestingCacheService
+            implements CacheService
+    {
+        private final PgMetastore pgMetastore;
+        private final Path directory;
+        private final AtomicBoolean failNextCache = new AtomicBoolean();
+
+        private TestingCacheService(PgMetastore pgMetastore, Path directory)
+        {
+            this.pgMetastore = pgMetastore;
+            this.directory = directory;
+        }
+
+        public void failNextCache()
+        {
+            failNextCache.set(true);
+        }
+
+        @Override
+        public Optional<PathInfo> createCache(String catalog, String schema, String name, String statement)
+        {
+            if (failNextCache.getAndSet(false)) {
+                throw new WrenException(GENERIC_INTERNAL_ERROR, "source is unavailable");
+            }
+            Path target = directory.resolve(randomUUID().toString());
+            try {
+                Files.createDirectories(target);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pgMetastore.directDDL(format("COPY (%s) TO '%s' (FORMAT PARQUET)", statement, target.resolve("data.parquet")));
+            return Optional.of(PathInfo.of(target.toString(), "*.parquet"));
+        }
+
+        @Override
+        public void deleteTarget(PathInfo pathInfo)
+        {
+            try {
+                deleteRecursively(Path.of(pathInfo.getPath()), ALLOW_INSECURE);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class TestingConfigManager
+            extends ConfigManager
+    {
+        private TestingConfigManager(DuckDBConfig duckDBConfig)
+        {
+            super(new WrenConfig(),
+                    new PostgresConfig(),
+                    new BigQueryConfig(),
+                    duckDBConfig,
+                    new PostgresWireProtocolConfig(),
+                    new DuckdbS3StyleStorageConfig(),
+                    new DuckDBConnectorConfig());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getConfig(Class<T> config)
+        {
+            if (config == CacheStorageConfig.class) {
+                return (T) (CacheStorageConfig) (path, tableName) -> format(
+                        "BEGIN TRANSACTION;\nCREATE TABLE \"%s\" AS SELECT * FROM read_parquet('%s');\nCOMMIT;\n", tableName, path);
+            }
+            return super.getConfig(config);
+        }
+    }
+
+    private static class NoOpEventLogger
+            implements EventLogger
+    {
+        @Override
+        public void logEvent(Level level, String eventName, TaskInfo event) {}
+
+        @Override
+        public void logEvent(Level level, String eventName, String description) {}
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.wren.base.Column;
+import io.wren.base.ConnectorRecordIterator;
+import io.wren.base.client.duckdb.DuckDBConfig;
+import io.wren.base.client.duckdb.DuckdbClient;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class TestDuckdbRecordIterator
+{
+    private DuckdbClient client;
+
+    @BeforeClass
+    public void setup()
+    {
+        client = DuckdbClient.builder()
+                .setDuckDBConfig(new DuckDBConfig())
+                .build();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        client.close();
+    }
+
+    @Test
+    public void testSupportedTypes()
+            throws Exception
+    {
+        String sql = "SELECT * FROM (VALUES " +
+                "(true, CAST(1 AS TINYINT), CAST(2 AS SMALLINT), 3, CAST(4 AS BIGINT), CAST(1.5 AS REAL), CAST(2.5 AS DOUBLE), " +
+                "CAST(12.34 AS DECIMAL(4, 2)), CAST(123456789012345678901234.5 AS DECIMAL(38, 1)), 'wren 鷦鷯', '\\xAA\\xBB'::BLOB, " +
+                "DATE '1969-12-31', TIMESTAMP '1969-12-31 23:59:59.123456'), " +
+                "(NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL), " +
+                "(false, CAST(-1 AS TINYINT), CAST(-2 AS SMALLINT), -3, CAST(-4 AS BIGINT), CAST(-1.5 AS REAL), CAST(-2.5 AS DOUBLE), " +
+                "CAST(-12.34 AS DECIMAL(4, 2)), CAST(-1.5 AS DECIMAL(38, 1)), '', ''::BLOB, " +
+                "DATE 'infinity', TIMESTAMP '2024-03-10 03:00:00')) " +
+                "t(c_boolean, c_tinyint, c_smallint, c_integer, c_bigint, c_real, c_double, c_decimal, c_long_decimal, c_varchar, c_blob, c_date, c_timestamp)";
+
+        assertThat(isReadInArrow(sql)).isTrue();
+        List<Object[]> expected = read(sql, false);
+        assertThat(read(sql, true)).containsExactlyElementsOf(expected);
+        assertThat(expected.get(0)).containsExactly(
+                true, (byte) 1, (short) 2, 3, 4L, 1.5f, 2.5d,
+                new BigDecimal("12.34"), new BigDecimal("123456789012345678901234.5"), "wren 鷦鷯", new byte[] {(byte) 0xAA, (byte) 0xBB},
+                LocalDate.of(1969, 12, 31), LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123_456_000));
+        assertThat(expected.get(1)).containsOnlyNulls();
+        assertThat(expected.get(2)[11]).isEqualTo(LocalDate.MAX);
+        assertThat(columns(sql, true)).extracting(Column::getName, Column::getType)
+                .containsExactlyElementsOf(columns(sql, false).stream().map(column -> tuple(column.getName(), column.getType())).collect(toImmutableList()));
+    }
+
+    @Test
+    public void testUnsupportedTypeReadThroughJdbc()
+            throws Exception
+    {
+        String sql = "SELECT 1 AS c_integer, [1, 2] AS c_list, TIMESTAMPTZ '2024-03-10 03:00:00+00' AS c_timestamptz";
+        assertThat(isReadInArrow(sql)).isFalse();
+        assertThat(read(sql, true)).containsExactlyElementsOf(read(sql, false));
+    }
+
+    @Test
+    public void testManyBatches()
+            throws Exception
+    {
+        String sql = "SELECT i, 'row ' || i FROM range(20000) t(i) ORDER BY i";
+        List<Object[]> records = read(sql, true);
+        assertThat(records).hasSize(20000);
+        assertThat(records.get(19999)).containsExactly(19999L, "row 19999");
+        assertThat(records).containsExactlyElementsOf(read(sql, false));
+    }
+
+    @Test
+    public void testEmptyResult()
+            throws Exception
+    {
+        String sql = "SELECT i FROM range(10) t(i) WHERE i < 0";
+        try (ConnectorRecordIterator iterator = DuckdbRecordIterator.of(client, sql, List.of(), true)) {
+            assertThat(iterator.getColumns()).extracting(Column::getName).containsExactly("i");
+            assertThat(iterator.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void testCloseBeforeFullyRead()
+            throws Exception
+    {
+        String sql = "SELECT i FROM range(100000) t(i)";
+        for (boolean readArrow : List.of(true, false)) {
+            try (ConnectorRecordIterator iterator = DuckdbRecordIterator.of(client, sql, List.of(), readArrow)) {
+                assertThat(iterator.next()).containsExactly(0L);
+            }
+        }
+        // the connections closed early can be used again
+        assertThat(read("SELECT 1", true)).hasSize(1);
+    }
+
+    private boolean isReadInArrow(String sql)
+            throws SQLException
+    {
+        try (Connection connection = client.createConnection();
+                PreparedStatement statement = connection.prepareStatement(sql);
+                ResultSet resultSet = statement.executeQuery()) {
+            return ArrowRecordReader.isSupported(resultSet.getMetaData());
+        }
+    }
+
+    private List<Object[]> read(String sql, boolean readArrow)
+            throws Exception
+    {
+        try (ConnectorRecordIterator iterator = DuckdbRecordIterator.of(client, sql, List.of(), readArrow)) {
+            return ImmutableList.copyOf(iterator);
+        }
+    }
+
+    private List<Column> columns(String sql, boolean readArrow)
+            throws Exception
+    {
+        try (ConnectorRecordIterator iterator = DuckdbRecordIterator.of(client, sql, List.of(), readArrow)) {
+            return iterator.getColumns();
+        }
+    }
+}
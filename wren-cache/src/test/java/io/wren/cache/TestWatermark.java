@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.cache;
+
+import io.airlift.units.Duration;
+import io.wren.base.WrenException;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestWatermark
+{
+    private static final Duration NO_LOOKBACK = new Duration(0, HOURS);
+
+    @Test
+    public void testDate()
+    {
+        Watermark watermark = Watermark.of(Date.valueOf("2024-03-10")).orElseThrow();
+        assertThat(watermark.toLowerBoundLiteral(NO_LOOKBACK)).isEqualTo("DATE '2024-03-10'");
+        assertThat(watermark.toLowerBoundLiteral(new Duration(1, DAYS))).isEqualTo("DATE '2024-03-09'");
+        // a lookback of part of a day still fetches the whole day again
+        assertThat(watermark.toLowerBoundLiteral(new Duration(1, HOURS))).isEqualTo("DATE '2024-03-09'");
+        assertThat(watermark.toLowerBoundLiteral(new Duration(25, HOURS))).isEqualTo("DATE '2024-03-08'");
+    }
+
+    @Test
+    public void testTimestamp()
+    {
+        Watermark watermark = Watermark.of(Timestamp.valueOf("2024-03-10 00:10:00.123456")).orElseThrow();
+        assertThat(watermark.toLowerBoundLiteral(NO_LOOKBACK)).isEqualTo("TIMESTAMP '2024-03-10 00:10:00.123456'");
+        assertThat(watermark.toLowerBoundLiteral(new Duration(30, MINUTES))).isEqualTo("TIMESTAMP '2024-03-09 23:40:00.123456'");
+    }
+
+    @Test
+    public void testTimestampWithTimeZone()
+    {
+        Watermark watermark = Watermark.of(ZonedDateTime.of(2024, 3, 10, 8, 0, 0, 0, ZoneId.of("Asia/Taipei"))).orElseThrow();
+        assertThat(watermark.toLowerBoundLiteral(NO_LOOKBACK)).isEqualTo("TIMESTAMP '2024-03-10 00:00:00.000000+00:00'");
+        assertThat(watermark.toLowerBoundLiteral(new Duration(1, HOURS))).isEqualTo("TIMESTAMP '2024-03-09 23:00:00.000000+00:00'");
+    }
+
+    @Test
+    public void testNumber()
+    {
+        assertThat(Watermark.of(42L).orElseThrow().toLowerBoundLiteral(NO_LOOKBACK)).isEqualTo("42");
+        assertThat(Watermark.of(new BigDecimal("1E+3")).orElseThrow().toLowerBoundLiteral(NO_LOOKBACK)).isEqualTo("1000");
+    }
+
+    @Test
+    public void testString()
+    {
+        assertThat(Watermark.of("O'Brien").orElseThrow().toLowerBoundLiteral(NO_LOOKBACK)).isEqualTo("'O''Brien'");
+    }
+
+    @Test
+    public void testLookbackOnNonTemporal()
+    {
+        assertThatThrownBy(() -> Watermark.of(42L).orElseThrow().toLowerBoundLiteral(new Duration(1, HOURS)))
+                .isInstanceOf(WrenException.class)
+                .hasMessage("lookback is only supported on date and timestamp watermark columns");
+        assertThatThrownBy(() -> Watermark.of("a").orElseThrow().toLowerBoundLiteral(new Duration(1, DAYS)))
+                .isInstanceOf(WrenException.class)
+                .hasMessage("lookback is only supported on date and timestamp watermark columns");
+    }
+
+    @Test
+    public void testOf()
+    {
+        assertThat(Watermark.of(null)).isEmpty();
+        assertThatThrownBy(() -> Watermark.of(new byte[] {1}))
+                .isInstanceOf(WrenException.class)
+                .hasMessageStartingWith("Unsupported watermark value");
+    }
+}
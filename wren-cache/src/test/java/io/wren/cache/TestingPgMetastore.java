@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.cache;
+
+import io.wren.base.ConnectorRecordIterator;
+import io.wren.base.Parameter;
+import io.wren.base.WrenException;
+import io.wren.base.client.Client;
+import io.wren.base.client.duckdb.DuckDBConfig;
+import io.wren.base.client.duckdb.DuckdbClient;
+import io.wren.base.sql.SqlConverter;
+import io.wren.base.wireprotocol.PgMetastore;
+
+import java.util.List;
+
+import static io.wren.base.metadata.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.lang.String.format;
+
+public class TestingPgMetastore
+        implements PgMetastore
+{
+    private final DuckdbClient duckdbClient;
+
+    public TestingPgMetastore(DuckDBConfig duckDBConfig)
+    {
+        this.duckdbClient = DuckdbClient.builder()
+                .setDuckDBConfig(duckDBConfig)
+                .build();
+    }
+
+    @Override
+    public void directDDL(String sql)
+    {
+        duckdbClient.executeDDL(sql);
+    }
+
+    @Override
+    public ConnectorRecordIterator directQuery(String sql, List<Parameter> parameters)
+    {
+        try {
+            return DuckdbRecordIterator.of(duckdbClient, sql, parameters);
+        }
+        catch (Exception e) {
+            throw new WrenException(GENERIC_INTERNAL_ERROR, e);
+        }
+    }
+
+    @Override
+    public String handlePgType(String type)
+    {
+        return type;
+    }
+
+    @Override
+    public String getPgCatalogName()
+    {
+        return "pg_catalog";
+    }
+
+    @Override
+    public boolean isSchemaExist(String schemaName)
+    {
+        return false;
+    }
+
+    @Override
+    public void dropTableIfExists(String name)
+    {
+        duckdbClient.executeDDL(format("BEGIN TRANSACTION;DROP TABLE IF EXISTS %s;COMMIT;", name));
+    }
+
+    @Override
+    public Client getClient()
+    {
+        return duckdbClient;
+    }
+
+    @Override
+    public SqlConverter getSqlConverter()
+    {
+        return (sql, sessionContext) -> sql;
+    }
+
+    @Override
+    public void close()
+    {
+        duckdbClient.close();
+    }
+}
@@ -75,7 +75,7 @@ public class BigQueryClient
         return bigQuery.getDataset(dataset.getDatasetId());
     }
 
-    public Iterable<Table> listTables(DatasetId datasetId, TableDefinition.Type... types)
+    public List<TableInfo> listTables(DatasetId datasetId, TableDefinition.Type... types)
     {
         Set<TableDefinition.Type> allowedTypes = ImmutableSet.copyOf(types);
         Iterable<Table> allTables = bigQuery.listTables(datasetId).iterateAll();
@@ -99,7 +99,7 @@ public class BigQueryClient
         bigQuery.delete(datasetId, deleteContents());
     }
 
-    public Table getTable(CatalogSchemaTableName catalogSchemaTableName)
+    public TableInfo getTable(CatalogSchemaTableName catalogSchemaTableName)
     {
         return getTable(TableId.of(
                 catalogSchemaTableName.getCatalogName(),
@@ -117,7 +117,7 @@ public class BigQueryClient
         return bigQuery.getDataset(name);
     }
 
-    public Table getTable(TableId tableId)
+    public TableInfo getTable(TableId tableId)
     {
         return bigQuery.getTable(tableId);
     }
@@ -14,9 +14,12 @@
 
 package io.wren.connector.postgres;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ListMultimap;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import io.airlift.log.Logger;
 import io.wren.base.Parameter;
 import io.wren.base.WrenException;
@@ -33,28 +36,54 @@ import org.joda.time.Period;
 import org.postgresql.util.PGInterval;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
 
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.wren.base.metadata.StandardErrorCode.GENERIC_USER_ERROR;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.toUnmodifiableList;
 
 public class PostgresClient
         implements Client
 {
     private static final Logger LOG = Logger.get(PostgresClient.class);
+    private static final long CLOSE_WHEN_IDLE_POLL_MILLIS = 100;
     private final PostgresConfig postgresConfig;
+    private HikariDataSource connectionPool;
+    private boolean closed;
 
     public PostgresClient(PostgresConfig postgresConfig)
     {
         this.postgresConfig = requireNonNull(postgresConfig, "postgresConfig is null");
     }
 
+    private static HikariConfig getHikariConfig(PostgresConfig postgresConfig)
+    {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("POSTGRES_POOL");
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(postgresConfig.getJdbcUrl());
+        config.setUsername(postgresConfig.getUser());
+        config.setPassword(postgresConfig.getPassword());
+        config.setMaximumPoolSize(postgresConfig.getPoolMaxSize());
+        // let idle connections time out instead of keeping the pool full
+        config.setMinimumIdle(0);
+        config.setIdleTimeout(postgresConfig.getPoolIdleTimeout().toMillis());
+        config.setMaxLifetime(postgresConfig.getPoolMaxLifetime().toMillis());
+        // the rows of a query are fetched in batches through a cursor, see PostgresRecordIterator
+        config.addDataSourceProperty("defaultRowFetchSize", postgresConfig.getFetchSize());
+        return config;
+    }
+
     public List<TableMetadata> listTable(String schemaName)
     {
         try (Connection connection = createConnection()) {
@@ -171,16 +200,26 @@ public class PostgresClient
         }
     }
 
+    @Override
     public Connection createConnection()
             throws SQLException
     {
-        try {
-            Class.forName("org.postgresql.Driver");
+        return getConnectionPool().getConnection();
+    }
+
+    /**
+     * The pool is created on the first connection, since the client is created even if postgres is not the data source.
+     */
+    private synchronized HikariDataSource getConnectionPool()
+            throws SQLException
+    {
+        if (closed) {
+            throw new SQLException("Postgres client is closed");
         }
-        catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
+        if (connectionPool == null) {
+            connectionPool = new HikariDataSource(getHikariConfig(postgresConfig));
         }
-        return DriverManager.getConnection(postgresConfig.getJdbcUrl(), postgresConfig.getUser(), postgresConfig.getPassword());
+        return connectionPool;
     }
 
     public static void setParameter(PreparedStatement preparedStatement, List<Parameter> parameters)
@@ -202,8 +241,48 @@ public class PostgresClient
         }
     }
 
+    /**
+     * Stop handing out connections and close the pool once the running queries and open cursors returned their
+     * connections, e.g. when the client is replaced after a reload. A connection still borrowed after the pool max
+     * lifetime is aborted.
+     */
+    public synchronized void closeWhenIdle()
+    {
+        closed = true;
+        if (connectionPool == null) {
+            return;
+        }
+        HikariDataSource pool = connectionPool;
+        // the idle connections are closed now, the borrowed ones as soon as they are returned
+        pool.getHikariPoolMXBean().softEvictConnections();
+        long deadline = nanoTime() + postgresConfig.getPoolMaxLifetime().roundTo(NANOSECONDS);
+        ScheduledExecutorService closer = newSingleThreadScheduledExecutor(daemonThreadsNamed("postgres-pool-closer-%s"));
+        closer.scheduleWithFixedDelay(() -> {
+            if (pool.getHikariPoolMXBean().getActiveConnections() == 0 || nanoTime() - deadline > 0) {
+                pool.close();
+                closer.shutdown();
+            }
+        }, 0, CLOSE_WHEN_IDLE_POLL_MILLIS, MILLISECONDS);
+    }
+
+    @VisibleForTesting
+    public synchronized int getActiveConnections()
+    {
+        return connectionPool == null || connectionPool.isClosed() ? 0 : connectionPool.getHikariPoolMXBean().getActiveConnections();
+    }
+
+    @VisibleForTesting
+    public synchronized boolean isPoolClosed()
+    {
+        return connectionPool == null || connectionPool.isClosed();
+    }
+
     @Override
-    public void close()
+    public synchronized void close()
     {
+        closed = true;
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
     }
 }
@@ -21,7 +21,9 @@ import org.joda.time.Period;
 import org.postgresql.util.PGInterval;
 import org.postgresql.util.PGobject;
 
+import java.lang.ref.Cleaner;
 import java.sql.Blob;
+import java.sql.Connection;
 import java.sql.Date;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -37,6 +39,11 @@ import static java.util.Collections.emptyList;
 public class PostgresRecordIterator
         extends BaseJdbcRecordIterator<Object[]>
 {
+    // returns the pooled connection of an iterator that is never closed
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Cleaner.Cleanable cleanable;
+
     public static PostgresRecordIterator of(Client client, String sql)
 
             throws SQLException
@@ -54,6 +61,41 @@ public class PostgresRecordIterator
             throws SQLException
     {
         super(client, sql, parameters);
+        this.cleanable = CLEANER.register(this, new ConnectionCloser(statement.getConnection()));
+    }
+
+    @Override
+    public void close()
+            throws Exception
+    {
+        try {
+            super.close();
+        }
+        finally {
+            cleanable.clean();
+        }
+    }
+
+    @Override
+    protected void prepareConnection(Connection connection)
+            throws SQLException
+    {
+        // pgjdbc only fetches the rows through a cursor in a transaction, otherwise it reads the whole result into memory
+        connection.setAutoCommit(false);
+    }
+
+    @Override
+    protected void releaseConnection(Connection connection)
+            throws SQLException
+    {
+        endTransaction(connection);
+    }
+
+    @Override
+    protected boolean abortConnectionOnEarlyClose()
+    {
+        // the connection goes back to the pool, and closing the statement is enough to release the result
+        return false;
     }
 
     @Override
@@ -143,4 +185,40 @@ public class PostgresRecordIterator
     {
         PostgresClient.setParameter(statement, parameters);
     }
+
+    // commit the statement like autocommit would, and give the connection back to the pool in autocommit mode
+    private static void endTransaction(Connection connection)
+            throws SQLException
+    {
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static class ConnectionCloser
+            implements Runnable
+    {
+        private final Connection connection;
+
+        private ConnectionCloser(Connection connection)
+        {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run()
+        {
+            // the abandoned statement was never finished, so nothing it did is committed
+            try (connection) {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+            catch (SQLException ignored) {
+                // the connection is already closed or broken
+            }
+        }
+    }
 }
@@ -0,0 +1,316 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.stats.CounterStat;
+import io.trino.sql.tree.Statement;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.SessionContext;
+import io.wren.base.config.WrenConfig;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.sql.SqlFormatter.formatSql;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A process-wide cache of planned data source queries shared by all wire protocol sessions.
+ * Entries are keyed by the normalized sql, the session catalog and schema, the dynamic fields setting
+ * and the deployed mdl. The whole cache is invalidated when a new mdl is deployed.
+ * <p>
+ * Besides the plans of exact statements, it keeps the statements planned by Wren for parameterized statements,
+ * keyed by their fingerprint, so that queries only differing in literals share the planning work.
+ * Both caches are bounded by the configured limits.
+ */
+public class PlanCache
+{
+    // rough per-entry overhead of the key, the value and the cache internals
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private final Cache<PlanKey, Plan> cache;
+    private final Cache<PlanKey, PlannedStatement> plannedStatements;
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat plannedStatementHits = new CounterStat();
+    private final CounterStat plannedStatementMisses = new CounterStat();
+
+    @Inject
+    public PlanCache(WrenConfig wrenConfig)
+    {
+        requireNonNull(wrenConfig, "wrenConfig is null");
+        long maxMemory = wrenConfig.getPlanCacheMaxMemory().toBytes();
+        int maxEntries = wrenConfig.getPlanCacheMaxEntries();
+        this.cache = newCache(maxMemory, maxEntries, Plan::getRetainedSizeInBytes);
+        this.plannedStatements = newCache(maxMemory, maxEntries, PlannedStatement::getRetainedSizeInBytes);
+    }
+
+    private static <V> Cache<PlanKey, V> newCache(long maxMemory, int maxEntries, ToLongFunction<V> retainedSize)
+    {
+        if (maxEntries == 0 || maxMemory == 0) {
+            return CacheBuilder.newBuilder().maximumSize(0).build();
+        }
+        // every entry weighs at least maxMemory / maxEntries, so the weight limit bounds the entry count as well.
+        int minWeight = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxMemory / maxEntries));
+        return CacheBuilder.newBuilder()
+                .maximumWeight(maxMemory)
+                .weigher((PlanKey key, V value) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minWeight, key.getRetainedSizeInBytes() + retainedSize.applyAsLong(value))))
+                .build();
+    }
+
+    public Plan get(PlanKey key, Supplier<Plan> planner)
+    {
+        Plan plan = cache.getIfPresent(key);
+        if (plan != null) {
+            hits.update(1);
+            return plan;
+        }
+        misses.update(1);
+        plan = planner.get();
+        cache.put(key, plan);
+        return plan;
+    }
+
+    public void put(PlanKey key, Plan plan)
+    {
+        cache.put(key, plan);
+    }
+
+    /**
+     * Get the statement planned by Wren for a parameterized statement
+     *
+     * @param key the key built from the fingerprint of the parameterized statement
+     * @param planner plans the parameterized statement
+     */
+    public Statement getPlannedStatement(PlanKey key, Supplier<Statement> planner)
+    {
+        PlannedStatement planned = plannedStatements.getIfPresent(key);
+        if (planned != null) {
+            plannedStatementHits.update(1);
+            return planned.statement;
+        }
+        plannedStatementMisses.update(1);
+        planned = new PlannedStatement(planner.get());
+        plannedStatements.put(key, planned);
+        return planned.statement;
+    }
+
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+        plannedStatements.invalidateAll();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPlannedStatementHits()
+    {
+        return plannedStatementHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPlannedStatementMisses()
+    {
+        return plannedStatementMisses;
+    }
+
+    @Managed
+    public long getPlannedStatementSize()
+    {
+        return plannedStatements.size();
+    }
+
+    public static class PlanKey
+    {
+        private final String sql;
+        private final Optional<String> catalog;
+        private final Optional<String> schema;
+        private final boolean enableDynamicFields;
+        // the analyzed mdl instance identifies the deployed mdl even if no version is given
+        private final AnalyzedMDL analyzedMDL;
+
+        public PlanKey(String sql, SessionContext sessionContext, AnalyzedMDL analyzedMDL)
+        {
+            this.sql = requireNonNull(sql, "sql is null");
+            requireNonNull(sessionContext, "sessionContext is null");
+            this.catalog = sessionContext.getCatalog();
+            this.schema = sessionContext.getSchema();
+            this.enableDynamicFields = sessionContext.isEnableDynamicField();
+            this.analyzedMDL = requireNonNull(analyzedMDL, "analyzedMDL is null");
+        }
+
+        private long getRetainedSizeInBytes()
+        {
+            return ENTRY_OVERHEAD + sizeOf(sql) + catalog.map(PlanCache::sizeOf).orElse(0L) + schema.map(PlanCache::sizeOf).orElse(0L);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanKey that = (PlanKey) o;
+            return enableDynamicFields == that.enableDynamicFields
+                    && analyzedMDL == that.analyzedMDL
+                    && Objects.equals(sql, that.sql)
+                    && Objects.equals(catalog, that.catalog)
+                    && Objects.equals(schema, that.schema);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, catalog, schema, enableDynamicFields, System.identityHashCode(analyzedMDL));
+        }
+    }
+
+    public static class Plan
+    {
+        private final String statement;
+        private final int parameterCount;
+        private final boolean sessionCommand;
+        private final Optional<String> cacheStatement;
+        // the cached tables looked up when the cache statement was rewritten
+        private final Map<CatalogSchemaTableName, Optional<String>> cachedTables;
+
+        public Plan(
+                String statement,
+                int parameterCount,
+                boolean sessionCommand,
+                Optional<String> cacheStatement,
+                Map<CatalogSchemaTableName, Optional<String>> cachedTables)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            this.parameterCount = parameterCount;
+            this.sessionCommand = sessionCommand;
+            this.cacheStatement = requireNonNull(cacheStatement, "cacheStatement is null");
+            this.cachedTables = ImmutableMap.copyOf(requireNonNull(cachedTables, "cachedTables is null"));
+        }
+
+        public String getStatement()
+        {
+            return statement;
+        }
+
+        public int getParameterCount()
+        {
+            return parameterCount;
+        }
+
+        public boolean isSessionCommand()
+        {
+            return sessionCommand;
+        }
+
+        public Optional<String> getCacheStatement()
+        {
+            return cacheStatement;
+        }
+
+        /**
+         * The cached tables read by the cache statement
+         */
+        public List<String> getCachedTableNames()
+        {
+            return cachedTables.values().stream()
+                    .flatMap(Optional::stream)
+                    .collect(toImmutableList());
+        }
+
+        /**
+         * Cached tables are renamed on every refresh, so the cache statement is only reusable
+         * if every cached table it looked up still maps to the same table.
+         */
+        public boolean isCacheStatementStale(Function<CatalogSchemaTableName, Optional<String>> converter)
+        {
+            return cachedTables.entrySet().stream()
+                    .anyMatch(entry -> !converter.apply(entry.getKey()).equals(entry.getValue()));
+        }
+
+        public Plan withCacheStatement(Optional<String> cacheStatement, Map<CatalogSchemaTableName, Optional<String>> cachedTables)
+        {
+            return new Plan(statement, parameterCount, sessionCommand, cacheStatement, cachedTables);
+        }
+
+        private long getRetainedSizeInBytes()
+        {
+            return sizeOf(statement)
+                    + cacheStatement.map(PlanCache::sizeOf).orElse(0L)
+                    + cachedTables.size() * ENTRY_OVERHEAD;
+        }
+    }
+
+    private static class PlannedStatement
+    {
+        private final Statement statement;
+        private final long retainedSizeInBytes;
+
+        private PlannedStatement(Statement statement)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            // the size of the sql text is a lower bound of the size of the tree
+            this.retainedSizeInBytes = sizeOf(formatSql(statement));
+        }
+
+        private long getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
+    }
+
+    private static long sizeOf(String value)
+    {
+        return 2L * value.length();
+    }
+}
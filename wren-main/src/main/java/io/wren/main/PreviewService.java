@@ -29,6 +29,19 @@
 package io.wren.main;
 
 import com.google.common.collect.Streams;
+import io.trino.sql.SqlFormatter;
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.AllColumns;
+import io.trino.sql.tree.AllRows;
+import io.trino.sql.tree.Limit;
+import io.trino.sql.tree.LongLiteral;
+import io.trino.sql.tree.Node;
+import io.trino.sql.tree.Query;
+import io.trino.sql.tree.QuerySpecification;
+import io.trino.sql.tree.Select;
+import io.trino.sql.tree.Statement;
+import io.trino.sql.tree.TableSubquery;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.ConnectorRecordIterator;
 import io.wren.base.SessionContext;
@@ -41,13 +54,17 @@ import io.wren.main.web.dto.QueryResultDto;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
 public class PreviewService
 {
+    private static final SqlParser SQL_PARSER = new SqlParser();
+
     private final Metadata metadata;
 
     private final SqlConverter sqlConverter;
@@ -69,16 +86,87 @@ public class PreviewService
                     .setSchema(mdl.getSchema())
                     .build();
 
-            String planned = WrenPlanner.rewrite(sql, sessionContext, new AnalyzedMDL(mdl, null));
+            // the limit is planned with the query, so that it can be pushed down to the source
+            Statement statement = withLimit(SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL)), limit);
+            String planned = SqlFormatter.formatSql(WrenPlanner.plan(statement, sessionContext, new AnalyzedMDL(mdl, null)));
             String converted = sqlConverter.convert(planned, sessionContext);
             try (ConnectorRecordIterator iter = metadata.directQuery(converted, List.of())) {
                 return new QueryResultDto(
                         iter.getColumns(),
-                        Streams.stream(iter).limit(limit).collect(toList()));
+                        Streams.stream(iter).collect(toList()));
             }
             catch (Exception e) {
                 throw new RuntimeException(e);
             }
         });
     }
+
+    static Statement withLimit(Statement statement, long limit)
+    {
+        if (!(statement instanceof Query)) {
+            return statement;
+        }
+        Query query = (Query) statement;
+        if (query.getQueryBody() instanceof QuerySpecification) {
+            QuerySpecification specification = (QuerySpecification) query.getQueryBody();
+            return withLimit(specification.getLimit(), limit)
+                    .map(specificationLimit -> new Query(
+                            query.getWith(),
+                            new QuerySpecification(
+                                    specification.getSelect(),
+                                    specification.getFrom(),
+                                    specification.getWhere(),
+                                    specification.getGroupBy(),
+                                    specification.getHaving(),
+                                    specification.getWindows(),
+                                    specification.getOrderBy(),
+                                    specification.getOffset(),
+                                    Optional.of(specificationLimit)),
+                            query.getOrderBy(),
+                            query.getOffset(),
+                            query.getLimit()))
+                    .orElseGet(() -> limitSubquery(query, limit));
+        }
+        return withLimit(query.getLimit(), limit)
+                .map(queryLimit -> new Query(query.getWith(), query.getQueryBody(), query.getOrderBy(), query.getOffset(), Optional.of(queryLimit)))
+                .orElseGet(() -> limitSubquery(query, limit));
+    }
+
+    // empty if the limit can't be merged into the current one, e.g. FETCH FIRST ... WITH TIES
+    private static Optional<Node> withLimit(Optional<Node> current, long limit)
+    {
+        Limit limitNode = new Limit(new LongLiteral(String.valueOf(limit)));
+        if (current.isEmpty()) {
+            return Optional.of(limitNode);
+        }
+        if (current.get() instanceof Limit) {
+            Node rowCount = ((Limit) current.get()).getRowCount();
+            if (rowCount instanceof AllRows) {
+                return Optional.of(limitNode);
+            }
+            if (rowCount instanceof LongLiteral) {
+                return Optional.of(((LongLiteral) rowCount).getValue() <= limit ? current.get() : limitNode);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Query limitSubquery(Query query, long limit)
+    {
+        return new Query(
+                Optional.empty(),
+                new QuerySpecification(
+                        new Select(false, List.of(new AllColumns())),
+                        Optional.of(new TableSubquery(query)),
+                        Optional.empty(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        List.of(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        Optional.of(new Limit(new LongLiteral(String.valueOf(limit))))),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+    }
 }
@@ -16,9 +16,12 @@ package io.wren.main;
 
 import io.airlift.log.Logger;
 import io.wren.base.AnalyzedMDL;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.ManifestDiff;
 import io.wren.base.WrenException;
 import io.wren.base.WrenMDL;
 import io.wren.base.config.WrenConfig;
+import io.wren.base.dto.CacheInfo;
 import io.wren.base.dto.Manifest;
 import io.wren.cache.CacheManager;
 import io.wren.main.pgcatalog.PgCatalogManager;
@@ -33,6 +36,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static io.wren.base.Utils.checkArgument;
 import static io.wren.base.client.duckdb.FileUtil.ARCHIVED;
@@ -108,12 +112,18 @@ public class WrenManager
         try {
             Files.write(wrenMDLDirectory.toPath().resolve("version"), Optional.ofNullable(version).map(v -> v.getBytes(UTF_8)).orElse(new byte[0]));
             WrenMDL oldWrenMDL = wrenMetastore.getAnalyzedMDL().getWrenMDL();
-            wrenMetastore.setWrenMDL(WrenMDL.fromManifest(manifest), version);
-            archiveWrenMDL(oldWrenMDL);
+            ManifestDiff diff = wrenMetastore.redeployWrenMDL(WrenMDL.fromManifest(manifest), version);
+            archiveWrenMDL();
             Files.write(wrenMDLFile.toPath(), MANIFEST_JSON_CODEC.toJson(wrenMetastore.getAnalyzedMDL().getWrenMDL().getManifest()).getBytes(UTF_8));
-            // pre drop if the schema name is changed.
-            pgCatalogManager.dropSchema(oldWrenMDL.getSchema());
-            deploy();
+            if (diff.isFullRedeploy()) {
+                cacheManager.removeCacheIfExist(oldWrenMDL.getCatalog(), oldWrenMDL.getSchema());
+                // pre drop if the schema name is changed.
+                pgCatalogManager.dropSchema(oldWrenMDL.getSchema());
+                deploy();
+            }
+            else {
+                redeploy(diff);
+            }
         }
         catch (IOException e) {
             LOG.error(e, "Failed to archive WrenMDL file");
@@ -125,12 +135,36 @@ public class WrenManager
     {
         cacheManager.createTask(getAnalyzedMDL());
         pgCatalogManager.initPgCatalog();
+        // plans created while the pg catalog was rebuilt may refer to stale reg objects
+        wrenMetastore.getPlanCache().invalidateAll();
+    }
+
+    /**
+     * Deploy the objects affected by a redeployment in the same catalog and schema. The caches and pg tables of
+     * the other objects are kept as they are.
+     */
+    private void redeploy(ManifestDiff diff)
+    {
+        AnalyzedMDL analyzedMDL = getAnalyzedMDL();
+        WrenMDL mdl = analyzedMDL.getWrenMDL();
+        Stream.concat(diff.getRemovedObjects().stream(), diff.getAffectedObjects().stream())
+                .forEach(name -> cacheManager.removeCacheIfExist(new CatalogSchemaTableName(mdl.getCatalog(), mdl.getSchema(), name)));
+        for (CacheInfo cacheInfo : mdl.listCached()) {
+            if (diff.getAffectedObjects().contains(cacheInfo.getName())) {
+                cacheManager.createTask(analyzedMDL, cacheInfo);
+            }
+            else {
+                cacheManager.retainCache(analyzedMDL, cacheInfo);
+            }
+        }
+        pgCatalogManager.syncPgMetastore(diff);
+        // plans created while the pg tables were synced may refer to stale reg objects
+        wrenMetastore.getPlanCache().invalidateAll();
     }
 
-    private void archiveWrenMDL(WrenMDL oldWrenMDL)
+    private void archiveWrenMDL()
             throws IOException
     {
-        cacheManager.removeCacheIfExist(oldWrenMDL.getCatalog(), oldWrenMDL.getSchema());
         File archived = new File(wrenMDLDirectory.getAbsoluteFile() + "/" + ARCHIVED);
         if (!archived.exists()) {
             if (!archived.mkdir()) {
@@ -15,16 +15,34 @@
 package io.wren.main;
 
 import io.wren.base.AnalyzedMDL;
+import io.wren.base.ManifestDiff;
 import io.wren.base.WrenMDL;
+import io.wren.base.config.WrenConfig;
 import io.wren.base.sqlrewrite.WrenDataLineage;
+import io.wren.base.sqlrewrite.WrenQueryDescriptors;
+
+import javax.inject.Inject;
 
 import java.util.concurrent.atomic.AtomicReference;
 
 import static io.wren.base.WrenMDL.EMPTY;
+import static java.util.Objects.requireNonNull;
 
 public class WrenMetastore
 {
     private final AtomicReference<AnalyzedMDL> analyzed = new AtomicReference<>(new AnalyzedMDL(EMPTY, WrenDataLineage.EMPTY, "0"));
+    private final PlanCache planCache;
+
+    public WrenMetastore()
+    {
+        this(new PlanCache(new WrenConfig()));
+    }
+
+    @Inject
+    public WrenMetastore(PlanCache planCache)
+    {
+        this.planCache = requireNonNull(planCache, "planCache is null");
+    }
 
     public AnalyzedMDL getAnalyzedMDL()
     {
@@ -34,5 +52,31 @@ public class WrenMetastore
     public synchronized void setWrenMDL(WrenMDL wrenMDL, String version)
     {
         this.analyzed.set(new AnalyzedMDL(wrenMDL, WrenDataLineage.analyze(wrenMDL), version));
+        planCache.invalidateAll();
+    }
+
+    /**
+     * Replace the mdl with a redeployed one. Only the objects affected by the redeployment are analyzed again.
+     */
+    public synchronized ManifestDiff redeployWrenMDL(WrenMDL wrenMDL, String version)
+    {
+        AnalyzedMDL previous = analyzed.get();
+        ManifestDiff diff = ManifestDiff.diff(previous, wrenMDL);
+        if (diff.isFullRedeploy()) {
+            setWrenMDL(wrenMDL, version);
+            return diff;
+        }
+        this.analyzed.set(new AnalyzedMDL(
+                wrenMDL,
+                WrenDataLineage.analyze(wrenMDL, previous.getWrenDataLineage(), diff.getAffectedObjects()),
+                WrenQueryDescriptors.compile(wrenMDL, previous.getWrenQueryDescriptors(), diff.getAffectedObjects()),
+                version));
+        planCache.invalidateAll();
+        return diff;
+    }
+
+    public PlanCache getPlanCache()
+    {
+        return planCache;
     }
 }
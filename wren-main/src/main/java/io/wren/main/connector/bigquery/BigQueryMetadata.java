@@ -26,7 +26,6 @@ import com.google.cloud.bigquery.DatasetId;
 import com.google.cloud.bigquery.DatasetInfo;
 import com.google.cloud.bigquery.JobStatistics;
 import com.google.cloud.bigquery.Routine;
-import com.google.cloud.bigquery.Table;
 import com.google.cloud.bigquery.TableResult;
 import com.google.cloud.storage.StorageOptions;
 import com.google.common.collect.ImmutableList;
@@ -58,14 +57,19 @@ import javax.inject.Inject;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.wren.base.metadata.StandardErrorCode.NOT_FOUND;
 import static io.wren.main.pgcatalog.PgCatalogUtils.PG_CATALOG_NAME;
 import static io.wren.main.pgcatalog.PgCatalogUtils.WREN_TEMP_NAME;
 import static java.lang.String.format;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class BigQueryMetadata
         implements Metadata
@@ -79,6 +83,10 @@ public class BigQueryMetadata
     private String location;
     private String metadataSchemaName;
     private String pgCatalogName;
+    private int prefetchPages;
+    private ThreadPoolExecutor executor;
+    private BigQueryConfig bigQueryConfig;
+    private BigQueryTableCache tableCache;
 
     private final ConfigManager configManager;
 
@@ -105,6 +113,10 @@ public class BigQueryMetadata
         this.location = bigQueryConfig.getLocation().orElse(null);
         this.metadataSchemaName = bigQueryConfig.getMetadataSchemaPrefix() + WREN_TEMP_NAME;
         this.pgCatalogName = bigQueryConfig.getMetadataSchemaPrefix() + PG_CATALOG_NAME;
+        this.prefetchPages = bigQueryConfig.getPrefetchPages();
+        this.bigQueryConfig = bigQueryConfig;
+        this.executor = newExecutor(bigQueryConfig.getFetchThreads());
+        this.tableCache = new BigQueryTableCache(executor, bigQueryConfig.getMetadataFetchConcurrency(), bigQueryConfig.getMetadataCacheTtl());
         this.functionRegistry = new DataSourceFunctionRegistry();
         this.pgFunctionBuilder = new BigQueryPgFunctionBuilder(this);
     }
@@ -153,22 +165,15 @@ public class BigQueryMetadata
     @Override
     public List<TableMetadata> listTables(String schemaName)
     {
-        Optional<Dataset> dataset = getDataset(schemaName);
-        if (dataset.isEmpty()) {
-            throw new WrenException(NOT_FOUND, format("Dataset %s is not found", schemaName));
+        try {
+            return tableCache.listTables(bigQueryClient, DatasetId.of(schemaName));
+        }
+        catch (BigQueryException ex) {
+            if (ex.getCode() == HTTP_NOT_FOUND) {
+                throw new WrenException(NOT_FOUND, format("Dataset %s is not found", schemaName));
+            }
+            throw ex;
         }
-        Iterable<Table> result = bigQueryClient.listTables(dataset.get().getDatasetId());
-        return Streams.stream(result)
-                .map(table -> {
-                    TableMetadata.Builder builder = TableMetadata.builder(
-                            new SchemaTableName(table.getTableId().getDataset(), table.getTableId().getTable()));
-                    Table fullTable = bigQueryClient.getTable(table.getTableId());
-                    // TODO: type mapping
-                    fullTable.getDefinition().getSchema().getFields()
-                            .forEach(field -> builder.column(field.getName(), BigQueryType.toPGType(field)));
-                    return builder.build();
-                })
-                .collect(toImmutableList());
     }
 
     @Override
@@ -225,7 +230,7 @@ public class BigQueryMetadata
         requireNonNull(sql, "sql can't be null.");
         try {
             TableResult results = bigQueryClient.query(sql, parameters);
-            return BigQueryRecordIterator.of(results);
+            return BigQueryRecordIterator.of(results, executor, prefetchPages);
         }
         catch (BigQueryException ex) {
             LOG.error(ex);
@@ -282,6 +287,56 @@ public class BigQueryMetadata
         this.location = bigQueryConfig.getLocation().orElse(null);
         this.metadataSchemaName = bigQueryConfig.getMetadataSchemaPrefix() + WREN_TEMP_NAME;
         this.pgCatalogName = bigQueryConfig.getMetadataSchemaPrefix() + PG_CATALOG_NAME;
+        this.prefetchPages = bigQueryConfig.getPrefetchPages();
+        // the metadata is closed when the data source is changed, and reloaded when it's changed back
+        boolean closed = executor.isShutdown();
+        if (closed) {
+            executor = newExecutor(bigQueryConfig.getFetchThreads());
+        }
+        else {
+            setThreads(executor, bigQueryConfig.getFetchThreads());
+        }
+        // the cached tables are kept unless they may be different with the new configs
+        if (closed || !isSameTableCache(this.bigQueryConfig, bigQueryConfig)) {
+            tableCache = new BigQueryTableCache(executor, bigQueryConfig.getMetadataFetchConcurrency(), bigQueryConfig.getMetadataCacheTtl());
+        }
+        this.bigQueryConfig = bigQueryConfig;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads)
+    {
+        // the tasks beyond the threads are queued, the idle threads are stopped
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, MINUTES, new LinkedBlockingQueue<>(), daemonThreadsNamed("bigquery-metadata-%s"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static void setThreads(ThreadPoolExecutor executor, int threads)
+    {
+        // the core size can't be larger than the maximum size
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        }
+        else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    private static boolean isSameTableCache(BigQueryConfig previous, BigQueryConfig current)
+    {
+        return previous.getProjectId().equals(current.getProjectId())
+                && previous.getCredentialsKey().equals(current.getCredentialsKey())
+                && previous.getCredentialsFile().equals(current.getCredentialsFile())
+                && previous.getMetadataCacheTtl().equals(current.getMetadataCacheTtl())
+                && previous.getMetadataFetchConcurrency() == current.getMetadataFetchConcurrency();
+    }
+
+    @Override
+    public void invalidateCache()
+    {
+        tableCache.invalidateAll();
     }
 
     @Override
@@ -355,5 +410,8 @@ public class BigQueryMetadata
     }
 
     @Override
-    public void close() {}
+    public void close()
+    {
+        executor.shutdownNow();
+    }
 }
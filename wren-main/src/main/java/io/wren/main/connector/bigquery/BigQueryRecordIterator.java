@@ -19,6 +19,7 @@ import com.google.cloud.bigquery.FieldValue;
 import com.google.cloud.bigquery.FieldValueList;
 import com.google.cloud.bigquery.StandardSQLTypeName;
 import com.google.cloud.bigquery.TableResult;
+import com.google.common.collect.ImmutableList;
 import io.wren.base.Column;
 import io.wren.base.ConnectorRecordIterator;
 import org.apache.commons.lang3.StringUtils;
@@ -27,14 +28,15 @@ import org.joda.time.Period;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.wren.connector.bigquery.BigQueryType.toPGType;
 import static java.lang.String.format;
 import static java.time.ZoneOffset.UTC;
@@ -42,33 +44,52 @@ import static java.util.Collections.unmodifiableMap;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Reads a BigQuery result into the values of the wire protocol. How to decode each field is resolved once from the
+ * schema, so a row is read by position without checking the type of every value.
+ */
 public class BigQueryRecordIterator
         implements ConnectorRecordIterator
 {
+    private static final Pattern INTERVAL_PATTERN = Pattern.compile("(?<NEG>-?)(?<Y>[0-9]+)-(?<M>[0-9]+) (?<D>-?[0-9]+) (?<NEGTIME>-?)(?<H>[0-9]+):(?<MIN>[0-9]+):(?<S>[0-9]+).?(?<F>[0-9]{1,6})?");
+
     private final List<Column> columns;
-    private final List<Field> bqFields;
+    private final FieldDecoder[] fieldDecoders;
 
-    private final Iterator<FieldValueList> resultIterator;
+    private final PrefetchingPageIterator resultIterator;
 
     public static BigQueryRecordIterator of(TableResult tableResult)
     {
-        return new BigQueryRecordIterator(tableResult);
+        return of(tableResult, directExecutor(), 0);
+    }
+
+    /**
+     * @param prefetchPages the number of pages of the result fetched ahead on the executor
+     */
+    public static BigQueryRecordIterator of(TableResult tableResult, Executor executor, int prefetchPages)
+    {
+        return new BigQueryRecordIterator(tableResult, executor, prefetchPages);
     }
 
-    private BigQueryRecordIterator(TableResult tableResult)
+    private BigQueryRecordIterator(TableResult tableResult, Executor executor, int prefetchPages)
     {
         requireNonNull(tableResult, "tableResult is null");
-        this.resultIterator = tableResult.iterateAll().iterator();
+        this.resultIterator = new PrefetchingPageIterator(tableResult, executor, prefetchPages);
 
-        this.columns = tableResult.getSchema().getFields().stream()
+        List<Field> fields = tableResult.getSchema().getFields();
+        this.columns = fields.stream()
                 .map(field -> new Column(field.getName(), toPGType(field)))
                 .collect(toImmutableList());
-
-        this.bqFields = tableResult.getSchema().getFields();
+        this.fieldDecoders = fields.stream()
+                .map(BigQueryRecordIterator::fieldDecoder)
+                .toArray(FieldDecoder[]::new);
     }
 
     @Override
-    public void close() {}
+    public void close()
+    {
+        resultIterator.close();
+    }
 
     @Override
     public boolean hasNext()
@@ -80,63 +101,85 @@ public class BigQueryRecordIterator
     public Object[] next()
     {
         FieldValueList fieldValues = resultIterator.next();
-        return bqFields.stream()
-                .map(field -> getFieldValue(field, fieldValues.get(field.getName())))
-                .toArray();
+        // the values of a row are in the order of the fields in the schema
+        Object[] record = new Object[fieldDecoders.length];
+        for (int i = 0; i < fieldDecoders.length; i++) {
+            record[i] = fieldDecoders[i].decode(fieldValues.get(i));
+        }
+        return record;
     }
 
-    private static Object getFieldValue(Field field, FieldValue fieldValue)
+    private static FieldDecoder fieldDecoder(Field field)
     {
-        if (fieldValue.isNull()) {
-            return null;
-        }
-
+        FieldDecoder valueDecoder = valueDecoder(field);
         if (Field.Mode.REPEATED.equals(field.getMode())) {
-            return fieldValue.getRepeatedValue().stream()
-                    .map(innerField -> getFieldValueByType(field, innerField))
-                    .collect(toImmutableList());
+            return fieldValue -> {
+                if (fieldValue.isNull()) {
+                    return null;
+                }
+                List<FieldValue> elements = fieldValue.getRepeatedValue();
+                ImmutableList.Builder<Object> values = ImmutableList.builderWithExpectedSize(elements.size());
+                for (FieldValue element : elements) {
+                    values.add(valueDecoder.decode(element));
+                }
+                return values.build();
+            };
         }
-        return getFieldValueByType(field, fieldValue);
+        return fieldValue -> fieldValue.isNull() ? null : valueDecoder.decode(fieldValue);
     }
 
-    private static Object getFieldValueByType(Field field, FieldValue fieldValue)
+    /**
+     * @return the decoder of a non-null value, or of an element of a repeated field
+     */
+    private static FieldDecoder valueDecoder(Field field)
     {
         StandardSQLTypeName typeName = field.getType().getStandardType();
         switch (typeName) {
             case BOOL:
-                return fieldValue.getBooleanValue();
+                return FieldValue::getBooleanValue;
             case INT64:
-                return fieldValue.getLongValue();
+                return FieldValue::getLongValue;
             case FLOAT64:
-                return fieldValue.getDoubleValue();
+                return FieldValue::getDoubleValue;
             case STRING:
             case JSON:
-                return fieldValue.getStringValue();
+                return FieldValue::getStringValue;
             case BYTES:
-                return fieldValue.getBytesValue();
+                return FieldValue::getBytesValue;
             case DATE:
-                return LocalDate.parse((String) fieldValue.getValue());
+                return fieldValue -> LocalDate.parse((String) fieldValue.getValue());
             case DATETIME:
-                return LocalDateTime.parse(fieldValue.getStringValue());
+                return fieldValue -> LocalDateTime.parse(fieldValue.getStringValue());
             case TIMESTAMP:
-                long microSeconds = fieldValue.getTimestampValue();
-                Instant instant = Instant.ofEpochSecond(microSeconds / 1000000, microSeconds % 1000000 * 1000);
-                return LocalDateTime.ofInstant(instant, UTC);
+                return fieldValue -> {
+                    long microSeconds = fieldValue.getTimestampValue();
+                    Instant instant = Instant.ofEpochSecond(microSeconds / 1000000, microSeconds % 1000000 * 1000);
+                    return LocalDateTime.ofInstant(instant, UTC);
+                };
             case NUMERIC:
             case BIGNUMERIC:
-                return fieldValue.getNumericValue();
+                return FieldValue::getNumericValue;
             case INTERVAL:
-                return convertBigQueryIntervalToPeriod(fieldValue.getStringValue());
+                return fieldValue -> convertBigQueryIntervalToPeriod(fieldValue.getStringValue());
             case STRUCT:
                 List<Field> subFields = field.getSubFields();
-                List<FieldValue> subFieldValues = fieldValue.getRecordValue();
-                Map<String, Object> result = new LinkedHashMap<>();
-                for (int i = 0; i < subFields.size(); i++) {
-                    result.put(subFields.get(i).getName(), getFieldValue(subFields.get(i), subFieldValues.get(i)));
-                }
-                return unmodifiableMap(result);
+                String[] names = subFields.stream().map(Field::getName).toArray(String[]::new);
+                FieldDecoder[] subFieldDecoders = subFields.stream()
+                        .map(BigQueryRecordIterator::fieldDecoder)
+                        .toArray(FieldDecoder[]::new);
+                return fieldValue -> {
+                    List<FieldValue> subFieldValues = fieldValue.getRecordValue();
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    for (int i = 0; i < names.length; i++) {
+                        result.put(names[i], subFieldDecoders[i].decode(subFieldValues.get(i)));
+                    }
+                    return unmodifiableMap(result);
+                };
             default:
-                throw new IllegalArgumentException("Unsupported type: " + typeName);
+                // the result may still be read if all the values of the field are null
+                return fieldValue -> {
+                    throw new IllegalArgumentException("Unsupported type: " + typeName);
+                };
         }
     }
 
@@ -148,8 +191,7 @@ public class BigQueryRecordIterator
     private static Period convertBigQueryIntervalToPeriod(String value)
     {
         // BigQuery interval format: [sign]Y-M [sign]D [sign]H:M:S[.F], and F up to six digits
-        Pattern pattern = Pattern.compile("(?<NEG>-?)(?<Y>[0-9]+)-(?<M>[0-9]+) (?<D>-?[0-9]+) (?<NEGTIME>-?)(?<H>[0-9]+):(?<MIN>[0-9]+):(?<S>[0-9]+).?(?<F>[0-9]{1,6})?");
-        Matcher matcher = pattern.matcher(value);
+        Matcher matcher = INTERVAL_PATTERN.matcher(value);
         if (!matcher.matches()) {
             throw new IllegalArgumentException(format(ENGLISH, "Invalid interval format: %s", value));
         }
@@ -172,4 +214,9 @@ public class BigQueryRecordIterator
     {
         return (localDateTime.toInstant(UTC).getEpochSecond() * 1000000) + (localDateTime.getNano() / 1000);
     }
+
+    private interface FieldDecoder
+    {
+        Object decode(FieldValue fieldValue);
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.connector.bigquery;
+
+import com.google.cloud.bigquery.DatasetId;
+import com.google.cloud.bigquery.TableId;
+import com.google.cloud.bigquery.TableInfo;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.concurrent.BoundedExecutor;
+import io.airlift.units.Duration;
+import io.wren.base.metadata.SchemaTableName;
+import io.wren.base.metadata.TableMetadata;
+import io.wren.connector.bigquery.BigQueryClient;
+import io.wren.connector.bigquery.BigQueryType;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.submit;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The metadata of the tables in BigQuery datasets. A dataset is listed on every call, and the schemas of the tables
+ * which aren't cached are fetched concurrently. A cached table is kept until it expires or the cache is invalidated,
+ * and it's fetched again if the table is created again, which is seen from its creation time in the listing.
+ */
+final class BigQueryTableCache
+{
+    private final Executor executor;
+    private final int fetchConcurrency;
+    private final Cache<TableId, CachedTable> tables;
+
+    BigQueryTableCache(Executor executor, int fetchConcurrency, Duration ttl)
+    {
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(fetchConcurrency > 0, "fetchConcurrency must be positive");
+        this.fetchConcurrency = fetchConcurrency;
+        this.tables = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .build();
+    }
+
+    List<TableMetadata> listTables(BigQueryClient client, DatasetId datasetId)
+    {
+        List<TableInfo> listedTables = client.listTables(datasetId);
+        Set<TableId> tableIds = listedTables.stream().map(TableInfo::getTableId).collect(toImmutableSet());
+        tables.asMap().keySet().removeIf(tableId -> isInDataset(tableId, datasetId) && !tableIds.contains(tableId));
+
+        Executor fetchExecutor = new BoundedExecutor(executor, fetchConcurrency);
+        List<ListenableFuture<Optional<TableMetadata>>> futures = listedTables.stream()
+                .map(table -> {
+                    CachedTable cached = tables.getIfPresent(table.getTableId());
+                    if (cached != null && Objects.equals(cached.creationTime, table.getCreationTime())) {
+                        return immediateFuture(Optional.of(cached.metadata));
+                    }
+                    return submit(() -> fetchTable(client, table), fetchExecutor);
+                })
+                .collect(toImmutableList());
+        try {
+            return getFutureValue(allAsList(futures)).stream()
+                    .flatMap(Optional::stream)
+                    .collect(toImmutableList());
+        }
+        catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    void invalidateAll()
+    {
+        tables.invalidateAll();
+    }
+
+    private Optional<TableMetadata> fetchTable(BigQueryClient client, TableInfo table)
+    {
+        TableInfo fullTable = client.getTable(table.getTableId());
+        if (fullTable == null) {
+            // the table is dropped after the dataset is listed
+            return Optional.empty();
+        }
+        TableMetadata.Builder builder = TableMetadata.builder(
+                new SchemaTableName(table.getTableId().getDataset(), table.getTableId().getTable()));
+        // TODO: type mapping
+        fullTable.getDefinition().getSchema().getFields()
+                .forEach(field -> builder.column(field.getName(), BigQueryType.toPGType(field)));
+        TableMetadata metadata = builder.build();
+        tables.put(table.getTableId(), new CachedTable(table.getCreationTime(), metadata));
+        return Optional.of(metadata);
+    }
+
+    private static boolean isInDataset(TableId tableId, DatasetId datasetId)
+    {
+        return tableId.getDataset().equals(datasetId.getDataset())
+                && (datasetId.getProject() == null || datasetId.getProject().equals(tableId.getProject()));
+    }
+
+    private static class CachedTable
+    {
+        private final Long creationTime;
+        private final TableMetadata metadata;
+
+        private CachedTable(Long creationTime, TableMetadata metadata)
+        {
+            this.creationTime = creationTime;
+            this.metadata = metadata;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.connector.bigquery;
+
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.TableResult;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.wren.base.client.AutoCloseableIterator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Iterates the rows of a BigQuery result page by page, fetching up to the given number of the following pages on the
+ * executor while the rows of the current page are consumed. A page is fetched with the token of the previous one, so
+ * the pages are fetched one after another. The next page is only fetched once the consumer moves to another page, so
+ * no more than the given number of pages are buffered when the consumer falls behind.
+ */
+final class PrefetchingPageIterator
+        implements AutoCloseableIterator<FieldValueList>
+{
+    private final Executor executor;
+    private final int prefetchPages;
+    // the pages being fetched, a page past the last one is null
+    private final Deque<ListenableFuture<TableResult>> pages = new ArrayDeque<>();
+    private ListenableFuture<TableResult> lastPage;
+    private Iterator<FieldValueList> values;
+    private volatile boolean closed;
+
+    /**
+     * @param prefetchPages the number of pages fetched ahead, or 0 to fetch a page when it's read
+     */
+    PrefetchingPageIterator(TableResult firstPage, Executor executor, int prefetchPages)
+    {
+        requireNonNull(firstPage, "firstPage is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(prefetchPages >= 0, "prefetchPages is negative");
+        this.prefetchPages = prefetchPages;
+        this.lastPage = immediateFuture(firstPage);
+        this.values = firstPage.getValues().iterator();
+        fetch(prefetchPages);
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (!closed && !values.hasNext()) {
+            if (pages.isEmpty()) {
+                fetch(1);
+                if (pages.isEmpty()) {
+                    return false;
+                }
+            }
+            TableResult page = getFutureValue(pages.poll());
+            if (page == null) {
+                return false;
+            }
+            values = page.getValues().iterator();
+            fetch(prefetchPages);
+        }
+        return !closed;
+    }
+
+    @Override
+    public FieldValueList next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return values.next();
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        // cancelling a page cancels the pages it is fetched after as well
+        lastPage.cancel(true);
+        pages.forEach(page -> page.cancel(true));
+        pages.clear();
+    }
+
+    private void fetch(int count)
+    {
+        while (pages.size() < count && !isLastPage(lastPage)) {
+            lastPage = Futures.transform(lastPage, page -> page == null || !page.hasNextPage() ? null : page.getNextPage(), executor);
+            pages.add(lastPage);
+        }
+    }
+
+    private static boolean isLastPage(ListenableFuture<TableResult> future)
+    {
+        if (!future.isDone()) {
+            return false;
+        }
+        try {
+            TableResult page = getDone(future);
+            return page == null || !page.hasNextPage();
+        }
+        catch (ExecutionException | CancellationException e) {
+            // the failure is thrown when the page is read
+            return true;
+        }
+    }
+}
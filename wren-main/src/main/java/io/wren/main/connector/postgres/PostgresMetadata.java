@@ -46,7 +46,7 @@ public class PostgresMetadata
 {
     private final ConfigManager configManager;
     private final PgFunctionBuilder pgFunctionBuilder;
-    private PostgresClient postgresClient;
+    private volatile PostgresClient postgresClient;
 
     @Inject
     public PostgresMetadata(ConfigManager configManager)
@@ -179,7 +179,10 @@ public class PostgresMetadata
     @Override
     public void reload()
     {
+        PostgresClient previous = postgresClient;
         this.postgresClient = new PostgresClient(configManager.getConfig(PostgresConfig.class));
+        // queries and cursors still running on the previous pool keep their connections until they are done
+        previous.closeWhenIdle();
     }
 
     @Override
@@ -189,7 +192,10 @@ public class PostgresMetadata
     }
 
     @Override
-    public void close() {}
+    public void close()
+    {
+        postgresClient.close();
+    }
 
     @Override
     public PgFunctionBuilder getPgFunctionBuilder()
@@ -56,6 +56,11 @@ public interface Metadata
 
     void reload();
 
+    /**
+     * Drop the cached metadata of the data source, e.g. once the objects in it are recreated by a deployment.
+     */
+    default void invalidateCache() {}
+
     StorageClient getCacheStorageClient();
 
     PgFunctionBuilder getPgFunctionBuilder();
@@ -172,6 +172,12 @@ public final class MetadataManager
         delegate.reload();
     }
 
+    @Override
+    public void invalidateCache()
+    {
+        delegate.invalidateCache();
+    }
+
     @Override
     public StorageClient getCacheStorageClient()
     {
@@ -16,7 +16,11 @@ package io.wren.main.pgcatalog;
 
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.wren.base.ManifestDiff;
 import io.wren.base.WrenMDL;
+import io.wren.base.dto.CumulativeMetric;
+import io.wren.base.dto.Metric;
+import io.wren.base.dto.Model;
 import io.wren.base.pgcatalog.function.DataSourceFunctionRegistry;
 import io.wren.base.pgcatalog.function.PgMetastoreFunctionRegistry;
 import io.wren.base.wireprotocol.PgMetastore;
@@ -24,8 +28,11 @@ import io.wren.main.WrenMetastore;
 import io.wren.main.metadata.Metadata;
 import io.wren.main.pgcatalog.builder.PgFunctionBuilderManager;
 import io.wren.main.pgcatalog.builder.PgMetastoreFunctionBuilder;
+import io.wren.main.pgcatalog.regtype.RegObjectFactory;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.stream.Stream;
+
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
@@ -44,13 +51,15 @@ public class PgCatalogManager
     private final PgMetastoreFunctionBuilder pgMetastoreFunctionBuilder;
     private final PgMetastore pgMetastore;
     private final WrenMetastore wrenMetastore;
+    private final RegObjectFactory regObjectFactory;
 
     @Inject
     public PgCatalogManager(
             Metadata connector,
             PgFunctionBuilderManager pgFunctionBuilderManager,
             PgMetastore pgMetastore,
-            WrenMetastore wrenMetastore)
+            WrenMetastore wrenMetastore,
+            RegObjectFactory regObjectFactory)
     {
         this.connector = requireNonNull(connector, "connector is null");
         this.pgFunctionBuilderManager = requireNonNull(pgFunctionBuilderManager, "pgFunctionBuilderManager is null");
@@ -61,10 +70,12 @@ public class PgCatalogManager
         this.pgMetastore = requireNonNull(pgMetastore, "pgMetastore is null");
         this.pgMetastoreFunctionBuilder = new PgMetastoreFunctionBuilder(pgMetastore);
         this.wrenMetastore = requireNonNull(wrenMetastore, "wrenMetastore is null");
+        this.regObjectFactory = requireNonNull(regObjectFactory, "regObjectFactory is null");
     }
 
     public void initPgCatalog()
     {
+        connector.invalidateCache();
         if (!connector.isPgCompatible()) {
             createOrReplaceSchema(pgCatalogName);
         }
@@ -116,25 +127,9 @@ public class PgCatalogManager
                 sb.append(format("DROP SCHEMA IF EXISTS \"%s\" CASCADE;\n", mdl.getSchema()));
                 sb.append("CREATE SCHEMA IF NOT EXISTS ").append(mdl.getSchema()).append(";\n");
             }
-            mdl.listModels().forEach(model -> {
-                String cols = model.getColumns().stream()
-                        .filter(column -> column.getRelationship().isEmpty())
-                        .map(column -> format("\"%s\" %s", column.getName(), pgMetastore.handlePgType(column.getType())))
-                        .collect(joining(","));
-                sb.append(format("CREATE TABLE IF NOT EXISTS \"%s\".\"%s\" (%s);\n", mdl.getSchema(), model.getName(), cols));
-            });
-            mdl.listMetrics().forEach(metric -> {
-                String cols = metric.getColumns().stream().map(column -> format("\"%s\" %s", column.getName(), pgMetastore.handlePgType(column.getType()))).collect(joining(","));
-                sb.append(format("CREATE TABLE IF NOT EXISTS \"%s\".\"%s\" (%s);\n", mdl.getSchema(), metric.getName(), cols));
-            });
-            mdl.listCumulativeMetrics().forEach(metric -> {
-                String cols = format("\"%s\" %s, \"%s\" %s",
-                        metric.getMeasure().getName(),
-                        pgMetastore.handlePgType(metric.getMeasure().getType()),
-                        metric.getWindow().getName(),
-                        mdl.getColumnType(metric.getName(), metric.getWindow().getName()));
-                sb.append(format("CREATE TABLE IF NOT EXISTS \"%s\".\"%s\" (%s);\n", mdl.getSchema(), metric.getName(), cols));
-            });
+            mdl.listModels().forEach(model -> sb.append(createTable(mdl, model)));
+            mdl.listMetrics().forEach(metric -> sb.append(createTable(mdl, metric)));
+            mdl.listCumulativeMetrics().forEach(metric -> sb.append(createTable(mdl, metric)));
             String syncSql = sb.toString();
             LOG.info("Sync PG Metastore DDL:\n %s", syncSql);
             if (!syncSql.isEmpty()) {
@@ -145,5 +140,62 @@ public class PgCatalogManager
             // won't throw exception to avoid the sever start failed.
             LOG.error(e, "Failed to sync PG Metastore");
         }
+        regObjectFactory.invalidateAll();
+    }
+
+    /**
+     * Sync the tables of the objects removed or affected by a redeployment, the other tables are kept as they are.
+     */
+    public void syncPgMetastore(ManifestDiff diff)
+    {
+        try {
+            WrenMDL mdl = wrenMetastore.getAnalyzedMDL().getWrenMDL();
+            StringBuilder sb = new StringBuilder();
+            Stream.concat(diff.getRemovedObjects().stream(), diff.getAffectedObjects().stream())
+                    .forEach(name -> sb.append(format("DROP TABLE IF EXISTS \"%s\".\"%s\";\n", mdl.getSchema(), name)));
+            mdl.listModels().stream()
+                    .filter(model -> diff.getAffectedObjects().contains(model.getName()))
+                    .forEach(model -> sb.append(createTable(mdl, model)));
+            mdl.listMetrics().stream()
+                    .filter(metric -> diff.getAffectedObjects().contains(metric.getName()))
+                    .forEach(metric -> sb.append(createTable(mdl, metric)));
+            mdl.listCumulativeMetrics().stream()
+                    .filter(metric -> diff.getAffectedObjects().contains(metric.getName()))
+                    .forEach(metric -> sb.append(createTable(mdl, metric)));
+            String syncSql = sb.toString();
+            LOG.info("Sync PG Metastore DDL:\n %s", syncSql);
+            if (!syncSql.isEmpty()) {
+                pgMetastore.directDDL(syncSql);
+            }
+        }
+        catch (Exception e) {
+            LOG.error(e, "Failed to sync PG Metastore");
+        }
+        regObjectFactory.invalidateAll();
+    }
+
+    private String createTable(WrenMDL mdl, Model model)
+    {
+        String cols = model.getColumns().stream()
+                .filter(column -> column.getRelationship().isEmpty())
+                .map(column -> format("\"%s\" %s", column.getName(), pgMetastore.handlePgType(column.getType())))
+                .collect(joining(","));
+        return format("CREATE TABLE IF NOT EXISTS \"%s\".\"%s\" (%s);\n", mdl.getSchema(), model.getName(), cols);
+    }
+
+    private String createTable(WrenMDL mdl, Metric metric)
+    {
+        String cols = metric.getColumns().stream().map(column -> format("\"%s\" %s", column.getName(), pgMetastore.handlePgType(column.getType()))).collect(joining(","));
+        return format("CREATE TABLE IF NOT EXISTS \"%s\".\"%s\" (%s);\n", mdl.getSchema(), metric.getName(), cols);
+    }
+
+    private String createTable(WrenMDL mdl, CumulativeMetric metric)
+    {
+        String cols = format("\"%s\" %s, \"%s\" %s",
+                metric.getMeasure().getName(),
+                pgMetastore.handlePgType(metric.getMeasure().getType()),
+                metric.getWindow().getName(),
+                mdl.getColumnType(metric.getName(), metric.getWindow().getName()));
+        return format("CREATE TABLE IF NOT EXISTS \"%s\".\"%s\" (%s);\n", mdl.getSchema(), metric.getName(), cols);
     }
 }
@@ -14,15 +14,17 @@
 
 package io.wren.main.pgcatalog.regtype;
 
-import com.google.common.collect.Streams;
 import io.wren.base.WrenException;
 import io.wren.main.sql.PgOidTypeTableInfo;
 
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 
 import static io.wren.base.metadata.StandardErrorCode.NOT_FOUND;
 import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 
 public abstract class AbstractRegObjectFactory
@@ -30,6 +32,10 @@ public abstract class AbstractRegObjectFactory
     protected final PgMetadata pgMetadata;
     protected final PgOidTypeTableInfo pgOidTypeTableInfo;
 
+    private volatile Index index;
+    // bumped by invalidate() so that an index built from a stale listing is never published
+    private long generation;
+
     protected AbstractRegObjectFactory(PgMetadata pgMetadata, PgOidTypeTableInfo pgOidTypeTableInfo)
     {
         this.pgMetadata = requireNonNull(pgMetadata, "pgMetadata is null");
@@ -39,20 +45,20 @@ public abstract class AbstractRegObjectFactory
     public RegObject of(String objName)
     {
         requireNonNull(objName, "obj name can't be null");
-        Optional<RegObject> result = Streams.stream(this::getPgTableRecords).filter(regObject -> regObject.getName().equals(objName)).findFirst();
-        if (result.isEmpty()) {
+        RegObject result = getIndex().byName.get(objName);
+        if (result == null) {
             throw new WrenException(NOT_FOUND, format("%s does not exist", objName));
         }
-        return result.get();
+        return result;
     }
 
     public RegObject of(int oid)
     {
-        Optional<RegObject> result = Streams.stream(this::getPgTableRecords).filter(regObject -> regObject.getOid() == oid).findFirst();
-        if (result.isEmpty()) {
+        RegObject result = getIndex().byOid.get((long) oid);
+        if (result == null) {
             throw new WrenException(NOT_FOUND, format("RegObject oid %s does not exist", oid));
         }
-        return result.get();
+        return result;
     }
 
     public Optional<RegObject> of(int oid, String objName)
@@ -63,11 +69,63 @@ public abstract class AbstractRegObjectFactory
         // It looks like for compatibility with clients it is good enough
         // to not mirror this behavior.
         requireNonNull(objName, "obj name can't be null");
-        return Streams.stream(this::getPgTableRecords).filter(regObject -> regObject.getOid() == oid && regObject.getName().equals(objName)).findFirst();
+        return Optional.ofNullable(getIndex().byOid.get((long) oid))
+                .filter(regObject -> regObject.getName().equals(objName));
+    }
+
+    /**
+     * Drop the indexed objects. The next lookup lists the objects from the backend again.
+     */
+    public synchronized void invalidate()
+    {
+        generation++;
+        index = null;
     }
 
     protected Iterator<RegObject> getPgTableRecords()
     {
         return pgMetadata.list(pgOidTypeTableInfo).iterator();
     }
+
+    private Index getIndex()
+    {
+        Index current = index;
+        if (current != null) {
+            return current;
+        }
+        long expectedGeneration;
+        synchronized (this) {
+            if (index != null) {
+                return index;
+            }
+            expectedGeneration = generation;
+        }
+        // list outside the lock to not block invalidate() on a backend query
+        Index built = new Index(getPgTableRecords());
+        synchronized (this) {
+            if (index == null && generation == expectedGeneration) {
+                index = built;
+            }
+        }
+        return built;
+    }
+
+    private static class Index
+    {
+        private final Map<Long, RegObject> byOid;
+        private final Map<String, RegObject> byName;
+
+        private Index(Iterator<RegObject> regObjects)
+        {
+            Map<Long, RegObject> byOid = new HashMap<>();
+            Map<String, RegObject> byName = new HashMap<>();
+            // keep the first object of a duplicated oid or name, the same one a linear scan would find
+            regObjects.forEachRemaining(regObject -> {
+                byOid.putIfAbsent(regObject.getOid(), regObject);
+                byName.putIfAbsent(regObject.getName(), regObject);
+            });
+            this.byOid = unmodifiableMap(byOid);
+            this.byName = unmodifiableMap(byName);
+        }
+    }
 }
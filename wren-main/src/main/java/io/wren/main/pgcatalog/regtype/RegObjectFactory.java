@@ -52,4 +52,12 @@ public final class RegObjectFactory
     {
         return factoryMap.get(type.toUpperCase(ROOT)).of(oid, name);
     }
+
+    /**
+     * Drop the indexed reg objects of every type. Called whenever the pg catalog is rebuilt or synced.
+     */
+    public void invalidateAll()
+    {
+        factoryMap.values().forEach(AbstractRegObjectFactory::invalidate);
+    }
 }
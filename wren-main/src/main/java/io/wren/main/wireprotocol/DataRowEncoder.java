@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.wren.base.type.PGType;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Encodes the DataRow messages of a result set into one pooled buffer instead of allocating and writing
+ * a buffer per row. The buffer is written and flushed to the channel once it holds flushThreshold bytes.
+ */
+class DataRowEncoder
+{
+    static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+
+    private final Channel channel;
+    @SuppressWarnings("rawtypes")
+    private final List<PGType> schema;
+    @Nullable
+    private final FormatCodes.FormatCode[] formatCodes;
+    private final int flushThreshold;
+
+    @Nullable
+    private ByteBuf buffer;
+
+    @SuppressWarnings("rawtypes")
+    DataRowEncoder(Channel channel, List<PGType> schema, @Nullable FormatCodes.FormatCode[] formatCodes, int flushThreshold)
+    {
+        this.channel = requireNonNull(channel, "channel is null");
+        this.schema = requireNonNull(schema, "schema is null");
+        this.formatCodes = formatCodes;
+        this.flushThreshold = flushThreshold;
+    }
+
+    void writeRow(Object[] row)
+    {
+        if (buffer == null) {
+            buffer = channel.alloc().buffer(flushThreshold);
+        }
+        Messages.writeDataRow(buffer, row, schema, formatCodes);
+        if (buffer.readableBytes() >= flushThreshold) {
+            channel.writeAndFlush(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Write the rows encoded so far to the channel without flushing. Must be called before sending any other message.
+     */
+    void finish()
+    {
+        if (buffer != null) {
+            if (buffer.isReadable()) {
+                channel.write(buffer);
+            }
+            else {
+                buffer.release();
+            }
+            buffer = null;
+        }
+    }
+
+    void release()
+    {
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
+    }
+}
@@ -264,11 +264,11 @@ public class Messages
      * The value of the column, in the format indicated by the associated format code. n is the above length.
      */
     @SuppressWarnings({"unchecked", "rawtypes"})
-    static void sendDataRow(Channel channel, Object[] row, List<PGType> schema, @Nullable FormatCodes.FormatCode[] formatCodes)
+    static void writeDataRow(ByteBuf buffer, Object[] row, List<PGType> schema, @Nullable FormatCodes.FormatCode[] formatCodes)
     {
+        int startIndex = buffer.writerIndex();
         int length = 4 + 2;
 
-        ByteBuf buffer = channel.alloc().buffer();
         buffer.writeByte('D');
         buffer.writeInt(0); // will be set at the end
         buffer.writeShort(row.length);
@@ -294,13 +294,13 @@ public class Messages
                 }
             }
             catch (Exception e) {
-                buffer.release();
+                // drop the partially written row, the buffer may hold other rows
+                buffer.writerIndex(startIndex);
                 throw e;
             }
         }
 
-        buffer.setInt(1, length);
-        channel.write(buffer);
+        buffer.setInt(startIndex + 1, length);
     }
 
     static void writeCString(ByteBuf buffer, byte[] valBytes)
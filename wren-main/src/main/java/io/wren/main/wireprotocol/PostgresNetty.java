@@ -18,10 +18,13 @@ import com.carrotsearch.hppc.IntHashSet;
 import com.carrotsearch.hppc.IntSet;
 import com.google.common.net.HostAndPort;
 import io.airlift.log.Logger;
+import io.airlift.units.Duration;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.wren.base.config.ConfigManager;
 import io.wren.base.config.PostgresWireProtocolConfig;
@@ -59,10 +62,14 @@ import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.elasticsearch.common.network.NetworkService.GLOBAL_NETWORK_HOST_SETTING;
 
 public class PostgresNetty
@@ -85,6 +92,7 @@ public class PostgresNetty
     private final List<TransportAddress> boundAddresses = new ArrayList<>();
     private final String port;
     private final int threadCount;
+    private final WriteBufferWaterMark writeBufferWaterMark;
     private final String[] bindHosts;
     private final String[] publishHosts;
     private final RegObjectFactory regObjectFactory;
@@ -98,6 +106,9 @@ public class PostgresNetty
     private final ConfigManager configManager;
     private final Authentication authentication;
     private final NioEventLoopGroup nioEventLoopGroup;
+    // queries are planned and executed here so that a slow query never blocks the event loop it shares with other connections
+    private final ExecutorService queryExecutor;
+    private final Duration writeTimeout;
     private final PgMetastore pgMetastore;
 
     public PostgresNetty(
@@ -117,6 +128,9 @@ public class PostgresNetty
         this.settings = toWireProtocolSettings();
         this.port = postgresWireProtocolConfig.getPort();
         this.threadCount = postgresWireProtocolConfig.getNettyThreadCount();
+        this.writeBufferWaterMark = new WriteBufferWaterMark(
+                toIntExact(postgresWireProtocolConfig.getWriteBufferLowWaterMark().toBytes()),
+                toIntExact(postgresWireProtocolConfig.getWriteBufferHighWaterMark().toBytes()));
         bindHosts = GLOBAL_NETWORK_BIND_HOST_SETTING.get(settings).toArray(new String[0]);
         publishHosts = GLOBAL_NETWORK_PUBLISH_HOST_SETTING.get(settings).toArray(new String[0]);
         this.networkService = networkService;
@@ -130,13 +144,16 @@ public class PostgresNetty
         this.cachedTableMapping = requireNonNull(cachedTableMapping, "cachedTableMapping is null");
         this.authentication = requireNonNull(authentication, "authentication is null");
         this.nioEventLoopGroup = new NioEventLoopGroup(threadCount);
+        this.queryExecutor = newFixedThreadPool(postgresWireProtocolConfig.getQueryThreadCount(), daemonThreadsNamed("pg-wire-query-%s"));
+        this.writeTimeout = postgresWireProtocolConfig.getWriteTimeout();
         this.pgMetastore = requireNonNull(pgMetastore, "pgMetastore is null");
     }
 
     public void start()
     {
         this.openChannels = new Netty4OpenChannelsHandler(LOGGER);
-        this.bootstrap = ChannelBootstrapFactory.newChannelBootstrap(settings, nioEventLoopGroup);
+        this.bootstrap = ChannelBootstrapFactory.newChannelBootstrap(settings, nioEventLoopGroup)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark);
 
         bootstrap.childHandler(new ChannelInitializer()
         {
@@ -147,7 +164,7 @@ public class PostgresNetty
                 pipeline.addLast("open_channels", openChannels);
                 WireProtocolSession wireProtocolSession =
                         new WireProtocolSession(regObjectFactory, connector, sqlConverter, configManager.getConfig(WrenConfig.class), wrenMetastore, cacheManager, cachedTableMapping, authentication, pgMetastore);
-                PostgresWireProtocol postgresWireProtocol = new PostgresWireProtocol(wireProtocolSession, new SslReqHandler(sslContextProvider));
+                PostgresWireProtocol postgresWireProtocol = new PostgresWireProtocol(wireProtocolSession, new SslReqHandler(sslContextProvider), queryExecutor, writeTimeout);
                 pipeline.addLast("frame-decoder", postgresWireProtocol.decoder);
                 pipeline.addLast("handler", postgresWireProtocol.handler);
             }
@@ -274,6 +291,9 @@ public class PostgresNetty
         catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException(e);
         }
+        finally {
+            queryExecutor.shutdownNow();
+        }
         LOGGER.info("close all channels.");
     }
 
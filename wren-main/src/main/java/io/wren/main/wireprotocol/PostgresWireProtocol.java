@@ -17,6 +17,7 @@ package io.wren.main.wireprotocol;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
+import io.airlift.units.Duration;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -43,6 +44,7 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -89,6 +91,10 @@ public class PostgresWireProtocol
     private final SslReqHandler sslReqHandler;
 
     private final WireProtocolSession wireProtocolSession;
+    private final Executor queryExecutor;
+    private final WritabilityMonitor writabilityMonitor;
+    // completes when every message received so far has been handled, only accessed by the event loop
+    private CompletableFuture<?> pendingMessages = CompletableFuture.completedFuture(null);
 
     enum State
     {
@@ -101,10 +107,12 @@ public class PostgresWireProtocol
 
     private State state = State.PRE_STARTUP;
 
-    public PostgresWireProtocol(WireProtocolSession wireProtocolSession, SslReqHandler sslReqHandler)
+    public PostgresWireProtocol(WireProtocolSession wireProtocolSession, SslReqHandler sslReqHandler, Executor queryExecutor, Duration writeTimeout)
     {
         this.wireProtocolSession = requireNonNull(wireProtocolSession, "wireProtocolSession is null");
         this.sslReqHandler = sslReqHandler;
+        this.queryExecutor = requireNonNull(queryExecutor, "queryExecutor is null");
+        this.writabilityMonitor = new WritabilityMonitor(writeTimeout);
         this.decoder = new MessageDecoder();
         this.handler = new MessageHandler();
     }
@@ -237,7 +245,7 @@ public class PostgresWireProtocol
         Messages.sendReadyForQuery(channel, TransactionState.IDLE);
     }
 
-    private void handleSimpleQuery(ByteBuf buffer, final Channel channel)
+    private CompletableFuture<?> handleSimpleQuery(ByteBuf buffer, final Channel channel)
     {
         String statement = readCString(buffer);
         LOG.debug("get statement: %s", statement);
@@ -249,7 +257,9 @@ public class PostgresWireProtocol
         for (String query : queries) {
             composedFuture = composedFuture.thenCompose(result -> handleSingleQuery(query, channel));
         }
-        composedFuture.whenComplete(new ReadyForQueryCallback(channel, TransactionState.IDLE));
+        // the failed query has been reported to the client already
+        return composedFuture.whenComplete(new ReadyForQueryCallback(channel, TransactionState.IDLE))
+                .exceptionally(ignored -> null);
     }
 
     private CompletableFuture<?> handleSingleQuery(String statement, Channel channel)
@@ -259,7 +269,7 @@ public class PostgresWireProtocol
             return CompletableFuture.completedFuture(null);
         }
         if (isIgnoredCommand(statement)) {
-            sendHardWiredSessionProperty(statement);
+            sendHardWiredSessionProperty(statement, channel);
             Messages.sendCommandComplete(channel, statement, 0);
             return CompletableFuture.completedFuture(null);
         }
@@ -268,13 +278,14 @@ public class PostgresWireProtocol
             wireProtocolSession.bind("", "", ImmutableList.of(), null);
             Optional<ConnectorRecordIterator> iterator = wireProtocolSession.execute("").join();
             if (iterator.isEmpty()) {
-                sendHardWiredSessionProperty(statement);
+                sendHardWiredSessionProperty(statement, channel);
                 Messages.sendCommandComplete(channel, statement, 0);
                 return CompletableFuture.completedFuture(null);
             }
             ResultSetSender resultSetSender = new ResultSetSender(
                     statement,
                     channel,
+                    writabilityMonitor,
                     iterator.get(),
                     0,
                     0,
@@ -318,7 +329,7 @@ public class PostgresWireProtocol
         return Optional.empty();
     }
 
-    private void sendHardWiredSessionProperty(String statement)
+    private void sendHardWiredSessionProperty(String statement, Channel channel)
     {
         Optional<Pair<String, String>> property = parseSetStmt(statement);
         if (property.isPresent() && PostgresSessionProperties.isHardWiredSessionProperty(property.get().getKey())) {
@@ -452,7 +463,7 @@ public class PostgresWireProtocol
                 return;
             }
             if (isIgnoredCommand(statement)) {
-                sendHardWiredSessionProperty(statement);
+                sendHardWiredSessionProperty(statement, channel);
                 Messages.sendCommandComplete(channel, statement, 0);
                 return;
             }
@@ -460,7 +471,7 @@ public class PostgresWireProtocol
             if (!portal.isSuspended()) {
                 Optional<ConnectorRecordIterator> connectorRecordIterable = wireProtocolSession.execute(portalName).join();
                 if (connectorRecordIterable.isEmpty()) {
-                    sendHardWiredSessionProperty(statement);
+                    sendHardWiredSessionProperty(statement, channel);
                     Messages.sendCommandComplete(channel, statement, 0);
                     return;
                 }
@@ -472,6 +483,7 @@ public class PostgresWireProtocol
             ResultSetSender resultSetSender = new ResultSetSender(
                     statement,
                     channel,
+                    writabilityMonitor,
                     connectorRecordIterable,
                     maxRows,
                     portal.getRowCount(),
@@ -484,16 +496,18 @@ public class PostgresWireProtocol
         }
     }
 
-    private void handleSync(final Channel channel)
+    private CompletableFuture<?> handleSync(final Channel channel)
     {
         try {
             ReadyForQueryCallback readyForQueryCallback = new ReadyForQueryCallback(channel, TransactionState.IDLE);
-            wireProtocolSession.sync().whenComplete(readyForQueryCallback);
+            return wireProtocolSession.sync().whenComplete(readyForQueryCallback)
+                    .exceptionally(ignored -> null);
         }
         catch (Throwable t) {
             LOG.error(format("Sync failed. Root cause is %s", t.getMessage()));
             Messages.sendErrorResponse(channel, t);
             Messages.sendReadyForQuery(channel, TransactionState.FAILED_TRANSACTION);
+            return CompletableFuture.completedFuture(null);
         }
     }
 
@@ -637,13 +651,33 @@ public class PostgresWireProtocol
                 case MSG_BODY:
                     state = PostgresWireProtocol.State.MSG_HEADER;
                     LOG.debug("msg=%s msgLength=%s readableBytes=%s", ((char) msgType), msgLength, buffer.readableBytes());
-                    dispatchMessage(buffer, channel);
+                    enqueueMessage(msgType, buffer, channel);
                     return;
                 default:
                     throw new IllegalStateException("Illegal state: " + state);
             }
         }
 
+        /**
+         * Messages are handled on the query executor so that planning and executing a query never blocks the event loop,
+         * which is shared with other connections. The messages of a connection are still handled one at a time
+         * in the order they arrived, as the extended query protocol requires.
+         */
+        private void enqueueMessage(byte msgType, ByteBuf buffer, Channel channel)
+        {
+            // the handler releases the buffer once channelRead0 returns
+            buffer.retain();
+            pendingMessages = pendingMessages
+                    .thenComposeAsync(ignored -> dispatchMessage(msgType, buffer, channel), queryExecutor)
+                    .handle((result, t) -> {
+                        buffer.release();
+                        if (t != null) {
+                            LOG.error(t, "Failed to handle message: %s", (char) msgType);
+                        }
+                        return null;
+                    });
+        }
+
         /**
          * Simple Query Mode:
          * handleSimpleQuery()
@@ -654,45 +688,61 @@ public class PostgresWireProtocol
          * handleParseMessage() -> handleBindMessage() -> handleExecute() -> handleSync()
          * @see <a href="https://www.postgresql.org/docs/9.3/protocol-flow.html#PROTOCOL-FLOW-EXT-QUERY">PROTOCOL-FLOW-EXT-QUERY</a>
          */
-        private void dispatchMessage(ByteBuf buffer, Channel channel)
+        private CompletableFuture<?> dispatchMessage(byte msgType, ByteBuf buffer, Channel channel)
         {
             LOG.debug("channel dispatch message. msgType: %s", msgType);
             switch (msgType) {
                 case 'Q': // Query (simple)
-                    handleSimpleQuery(buffer, channel);
-                    return;
+                    return handleSimpleQuery(buffer, channel);
                 case 'P':
                     handleParseMessage(buffer, channel);
-                    return;
+                    break;
                 case 'p':
                     handlePassword(buffer, channel);
-                    return;
+                    break;
                 case 'B':
                     handleBindMessage(buffer, channel);
-                    return;
+                    break;
                 case 'D':
                     handleDescribeMessage(buffer, channel);
-                    return;
+                    break;
                 case 'E':
                     handleExecute(buffer, channel);
-                    return;
+                    break;
                 case 'H':
                     handleFlush(channel);
-                    return;
+                    break;
                 case 'S':
-                    handleSync(channel);
-                    return;
+                    return handleSync(channel);
                 case 'C':
                     handleClose(buffer, channel);
-                    return;
+                    break;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     channel.close();
-                    return;
+                    break;
                 default:
                     Messages.sendErrorResponse(
                             channel,
                             new WrenException(GENERIC_INTERNAL_ERROR, "Unsupported messageType: " + msgType));
             }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx)
+                throws Exception
+        {
+            writabilityMonitor.writabilityChanged();
+            super.channelWritabilityChanged(ctx);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx)
+                throws Exception
+        {
+            // wake up the result set sender waiting for a channel that will never be writable again
+            writabilityMonitor.writabilityChanged();
+            super.channelInactive(ctx);
         }
 
         @Override
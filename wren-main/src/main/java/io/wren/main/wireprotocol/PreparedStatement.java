@@ -27,6 +27,7 @@ public class PreparedStatement
     private final String name;
     private final String statement;
     private final Optional<String> cacheStatement;
+    private final List<String> cachedTableNames;
     private final List<Integer> paramTypeOids;
     private final String originalStatement;
     private final boolean isSessionCommand;
@@ -40,13 +41,14 @@ public class PreparedStatement
             boolean isSessionCommand,
             QueryLevel queryLevel)
     {
-        this(name, statement, Optional.empty(), paramTypeOids, originalStatement, isSessionCommand, queryLevel);
+        this(name, statement, Optional.empty(), List.of(), paramTypeOids, originalStatement, isSessionCommand, queryLevel);
     }
 
     public PreparedStatement(
             String name,
             String statement,
             Optional<String> cacheStatement,
+            List<String> cachedTableNames,
             List<Integer> paramTypeOids,
             String originalStatement,
             boolean isSessionCommand,
@@ -55,6 +57,7 @@ public class PreparedStatement
         this.name = name.isEmpty() ? RESERVED_PREPARE_NAME : name;
         this.statement = statement;
         this.cacheStatement = cacheStatement;
+        this.cachedTableNames = cachedTableNames;
         this.paramTypeOids = paramTypeOids;
         this.originalStatement = originalStatement;
         this.isSessionCommand = isSessionCommand;
@@ -91,6 +94,11 @@ public class PreparedStatement
         return cacheStatement;
     }
 
+    public List<String> getCachedTableNames()
+    {
+        return cachedTableNames;
+    }
+
     public QueryLevel getQueryLevel()
     {
         return queryLevel;
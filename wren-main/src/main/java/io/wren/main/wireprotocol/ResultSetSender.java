@@ -17,32 +17,31 @@ package io.wren.main.wireprotocol;
 import io.netty.channel.Channel;
 import io.wren.base.Column;
 import io.wren.base.ConnectorRecordIterator;
-import io.wren.base.type.PGType;
+import io.wren.base.WrenException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import java.util.List;
-
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.wren.base.metadata.StandardErrorCode.ABANDONED_QUERY;
+import static java.lang.String.format;
 
 class ResultSetSender
         extends BaseResultSender
 {
     private final String query;
     private final Channel channel;
+    private final WritabilityMonitor writabilityMonitor;
     private final ConnectorRecordIterator connectorRecordIterator;
-    private final List<PGType> schema;
     private final int maxRows;
-
-    @Nullable
-    private final FormatCodes.FormatCode[] formatCodes;
+    private final DataRowEncoder dataRowEncoder;
 
     private long localRowCount;
     private long totalRowCount;
 
     ResultSetSender(String query,
             Channel channel,
+            WritabilityMonitor writabilityMonitor,
             ConnectorRecordIterator connectorRecordIterator,
             int maxRows,
             long previousCount,
@@ -50,26 +49,28 @@ class ResultSetSender
     {
         this.query = query;
         this.channel = channel;
+        this.writabilityMonitor = writabilityMonitor;
         this.connectorRecordIterator = connectorRecordIterator;
-        this.schema = connectorRecordIterator.getColumns().stream().map(Column::getType).collect(toImmutableList());
         this.maxRows = maxRows;
         this.totalRowCount = previousCount;
-        this.formatCodes = formatCodes;
+        this.dataRowEncoder = new DataRowEncoder(
+                channel,
+                connectorRecordIterator.getColumns().stream().map(Column::getType).collect(toImmutableList()),
+                formatCodes,
+                DataRowEncoder.DEFAULT_FLUSH_THRESHOLD);
     }
 
     @Override
     public void sendRow(Object[] row)
     {
         localRowCount++;
-        Messages.sendDataRow(channel, row, schema, formatCodes);
-        if (localRowCount % 1000 == 0) {
-            channel.flush();
-        }
+        dataRowEncoder.writeRow(row);
     }
 
     @Override
     public void batchFinished()
     {
+        dataRowEncoder.finish();
         Messages.sendPortalSuspended(channel);
     }
 
@@ -77,9 +78,11 @@ class ResultSetSender
     public void allFinished(boolean interrupted)
     {
         if (interrupted) {
+            dataRowEncoder.release();
             super.allFinished(true);
         }
         else {
+            dataRowEncoder.finish();
             Messages.sendCommandComplete(channel, query, totalRowCount);
         }
     }
@@ -93,17 +96,39 @@ class ResultSetSender
     public long sendResultSet()
             throws Exception
     {
-        while (connectorRecordIterator.hasNext()) {
-            sendRow(connectorRecordIterator.next());
-            if (maxRows > 0 && connectorRecordIterator.hasNext() && localRowCount % maxRows == 0) {
-                batchFinished();
-                totalRowCount += localRowCount;
-                return totalRowCount;
+        try {
+            while (connectorRecordIterator.hasNext()) {
+                sendRow(connectorRecordIterator.next());
+                if (!channel.isWritable()) {
+                    // stop producing rows until the client catches up instead of buffering the whole result
+                    channel.flush();
+                    if (!writabilityMonitor.awaitWritable(channel)) {
+                        // give the query thread back instead of waiting for a client that stopped reading
+                        connectorRecordIterator.close();
+                        throw new WrenException(ABANDONED_QUERY, format("Client read too little of the result within %s", writabilityMonitor.getWriteTimeout()));
+                    }
+                    if (!channel.isActive()) {
+                        totalRowCount += localRowCount;
+                        connectorRecordIterator.close();
+                        allFinished(true);
+                        return totalRowCount;
+                    }
+                }
+                if (maxRows > 0 && connectorRecordIterator.hasNext() && localRowCount % maxRows == 0) {
+                    batchFinished();
+                    totalRowCount += localRowCount;
+                    return totalRowCount;
+                }
             }
+            totalRowCount += localRowCount;
+            connectorRecordIterator.close();
+            allFinished(false);
+            return totalRowCount;
+        }
+        catch (Exception e) {
+            // the rows encoded before the failure are still sent ahead of the error response
+            dataRowEncoder.finish();
+            throw e;
         }
-        totalRowCount += localRowCount;
-        connectorRecordIterator.close();
-        allFinished(false);
-        return totalRowCount;
     }
 }
@@ -22,6 +22,7 @@ import io.trino.sql.parser.SqlParser;
 import io.trino.sql.tree.Deallocate;
 import io.trino.sql.tree.Statement;
 import io.wren.base.AnalyzedMDL;
+import io.wren.base.CatalogSchemaTableName;
 import io.wren.base.Column;
 import io.wren.base.ConnectorRecordIterator;
 import io.wren.base.SessionContext;
@@ -29,10 +30,12 @@ import io.wren.base.WrenException;
 import io.wren.base.config.WrenConfig;
 import io.wren.base.sql.SqlConverter;
 import io.wren.base.sqlrewrite.CacheRewrite;
+import io.wren.base.sqlrewrite.ParameterizedStatement;
 import io.wren.base.sqlrewrite.WrenPlanner;
 import io.wren.base.wireprotocol.PgMetastore;
 import io.wren.cache.CacheManager;
 import io.wren.cache.CachedTableMapping;
+import io.wren.main.PlanCache;
 import io.wren.main.WrenMetastore;
 import io.wren.main.metadata.Metadata;
 import io.wren.main.pgcatalog.regtype.RegObjectFactory;
@@ -55,6 +58,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.trino.execution.ParameterExtractor.getParameterCount;
 import static io.trino.execution.sql.SqlFormatterUtil.getFormattedSql;
 import static io.wren.base.metadata.StandardErrorCode.INVALID_PARAMETER_USAGE;
@@ -298,6 +302,23 @@ public class WireProtocolSession
     private void parseDataSourceQuery(String statementName, String statement, List<Integer> paramTypes)
     {
         String statementTrimmed = rewritePreparedChar(statement.split(";")[0].trim());
+        PlanCache.Plan plan = planDataSourceQuery(statementTrimmed);
+        List<Integer> rewrittenParamTypes = rewriteParameters(plan.getParameterCount(), paramTypes);
+        preparedStatements.put(statementName,
+                new PreparedStatement(
+                        statementName,
+                        plan.getStatement(),
+                        plan.getCacheStatement(),
+                        plan.getCachedTableNames(),
+                        rewrittenParamTypes,
+                        statementTrimmed,
+                        plan.isSessionCommand(),
+                        QueryLevel.DATASOURCE));
+        LOG.info("Create preparedStatement %s", statementName);
+    }
+
+    private PlanCache.Plan planDataSourceQuery(String statementTrimmed)
+    {
         // To fit SQL syntax of Wren
         String statementPreRewritten = PostgreSqlRewriteUtil.rewrite(statementTrimmed);
         SessionContext sessionContext = SessionContext.builder()
@@ -306,25 +327,55 @@ public class WireProtocolSession
                 .setEnableDynamic(wrenConfig.getEnableDynamicFields())
                 .build();
         AnalyzedMDL analyzedMDL = wrenMetastore.getAnalyzedMDL();
-        String wrenRewritten = WrenPlanner.rewrite(
-                statementPreRewritten,
-                sessionContext,
-                analyzedMDL);
+        PlanCache planCache = wrenMetastore.getPlanCache();
+        PlanCache.PlanKey planKey = new PlanCache.PlanKey(statementPreRewritten, sessionContext, analyzedMDL);
+        PlanCache.Plan plan = planCache.get(planKey, () -> plan(statementPreRewritten, sessionContext, analyzedMDL));
+        if (plan.isCacheStatementStale(cachedTableMapping::convertToCachedTable)) {
+            Map<CatalogSchemaTableName, Optional<String>> cachedTables = new HashMap<>();
+            Optional<String> cacheStatement = cacheRewrite(statementPreRewritten, sessionContext, analyzedMDL, cachedTables);
+            plan = plan.withCacheStatement(cacheStatement, cachedTables);
+            planCache.put(planKey, plan);
+        }
+        return plan;
+    }
+
+    private PlanCache.Plan plan(String statementPreRewritten, SessionContext sessionContext, AnalyzedMDL analyzedMDL)
+    {
+        // queries only differing in literals share the statement planned by Wren
+        ParameterizedStatement parameterized = ParameterizedStatement.parameterize(sqlParser.createStatement(statementPreRewritten, PARSE_AS_DECIMAL));
+        Statement planned = wrenMetastore.getPlanCache().getPlannedStatement(
+                new PlanCache.PlanKey(parameterized.getFingerprint(), sessionContext, analyzedMDL),
+                () -> WrenPlanner.plan(
+                        parameterized.getStatement(),
+                        sessionContext.withParametersLiftedFromLiterals(!parameterized.getLiterals().isEmpty()),
+                        analyzedMDL));
+        String wrenRewritten = SqlFormatter.formatSql(parameterized.bind(planned));
         // TODO: support set session property
         // validateSetSessionProperty(statementPreRewritten);
         Statement parsedStatement = sqlParser.createStatement(wrenRewritten, PARSE_AS_DECIMAL);
         Statement rewrittenStatement = PostgreSqlRewrite.rewrite(regObjectFactory, metadata.getDefaultCatalog(), metadata.getPgCatalogName(), parsedStatement);
-        List<Integer> rewrittenParamTypes = rewriteParameters(rewrittenStatement, paramTypes);
-        preparedStatements.put(statementName,
-                new PreparedStatement(
-                        statementName,
-                        getFormattedSql(rewrittenStatement, sqlParser),
-                        CacheRewrite.rewrite(sessionContext, statementPreRewritten, cachedTableMapping::convertToCachedTable, analyzedMDL.getWrenMDL()),
-                        rewrittenParamTypes,
-                        statementTrimmed,
-                        isSessionCommand(rewrittenStatement),
-                        QueryLevel.DATASOURCE));
-        LOG.info("Create preparedStatement %s", statementName);
+        Map<CatalogSchemaTableName, Optional<String>> cachedTables = new HashMap<>();
+        Optional<String> cacheStatement = cacheRewrite(statementPreRewritten, sessionContext, analyzedMDL, cachedTables);
+        return new PlanCache.Plan(
+                getFormattedSql(rewrittenStatement, sqlParser),
+                getParameterCount(rewrittenStatement),
+                isSessionCommand(rewrittenStatement),
+                cacheStatement,
+                cachedTables);
+    }
+
+    private Optional<String> cacheRewrite(
+            String statementPreRewritten,
+            SessionContext sessionContext,
+            AnalyzedMDL analyzedMDL,
+            Map<CatalogSchemaTableName, Optional<String>> cachedTables)
+    {
+        // record every cached table looked up, so the cached plan can tell if the cached tables are refreshed
+        return CacheRewrite.rewrite(
+                sessionContext,
+                statementPreRewritten,
+                table -> cachedTables.computeIfAbsent(table, cachedTableMapping::convertToCachedTable),
+                analyzedMDL.getWrenMDL());
     }
 
     private void createMetadataQueryPreparedStatement(String statementName, String statement, String rewritten, List<Integer> paramTypes, QueryLevel level)
@@ -409,6 +460,7 @@ public class WireProtocolSession
         }
 
         String execStmt = portal.getPreparedStatement().getStatement();
+        // run on the calling thread, which is already a query executor thread rather than the event loop
         return CompletableFuture.supplyAsync(() -> executeCache(portal).or(() -> {
             String sql = sqlConverter.convert(execStmt,
                     SessionContext.builder()
@@ -417,20 +469,33 @@ public class WireProtocolSession
                             .setEnableDynamic(wrenConfig.getEnableDynamicFields())
                             .build());
             return Optional.of(metadata.directQuery(sql, portal.getParameters()));
-        }));
+        }), directExecutor());
     }
 
     private Optional<ConnectorRecordIterator> executeCache(Portal portal)
     {
-        return portal.getPreparedStatement().getCacheStatement().map(statement -> {
-            try {
-                return cacheManager.query(statement, portal.getParameters());
+        PreparedStatement preparedStatement = portal.getPreparedStatement();
+        if (preparedStatement.getCacheStatement().isEmpty()) {
+            return Optional.empty();
+        }
+        String statement = preparedStatement.getCacheStatement().get();
+        try {
+            Optional<ConnectorRecordIterator> iterator = cacheManager.query(statement, preparedStatement.getCachedTableNames(), portal.getParameters());
+            if (iterator.isPresent()) {
+                return iterator;
             }
-            catch (Exception e) {
-                LOG.warn(e, "Failed to execute cache query: %s", statement);
-                return null;
+            // the cached tables were swapped by a refresh after the statement was prepared
+            PlanCache.Plan plan = planDataSourceQuery(preparedStatement.getOriginalStatement());
+            if (plan.getCacheStatement().isEmpty()) {
+                return Optional.empty();
             }
-        });
+            statement = plan.getCacheStatement().get();
+            return cacheManager.query(statement, plan.getCachedTableNames(), portal.getParameters());
+        }
+        catch (Exception e) {
+            LOG.warn(e, "Failed to execute cache query: %s", statement);
+            return Optional.empty();
+        }
     }
 
     private CompletableFuture<Optional<Iterable<?>>> executeSessionCommand(Portal portal)
@@ -562,10 +627,8 @@ public class WireProtocolSession
         }
     }
 
-    private List<Integer> rewriteParameters(Statement statement, List<Integer> paramTypes)
+    private List<Integer> rewriteParameters(int parameters, List<Integer> paramTypes)
     {
-        int parameters = getParameterCount(statement);
-
         if (paramTypes.size() >= parameters) {
             return paramTypes;
         }
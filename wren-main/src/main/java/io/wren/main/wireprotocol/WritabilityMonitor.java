@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.wireprotocol;
+
+import io.airlift.units.Duration;
+import io.netty.channel.Channel;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Lets the thread sending a result set wait while the channel is unwritable, i.e. while the outbound buffer
+ * is above the high water mark, until the client has read enough to bring it below the low water mark again.
+ * The wait is bounded by the write timeout, so a client that stops reading does not hold a query thread forever.
+ * The handler of the channel must call {@link #writabilityChanged()} when the writability changes or the channel becomes inactive.
+ */
+class WritabilityMonitor
+{
+    private final Duration writeTimeout;
+
+    WritabilityMonitor(Duration writeTimeout)
+    {
+        this.writeTimeout = requireNonNull(writeTimeout, "writeTimeout is null");
+    }
+
+    Duration getWriteTimeout()
+    {
+        return writeTimeout;
+    }
+
+    /**
+     * @return false if the channel is still unwritable after the write timeout
+     */
+    synchronized boolean awaitWritable(Channel channel)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + writeTimeout.roundTo(NANOSECONDS);
+        while (channel.isActive() && !channel.isWritable()) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return false;
+            }
+            NANOSECONDS.timedWait(this, remainingNanos);
+        }
+        return true;
+    }
+
+    synchronized void writabilityChanged()
+    {
+        notifyAll();
+    }
+}
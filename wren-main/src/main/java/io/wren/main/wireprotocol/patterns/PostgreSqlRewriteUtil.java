@@ -75,6 +75,7 @@ public final class PostgreSqlRewriteUtil
         PreparedStatement preparedStatement = new PreparedStatement(portal.getPreparedStatement().getName(),
                 rewrittenSql.orElse(statement),
                 portal.getPreparedStatement().getCacheStatement(),
+                portal.getPreparedStatement().getCachedTableNames(),
                 rewrittenSql.isPresent() ? List.of() : portal.getPreparedStatement().getParamTypeOids(),
                 portal.getPreparedStatement().getOriginalStatement(),
                 portal.getPreparedStatement().isSessionCommand(),
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main;
+
+import io.airlift.units.DataSize;
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import io.trino.sql.tree.Statement;
+import io.wren.base.AnalyzedMDL;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.SessionContext;
+import io.wren.base.WrenMDL;
+import io.wren.base.config.WrenConfig;
+import io.wren.base.sqlrewrite.ParameterizedStatement;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPlanCache
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+    private static final SessionContext SESSION_CONTEXT = SessionContext.builder().setCatalog("wren").setSchema("test").build();
+
+    @Test
+    public void testHitAndMiss()
+    {
+        PlanCache planCache = new PlanCache(new WrenConfig());
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(WrenMDL.EMPTY, null);
+
+        planCache.get(new PlanCache.PlanKey("SELECT 1", SESSION_CONTEXT, analyzedMDL), () -> plan("SELECT 1"));
+        PlanCache.Plan cached = planCache.get(new PlanCache.PlanKey("SELECT 1", SESSION_CONTEXT, analyzedMDL), () -> plan("unexpected"));
+        assertThat(cached.getStatement()).isEqualTo("SELECT 1");
+        assertThat(planCache.getHits().getTotalCount()).isEqualTo(1);
+        assertThat(planCache.getMisses().getTotalCount()).isEqualTo(1);
+
+        // different session settings or mdl never share a plan
+        planCache.get(new PlanCache.PlanKey("SELECT 1", SessionContext.builder().setCatalog("wren").setSchema("other").build(), analyzedMDL), () -> plan("SELECT 1"));
+        planCache.get(new PlanCache.PlanKey("SELECT 1", SessionContext.builder().setCatalog("wren").setSchema("test").setEnableDynamic(true).build(), analyzedMDL), () -> plan("SELECT 1"));
+        planCache.get(new PlanCache.PlanKey("SELECT 1", SESSION_CONTEXT, new AnalyzedMDL(WrenMDL.EMPTY, null)), () -> plan("SELECT 1"));
+        assertThat(planCache.getHits().getTotalCount()).isEqualTo(1);
+        assertThat(planCache.getMisses().getTotalCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testInvalidateOnDeploy()
+    {
+        WrenMetastore wrenMetastore = new WrenMetastore();
+        PlanCache planCache = wrenMetastore.getPlanCache();
+        planCache.get(new PlanCache.PlanKey("SELECT 1", SESSION_CONTEXT, wrenMetastore.getAnalyzedMDL()), () -> plan("SELECT 1"));
+        assertThat(planCache.getSize()).isEqualTo(1);
+
+        wrenMetastore.setWrenMDL(WrenMDL.EMPTY, "1");
+        assertThat(planCache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testBounded()
+    {
+        PlanCache planCache = new PlanCache(new WrenConfig().setPlanCacheMaxEntries(10));
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(WrenMDL.EMPTY, null);
+        for (int i = 0; i < 100; i++) {
+            String sql = "SELECT " + i;
+            planCache.get(new PlanCache.PlanKey(sql, SESSION_CONTEXT, analyzedMDL), () -> plan(sql));
+        }
+        assertThat(planCache.getSize()).isLessThanOrEqualTo(10);
+
+        planCache = new PlanCache(new WrenConfig().setPlanCacheMaxMemory(DataSize.of(64, DataSize.Unit.KILOBYTE)));
+        String largeSql = "SELECT '" + "x".repeat(10000) + "'";
+        for (int i = 0; i < 100; i++) {
+            String sql = largeSql + i;
+            planCache.get(new PlanCache.PlanKey(sql, SESSION_CONTEXT, analyzedMDL), () -> plan(sql));
+        }
+        assertThat(planCache.getSize()).isLessThanOrEqualTo(4);
+
+        planCache = new PlanCache(new WrenConfig().setPlanCacheMaxEntries(0));
+        planCache.get(new PlanCache.PlanKey("SELECT 1", SESSION_CONTEXT, analyzedMDL), () -> plan("SELECT 1"));
+        assertThat(planCache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPlannedStatementSharedByFingerprint()
+    {
+        PlanCache planCache = new PlanCache(new WrenConfig());
+        AnalyzedMDL analyzedMDL = new AnalyzedMDL(WrenMDL.EMPTY, null);
+
+        ParameterizedStatement first = parameterize("SELECT * FROM foo WHERE a = 1 AND b = 'x'");
+        ParameterizedStatement second = parameterize("select * from foo where a = 2 and b = 'y'");
+        Statement planned = planCache.getPlannedStatement(new PlanCache.PlanKey(first.getFingerprint(), SESSION_CONTEXT, analyzedMDL), first::getStatement);
+        Statement cached = planCache.getPlannedStatement(new PlanCache.PlanKey(second.getFingerprint(), SESSION_CONTEXT, analyzedMDL), () -> {
+            throw new AssertionError("unexpected");
+        });
+        assertThat(cached).isSameAs(planned);
+        assertThat(formatSql(second.bind(cached))).isEqualTo(formatSql(SQL_PARSER.createStatement("SELECT * FROM foo WHERE a = 2 AND b = 'y'", new ParsingOptions(AS_DECIMAL))));
+        assertThat(planCache.getPlannedStatementHits().getTotalCount()).isEqualTo(1);
+        assertThat(planCache.getPlannedStatementMisses().getTotalCount()).isEqualTo(1);
+
+        planCache.invalidateAll();
+        assertThat(planCache.getPlannedStatementSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStaleCacheStatement()
+    {
+        CatalogSchemaTableName table = new CatalogSchemaTableName("wren", "test", "Orders");
+        PlanCache.Plan plan = new PlanCache.Plan("SELECT * FROM Orders", 0, false, Optional.of("SELECT * FROM orders_1"), Map.of(table, Optional.of("orders_1")));
+        assertThat(plan.isCacheStatementStale(name -> Optional.of("orders_1"))).isFalse();
+        assertThat(plan.isCacheStatementStale(name -> Optional.of("orders_2"))).isTrue();
+        assertThat(plan.isCacheStatementStale(name -> Optional.empty())).isTrue();
+    }
+
+    private static ParameterizedStatement parameterize(String sql)
+    {
+        return ParameterizedStatement.parameterize(SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL)));
+    }
+
+    private static PlanCache.Plan plan(String statement)
+    {
+        return new PlanCache.Plan(statement, 0, false, Optional.empty(), Map.of());
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.main;
+
+import io.trino.sql.parser.ParsingOptions;
+import io.trino.sql.parser.SqlParser;
+import org.testng.annotations.Test;
+
+import static io.trino.sql.SqlFormatter.formatSql;
+import static io.trino.sql.parser.ParsingOptions.DecimalLiteralTreatment.AS_DECIMAL;
+import static io.wren.main.PreviewService.withLimit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPreviewService
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+
+    @Test
+    public void testWithLimit()
+    {
+        assertLimit("SELECT * FROM Orders", "SELECT * FROM Orders LIMIT 100");
+        assertLimit("SELECT * FROM Orders ORDER BY orderkey LIMIT 10", "SELECT * FROM Orders ORDER BY orderkey LIMIT 10");
+        assertLimit("SELECT * FROM Orders ORDER BY orderkey LIMIT 1000", "SELECT * FROM Orders ORDER BY orderkey LIMIT 100");
+        assertLimit("SELECT * FROM Orders LIMIT ALL", "SELECT * FROM Orders LIMIT 100");
+        assertLimit("SELECT orderkey FROM Orders UNION SELECT custkey FROM Customer", "SELECT orderkey FROM Orders UNION SELECT custkey FROM Customer LIMIT 100");
+        assertLimit("WITH o AS (SELECT * FROM Orders) SELECT * FROM o", "WITH o AS (SELECT * FROM Orders) SELECT * FROM o LIMIT 100");
+        assertLimit("SELECT * FROM Orders ORDER BY orderkey FETCH FIRST 1000 ROWS WITH TIES",
+                "SELECT * FROM (SELECT * FROM Orders ORDER BY orderkey FETCH FIRST 1000 ROWS WITH TIES) LIMIT 100");
+    }
+
+    private static void assertLimit(String sql, String expected)
+    {
+        assertThat(formatSql(withLimit(SQL_PARSER.createStatement(sql, new ParsingOptions(AS_DECIMAL)), 100)))
+                .isEqualTo(formatSql(SQL_PARSER.createStatement(expected, new ParsingOptions(AS_DECIMAL))));
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.main.connector.bigquery;
+
+import com.google.cloud.bigquery.Field;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.Schema;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+import com.google.cloud.bigquery.TableResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.google.cloud.bigquery.FieldValue.Attribute.PRIMITIVE;
+import static com.google.cloud.bigquery.FieldValue.Attribute.REPEATED;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.wren.main.connector.bigquery.TestingTableResult.tableResult;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares reading a BigQuery result by looking up every field by name and switching on its type, as it used to be
+ * done, against the field decoders of {@link BigQueryRecordIterator}, over rows shaped like TPC-H lineitem.
+ * Run main() to see rows/sec and, from the gc profiler, the allocation rate.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkBigQueryRecordIterator
+{
+    private static final int ROWS = 100_000;
+    private static final int PAGE_SIZE = 10_000;
+    private static final Schema SCHEMA = Schema.of(
+            Field.of("l_orderkey", StandardSQLTypeName.INT64),
+            Field.of("l_partkey", StandardSQLTypeName.INT64),
+            Field.of("l_quantity", StandardSQLTypeName.NUMERIC),
+            Field.of("l_extendedprice", StandardSQLTypeName.NUMERIC),
+            Field.of("l_discount", StandardSQLTypeName.FLOAT64),
+            Field.of("l_returnflag", StandardSQLTypeName.STRING),
+            Field.of("l_shipdate", StandardSQLTypeName.DATE),
+            Field.of("l_shiptime", StandardSQLTypeName.TIMESTAMP),
+            Field.newBuilder("l_tags", StandardSQLTypeName.STRING).setMode(Field.Mode.REPEATED).build(),
+            Field.of("l_comment", StandardSQLTypeName.STRING));
+
+    @Param({"PER_NAME", "FIELD_DECODERS"})
+    private String reader = "FIELD_DECODERS";
+
+    private TableResult tableResult;
+
+    @Setup
+    public void setup()
+    {
+        setup(ROWS);
+    }
+
+    private void setup(int rows)
+    {
+        List<FieldValueList> values = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            values.add(FieldValueList.of(List.of(
+                    FieldValue.of(PRIMITIVE, String.valueOf(i)),
+                    FieldValue.of(PRIMITIVE, String.valueOf(i % 200000)),
+                    FieldValue.of(PRIMITIVE, (i % 50 + 1) + ".00"),
+                    FieldValue.of(PRIMITIVE, i + ".70"),
+                    FieldValue.of(PRIMITIVE, "0.0" + i % 10),
+                    FieldValue.of(PRIMITIVE, i % 3 == 0 ? "R" : "N"),
+                    FieldValue.of(PRIMITIVE, LocalDate.of(1992, 1, 1).plusDays(i % 2500).toString()),
+                    FieldValue.of(PRIMITIVE, (694224000L + i) + ".000000"),
+                    FieldValue.of(REPEATED, List.of(FieldValue.of(PRIMITIVE, "tag" + i % 5))),
+                    FieldValue.of(PRIMITIVE, "comment of line " + i)),
+                    SCHEMA.getFields()));
+        }
+        tableResult = tableResult(SCHEMA, Lists.partition(values, PAGE_SIZE));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void readRows(Blackhole blackhole)
+    {
+        readRows(tableResult, reader, blackhole::consume);
+    }
+
+    private static void readRows(TableResult tableResult, String reader, Consumer<Object[]> consumer)
+    {
+        switch (reader) {
+            case "PER_NAME":
+                readPerName(tableResult, consumer);
+                break;
+            case "FIELD_DECODERS":
+                BigQueryRecordIterator.of(tableResult).forEachRemaining(consumer);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown reader: " + reader);
+        }
+    }
+
+    /**
+     * The conversion used before the field decoders of BigQueryRecordIterator, for the types of the benchmark
+     */
+    private static void readPerName(TableResult tableResult, Consumer<Object[]> consumer)
+    {
+        List<Field> fields = tableResult.getSchema().getFields();
+        for (FieldValueList fieldValues : tableResult.iterateAll()) {
+            consumer.accept(fields.stream()
+                    .map(field -> getFieldValue(field, fieldValues.get(field.getName())))
+                    .toArray());
+        }
+    }
+
+    private static Object getFieldValue(Field field, FieldValue fieldValue)
+    {
+        if (fieldValue.isNull()) {
+            return null;
+        }
+        if (Field.Mode.REPEATED.equals(field.getMode())) {
+            return fieldValue.getRepeatedValue().stream()
+                    .map(innerField -> getFieldValueByType(field, innerField))
+                    .collect(toImmutableList());
+        }
+        return getFieldValueByType(field, fieldValue);
+    }
+
+    private static Object getFieldValueByType(Field field, FieldValue fieldValue)
+    {
+        StandardSQLTypeName typeName = field.getType().getStandardType();
+        switch (typeName) {
+            case INT64:
+                return fieldValue.getLongValue();
+            case FLOAT64:
+                return fieldValue.getDoubleValue();
+            case STRING:
+                return fieldValue.getStringValue();
+            case DATE:
+                return LocalDate.parse((String) fieldValue.getValue());
+            case TIMESTAMP:
+                long microSeconds = fieldValue.getTimestampValue();
+                Instant instant = Instant.ofEpochSecond(microSeconds / 1000000, microSeconds % 1000000 * 1000);
+                return LocalDateTime.ofInstant(instant, UTC);
+            case NUMERIC:
+                return fieldValue.getNumericValue();
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + typeName);
+        }
+    }
+
+    @Test
+    public void testSameOutput()
+    {
+        BenchmarkBigQueryRecordIterator benchmark = new BenchmarkBigQueryRecordIterator();
+        benchmark.setup(PAGE_SIZE * 3 / 2);
+        assertThat(read(benchmark.tableResult, "FIELD_DECODERS")).containsExactlyElementsOf(read(benchmark.tableResult, "PER_NAME"));
+    }
+
+    private static List<Object[]> read(TableResult tableResult, String reader)
+    {
+        ImmutableList.Builder<Object[]> rows = ImmutableList.builder();
+        readRows(tableResult, reader, rows::add);
+        List<Object[]> result = rows.build();
+        assertThat(result).hasSize(PAGE_SIZE * 3 / 2);
+        return result;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkBigQueryRecordIterator.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.main.connector.bigquery;
+
+import com.google.cloud.bigquery.Field;
+import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.Schema;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+import io.wren.base.Column;
+import org.joda.time.Period;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.cloud.bigquery.FieldValue.Attribute.PRIMITIVE;
+import static com.google.cloud.bigquery.FieldValue.Attribute.RECORD;
+import static com.google.cloud.bigquery.FieldValue.Attribute.REPEATED;
+import static io.wren.main.connector.bigquery.TestingTableResult.tableResult;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestBigQueryRecordIterator
+{
+    private static final FieldList ADDRESS = FieldList.of(
+            Field.of("city", StandardSQLTypeName.STRING),
+            Field.of("zip", StandardSQLTypeName.INT64));
+    private static final Schema SCHEMA = Schema.of(
+            Field.of("id", StandardSQLTypeName.INT64),
+            Field.of("active", StandardSQLTypeName.BOOL),
+            Field.of("price", StandardSQLTypeName.NUMERIC),
+            Field.of("ratio", StandardSQLTypeName.FLOAT64),
+            Field.of("created", StandardSQLTypeName.DATE),
+            Field.of("updated", StandardSQLTypeName.TIMESTAMP),
+            Field.of("elapsed", StandardSQLTypeName.INTERVAL),
+            Field.newBuilder("tags", StandardSQLTypeName.STRING).setMode(Field.Mode.REPEATED).build(),
+            Field.of("address", StandardSQLTypeName.STRUCT, ADDRESS));
+
+    @Test
+    public void testDecodeRows()
+    {
+        List<FieldValueList> firstPage = List.of(row(
+                primitive("1"),
+                primitive("true"),
+                primitive("12.50"),
+                primitive("0.25"),
+                primitive("2024-02-29"),
+                primitive("1700000000.123456"),
+                primitive("1-2 3 4:05:06.5"),
+                FieldValue.of(REPEATED, List.of(primitive("a"), primitive("b"))),
+                FieldValue.of(RECORD, FieldValueList.of(List.of(primitive("Taipei"), primitive("100")), ADDRESS))));
+        List<FieldValueList> secondPage = List.of(row(
+                primitive("2"),
+                primitive(null),
+                primitive(null),
+                primitive(null),
+                primitive(null),
+                primitive(null),
+                primitive(null),
+                FieldValue.of(REPEATED, List.of()),
+                FieldValue.of(RECORD, FieldValueList.of(List.of(primitive(null), primitive(null)), ADDRESS))));
+
+        BigQueryRecordIterator iterator = BigQueryRecordIterator.of(tableResult(SCHEMA, List.of(firstPage, secondPage)));
+        assertThat(iterator.getColumns()).extracting(Column::getName)
+                .containsExactly("id", "active", "price", "ratio", "created", "updated", "elapsed", "tags", "address");
+
+        List<Object[]> rows = new ArrayList<>();
+        iterator.forEachRemaining(rows::add);
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsExactly(
+                1L,
+                true,
+                new BigDecimal("12.50"),
+                0.25,
+                LocalDate.of(2024, 2, 29),
+                LocalDateTime.of(2023, 11, 14, 22, 13, 20, 123456000),
+                new Period(1, 2, 0, 3, 4, 5, 6, 500),
+                List.of("a", "b"),
+                Map.of("city", "Taipei", "zip", 100L));
+        Map<String, Object> nullAddress = new LinkedHashMap<>();
+        nullAddress.put("city", null);
+        nullAddress.put("zip", null);
+        assertThat(rows.get(1)).containsExactly(2L, null, null, null, null, null, null, List.of(), nullAddress);
+    }
+
+    private static FieldValueList row(FieldValue... values)
+    {
+        return FieldValueList.of(Arrays.asList(values), SCHEMA.getFields());
+    }
+
+    private static FieldValue primitive(String value)
+    {
+        return FieldValue.of(PRIMITIVE, value);
+    }
+}
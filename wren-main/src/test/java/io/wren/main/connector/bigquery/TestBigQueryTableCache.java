@@ -0,0 +1,241 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.main.connector.bigquery;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.BigQueryOptions;
+import com.google.cloud.bigquery.DatasetId;
+import com.google.cloud.bigquery.TableDefinition;
+import com.google.cloud.bigquery.TableId;
+import com.google.cloud.bigquery.TableInfo;
+import com.google.cloud.http.HttpTransportOptions;
+import io.airlift.units.Duration;
+import io.wren.base.metadata.TableMetadata;
+import io.wren.connector.bigquery.BigQueryClient;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestBigQueryTableCache
+{
+    private static final String PROJECT = "project";
+    private static final DatasetId DATASET = DatasetId.of("tpch");
+    private static final int TABLES = 40;
+    private static final int FETCH_CONCURRENCY = 8;
+    private static final Duration LATENCY = new Duration(50, MILLISECONDS);
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-table-cache-%s"));
+
+    @AfterClass(alwaysRun = true)
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFetchTablesConcurrently()
+    {
+        StubBigQueryClient client = new StubBigQueryClient(TABLES);
+        BigQueryTableCache cache = new BigQueryTableCache(executor, FETCH_CONCURRENCY, new Duration(10, MINUTES));
+
+        long start = nanoTime();
+        List<TableMetadata> tables = cache.listTables(client, DATASET);
+        long elapsed = (nanoTime() - start) / 1_000_000;
+
+        assertThat(tables).extracting(table -> table.getTable().getTableName())
+                .containsExactlyElementsOf(client.tables.keySet().stream().sorted().collect(toImmutableList()));
+        assertThat(tables.get(0).getColumns()).hasSize(2);
+        assertThat(client.getTableCalls.get()).isEqualTo(TABLES);
+        assertThat(client.maxConcurrentCalls.get()).isLessThanOrEqualTo(FETCH_CONCURRENCY);
+        assertThat(elapsed).isLessThan(TABLES * LATENCY.toMillis() / 2);
+    }
+
+    @Test
+    public void testFetchOnlyChangedTables()
+    {
+        StubBigQueryClient client = new StubBigQueryClient(TABLES);
+        BigQueryTableCache cache = new BigQueryTableCache(executor, FETCH_CONCURRENCY, new Duration(10, MINUTES));
+        cache.listTables(client, DATASET);
+
+        // the unchanged tables are only listed, not fetched again
+        assertThat(cache.listTables(client, DATASET)).hasSize(TABLES);
+        assertThat(client.listTablesCalls.get()).isEqualTo(2);
+        assertThat(client.getTableCalls.get()).isEqualTo(TABLES);
+
+        // recreate one table, drop one and add one
+        client.tables.put("table_00", 2L);
+        client.tables.remove("table_01");
+        client.tables.put("table_99", 1L);
+        List<TableMetadata> tables = cache.listTables(client, DATASET);
+        assertThat(tables).hasSize(TABLES);
+        assertThat(tables).extracting(table -> table.getTable().getTableName()).contains("table_00", "table_99").doesNotContain("table_01");
+        assertThat(client.getTableCalls.get()).isEqualTo(TABLES + 2);
+
+        cache.invalidateAll();
+        cache.listTables(client, DATASET);
+        assertThat(client.getTableCalls.get()).isEqualTo(TABLES * 2 + 2);
+    }
+
+    @Test
+    public void testExpireTables()
+            throws Exception
+    {
+        StubBigQueryClient client = new StubBigQueryClient(2);
+        BigQueryTableCache cache = new BigQueryTableCache(executor, FETCH_CONCURRENCY, new Duration(200, MILLISECONDS));
+        cache.listTables(client, DATASET);
+        cache.listTables(client, DATASET);
+        assertThat(client.getTableCalls.get()).isEqualTo(2);
+
+        Thread.sleep(300);
+        cache.listTables(client, DATASET);
+        assertThat(client.getTableCalls.get()).isEqualTo(4);
+    }
+
+    /**
+     * Records the calls to BigQuery, and adds the latency of BigQuery to each of them. The tables are read by the
+     * BigQuery client from a fake BigQuery endpoint.
+     */
+    private static class StubBigQueryClient
+            extends BigQueryClient
+    {
+        // table name -> creation time
+        private final Map<String, Long> tables;
+        private final AtomicInteger listTablesCalls = new AtomicInteger();
+        private final AtomicInteger getTableCalls = new AtomicInteger();
+        private final AtomicInteger concurrentCalls = new AtomicInteger();
+        private final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+        private StubBigQueryClient(int tableCount)
+        {
+            this(new ConcurrentHashMap<>());
+            for (int i = 0; i < tableCount; i++) {
+                tables.put(format("table_%02d", i), 1L);
+            }
+        }
+
+        private StubBigQueryClient(Map<String, Long> tables)
+        {
+            super(fakeBigQuery(tables));
+            this.tables = tables;
+        }
+
+        @Override
+        public List<TableInfo> listTables(DatasetId datasetId, TableDefinition.Type... types)
+        {
+            listTablesCalls.incrementAndGet();
+            call();
+            return super.listTables(datasetId, types);
+        }
+
+        @Override
+        public TableInfo getTable(TableId tableId)
+        {
+            getTableCalls.incrementAndGet();
+            maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+            try {
+                call();
+            }
+            finally {
+                concurrentCalls.decrementAndGet();
+            }
+            return super.getTable(tableId);
+        }
+
+        private static void call()
+        {
+            try {
+                Thread.sleep(LATENCY.toMillis());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static BigQuery fakeBigQuery(Map<String, Long> tables)
+    {
+        HttpTransport transport = new MockHttpTransport()
+        {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url)
+            {
+                return new MockLowLevelHttpRequest(url)
+                {
+                    @Override
+                    public LowLevelHttpResponse execute()
+                    {
+                        return respond(tables, URI.create(url).getPath());
+                    }
+                };
+            }
+        };
+        return BigQueryOptions.newBuilder()
+                .setProjectId(PROJECT)
+                .setCredentials(NoCredentials.getInstance())
+                .setTransportOptions(HttpTransportOptions.newBuilder().setHttpTransportFactory(() -> transport).build())
+                .build()
+                .getService();
+    }
+
+    // the responses of the tables.list and tables.get APIs
+    private static MockLowLevelHttpResponse respond(Map<String, Long> tables, String path)
+    {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse().setContentType(Json.MEDIA_TYPE);
+        if (path.endsWith("/tables")) {
+            String listedTables = tables.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .map(table -> tableJson(table.getKey(), table.getValue(), ""))
+                    .collect(joining(", "));
+            return response.setContent(format("{\"tables\": [%s]}", listedTables));
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        Long creationTime = tables.get(name);
+        if (creationTime == null) {
+            return response.setStatusCode(404).setContent(format("{\"error\": {\"code\": 404, \"message\": \"Not found: Table %s\"}}", name));
+        }
+        String schema = ", \"schema\": {\"fields\": [{\"name\": \"orderkey\", \"type\": \"INTEGER\"}, {\"name\": \"comment\", \"type\": \"STRING\"}]}";
+        return response.setContent(tableJson(name, creationTime, schema));
+    }
+
+    private static String tableJson(String name, long creationTime, String properties)
+    {
+        return format("{\"tableReference\": {\"projectId\": \"%s\", \"datasetId\": \"%s\", \"tableId\": \"%s\"}, \"type\": \"TABLE\", \"creationTime\": \"%s\"%s}",
+                PROJECT, DATASET.getDataset(), name, creationTime, properties);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.main.connector.bigquery;
+
+import com.google.cloud.bigquery.Field;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.Schema;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+import com.google.cloud.bigquery.TableResult;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.cloud.bigquery.FieldValue.Attribute.PRIMITIVE;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestPrefetchingPageIterator
+{
+    private static final Schema SCHEMA = Schema.of(Field.of("id", StandardSQLTypeName.INT64));
+    private static final int PAGES = 6;
+    private static final int PAGE_SIZE = 100;
+    private static final Duration PAGE_LATENCY = new Duration(100, MILLISECONDS);
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-prefetch-%s"));
+
+    @AfterClass(alwaysRun = true)
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadAllPages()
+    {
+        for (int prefetchPages : new int[] {0, 1, 2, PAGES * 2}) {
+            AtomicInteger fetchedPages = new AtomicInteger();
+            List<Long> ids = new ArrayList<>();
+            try (PrefetchingPageIterator iterator = new PrefetchingPageIterator(tableResult(fetchedPages, new Duration(0, MILLISECONDS)), executor, prefetchPages)) {
+                iterator.forEachRemaining(row -> ids.add(row.get(0).getLongValue()));
+            }
+            assertThat(ids).hasSize(PAGES * PAGE_SIZE);
+            assertThat(ids).isSorted();
+            assertThat(fetchedPages.get()).isEqualTo(PAGES - 1);
+        }
+    }
+
+    @Test
+    public void testOverlapFetchAndConsume()
+    {
+        // the consumer spends as long on a page as it takes to fetch one
+        long sequential = readPages(0);
+        long prefetched = readPages(2);
+        // fetching on read takes about (2 * PAGES - 1) * latency, prefetching about (PAGES + 1) * latency
+        assertThat(sequential).isGreaterThanOrEqualTo(PAGE_LATENCY.toMillis() * (2 * PAGES - 1));
+        assertThat(prefetched).isLessThan(sequential - PAGE_LATENCY.toMillis() * 2);
+    }
+
+    @Test
+    public void testPrefetchBoundedBySlowConsumer()
+            throws Exception
+    {
+        AtomicInteger fetchedPages = new AtomicInteger();
+        try (PrefetchingPageIterator iterator = new PrefetchingPageIterator(tableResult(fetchedPages, new Duration(10, MILLISECONDS)), executor, 2)) {
+            iterator.next();
+            // the consumer stays on the first page
+            Thread.sleep(PAGE_LATENCY.toMillis() * 3);
+            assertThat(fetchedPages.get()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testStopPrefetchOnClose()
+            throws Exception
+    {
+        AtomicInteger fetchedPages = new AtomicInteger();
+        PrefetchingPageIterator iterator = new PrefetchingPageIterator(tableResult(fetchedPages, PAGE_LATENCY), executor, PAGES);
+        iterator.next();
+        iterator.close();
+        assertThat(iterator.hasNext()).isFalse();
+        int fetchedOnClose = fetchedPages.get();
+        Thread.sleep(PAGE_LATENCY.toMillis() * 3);
+        // no more pages are fetched once the iterator is closed
+        assertThat(fetchedPages.get()).isEqualTo(fetchedOnClose);
+        assertThat(fetchedOnClose).isLessThan(PAGES - 1);
+    }
+
+    private long readPages(int prefetchPages)
+    {
+        long start = nanoTime();
+        int rows = 0;
+        try (PrefetchingPageIterator iterator = new PrefetchingPageIterator(tableResult(new AtomicInteger(), PAGE_LATENCY), executor, prefetchPages)) {
+            while (iterator.hasNext()) {
+                iterator.next();
+                if (++rows % PAGE_SIZE == 0) {
+                    sleep(PAGE_LATENCY);
+                }
+            }
+        }
+        assertThat(rows).isEqualTo(PAGES * PAGE_SIZE);
+        return (nanoTime() - start) / 1_000_000;
+    }
+
+    private static TableResult tableResult(AtomicInteger fetchedPages, Duration pageLatency)
+    {
+        List<List<FieldValueList>> pages = new ArrayList<>();
+        for (int page = 0; page < PAGES; page++) {
+            List<FieldValueList> rows = new ArrayList<>();
+            for (int row = 0; row < PAGE_SIZE; row++) {
+                rows.add(FieldValueList.of(List.of(FieldValue.of(PRIMITIVE, String.valueOf(page * PAGE_SIZE + row))), SCHEMA.getFields()));
+            }
+            pages.add(rows);
+        }
+        return TestingTableResult.tableResult(SCHEMA, pages, pageLatency, fetchedPages);
+    }
+
+    private static void sleep(Duration duration)
+    {
+        try {
+            Thread.sleep(duration.toMillis());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.main.connector.bigquery;
+
+import com.google.api.gax.paging.Page;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.Schema;
+import com.google.cloud.bigquery.TableResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import io.airlift.units.Duration;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A {@link TableResult} built from rows in memory, split into pages like a result read from BigQuery. Fetching the
+ * next page can be given a latency, and is counted.
+ */
+public final class TestingTableResult
+{
+    private TestingTableResult() {}
+
+    public static TableResult tableResult(Schema schema, List<List<FieldValueList>> pages)
+    {
+        return tableResult(schema, pages, new Duration(0, MILLISECONDS), new AtomicInteger());
+    }
+
+    public static TableResult tableResult(Schema schema, List<List<FieldValueList>> pages, Duration pageLatency, AtomicInteger fetchedPages)
+    {
+        requireNonNull(schema, "schema is null");
+        long totalRows = pages.stream().mapToLong(List::size).sum();
+        return new TableResult(schema, totalRows, new TestingPage(ImmutableList.copyOf(pages), 0, pageLatency, fetchedPages));
+    }
+
+    private static class TestingPage
+            implements Page<FieldValueList>
+    {
+        private final List<List<FieldValueList>> pages;
+        private final int index;
+        private final Duration pageLatency;
+        private final AtomicInteger fetchedPages;
+
+        private TestingPage(List<List<FieldValueList>> pages, int index, Duration pageLatency, AtomicInteger fetchedPages)
+        {
+            this.pages = pages;
+            this.index = index;
+            this.pageLatency = requireNonNull(pageLatency, "pageLatency is null");
+            this.fetchedPages = requireNonNull(fetchedPages, "fetchedPages is null");
+        }
+
+        @Override
+        public boolean hasNextPage()
+        {
+            return index + 1 < pages.size();
+        }
+
+        @Override
+        public String getNextPageToken()
+        {
+            return hasNextPage() ? String.valueOf(index + 1) : null;
+        }
+
+        @Override
+        public Page<FieldValueList> getNextPage()
+        {
+            if (!hasNextPage()) {
+                return null;
+            }
+            fetchedPages.incrementAndGet();
+            try {
+                Thread.sleep(pageLatency.toMillis());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            return new TestingPage(pages, index + 1, pageLatency, fetchedPages);
+        }
+
+        @Override
+        public Iterable<FieldValueList> iterateAll()
+        {
+            return Iterables.concat(pages.subList(index, pages.size()));
+        }
+
+        @Override
+        public Iterable<FieldValueList> getValues()
+        {
+            return pages.isEmpty() ? List.of() : pages.get(index);
+        }
+    }
+}
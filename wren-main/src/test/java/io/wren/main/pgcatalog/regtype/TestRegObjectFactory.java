@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.main.pgcatalog.regtype;
+
+import com.google.common.collect.ImmutableList;
+import io.wren.base.WrenException;
+import io.wren.main.sql.PgOidTypeTableInfo;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.wren.main.pgcatalog.OidHash.functionOid;
+import static io.wren.main.pgcatalog.OidHash.oid;
+import static io.wren.main.sql.PgOidTypeTableInfo.REGCLASS;
+import static io.wren.main.sql.PgOidTypeTableInfo.REGPROC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestRegObjectFactory
+{
+    @Test
+    public void testLookupsListOnce()
+    {
+        CountingPgMetadata pgMetadata = new CountingPgMetadata();
+        RegObjectFactory regObjectFactory = new RegObjectFactory(pgMetadata);
+        assertThat(pgMetadata.listCount(REGCLASS)).isEqualTo(0);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(regObjectFactory.of("regclass", "t1").getOid()).isEqualTo(oid("t1"));
+            assertThat(regObjectFactory.of("regclass", oid("t2")).getName()).isEqualTo("t2");
+            assertThat(regObjectFactory.of("regclass", oid("t1"), "t1")).isPresent();
+            assertThat(regObjectFactory.of("regclass", oid("t1"), "t2")).isEmpty();
+            assertThat(regObjectFactory.of("regproc", "array_in").getOid()).isEqualTo(functionOid("array_in"));
+            assertThat(regObjectFactory.of("regproc", functionOid("equals")).getName()).isEqualTo("equals");
+        }
+        assertThat(pgMetadata.listCount(REGCLASS)).isEqualTo(1);
+        assertThat(pgMetadata.listCount(REGPROC)).isEqualTo(1);
+
+        assertThatThrownBy(() -> regObjectFactory.of("regclass", "t3"))
+                .isInstanceOf(WrenException.class)
+                .hasMessage("t3 does not exist");
+        assertThatThrownBy(() -> regObjectFactory.of("regproc", 1))
+                .isInstanceOf(WrenException.class)
+                .hasMessage("RegObject oid 1 does not exist");
+        assertThat(pgMetadata.listCount(REGCLASS)).isEqualTo(1);
+        assertThat(pgMetadata.listCount(REGPROC)).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidateAll()
+    {
+        CountingPgMetadata pgMetadata = new CountingPgMetadata();
+        RegObjectFactory regObjectFactory = new RegObjectFactory(pgMetadata);
+        assertThatThrownBy(() -> regObjectFactory.of("regclass", "t3"))
+                .isInstanceOf(WrenException.class);
+        assertThat(pgMetadata.listCount(REGCLASS)).isEqualTo(1);
+
+        pgMetadata.addRegClass("t3");
+        // the index still serves the objects listed before the catalog changed
+        assertThatThrownBy(() -> regObjectFactory.of("regclass", "t3"))
+                .isInstanceOf(WrenException.class);
+        assertThat(pgMetadata.listCount(REGCLASS)).isEqualTo(1);
+
+        regObjectFactory.invalidateAll();
+        assertThat(regObjectFactory.of("regclass", "t3").getOid()).isEqualTo(oid("t3"));
+        assertThat(regObjectFactory.of("regclass", oid("t3")).getName()).isEqualTo("t3");
+        assertThat(pgMetadata.listCount(REGCLASS)).isEqualTo(2);
+        assertThat(pgMetadata.listCount(REGPROC)).isEqualTo(0);
+    }
+
+    private static class CountingPgMetadata
+            extends TestingPgMetadata
+    {
+        private final Map<PgOidTypeTableInfo, Integer> listCounts = new EnumMap<>(PgOidTypeTableInfo.class);
+        private final List<RegObject> extraRegClasses = new ArrayList<>();
+
+        @Override
+        public List<RegObject> list(PgOidTypeTableInfo pgOidTypeTableInfo)
+        {
+            listCounts.merge(pgOidTypeTableInfo, 1, Integer::sum);
+            return super.list(pgOidTypeTableInfo);
+        }
+
+        @Override
+        protected List<RegObject> listRegClass()
+        {
+            return ImmutableList.<RegObject>builder()
+                    .addAll(super.listRegClass())
+                    .addAll(extraRegClasses)
+                    .build();
+        }
+
+        private void addRegClass(String name)
+        {
+            extraRegClasses.add(new RegObjectImpl(oid(name), name));
+        }
+
+        private int listCount(PgOidTypeTableInfo pgOidTypeTableInfo)
+        {
+            return listCounts.getOrDefault(pgOidTypeTableInfo, 0);
+        }
+    }
+}
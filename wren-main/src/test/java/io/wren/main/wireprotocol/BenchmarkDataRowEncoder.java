@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.main.wireprotocol;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.wren.base.type.PGType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static io.wren.base.type.BigIntType.BIGINT;
+import static io.wren.base.type.DateType.DATE;
+import static io.wren.base.type.DoubleType.DOUBLE;
+import static io.wren.base.type.IntegerType.INTEGER;
+import static io.wren.base.type.VarcharType.VARCHAR;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares sending a result set with one buffer and one write per DataRow, as it used to be done,
+ * against {@link DataRowEncoder}. Run main() to see rows/sec and, from the gc profiler, the allocation rate.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkDataRowEncoder
+{
+    private static final int ROWS = 10_000;
+    @SuppressWarnings("rawtypes")
+    private static final List<PGType> SCHEMA = ImmutableList.of(INTEGER, BIGINT, DOUBLE, DATE, VARCHAR);
+
+    @Param({"PER_ROW", "BATCHED"})
+    private String encoding = "BATCHED";
+
+    private Object[][] rows;
+    private Channel channel;
+
+    @Setup
+    public void setup()
+    {
+        rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[] {i, i * 1_000_003L, i / 7.0, LocalDate.of(2000, 1, 1).plusDays(i), "comment for row " + i};
+        }
+        channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter()
+        {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+            {
+                ReferenceCountUtil.release(msg);
+                promise.setSuccess();
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        channel.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void sendRows()
+    {
+        sendRows(channel, encoding, rows);
+    }
+
+    private static void sendRows(Channel channel, String encoding, Object[][] rows)
+    {
+        switch (encoding) {
+            case "PER_ROW":
+                for (int i = 0; i < rows.length; i++) {
+                    sendDataRowPerRow(channel, rows[i]);
+                    if ((i + 1) % 1000 == 0) {
+                        channel.flush();
+                    }
+                }
+                channel.flush();
+                break;
+            case "BATCHED":
+                DataRowEncoder encoder = new DataRowEncoder(channel, SCHEMA, null, DataRowEncoder.DEFAULT_FLUSH_THRESHOLD);
+                for (Object[] row : rows) {
+                    encoder.writeRow(row);
+                }
+                encoder.finish();
+                channel.flush();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+    }
+
+    /**
+     * The DataRow encoding used before DataRowEncoder: a new buffer per row and an intermediate byte array per value.
+     */
+    @SuppressWarnings("unchecked")
+    private static void sendDataRowPerRow(Channel channel, Object[] row)
+    {
+        int length = 4 + 2;
+        ByteBuf buffer = channel.alloc().buffer();
+        buffer.writeByte('D');
+        buffer.writeInt(0);
+        buffer.writeShort(row.length);
+        for (int i = 0; i < row.length; i++) {
+            byte[] bytes = SCHEMA.get(i).encodeAsUTF8Text(row[i]);
+            buffer.writeInt(bytes.length);
+            buffer.writeBytes(bytes);
+            length += 4 + bytes.length;
+        }
+        buffer.setInt(1, length);
+        channel.write(buffer);
+    }
+
+    @Test
+    public void testSameOutput()
+    {
+        BenchmarkDataRowEncoder benchmark = new BenchmarkDataRowEncoder();
+        benchmark.setup();
+        assertThat(encode(benchmark.rows, "BATCHED")).isEqualTo(encode(benchmark.rows, "PER_ROW"));
+    }
+
+    private static byte[] encode(Object[][] rows, String encoding)
+    {
+        ByteBuf output = Unpooled.buffer();
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter()
+        {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+            {
+                output.writeBytes((ByteBuf) msg);
+                ReferenceCountUtil.release(msg);
+                promise.setSuccess();
+            }
+        });
+        sendRows(channel, encoding, rows);
+        channel.close();
+        byte[] bytes = new byte[output.readableBytes()];
+        output.readBytes(bytes);
+        output.release();
+        return bytes;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(".*" + BenchmarkDataRowEncoder.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -31,6 +31,11 @@ import io.wren.server.module.MainModule;
 import io.wren.server.module.PostgresConnectorModule;
 import io.wren.server.module.PostgresWireProtocolModule;
 import io.wren.server.module.WebModule;
+import org.weakref.jmx.guice.MBeanModule;
+
+import javax.management.MBeanServer;
+
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
 
 public class WrenServer
         extends Server
@@ -49,6 +54,8 @@ public class WrenServer
                 new JsonModule(),
                 new JaxrsModule(),
                 new EventModule(),
+                new MBeanModule(),
+                binder -> binder.bind(MBeanServer.class).toInstance(getPlatformMBeanServer()),
                 new MainModule(),
                 new PostgresWireProtocolModule(new EmptyTlsDataProvider()),
                 new BigQueryConnectorModule(),
@@ -638,6 +638,20 @@ public class TestingWireProtocolClient
         assertThat(commandTag).isEqualTo(expectedTagWithEnd);
     }
 
+    /**
+     * Reads and discards the given number of DataRow messages.
+     */
+    public void skipDataRows(long count)
+            throws IOException
+    {
+        for (long i = 0; i < count; i++) {
+            byte[] header = in.readNBytes(5);
+            assertThat(header[0]).isEqualTo((byte) 'D');
+            int length = ByteBuffer.wrap(header).getInt(1);
+            in.readNBytes(length - 4);
+        }
+    }
+
     /**
      * PortalSuspended (B)
      * Byte1('s')
@@ -1069,6 +1083,28 @@ public class TestingWireProtocolClient
             throws IOException
     {
         assertThat(readBytes(1)).isEqualTo(new byte[] {'E'});
+        return readErrorResponseBody();
+    }
+
+    /**
+     * Reads and discards the DataRow messages sent before the ErrorResponse that ends them.
+     */
+    public ErrorResponse skipDataRowsUntilErrorResponse()
+            throws IOException
+    {
+        int type = in.read();
+        while (type == 'D') {
+            int length = ByteBuffer.wrap(in.readNBytes(4)).getInt();
+            in.readNBytes(length - 4);
+            type = in.read();
+        }
+        assertThat(type).isEqualTo('E');
+        return readErrorResponseBody();
+    }
+
+    private ErrorResponse readErrorResponseBody()
+            throws IOException
+    {
         int length = ByteBuffer.wrap(readBytes(4)).getInt();
         ErrorResponse errorResponse = new ErrorResponse();
         ByteBuffer buffer = ByteBuffer.wrap(readBytes(length - 4));
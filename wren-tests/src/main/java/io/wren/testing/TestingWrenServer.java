@@ -40,6 +40,9 @@ import io.wren.server.module.MainModule;
 import io.wren.server.module.PostgresConnectorModule;
 import io.wren.server.module.PostgresWireProtocolModule;
 import io.wren.server.module.WebModule;
+import org.weakref.jmx.guice.MBeanModule;
+
+import javax.management.MBeanServer;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -52,6 +55,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_PORT;
+import static javax.management.MBeanServerFactory.newMBeanServer;
 
 public class TestingWrenServer
         implements Closeable
@@ -82,6 +86,9 @@ public class TestingWrenServer
                 new JsonModule(),
                 new JaxrsModule(),
                 new EventModule(),
+                new MBeanModule(),
+                // not the platform MBean server, so that servers in the same JVM don't export the same names
+                binder -> binder.bind(MBeanServer.class).toInstance(newMBeanServer()),
                 new MainModule(),
                 new PostgresWireProtocolModule(new EmptyTlsDataProvider()),
                 new BigQueryConnectorModule(),
@@ -36,6 +36,7 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -376,6 +377,18 @@ public abstract class AbstractWireProtocolTypeTest
                 valuesList -> "array" + valuesList.stream().map(elementType::toLiteral).collect(toList()));
     }
 
+    /**
+     * pgjdbc asks for binary results of the types it can decode only for server prepared statements.
+     * A negative prepare threshold makes it prepare the statement, and so use binary transfer, on the first execution.
+     */
+    private Properties getBinaryTransferProperties()
+    {
+        Properties props = getDefaultProperties();
+        props.setProperty("binaryTransfer", "true");
+        props.setProperty("prepareThreshold", "-1");
+        return props;
+    }
+
     protected WireProtocolTypeTest createTypeTest()
     {
         return new WireProtocolTypeTest();
@@ -402,26 +415,34 @@ public abstract class AbstractWireProtocolTypeTest
         public void executeSuite()
         {
             try {
-                execute(1);
+                execute(1, false);
                 // just want to test multirows, it is ok that the data are the same
-                execute(10);
+                execute(10, false);
+                execute(1, true);
+                execute(10, true);
             }
             catch (SQLException e) {
                 throw new RuntimeException(e);
             }
         }
 
-        private void execute(int rowCopies)
+        private void execute(int rowCopies, boolean binaryTransfer)
                 throws SQLException
         {
             List<Object> expectedResults = inputs.stream().map(WireProtocolTypeTest.Input::toJdbcQueryResult).collect(toList());
             List<String> expectedTypeName = inputs.stream().map(Input::getInsertType).collect(toList());
 
-            try (Connection conn = createConnection()) {
-                Statement stmt = conn.createStatement();
+            try (Connection conn = binaryTransfer ? createConnection(getBinaryTransferProperties()) : createConnection()) {
                 String sql = prepareQueryForDataType(rowCopies);
-                stmt.execute(sql);
-                ResultSet result = stmt.getResultSet();
+                ResultSet result;
+                if (binaryTransfer) {
+                    result = conn.prepareStatement(sql).executeQuery();
+                }
+                else {
+                    Statement stmt = conn.createStatement();
+                    stmt.execute(sql);
+                    result = stmt.getResultSet();
+                }
                 long count = 0;
                 while (result.next()) {
                     for (int i = 0; i < expectedResults.size(); i++) {
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing.bigquery;
+
+import com.google.inject.Key;
+import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.WrenMDL;
+import io.wren.base.dto.CacheInfo;
+import io.wren.cache.CacheInfoPair;
+import io.wren.cache.TaskInfo;
+import io.wren.main.WrenMetastore;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static io.wren.base.CatalogSchemaTableName.catalogSchemaTableName;
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(singleThreaded = true)
+public class TestIncrementalRefreshCache
+        extends AbstractCacheTest
+{
+    @Override
+    protected Optional<String> getWrenMDLPath()
+    {
+        return Optional.of(requireNonNull(getClass().getClassLoader().getResource("cache/cache_incremental_mdl.json")).getPath());
+    }
+
+    @Test
+    public void testIncrementalRefresh()
+    {
+        WrenMDL mdl = getInstance(Key.get(WrenMetastore.class)).getAnalyzedMDL().getWrenMDL();
+        CatalogSchemaTableName ordersName = catalogSchemaTableName(mdl.getCatalog(), mdl.getSchema(), "Orders");
+        cacheManager.get().untilTaskDone(ordersName);
+
+        CacheInfoPair original = getDefaultCacheInfoPair("Orders").orElseThrow(AssertionError::new);
+        assertThat(original.getWatermark().map(Object::toString)).contains("1998-08-02");
+        TaskInfo originalTaskInfo = cacheManager.get().getTaskInfo(ordersName).join().orElseThrow(AssertionError::new);
+        assertThat(originalTaskInfo.getCachedTable().getWatermark()).contains("1998-08-02");
+
+        CacheInfo orders = mdl.getCacheInfo(ordersName).orElseThrow(AssertionError::new);
+        cacheManager.get().createTask(getInstance(Key.get(WrenMetastore.class)).getAnalyzedMDL(), orders).join();
+        cacheManager.get().untilTaskDone(ordersName);
+
+        // the rows in the lookback window are fetched again and replace the cached ones in the same table
+        CacheInfoPair refreshed = getDefaultCacheInfoPair("Orders").orElseThrow(AssertionError::new);
+        assertThat(refreshed.getErrorMessage()).isEmpty();
+        assertThat(refreshed.getRequiredTableName()).isEqualTo(original.getRequiredTableName());
+        assertThat(refreshed.getWatermark().map(Object::toString)).contains("1998-08-02");
+        assertThat(queryDuckdb(String.format("select count(*) from \"%s\"", refreshed.getRequiredTableName())).get(0)[0]).isEqualTo(15000L);
+        TaskInfo refreshedTaskInfo = cacheManager.get().getTaskInfo(ordersName).join().orElseThrow(AssertionError::new);
+        assertThat(refreshedTaskInfo.getEndTime()).isAfter(originalTaskInfo.getEndTime());
+    }
+}
@@ -17,6 +17,7 @@ package io.wren.testing.bigquery;
 import com.google.inject.Key;
 import io.wren.base.AnalyzedMDL;
 import io.wren.base.CatalogSchemaTableName;
+import io.wren.base.ConnectorRecordIterator;
 import io.wren.base.WrenMDL;
 import io.wren.base.dto.CacheInfo;
 import io.wren.cache.CacheInfoPair;
@@ -29,7 +30,9 @@ import java.util.Optional;
 import java.util.function.Supplier;
 
 import static io.wren.base.CatalogSchemaTableName.catalogSchemaTableName;
+import static io.wren.cache.TaskInfo.TaskStatus.DONE;
 import static io.wren.cache.TaskInfo.TaskStatus.QUEUED;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -138,4 +141,53 @@ public class TestRefreshCache
                 .findAny().orElseThrow(AssertionError::new);
         assertThat(originalCustomer.getEndTime()).isEqualTo(endCustomer.getEndTime());
     }
+
+    @Test
+    public void testQueriesHitCacheDuringRefresh()
+            throws Exception
+    {
+        WrenMDL mdl = wrenMDL.get();
+        CatalogSchemaTableName ordersName = catalogSchemaTableName(mdl.getCatalog(), mdl.getSchema(), "Orders");
+        CacheInfo orders = mdl.getCacheInfo(ordersName)
+                .orElseThrow(() -> new RuntimeException("Orders not found"));
+        cacheManager.get().untilTaskDone(ordersName);
+        String original = getDefaultCacheInfoPair("Orders").orElseThrow(AssertionError::new).getRequiredTableName();
+
+        try (ConnectorRecordIterator reading = queryCache(original).orElseThrow(AssertionError::new)) {
+            cacheManager.get().createTask(new AnalyzedMDL(mdl, null), orders).join();
+            int queries = 0;
+            while (cacheManager.get().getTaskInfo(ordersName).join().map(TaskInfo::getTaskStatus).orElseThrow(AssertionError::new) != DONE) {
+                Optional<String> tableName = cachedTableMapping.get().convertToCachedTable(ordersName);
+                assertThat(tableName).isPresent();
+                Optional<ConnectorRecordIterator> iterator = queryCache(tableName.get());
+                // the table could be swapped between looking it up and leasing it, the current one should be leased then
+                if (iterator.isEmpty()) {
+                    iterator = queryCache(cachedTableMapping.get().convertToCachedTable(ordersName).orElseThrow(AssertionError::new));
+                }
+                try (ConnectorRecordIterator result = iterator.orElseThrow(AssertionError::new)) {
+                    assertThat(result.next()[0]).isEqualTo(15000L);
+                }
+                queries++;
+            }
+            assertThat(queries).isGreaterThan(0);
+
+            String refreshed = getDefaultCacheInfoPair("Orders").orElseThrow(AssertionError::new).getRequiredTableName();
+            assertThat(refreshed).isNotEqualTo(original);
+            // the replaced table is kept until the query reading it is done
+            assertThat(queryCache(original)).isEmpty();
+            assertThat(reading.next()[0]).isEqualTo(15000L);
+            assertThat(tableExists(original)).isTrue();
+        }
+        assertThat(tableExists(original)).isFalse();
+    }
+
+    private Optional<ConnectorRecordIterator> queryCache(String tableName)
+    {
+        return cacheManager.get().query(format("select count(*) from \"%s\"", tableName), List.of(tableName), List.of());
+    }
+
+    private boolean tableExists(String tableName)
+    {
+        return !queryDuckdb(format("select 1 from information_schema.tables where table_name = '%s'", tableName)).isEmpty();
+    }
 }
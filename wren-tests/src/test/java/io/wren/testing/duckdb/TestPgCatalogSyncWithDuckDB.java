@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.testing.duckdb;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.wren.base.WrenException;
+import io.wren.base.dto.Manifest;
+import io.wren.main.pgcatalog.regtype.RegObjectFactory;
+import io.wren.main.web.dto.DeployInputDto;
+import io.wren.testing.RequireWrenServer;
+import io.wren.testing.TestingWrenServer;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.wren.base.config.WrenConfig.DataSourceType.DUCKDB;
+import static io.wren.base.config.WrenConfig.WREN_DATASOURCE_TYPE;
+import static io.wren.base.dto.Column.column;
+import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static io.wren.base.dto.Model.model;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestPgCatalogSyncWithDuckDB
+        extends RequireWrenServer
+{
+    @Override
+    protected TestingWrenServer createWrenServer()
+            throws Exception
+    {
+        Path dir = Files.createTempDirectory("wrenmdls");
+        Files.write(dir.resolve("mdl.json"), MANIFEST_JSON_CODEC.toJsonBytes(manifest("sync", List.of("Orders"))));
+        return TestingWrenServer.builder()
+                .setRequiredConfigs(ImmutableMap.of(
+                        WREN_DATASOURCE_TYPE, DUCKDB.name(),
+                        "wren.directory", dir.toString()))
+                .build();
+    }
+
+    @Test
+    public void testRegObjectsInvalidatedOnSync()
+            throws Exception
+    {
+        waitUntilReady();
+        RegObjectFactory regObjectFactory = getInstance(Key.get(RegObjectFactory.class));
+        // the reg classes are indexed by the first lookup
+        assertThat(regObjectFactory.of("regclass", "Orders").getName()).isEqualTo("Orders");
+        assertRegClassNotFound(regObjectFactory, "Customer");
+
+        // a redeployment in the same schema syncs the changed pg tables only
+        deployMDL(new DeployInputDto(manifest("sync", List.of("Orders", "Customer")), "v2"));
+        waitUntilReady();
+        assertThat(regObjectFactory.of("regclass", "Customer").getName()).isEqualTo("Customer");
+
+        // the archived mdl files are named by the second they are deployed in
+        Thread.sleep(1000);
+        // a deployment in another schema initializes the pg catalog again
+        deployMDL(new DeployInputDto(manifest("sync_v3", List.of("Lineitem")), "v3"));
+        waitUntilReady();
+        assertThat(regObjectFactory.of("regclass", "Lineitem").getName()).isEqualTo("Lineitem");
+        assertRegClassNotFound(regObjectFactory, "Customer");
+    }
+
+    private static void assertRegClassNotFound(RegObjectFactory regObjectFactory, String name)
+    {
+        assertThatThrownBy(() -> regObjectFactory.of("regclass", name))
+                .isInstanceOf(WrenException.class)
+                .hasMessage(name + " does not exist");
+    }
+
+    private static Manifest manifest(String schema, List<String> models)
+    {
+        return Manifest.builder()
+                .setCatalog("wren")
+                .setSchema(schema)
+                .setModels(models.stream()
+                        .map(name -> model(name, "SELECT * FROM main.orders", List.of(column("orderkey", "integer", null, false, "o_orderkey"))))
+                        .collect(toImmutableList()))
+                .build();
+    }
+}
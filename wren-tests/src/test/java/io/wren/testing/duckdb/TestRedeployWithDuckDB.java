@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.testing.duckdb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.wren.base.ConnectorRecordIterator;
+import io.wren.base.dto.Column;
+import io.wren.base.dto.Manifest;
+import io.wren.base.dto.Model;
+import io.wren.base.wireprotocol.PgMetastore;
+import io.wren.cache.CacheInfoPair;
+import io.wren.cache.CacheManager;
+import io.wren.cache.CachedTableMapping;
+import io.wren.main.web.dto.DeployInputDto;
+import io.wren.testing.RequireWrenServer;
+import io.wren.testing.TestingWrenServer;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.wren.base.CatalogSchemaTableName.catalogSchemaTableName;
+import static io.wren.base.config.WrenConfig.DataSourceType.DUCKDB;
+import static io.wren.base.config.WrenConfig.WREN_DATASOURCE_TYPE;
+import static io.wren.base.dto.Column.column;
+import static io.wren.base.dto.Manifest.MANIFEST_JSON_CODEC;
+import static io.wren.base.dto.Model.model;
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestRedeployWithDuckDB
+        extends RequireWrenServer
+{
+    private static final String CATALOG = "wren";
+    private static final String SCHEMA = "redeploy";
+    private static final int MODELS = 500;
+    private static final String CHANGED_MODEL = "Model42";
+
+    @Override
+    protected TestingWrenServer createWrenServer()
+            throws Exception
+    {
+        Path dir = Files.createTempDirectory("wrenmdls");
+        Files.write(dir.resolve("mdl.json"), MANIFEST_JSON_CODEC.toJsonBytes(manifest(false)));
+        return TestingWrenServer.builder()
+                .setRequiredConfigs(ImmutableMap.of(
+                        WREN_DATASOURCE_TYPE, DUCKDB.name(),
+                        "wren.directory", dir.toString()))
+                .build();
+    }
+
+    @Test
+    public void testRedeployOneColumnChange()
+            throws Exception
+    {
+        waitUntilReady();
+        waitCacheTasksDone();
+        Map<String, String> cachedTables = listCachedTables();
+        Map<String, Long> pgTables = listPgTables();
+        assertThat(cachedTables).hasSize(MODELS);
+        assertThat(pgTables).hasSize(MODELS);
+
+        deployMDL(new DeployInputDto(manifest(true), "v2"));
+        waitUntilReady();
+        waitCacheTasksDone();
+
+        Map<String, String> redeployedCachedTables = listCachedTables();
+        Map<String, Long> redeployedPgTables = listPgTables();
+        // a cache is rebuilt into a new table, and a pg table dropped and created again gets a new oid
+        List<String> rebuiltCaches = cachedTables.keySet().stream()
+                .filter(name -> !cachedTables.get(name).equals(redeployedCachedTables.get(name)))
+                .collect(toImmutableList());
+        List<String> recreatedPgTables = pgTables.keySet().stream()
+                .filter(name -> !pgTables.get(name).equals(redeployedPgTables.get(name)))
+                .collect(toImmutableList());
+        assertThat(rebuiltCaches).containsExactly(CHANGED_MODEL);
+        assertThat(recreatedPgTables).containsExactly(CHANGED_MODEL);
+        assertThat(redeployedPgTables).hasSize(MODELS);
+        assertThat(getInstance(Key.get(CacheManager.class)).cacheScheduledFutureExists(catalogSchemaTableName(CATALOG, SCHEMA, "Model0"))).isTrue();
+    }
+
+    private static Manifest manifest(boolean changed)
+    {
+        List<Model> models = IntStream.range(0, MODELS)
+                .mapToObj(i -> format("Model%s", i))
+                .map(name -> model(
+                        name,
+                        "SELECT * FROM main.orders",
+                        columns(changed && name.equals(CHANGED_MODEL)),
+                        true))
+                .collect(toImmutableList());
+        return Manifest.builder()
+                .setCatalog(CATALOG)
+                .setSchema(SCHEMA)
+                .setModels(models)
+                .build();
+    }
+
+    private static List<Column> columns(boolean withCustkey)
+    {
+        ImmutableList.Builder<Column> columns = ImmutableList.<Column>builder()
+                .add(column("orderkey", "integer", null, false, "o_orderkey"));
+        if (withCustkey) {
+            columns.add(column("custkey", "integer", null, false, "o_custkey"));
+        }
+        return columns.build();
+    }
+
+    private void waitCacheTasksDone()
+    {
+        CacheManager cacheManager = getInstance(Key.get(CacheManager.class));
+        IntStream.range(0, MODELS).forEach(i -> cacheManager.untilTaskDone(catalogSchemaTableName(CATALOG, SCHEMA, format("Model%s", i))));
+    }
+
+    private Map<String, String> listCachedTables()
+    {
+        CachedTableMapping cachedTableMapping = getInstance(Key.get(CachedTableMapping.class));
+        return IntStream.range(0, MODELS)
+                .mapToObj(i -> format("Model%s", i))
+                .collect(toImmutableMap(name -> name, name -> {
+                    CacheInfoPair cacheInfoPair = cachedTableMapping.getCacheInfoPair(CATALOG, SCHEMA, name);
+                    assertThat(cacheInfoPair).isNotNull();
+                    return cacheInfoPair.getRequiredTableName();
+                }));
+    }
+
+    private Map<String, Long> listPgTables()
+            throws Exception
+    {
+        PgMetastore pgMetastore = getInstance(Key.get(PgMetastore.class));
+        ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+        try (ConnectorRecordIterator iterator = pgMetastore.directQuery(format("SELECT table_name, table_oid FROM duckdb_tables() WHERE schema_name = '%s'", SCHEMA), List.of())) {
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                builder.put((String) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return builder.build();
+    }
+}
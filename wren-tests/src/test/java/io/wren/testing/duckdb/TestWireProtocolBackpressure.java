@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing.duckdb;
+
+import com.google.common.collect.ImmutableMap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+import io.wren.testing.TestingWireProtocolClient;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestWireProtocolBackpressure
+        extends AbstractWireProtocolTestWithDuckDB
+{
+    // about 3 million rows and 250MB of DataRow messages
+    private static final String LARGE_QUERY = "select l_comment, o_comment from tpch.lineitem cross join (select o_comment from tpch.orders limit 50)";
+    private static final long LARGE_QUERY_ROWS = 60175 * 50;
+
+    @Override
+    protected Map<String, String> properties()
+    {
+        return ImmutableMap.of(
+                PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK, "256kB",
+                PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK, "128kB");
+    }
+
+    @Test
+    public void testSlowReader()
+            throws Exception
+    {
+        try (TestingWireProtocolClient protocolClient = wireProtocolClient()) {
+            protocolClient.sendStartUpMessage(196608, MOCK_PASSWORD, "test", "canner");
+            protocolClient.assertAuthOk();
+            assertDefaultPgConfigResponse(protocolClient);
+            protocolClient.assertReadyForQuery('I');
+
+            long baseline = usedNettyMemory();
+            protocolClient.sendSimpleQuery(LARGE_QUERY);
+            protocolClient.assertAndGetRowDescriptionFields();
+
+            // without backpressure the server buffers the result far faster than this client reads it
+            long maxUsedMemory = 0;
+            long rowsRead = 0;
+            for (int i = 0; i < 20; i++) {
+                Thread.sleep(250);
+                maxUsedMemory = Math.max(maxUsedMemory, usedNettyMemory() - baseline);
+                protocolClient.skipDataRows(1000);
+                rowsRead += 1000;
+            }
+            assertThat(maxUsedMemory).isLessThan(64 * 1024 * 1024);
+
+            protocolClient.skipDataRows(LARGE_QUERY_ROWS - rowsRead);
+            protocolClient.assertCommandComplete("SELECT " + LARGE_QUERY_ROWS);
+            protocolClient.assertReadyForQuery('I');
+        }
+    }
+
+    private static long usedNettyMemory()
+    {
+        PooledByteBufAllocatorMetric metric = PooledByteBufAllocator.DEFAULT.metric();
+        return metric.usedDirectMemory() + metric.usedHeapMemory();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing.duckdb;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+import io.wren.testing.TestingWireProtocolClient;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_NETTY_THREAD_COUNT;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestWireProtocolQueryExecutor
+        extends AbstractWireProtocolTestWithDuckDB
+{
+    private static final String SLOW_QUERY = "select count(*) from tpch.lineitem a, tpch.orders b where a.l_orderkey + b.o_orderkey < 0";
+
+    @Override
+    protected Map<String, String> properties()
+    {
+        // all connections share one event loop
+        return ImmutableMap.of(PG_WIRE_PROTOCOL_NETTY_THREAD_COUNT, "1");
+    }
+
+    @Test
+    public void testSlowQueryNotBlockOtherConnection()
+            throws IOException
+    {
+        try (TestingWireProtocolClient slowClient = wireProtocolClient();
+                TestingWireProtocolClient client = wireProtocolClient()) {
+            startUp(slowClient);
+            startUp(client);
+
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            slowClient.sendSimpleQuery(SLOW_QUERY);
+
+            client.sendSimpleQuery("select 1");
+            client.assertAndGetRowDescriptionFields();
+            client.assertDataRow("1");
+            client.assertCommandComplete("SELECT 1");
+            client.assertReadyForQuery('I');
+            long trivialElapsed = stopwatch.elapsed(MILLISECONDS);
+
+            slowClient.assertAndGetRowDescriptionFields();
+            slowClient.assertDataRow("0");
+            slowClient.assertCommandComplete("SELECT 1");
+            slowClient.assertReadyForQuery('I');
+            long slowElapsed = stopwatch.elapsed(MILLISECONDS);
+
+            // the trivial query shouldn't wait for the slow one on the shared event loop
+            assertThat(trivialElapsed).isLessThan(slowElapsed / 2);
+        }
+    }
+
+    private static void startUp(TestingWireProtocolClient protocolClient)
+            throws IOException
+    {
+        protocolClient.sendStartUpMessage(196608, MOCK_PASSWORD, "test", "canner");
+        protocolClient.assertAuthOk();
+        assertDefaultPgConfigResponse(protocolClient);
+        protocolClient.assertReadyForQuery('I');
+    }
+}
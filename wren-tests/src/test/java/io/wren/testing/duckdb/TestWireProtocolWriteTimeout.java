@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.wren.testing.duckdb;
+
+import com.google.common.collect.ImmutableMap;
+import io.wren.testing.TestingWireProtocolClient;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_QUERY_THREAD_COUNT;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK;
+import static io.wren.base.config.PostgresWireProtocolConfig.PG_WIRE_PROTOCOL_WRITE_TIMEOUT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestWireProtocolWriteTimeout
+        extends AbstractWireProtocolTestWithDuckDB
+{
+    // about 250MB of DataRow messages, far more than the write buffer and the socket buffers hold
+    private static final String LARGE_QUERY = "select l_comment, o_comment from tpch.lineitem cross join (select o_comment from tpch.orders limit 50)";
+    private static final int QUERY_THREADS = 2;
+
+    @Override
+    protected Map<String, String> properties()
+    {
+        return ImmutableMap.of(
+                PG_WIRE_PROTOCOL_QUERY_THREAD_COUNT, String.valueOf(QUERY_THREADS),
+                PG_WIRE_PROTOCOL_WRITE_TIMEOUT, "1s",
+                PG_WIRE_PROTOCOL_WRITE_BUFFER_HIGH_WATER_MARK, "256kB",
+                PG_WIRE_PROTOCOL_WRITE_BUFFER_LOW_WATER_MARK, "128kB");
+    }
+
+    @Test
+    public void testStalledReadersDoNotHoldQueryThreads()
+            throws Exception
+    {
+        List<TestingWireProtocolClient> stalledClients = new ArrayList<>();
+        try {
+            // more clients that stop reading their result than there are query threads
+            for (int i = 0; i < QUERY_THREADS * 2; i++) {
+                TestingWireProtocolClient stalledClient = wireProtocolClient();
+                stalledClients.add(stalledClient);
+                startUp(stalledClient);
+                stalledClient.sendSimpleQuery(LARGE_QUERY);
+            }
+
+            // the stalled results time out and give their query threads back
+            try (TestingWireProtocolClient protocolClient = wireProtocolClient()) {
+                startUp(protocolClient);
+                protocolClient.sendSimpleQuery("select 1");
+                protocolClient.assertAndGetRowDescriptionFields();
+                protocolClient.skipDataRows(1);
+                protocolClient.assertCommandComplete("SELECT 1");
+                protocolClient.assertReadyForQuery('I');
+            }
+
+            // the rows buffered before the timeout are followed by the error of the failed result
+            for (TestingWireProtocolClient stalledClient : stalledClients) {
+                stalledClient.assertAndGetRowDescriptionFields();
+                assertThat(stalledClient.skipDataRowsUntilErrorResponse().getMessage())
+                        .isEqualTo("Client read too little of the result within 1.00s");
+                stalledClient.assertReadyForQuery('I');
+            }
+        }
+        finally {
+            for (TestingWireProtocolClient stalledClient : stalledClients) {
+                stalledClient.close();
+            }
+        }
+    }
+
+    private void startUp(TestingWireProtocolClient protocolClient)
+            throws Exception
+    {
+        protocolClient.sendStartUpMessage(196608, MOCK_PASSWORD, "test", "canner");
+        protocolClient.assertAuthOk();
+        assertDefaultPgConfigResponse(protocolClient);
+        protocolClient.assertReadyForQuery('I');
+    }
+}
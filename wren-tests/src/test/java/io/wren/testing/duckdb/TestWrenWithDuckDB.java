@@ -14,9 +14,14 @@
 
 package io.wren.testing.duckdb;
 
+import com.google.inject.Key;
+import io.wren.main.PlanCache;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -24,6 +29,7 @@ import java.sql.ResultSet;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatNoException;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.weakref.jmx.ObjectNames.generatedNameOf;
 
 public class TestWrenWithDuckDB
         extends AbstractWireProtocolTestWithDuckDB
@@ -51,6 +57,25 @@ public class TestWrenWithDuckDB
         });
     }
 
+    @Test
+    public void testPlanCacheStats()
+            throws Exception
+    {
+        MBeanServer mbeanServer = getInstance(Key.get(MBeanServer.class));
+        ObjectName planCache = new ObjectName(generatedNameOf(PlanCache.class));
+        long hits = (long) mbeanServer.getAttribute(planCache, "Hits.TotalCount");
+        long misses = (long) mbeanServer.getAttribute(planCache, "Misses.TotalCount");
+
+        for (int i = 0; i < 2; i++) {
+            try (Connection connection = createConnection()) {
+                PreparedStatement stmt = connection.prepareStatement("SELECT orderkey FROM Orders WHERE orderkey = 42");
+                stmt.executeQuery().close();
+            }
+        }
+        assertThat((long) mbeanServer.getAttribute(planCache, "Misses.TotalCount")).isGreaterThan(misses);
+        assertThat((long) mbeanServer.getAttribute(planCache, "Hits.TotalCount")).isGreaterThan(hits);
+    }
+
     @Test
     public void testQueryOnlyModelColumn()
             throws Exception
@@ -0,0 +1,236 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.wren.testing.postgres;
+
+import io.wren.base.WrenException;
+import io.wren.base.client.AutoCloseableIterator;
+import io.wren.base.config.PostgresConfig;
+import io.wren.connector.postgres.PostgresClient;
+import io.wren.testing.TestingPostgreSqlServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Test(singleThreaded = true)
+public class TestPostgresClient
+{
+    private static final int QUERIES = 100;
+    private static final int FETCH_SIZE = 1000;
+
+    private TestingPostgreSqlServer testingPostgreSqlServer;
+    private PostgresClient postgresClient;
+
+    @BeforeClass
+    public void init()
+    {
+        testingPostgreSqlServer = new TestingPostgreSqlServer();
+        postgresClient = new PostgresClient(new PostgresConfig()
+                .setJdbcUrl(testingPostgreSqlServer.getJdbcUrl())
+                .setUser(testingPostgreSqlServer.getUser())
+                .setPassword(testingPostgreSqlServer.getPassword())
+                .setPoolMaxSize(2));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void close()
+    {
+        postgresClient.close();
+        testingPostgreSqlServer.close();
+    }
+
+    @Test
+    public void testPooledQueryLatency()
+            throws Exception
+    {
+        // warm up both paths
+        queryWithPool();
+        queryWithNewConnection();
+
+        long start = nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            queryWithNewConnection();
+        }
+        long perQueryWithNewConnection = (nanoTime() - start) / QUERIES;
+
+        start = nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            queryWithPool();
+        }
+        long perQueryWithPool = (nanoTime() - start) / QUERIES;
+
+        assertThat(perQueryWithPool).isLessThan(perQueryWithNewConnection);
+    }
+
+    @Test
+    public void testConnectionsReturnedWhenIteratorsClosed()
+            throws Exception
+    {
+        // there are only 2 connections in the pool, so the queries below could only run if closed iterators give their connections back
+        for (int i = 0; i < 10; i++) {
+            // closed before being fully read
+            try (AutoCloseableIterator<Object[]> iterator = postgresClient.query("SELECT * FROM generate_series(1, 1000)")) {
+                assertThat(iterator.next()).containsExactly(1);
+                assertThat(postgresClient.getActiveConnections()).isEqualTo(1);
+            }
+            assertThat(postgresClient.getActiveConnections()).isEqualTo(0);
+        }
+        queryWithPool();
+        assertThat(postgresClient.getActiveConnections()).isEqualTo(0);
+    }
+
+    @Test
+    public void testConnectionReturnedWhenIteratorAbandoned()
+            throws Exception
+    {
+        try (Connection connection = DriverManager.getConnection(testingPostgreSqlServer.getJdbcUrl(), testingPostgreSqlServer.getProperties());
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE abandoned_rows (i integer)");
+            abandonIterator("WITH inserted AS (INSERT INTO abandoned_rows SELECT * FROM generate_series(1, 1000) RETURNING i) SELECT i FROM inserted ORDER BY i");
+            assertThat(postgresClient.getActiveConnections()).isEqualTo(1);
+
+            // the cleaner returns the connection once the abandoned iterator is collected
+            long deadline = nanoTime() + SECONDS.toNanos(10);
+            while (postgresClient.getActiveConnections() > 0 && nanoTime() < deadline) {
+                System.gc();
+                Thread.sleep(50);
+            }
+            assertThat(postgresClient.getActiveConnections()).isEqualTo(0);
+
+            // the statement of the abandoned iterator is rolled back instead of committed
+            try (ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM abandoned_rows")) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(resultSet.getLong(1)).isEqualTo(0);
+            }
+            statement.execute("DROP TABLE abandoned_rows");
+        }
+        // the connection is back in the pool in autocommit mode
+        queryWithPool();
+    }
+
+    @Test
+    public void testCloseWhenIdle()
+            throws Exception
+    {
+        PostgresClient client = new PostgresClient(new PostgresConfig()
+                .setJdbcUrl(testingPostgreSqlServer.getJdbcUrl())
+                .setUser(testingPostgreSqlServer.getUser())
+                .setPassword(testingPostgreSqlServer.getPassword())
+                .setFetchSize(10));
+        try (AutoCloseableIterator<Object[]> iterator = client.query("SELECT * FROM generate_series(1, 1000)")) {
+            assertThat(iterator.next()).containsExactly(1);
+            client.closeWhenIdle();
+            assertThatThrownBy(() -> client.query("SELECT 1")).isInstanceOf(WrenException.class);
+
+            // the open cursor keeps fetching from the pool until it is done
+            long rows = 1;
+            while (iterator.hasNext()) {
+                iterator.next();
+                rows++;
+            }
+            assertThat(rows).isEqualTo(1000);
+            assertThat(client.isPoolClosed()).isFalse();
+        }
+        // the pool is closed by a background poll once the last connection is returned
+        long deadline = nanoTime() + SECONDS.toNanos(10);
+        while (!client.isPoolClosed() && nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(client.isPoolClosed()).isTrue();
+    }
+
+    @Test
+    public void testStreamLargeResult()
+            throws Exception
+    {
+        PostgresClient client = new PostgresClient(new PostgresConfig()
+                .setJdbcUrl(testingPostgreSqlServer.getJdbcUrl())
+                .setUser(testingPostgreSqlServer.getUser())
+                .setPassword(testingPostgreSqlServer.getPassword())
+                .setFetchSize(FETCH_SIZE));
+        try (Connection connection = DriverManager.getConnection(testingPostgreSqlServer.getJdbcUrl(), testingPostgreSqlServer.getProperties());
+                Statement statement = connection.createStatement()) {
+            // every row generated by the query takes a value of the sequence, which is visible to other sessions right away
+            statement.execute("CREATE SEQUENCE generated_rows");
+            long rows = 0;
+            try (AutoCloseableIterator<Object[]> iterator = client.query("SELECT nextval('generated_rows'), md5(i::text) FROM generate_series(1, 1000000) AS t(i)")) {
+                while (iterator.hasNext()) {
+                    iterator.next();
+                    rows++;
+                    if (rows % FETCH_SIZE == 1) {
+                        // the rows are fetched from the cursor a fetch at a time instead of all at once
+                        assertThat(getGeneratedRows(statement)).isBetween(rows, rows - 1 + FETCH_SIZE);
+                    }
+                }
+            }
+            assertThat(rows).isEqualTo(1_000_000);
+            assertThat(getGeneratedRows(statement)).isEqualTo(1_000_000);
+            statement.execute("DROP SEQUENCE generated_rows");
+
+            // the connection is back in the pool in autocommit mode
+            try (AutoCloseableIterator<Object[]> iterator = client.query("SELECT 1")) {
+                assertThat(iterator.next()).containsExactly(1);
+            }
+        }
+        finally {
+            client.close();
+        }
+    }
+
+    private static long getGeneratedRows(Statement statement)
+            throws SQLException
+    {
+        try (ResultSet resultSet = statement.executeQuery("SELECT last_value FROM generated_rows")) {
+            assertThat(resultSet.next()).isTrue();
+            return resultSet.getLong(1);
+        }
+    }
+
+    // the iterator is only reachable from this frame, so it can be collected once this returns
+    private void abandonIterator(String sql)
+            throws Exception
+    {
+        AutoCloseableIterator<Object[]> abandoned = postgresClient.query(sql);
+        assertThat(abandoned.next()).containsExactly(1);
+    }
+
+    private void queryWithPool()
+            throws Exception
+    {
+        try (AutoCloseableIterator<Object[]> iterator = postgresClient.query("SELECT 1")) {
+            assertThat(iterator.next()).containsExactly(1);
+        }
+    }
+
+    private void queryWithNewConnection()
+            throws SQLException
+    {
+        try (Connection connection = DriverManager.getConnection(testingPostgreSqlServer.getJdbcUrl(), testingPostgreSqlServer.getProperties());
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getInt(1)).isEqualTo(1);
+        }
+    }
+}